@@ -9,14 +9,32 @@ import com.avispl.symphony.api.dal.control.mcu.MultipointControlUnit;
 import com.avispl.symphony.api.dal.dto.monitor.EndpointStatistics;
 import com.avispl.symphony.api.dal.dto.monitor.Statistics;
 import com.avispl.symphony.api.dal.dto.monitor.VideoChannelStats;
+import com.avispl.symphony.api.dal.error.CommandFailureException;
 import com.avispl.symphony.api.dal.monitor.Monitorable;
 import com.avispl.symphony.api.dal.ping.Pingable;
 import com.avispl.symphony.api.dal.snmp.SnmpQueryable;
 import com.avispl.symphony.dal.communicator.HttpCommunicator;
 import com.avispl.symphony.dal.communicator.RestCommunicator;
+import com.avispl.symphony.dal.communicator.sample.util.SharedAsyncHttpClient;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.util.EntityUtils;
 
+import javax.security.auth.login.FailedLoginException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import static com.avispl.symphony.dal.communicator.sample.util.RestRequests.buildRequestUrl;
 import static java.util.Collections.singletonList;
 
 /**
@@ -25,12 +43,19 @@ import static java.util.Collections.singletonList;
  * {@link SnmpQueryable} interfaces used by Symphony to collect appropriate device statistics. <br>
  * To utilize more advanced {@link RestCommunicator} library, see {@link RestCommunicatorDevice} sample. <br>
  * Note that while this sample only implements {@link Monitorable} interface, depending on device capabilities, there are other interfaces which can be
- * implemented: {@link Controller}, {@link CallController}, {@link MultipointControlUnit}.
+ * implemented: {@link Controller}, {@link CallController}, {@link MultipointControlUnit}. <br>
+ * Statistics can also be collected without blocking a thread for the network round trip by code polling many devices,
+ * see {@link #getMultipleStatisticsAsync()}.
  *
  * @author Symphony Dev Team<br> Created on May 8, 2019
  */
 public class HttpCommunicatorDevice extends HttpCommunicator implements Monitorable {
 
+    private final Object asyncHttpClientLock = new Object();
+    private CloseableHttpAsyncClient asyncHttpClient;
+    private ExecutorService blockingRequestExecutor;
+    private boolean asyncRequestsEnabled;
+
     /**
      * {@inheritDoc}
      */
@@ -54,6 +79,11 @@ public class HttpCommunicatorDevice extends HttpCommunicator implements Monitora
         // note that HttpCommunicator library already validates host, port, protocol, authenticationScheme and timeout properties
 
         // note also that exception thrown by this method will prevent object from being initialized and used
+
+        // shared non-blocking http client is only acquired by the first asynchronous request, see doGetAsync
+        synchronized (asyncHttpClientLock) {
+            asyncRequestsEnabled = true;
+        }
     }
 
     /**
@@ -62,6 +92,17 @@ public class HttpCommunicatorDevice extends HttpCommunicator implements Monitora
     @Override
     protected void internalDestroy() {
         // if needed, code to perform any extra clean up can be put here
+        synchronized (asyncHttpClientLock) {
+            asyncRequestsEnabled = false;
+            if (asyncHttpClient != null) {
+                SharedAsyncHttpClient.release(asyncHttpClient);
+                asyncHttpClient = null;
+            }
+            if (blockingRequestExecutor != null) {
+                blockingRequestExecutor.shutdownNow();
+                blockingRequestExecutor = null;
+            }
+        }
 
         super.internalDestroy();
     }
@@ -77,6 +118,166 @@ public class HttpCommunicatorDevice extends HttpCommunicator implements Monitora
     public List<Statistics> getMultipleStatistics() throws Exception {
         // make http call to collect data available for monitoring
         String value = doGet("tobtc?currency=USD&value=1000000");
+        return createStatistics(value);
+    }
+
+    /**
+     * Collects monitoring statistics without blocking the calling thread. <br>
+     * The request is executed by the shared non-blocking http client, and the future completes on one of its I/O threads
+     * once the response is received, so a single poller thread can keep requests to many devices in flight. <br>
+     * The platform does not call this method, it polls through {@link Monitorable#getMultipleStatistics()} only. It is
+     * meant for adapter code polling many devices itself, e.g. an aggregator whose devices are instances of this class,
+     * which submits the requests of all of them and collects the futures. {@link #getMultipleStatistics()} could bridge
+     * to it by waiting for the future, which blocks the platform thread for the round trip all the same. <br>
+     * With Digest authentication or CSRF protection the request still blocks a thread, see {@link #doGetAsync(String, Map)}.
+     *
+     * @return future of the list of monitoring statistics, completed exceptionally if any error occurs
+     */
+    public CompletableFuture<List<Statistics>> getMultipleStatisticsAsync() {
+        // make http call to collect data available for monitoring
+        return doGetAsync("tobtc?currency=USD&value=1000000").thenApply(this::createStatistics);
+    }
+
+    /**
+     * Executes GET request with the shared non-blocking http client, see {@link #doGetAsync(String, Map)}.
+     *
+     * @param uri request uri, relative to base uri
+     * @return future of the response body
+     */
+    protected CompletableFuture<String> doGetAsync(String uri) {
+        return doGetAsync(uri, null);
+    }
+
+    /**
+     * Executes GET request with the shared non-blocking http client, acquired by the first request of the device. <br>
+     * Request timeouts and Basic authentication follow the communicator settings, the content type if set is sent as
+     * the accepted type, and the headers given are added the same way {@link #doGet(String, Map)} adds them. <br>
+     * Digest authentication and CSRF protection need the challenge and token handling of {@link #doGet(String, Map)},
+     * which the shared client does not have. If either is configured, the request is made by {@code doGet} on a thread
+     * of the device instead, so it does not block the caller, but does block a thread for the round trip.
+     *
+     * @param uri request uri, relative to base uri
+     * @param headers extra request headers, may be null
+     * @return future of the response body, completed exceptionally with {@link FailedLoginException} if the device rejects the credentials,
+     * or with {@link CommandFailureException} if it responds with another error
+     */
+    protected CompletableFuture<String> doGetAsync(String uri, Map<String, String> headers) {
+        if (getAuthenticationScheme() == AuthenticationScheme.Digest || isEnableCsrfProtection()) {
+            return doGetBlocking(uri, headers);
+        }
+        CompletableFuture<String> result = new CompletableFuture<>();
+        CloseableHttpAsyncClient client;
+        try {
+            client = obtainAsyncHttpClient();
+        } catch (Exception e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+        String url = buildRequestUrl(this, uri);
+        HttpGet request = new HttpGet(url);
+        request.setConfig(RequestConfig.custom()
+                .setConnectTimeout(getTimeout())
+                .setConnectionRequestTimeout(getTimeout())
+                .setSocketTimeout(getTimeout())
+                .build());
+        if (getAuthenticationScheme() == AuthenticationScheme.Basic && getLogin() != null && !getLogin().isEmpty()) {
+            String credentials = getLogin() + ":" + (getPassword() == null ? "" : getPassword());
+            request.setHeader(HttpHeaders.AUTHORIZATION, "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8)));
+        }
+        if (getContentType() != null && !getContentType().isEmpty()) {
+            request.setHeader(HttpHeaders.ACCEPT, getContentType());
+        }
+        if (headers != null) {
+            headers.forEach(request::setHeader);
+        }
+        client.execute(request, new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(HttpResponse response) {
+                try {
+                    String body = response.getEntity() == null ? "" : EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+                    int statusCode = response.getStatusLine().getStatusCode();
+                    if (statusCode == HttpStatus.SC_UNAUTHORIZED) {
+                        result.completeExceptionally(new FailedLoginException("Failed to login to " + getHost() + " as " + getLogin()));
+                    } else if (statusCode >= 400) {
+                        result.completeExceptionally(new CommandFailureException(getHost(), url, body, statusCode));
+                    } else {
+                        result.complete(body);
+                    }
+                } catch (Exception e) {
+                    result.completeExceptionally(e);
+                }
+            }
+
+            @Override
+            public void failed(Exception e) {
+                result.completeExceptionally(e);
+            }
+
+            @Override
+            public void cancelled() {
+                result.cancel(false);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Executes GET request with {@link #doGet(String, Map)} on a thread of the device.
+     */
+    private CompletableFuture<String> doGetBlocking(String uri, Map<String, String> headers) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        try {
+            obtainBlockingRequestExecutor().execute(() -> {
+                try {
+                    result.complete(headers == null ? doGet(uri) : doGet(uri, headers));
+                } catch (Exception e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (Exception e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * @return threads making blocking requests of the device, created on first use
+     * @throws IllegalStateException if the device is not initialized
+     */
+    private ExecutorService obtainBlockingRequestExecutor() {
+        synchronized (asyncHttpClientLock) {
+            if (!asyncRequestsEnabled) {
+                throw new IllegalStateException("Device is not initialized");
+            }
+            if (blockingRequestExecutor == null) {
+                String threadName = getClass().getSimpleName() + "-" + getHost() + "-requests";
+                blockingRequestExecutor = Executors.newCachedThreadPool(runnable -> {
+                    Thread thread = new Thread(runnable, threadName);
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            return blockingRequestExecutor;
+        }
+    }
+
+    /**
+     * @return shared non-blocking http client, acquired on first use
+     * @throws Exception if the device is not initialized, or the client cannot be created
+     */
+    private CloseableHttpAsyncClient obtainAsyncHttpClient() throws Exception {
+        synchronized (asyncHttpClientLock) {
+            if (!asyncRequestsEnabled) {
+                throw new IllegalStateException("Device is not initialized");
+            }
+            if (asyncHttpClient == null) {
+                asyncHttpClient = SharedAsyncHttpClient.acquire(getTrustAllCertificates());
+            }
+            return asyncHttpClient;
+        }
+    }
+
+    private List<Statistics> createStatistics(String value) {
         float frameRateRx = Float.valueOf(value);
 
         // compose corresponding statistics object
@@ -13,12 +13,23 @@ import com.avispl.symphony.api.dal.monitor.Monitorable;
 import com.avispl.symphony.api.dal.ping.Pingable;
 import com.avispl.symphony.api.dal.snmp.SnmpQueryable;
 import com.avispl.symphony.dal.communicator.RestCommunicator;
+import com.avispl.symphony.dal.communicator.sample.util.CircuitBreaker;
+import com.avispl.symphony.dal.communicator.sample.util.ContentEncodingNegotiator;
+import com.avispl.symphony.dal.communicator.sample.util.RequestHedger;
+import com.avispl.symphony.dal.communicator.sample.util.RestRequests;
+import com.avispl.symphony.dal.communicator.sample.util.ResumingSslClient;
+import com.avispl.symphony.dal.communicator.sample.util.SharedConnectionPool;
+import com.avispl.symphony.dal.communicator.sample.util.SharedResponseCache;
+import com.avispl.symphony.dal.communicator.sample.util.TypedResponseReader;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.RestTemplate;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.Callable;
 
 import static java.lang.StrictMath.abs;
-import static java.util.Collections.singletonList;
 
 
 /**
@@ -32,6 +43,144 @@ import static java.util.Collections.singletonList;
  */
 public class RestCommunicatorDevice extends RestCommunicator implements Monitorable {
 
+    /**
+     * Reader of the utc/now response, built once and shared by all the device instances
+     */
+    private static final TypedResponseReader<UtcNow> UTC_NOW_READER = TypedResponseReader.forType(UtcNow.class);
+
+    private boolean acceptCompressedResponses;
+    private final ContentEncodingNegotiator contentEncodingNegotiator = new ContentEncodingNegotiator();
+    private boolean sharedConnectionPool;
+    private final ResumingSslClient resumingSslClient = new ResumingSslClient();
+    private long responseCacheTtl;
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker(this::getHost, () -> CircuitBreaker.connect(getHost(),
+            getPort() > 0 ? getPort() : "https".equalsIgnoreCase(getProtocol()) ? 443 : 80, getTimeout()));
+    private final RequestHedger requestHedger = new RequestHedger();
+
+    /**
+     * @return true if gzip or deflate compressed responses are requested
+     */
+    public boolean isAcceptCompressedResponses() {
+        return acceptCompressedResponses;
+    }
+
+    /**
+     * Enables negotiation of compressed responses. Status json is usually very repetitive and compresses well,
+     * which matters when the device is polled over a slow link.
+     *
+     * @param acceptCompressedResponses true to request gzip or deflate compressed responses
+     */
+    public void setAcceptCompressedResponses(boolean acceptCompressedResponses) {
+        this.acceptCompressedResponses = acceptCompressedResponses;
+    }
+
+    /**
+     * @return number of response body bytes received over the network, counted while compressed responses are requested
+     */
+    public long getReceivedBytes() {
+        return contentEncodingNegotiator.getReceivedBytes();
+    }
+
+    /**
+     * @return number of response body bytes after decompression, counted while compressed responses are requested
+     */
+    public long getDecodedBytes() {
+        return contentEncodingNegotiator.getDecodedBytes();
+    }
+
+    /**
+     * @return true if requests go through the connection pool shared by the process
+     */
+    public boolean isSharedConnectionPool() {
+        return sharedConnectionPool;
+    }
+
+    /**
+     * Enables the connection pool shared by the process, see {@link SharedConnectionPool}.
+     * Connections to the device are then kept alive between polls instead of being opened by every poll.
+     *
+     * @param sharedConnectionPool true to use the shared connection pool
+     */
+    public void setSharedConnectionPool(boolean sharedConnectionPool) {
+        this.sharedConnectionPool = sharedConnectionPool;
+    }
+
+    /**
+     * @return time in ms GET responses are shared with other devices for, 0 if responses are not shared
+     */
+    public long getResponseCacheTtl() {
+        return responseCacheTtl;
+    }
+
+    /**
+     * Enables sharing of GET responses with other devices making the identical request with the same credentials,
+     * see {@link SharedResponseCache}. Devices polling the same upstream resource then make a single call between them.
+     *
+     * @param responseCacheTtl time in ms GET responses are shared for, 0 to disable sharing
+     */
+    public void setResponseCacheTtl(long responseCacheTtl) {
+        this.responseCacheTtl = responseCacheTtl;
+    }
+
+    /**
+     * @return number of consecutive connectivity failures after which polls fail fast, see {@link CircuitBreaker}
+     */
+    public int getCircuitBreakerThreshold() {
+        return circuitBreaker.getFailureThreshold();
+    }
+
+    /**
+     * @param circuitBreakerThreshold number of consecutive connectivity failures after which polls fail fast, 0 to disable the circuit breaker
+     */
+    public void setCircuitBreakerThreshold(int circuitBreakerThreshold) {
+        circuitBreaker.setFailureThreshold(circuitBreakerThreshold);
+    }
+
+    /**
+     * @return max time in ms between probes of an unreachable device
+     */
+    public long getCircuitBreakerMaxBackoff() {
+        return circuitBreaker.getMaxBackoff();
+    }
+
+    /**
+     * @param circuitBreakerMaxBackoff max time in ms between probes of an unreachable device
+     */
+    public void setCircuitBreakerMaxBackoff(long circuitBreakerMaxBackoff) {
+        circuitBreaker.setMaxBackoff(circuitBreakerMaxBackoff);
+    }
+
+    /**
+     * @return percentile of the recent response times after which GET requests are hedged, 0 if requests are not hedged
+     */
+    public int getHedgingPercentile() {
+        return requestHedger.getPercentile();
+    }
+
+    /**
+     * Enables hedging of GET requests, see {@link RequestHedger}. A GET still pending after the given percentile of the
+     * recent response times is sent again, and the first response is used.
+     *
+     * @param hedgingPercentile percentile between 50 and 99, 0 to disable hedging
+     */
+    public void setHedgingPercentile(int hedgingPercentile) {
+        requestHedger.setPercentile(hedgingPercentile);
+    }
+
+    /**
+     * @return max number of hedged GET requests per 100 requests
+     */
+    public int getHedgingBudget() {
+        return requestHedger.getBudget();
+    }
+
+    /**
+     * @param hedgingBudget max number of hedged GET requests per 100 requests, 10 by default
+     */
+    public void setHedgingBudget(int hedgingBudget) {
+        requestHedger.setBudget(hedgingBudget);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -61,10 +210,29 @@ public class RestCommunicatorDevice extends RestCommunicator implements Monitora
     @Override
     protected void internalDestroy() {
         super.internalDestroy();
+        resumingSslClient.close();
 
         // if needed, code to perform any extra clean up can be put here
     }
 
+    /**
+     * {@inheritDoc} <br>
+     * This implementation illustrates how to customize the http client used by {@link RestCommunicator},
+     * here to share connections with other devices, to resume TLS sessions on reconnect and to negotiate compressed responses.
+     */
+    @Override
+    protected RestTemplate obtainRestTemplate() throws Exception {
+        RestTemplate restTemplate = super.obtainRestTemplate();
+        SharedConnectionPool.installIfEnabled(sharedConnectionPool, restTemplate, this);
+        if (!sharedConnectionPool) {
+            resumingSslClient.installIfTrustingAll(restTemplate, this);
+        }
+        if (acceptCompressedResponses) {
+            contentEncodingNegotiator.install(restTemplate);
+        }
+        return restTemplate;
+    }
+
     /**
      * {@inheritDoc} <br>
      * This implementation illustrates how to collect monitoring statistics using REST APIs.
@@ -74,22 +242,73 @@ public class RestCommunicatorDevice extends RestCommunicator implements Monitora
      */
     @Override
     public List<Statistics> getMultipleStatistics() throws Exception {
-        //call rest method and convert response to java objects
-        Map<?,?> data = doGet("utc/now", Map.class);
-        int bitRateRx = abs(((Long) data.get("currentFileTime")).intValue());
-
-        // compose corresponding statistics object
-        // note that type of statistics object depends on what monitoring information can be obtained from device
-        // for generic computer statistics, use GenericStatistics
-        // for call/audio/video statistics, use EndpointStatistics
-        // for MCU, use MCUStatistics
-        // for extended monitorable properties which are not defined in any known Statistics object, use ExtendedStatistics
-        EndpointStatistics statistics = new EndpointStatistics();
-        VideoChannelStats videoChannelStats = new VideoChannelStats();
-        videoChannelStats.setBitRateRx(bitRateRx);
-        statistics.setVideoChannelStats(videoChannelStats);
-
-        return singletonList(statistics);
+        List<Statistics> multipleStatistics = new ArrayList<>(3);
+        try {
+            //call rest method and decode response straight into the response DTO
+            UtcNow data = doGet("utc/now", UTC_NOW_READER);
+            int bitRateRx = abs((int) data.getCurrentFileTime());
+
+            // compose corresponding statistics object
+            // note that type of statistics object depends on what monitoring information can be obtained from device
+            // for generic computer statistics, use GenericStatistics
+            // for call/audio/video statistics, use EndpointStatistics
+            // for MCU, use MCUStatistics
+            // for extended monitorable properties which are not defined in any known Statistics object, use ExtendedStatistics
+            EndpointStatistics statistics = new EndpointStatistics();
+            VideoChannelStats videoChannelStats = new VideoChannelStats();
+            videoChannelStats.setBitRateRx(bitRateRx);
+            statistics.setVideoChannelStats(videoChannelStats);
+            multipleStatistics.add(statistics);
+        } catch (CircuitBreaker.OpenException e) {
+            // the device is not responding, the poll fails without waiting for the timeout until it does
+            throw circuitBreaker.toNotReachable(e);
+        }
+        // state of the circuit breaker is reported once the device failed to respond
+        circuitBreaker.addStatistics(multipleStatistics);
+        requestHedger.addStatistics(multipleStatistics);
+        return multipleStatistics;
+    }
+
+    /**
+     * Performs GET request and decodes the response into a DTO while it is being received,
+     * without an intermediate string or map. <br>
+     * If {@link #responseCacheTtl} is set, identical requests of other devices share the call and its response.
+     * Calls to the device go through the circuit breaker, so polls of an unreachable device fail fast,
+     * and are hedged if {@link #setHedgingPercentile(int) enabled}.
+     * Errors are reported with the same exceptions as the ones of the buffered requests, see {@link RestRequests}.
+     *
+     * @param uri request uri, relative to base uri
+     * @param reader reader of the response DTO
+     * @param <T> type of the response DTO
+     * @return decoded response
+     * @throws Exception if any error occurs
+     */
+    protected <T> T doGet(String uri, TypedResponseReader<T> reader) throws Exception {
+        String url = RestRequests.buildRequestUrl(this, uri);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Accept", getContentType() != null ? getContentType() : "application/json");
+        putExtraRequestHeaders(HttpMethod.GET, uri, headers);
+        Callable<T> call = () -> circuitBreaker.call(() -> requestHedger.call(() -> RestRequests.get(this, obtainRestTemplate(), url, headers,
+                reader.extractor())));
+        if (responseCacheTtl <= 0) {
+            return call.call();
+        }
+        return SharedResponseCache.getInstance().get(SharedResponseCache.key(this, url, reader.getType().getName()), responseCacheTtl, call);
+    }
+
+    /**
+     * Response of utc/now endpoint, only the fields used by the statistics are declared.
+     */
+    public static class UtcNow {
+        private long currentFileTime;
+
+        public long getCurrentFileTime() {
+            return currentFileTime;
+        }
+
+        public void setCurrentFileTime(long currentFileTime) {
+            this.currentFileTime = currentFileTime;
+        }
     }
 
     public static void main(String[] args) throws Exception {
@@ -7,15 +7,24 @@ import com.avispl.symphony.api.dal.control.Controller;
 import com.avispl.symphony.api.dal.control.call.CallController;
 import com.avispl.symphony.api.dal.control.mcu.MultipointControlUnit;
 import com.avispl.symphony.api.dal.dto.monitor.EndpointStatistics;
+import com.avispl.symphony.api.dal.dto.monitor.ExtendedStatistics;
 import com.avispl.symphony.api.dal.dto.monitor.Statistics;
 import com.avispl.symphony.api.dal.dto.monitor.VideoChannelStats;
+import com.avispl.symphony.api.dal.error.CommandFailureException;
 import com.avispl.symphony.api.dal.monitor.Monitorable;
 import com.avispl.symphony.api.dal.ping.Pingable;
 import com.avispl.symphony.api.dal.snmp.SnmpQueryable;
 import com.avispl.symphony.dal.communicator.SshCommunicator;
+import com.avispl.symphony.dal.communicator.sample.util.CircuitBreaker;
+import com.avispl.symphony.dal.communicator.sample.util.CommandBatch;
+import com.avispl.symphony.dal.communicator.sample.util.PersistentSshSession;
 
 import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static com.avispl.symphony.dal.communicator.sample.util.CommunicatorUtils.startSshServer;
 import static java.util.Collections.singletonList;
@@ -35,6 +44,12 @@ public class SshCommunicatorDevice extends SshCommunicator implements Monitorabl
     private static Closeable ssh;
     //port of test server
     private int serverPort = 5333;
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker(this::getHost, () -> CircuitBreaker.connect(getHost(), getPort(), getTimeout()));
+    private boolean multiplexedSession;
+    private int keepaliveInterval = 30000;
+    private volatile PersistentSshSession persistentSession;
+    // batch being read by the current thread, if any
+    private final ThreadLocal<CommandBatch> currentBatch = new ThreadLocal<>();
     
     public SshCommunicatorDevice() {
     	
@@ -65,10 +80,20 @@ public class SshCommunicatorDevice extends SshCommunicator implements Monitorabl
 
         // note also that exception thrown by this method will prevent object from being initialized and used
         super.internalInit();
+
+        if (multiplexedSession) {
+            persistentSession = new PersistentSshSession(getHost(), getPort(), getLogin(), getPassword(), getTimeout(),
+                    Collections.singletonMap("StrictHostKeyChecking", "no"));
+            persistentSession.setKeepaliveInterval(keepaliveInterval);
+        }
     }
 
     @Override
     protected void internalDestroy() {
+        if (persistentSession != null) {
+            persistentSession.close();
+            persistentSession = null;
+        }
         super.internalDestroy();
 
         //close telnet server on device destroy
@@ -76,6 +101,146 @@ public class SshCommunicatorDevice extends SshCommunicator implements Monitorabl
         // if needed, code to perform any extra clean up can be put here
     }
 
+    /**
+     * @return number of consecutive connectivity failures after which commands fail fast, see {@link CircuitBreaker}
+     */
+    public int getCircuitBreakerThreshold() {
+        return circuitBreaker.getFailureThreshold();
+    }
+
+    /**
+     * @param circuitBreakerThreshold number of consecutive connectivity failures after which commands fail fast, 0 to disable the circuit breaker
+     */
+    public void setCircuitBreakerThreshold(int circuitBreakerThreshold) {
+        circuitBreaker.setFailureThreshold(circuitBreakerThreshold);
+    }
+
+    /**
+     * @return max time in ms between probes of an unreachable device
+     */
+    public long getCircuitBreakerMaxBackoff() {
+        return circuitBreaker.getMaxBackoff();
+    }
+
+    /**
+     * @param circuitBreakerMaxBackoff max time in ms between probes of an unreachable device
+     */
+    public void setCircuitBreakerMaxBackoff(long circuitBreakerMaxBackoff) {
+        circuitBreaker.setMaxBackoff(circuitBreakerMaxBackoff);
+    }
+
+    /**
+     * @return true if commands run on their own channels of a session kept alive across polls
+     */
+    public boolean isMultiplexedSession() {
+        return multiplexedSession;
+    }
+
+    /**
+     * Enables the persistent multiplexed session, see {@link PersistentSshSession}. Commands then run concurrently,
+     * each on its own exec channel of the same authenticated session, instead of one at a time on a shell channel.
+     * Responses contain the command output only, without the prompt or the echoed command.
+     *
+     * @param multiplexedSession true to run commands on channels of a persistent session
+     */
+    public void setMultiplexedSession(boolean multiplexedSession) {
+        this.multiplexedSession = multiplexedSession;
+    }
+
+    /**
+     * @return time in ms between keepalives of the multiplexed session
+     */
+    public int getKeepaliveInterval() {
+        return keepaliveInterval;
+    }
+
+    /**
+     * @param keepaliveInterval time in ms between keepalives of the multiplexed session, 30000 by default
+     */
+    public void setKeepaliveInterval(int keepaliveInterval) {
+        this.keepaliveInterval = keepaliveInterval;
+    }
+
+    /**
+     * {@inheritDoc} <br>
+     * Commands go through the circuit breaker, so commands to an unreachable device fail fast instead of waiting for the connect timeout.
+     */
+    @Override
+    public String send(String command) throws Exception {
+        PersistentSshSession session = persistentSession;
+        if (session != null) {
+            return circuitBreaker.call(() -> checkResponse(command, session.exec(command)));
+        }
+        return circuitBreaker.call(() -> super.send(command));
+    }
+
+    /**
+     * Sends the commands without waiting for each response before sending the next command. <br>
+     * With the {@link #setMultiplexedSession(boolean) multiplexed session} the commands run at once, each on its own channel.
+     * Otherwise they are written back to back on the shell channel, see {@link CommandBatch}, and responses are told apart by the strings
+     * of {@code commandSuccessList} and {@code commandErrorList}. If any of them is empty, as with the simulator of this sample,
+     * responses cannot be told apart and the commands are sent one by one.
+     *
+     * @param commands commands to send
+     * @return responses of the commands, in order
+     * @throws CommandFailureException for the first command which failed
+     * @throws Exception if any other error occurs
+     */
+    public List<String> sendBatch(List<String> commands) throws Exception {
+        PersistentSshSession session = persistentSession;
+        if (session != null) {
+            List<String> responses = circuitBreaker.call(() -> session.execAll(commands));
+            for (int i = 0; i < commands.size(); i++) {
+                checkResponse(commands.get(i), responses.get(i));
+            }
+            return responses;
+        }
+        if (commands.size() < 2 || !CommandBatch.isSupported(getCommandSuccessList(), getCommandErrorList())) {
+            List<String> responses = new ArrayList<>(commands.size());
+            for (String command : commands) {
+                responses.add(send(command));
+            }
+            return responses;
+        }
+        CommandBatch batch = new CommandBatch(commands, getCommandSuccessList(), getCommandErrorList());
+        currentBatch.set(batch);
+        try {
+            return batch.split(getHost(), send(batch.getRequest()));
+        } finally {
+            currentBatch.remove();
+        }
+    }
+
+    /**
+     * {@inheritDoc} <br>
+     * Batch is read until the responses of all its commands are received.
+     */
+    @Override
+    protected boolean doneReading(String command, String response) throws CommandFailureException {
+        CommandBatch batch = currentBatch.get();
+        if (batch != null) {
+            return batch.isComplete(response);
+        }
+        return super.doneReading(command, response);
+    }
+
+    /**
+     * @param command command sent
+     * @param response output of the command
+     * @return the response
+     * @throws CommandFailureException if the response contains any of the command error strings
+     */
+    private String checkResponse(String command, String response) throws CommandFailureException {
+        if (getCommandErrorList() != null) {
+            for (String error : getCommandErrorList()) {
+                if (response.contains(error)) {
+                    throw new CommandFailureException(getHost(), command, response);
+                }
+            }
+        }
+        return response;
+    }
+
 
     /**
      * {@inheritDoc} <br>
@@ -86,16 +251,35 @@ public class SshCommunicatorDevice extends SshCommunicator implements Monitorabl
      */
     @Override
     public List<Statistics> getMultipleStatistics() throws Exception {
-        //send command via ssh and parse response to get statistics
-        String commandResult = send("hostname");
-        int bitRateRx = commandResult.length();
-
-        //Collect endpoint statistics
-        EndpointStatistics statistics = new EndpointStatistics();
-        VideoChannelStats videoChannelStats = new VideoChannelStats();
-        videoChannelStats.setBitRateRx(bitRateRx);
-        statistics.setVideoChannelStats(videoChannelStats);
-        return singletonList(statistics);
+        List<Statistics> multipleStatistics = new ArrayList<>(3);
+        try {
+            //send command via ssh and parse response to get statistics
+            String commandResult = send("hostname");
+            int bitRateRx = commandResult.length();
+
+            //Collect endpoint statistics
+            EndpointStatistics statistics = new EndpointStatistics();
+            VideoChannelStats videoChannelStats = new VideoChannelStats();
+            videoChannelStats.setBitRateRx(bitRateRx);
+            statistics.setVideoChannelStats(videoChannelStats);
+            multipleStatistics.add(statistics);
+        } catch (CircuitBreaker.OpenException e) {
+            // the device is not responding, the poll fails without waiting for the timeout until it does
+            throw circuitBreaker.toNotReachable(e);
+        }
+        // state of the circuit breaker is reported once the device failed to respond
+        circuitBreaker.addStatistics(multipleStatistics);
+        PersistentSshSession session = persistentSession;
+        if (session != null) {
+            Map<String, String> sessionStatistics = new HashMap<>();
+            sessionStatistics.put("SshSession#SessionsOpened", String.valueOf(session.getSessionsOpened()));
+            sessionStatistics.put("SshSession#ChannelsOpened", String.valueOf(session.getChannelsOpened()));
+            sessionStatistics.put("SshSession#HandshakeTime(ms)", String.valueOf(session.getHandshakeTime()));
+            ExtendedStatistics extendedStatistics = new ExtendedStatistics();
+            extendedStatistics.setStatistics(sessionStatistics);
+            multipleStatistics.add(extendedStatistics);
+        }
+        return multipleStatistics;
     }
 
     public static void main(String[] args) throws Exception {
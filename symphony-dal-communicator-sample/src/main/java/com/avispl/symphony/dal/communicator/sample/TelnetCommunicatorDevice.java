@@ -3,10 +3,19 @@
  */
 package com.avispl.symphony.dal.communicator.sample;
 
+import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import javax.security.auth.login.FailedLoginException;
 
@@ -17,10 +26,16 @@ import com.avispl.symphony.api.dal.dto.monitor.EndpointStatistics;
 import com.avispl.symphony.api.dal.dto.monitor.Statistics;
 import com.avispl.symphony.api.dal.dto.monitor.VideoChannelStats;
 import com.avispl.symphony.api.dal.error.CommandFailureException;
+import com.avispl.symphony.api.dal.error.ResourceNotReachableException;
 import com.avispl.symphony.api.dal.monitor.Monitorable;
 import com.avispl.symphony.api.dal.ping.Pingable;
 import com.avispl.symphony.api.dal.snmp.SnmpQueryable;
 import com.avispl.symphony.dal.communicator.TelnetCommunicator;
+import com.avispl.symphony.dal.communicator.sample.util.CircuitBreaker;
+import com.avispl.symphony.dal.communicator.sample.util.CommandBatch;
+import com.avispl.symphony.dal.communicator.sample.util.PromptMatcher;
+import com.avispl.symphony.dal.communicator.sample.util.TelnetEngine;
+import com.avispl.symphony.dal.communicator.sample.util.TelnetSession;
 
 /**
  * An example of a device that utilizes DAL {@link TelnetCommunicator} library. <br>
@@ -71,6 +86,17 @@ public class TelnetCommunicatorDevice extends TelnetCommunicator implements Moni
 	private Closeable telnet;
 	//port of test server
     private int serverPort = 5334;
+	// fails commands fast while the device does not respond
+	private final CircuitBreaker circuitBreaker = new CircuitBreaker(this::getHost, () -> CircuitBreaker.connect(getHost(), getPort(), getTimeout()));
+	// batch being read by the current thread, if any
+	private final ThreadLocal<CommandBatch> currentBatch = new ThreadLocal<>();
+	// detects end of command responses while they are received, compiled from command success and error lists on init
+	private boolean streamingPromptDetection = true;
+	private PromptMatcher promptMatcher;
+	private boolean customDoneReading;
+	// non-blocking connection run by the shared telnet engine, created on init if enabled
+	private boolean nioTransport;
+	private volatile TelnetSession telnetSession;
 
 	/**
 	 * TelnetCommunicatorDevice constructor.
@@ -94,6 +120,138 @@ public class TelnetCommunicatorDevice extends TelnetCommunicator implements Moni
 		this.setLoginErrorList(Collections.singletonList("ERROR"));
 	}
 
+	/**
+	 * @return number of consecutive connectivity failures after which commands fail fast, see {@link CircuitBreaker}
+	 */
+	public int getCircuitBreakerThreshold() {
+		return circuitBreaker.getFailureThreshold();
+	}
+
+	/**
+	 * @param circuitBreakerThreshold number of consecutive connectivity failures after which commands fail fast, 0 to disable the circuit breaker
+	 */
+	public void setCircuitBreakerThreshold(int circuitBreakerThreshold) {
+		circuitBreaker.setFailureThreshold(circuitBreakerThreshold);
+	}
+
+	/**
+	 * @return max time in ms between probes of an unreachable device
+	 */
+	public long getCircuitBreakerMaxBackoff() {
+		return circuitBreaker.getMaxBackoff();
+	}
+
+	/**
+	 * @param circuitBreakerMaxBackoff max time in ms between probes of an unreachable device
+	 */
+	public void setCircuitBreakerMaxBackoff(long circuitBreakerMaxBackoff) {
+		circuitBreaker.setMaxBackoff(circuitBreakerMaxBackoff);
+	}
+
+	/**
+	 * @return true if end of command responses is detected while they are received, see {@link PromptMatcher}
+	 */
+	public boolean isStreamingPromptDetection() {
+		return streamingPromptDetection;
+	}
+
+	/**
+	 * Enables detection of end of command responses while they are received, see {@link PromptMatcher}. Reading a response then costs O(new bytes) per
+	 * read instead of matching command success and error lists against the whole response on every read. <br>
+	 * If a subclass overrides {@link #doneReading(String, String)}, the responses are still read as they are received, but their end is detected by
+	 * calling it instead.
+	 *
+	 * @param streamingPromptDetection true to detect end of responses while they are received, {@code true} by default
+	 */
+	public void setStreamingPromptDetection(boolean streamingPromptDetection) {
+		this.streamingPromptDetection = streamingPromptDetection;
+	}
+
+	/**
+	 * @return true if commands are sent over a non-blocking connection run by the shared {@link TelnetEngine}
+	 */
+	public boolean isNioTransport() {
+		return nioTransport;
+	}
+
+	/**
+	 * Enables the non-blocking transport, see {@link TelnetSession}. The connection of the device is then run by the single thread of the shared
+	 * {@link TelnetEngine} instead of a blocking socket, so a command waiting for a slow device only holds a thread if the caller waits for it, see
+	 * {@link #sendAsync(String)}. Telnet options are negotiated by the session, so {@code optionHandlers} do not apply.
+	 *
+	 * @param nioTransport true to send commands over the non-blocking transport
+	 */
+	public void setNioTransport(boolean nioTransport) {
+		this.nioTransport = nioTransport;
+	}
+
+	/**
+	 * {@inheritDoc} <br>
+	 * Commands go through the circuit breaker, so commands to an unreachable device fail fast instead of waiting for the connect timeout.
+	 */
+	@Override
+	public String send(String command) throws Exception {
+		TelnetSession session = telnetSession;
+		if (session != null) {
+			return circuitBreaker.call(() -> await(session.send(command, 1)));
+		}
+		return circuitBreaker.call(() -> super.send(command));
+	}
+
+	/**
+	 * Sends the command without blocking the calling thread, if the {@link #setNioTransport(boolean) non-blocking transport} is enabled. <br>
+	 * The future completes on the thread of the {@link TelnetEngine} once the response is received, so code chained to it must not block.
+	 * Otherwise the command is sent by the calling thread, and the returned future is already complete. <br>
+	 * Commands go through the circuit breaker, the future fails with {@link CircuitBreaker.OpenException} while the device is not responding.
+	 *
+	 * @param command command to send
+	 * @return future of the response, completed exceptionally if any error occurs
+	 */
+	public CompletableFuture<String> sendAsync(String command) {
+		TelnetSession session = telnetSession;
+		if (session != null) {
+			return circuitBreaker.callAsync(() -> session.send(command, 1));
+		}
+		CompletableFuture<String> response = new CompletableFuture<>();
+		try {
+			response.complete(send(command));
+		} catch (Exception e) {
+			response.completeExceptionally(e);
+		}
+		return response;
+	}
+
+	/**
+	 * Sends the commands back to back, without waiting for each response before sending the next command, see {@link CommandBatch}. <br>
+	 * Responses are told apart by the strings of {@code commandSuccessList} and {@code commandErrorList}. If any of them is empty, as with the simulator
+	 * of this sample, responses cannot be told apart and the commands are sent one by one.
+	 *
+	 * @param commands commands to send
+	 * @return responses of the commands, in order
+	 * @throws CommandFailureException for the first command whose response ends with an error string
+	 * @throws Exception if any other error occurs
+	 */
+	public List<String> sendBatch(List<String> commands) throws Exception {
+		if (commands.size() < 2 || !CommandBatch.isSupported(getCommandSuccessList(), getCommandErrorList())) {
+			List<String> responses = new ArrayList<>(commands.size());
+			for (String command : commands) {
+				responses.add(send(command));
+			}
+			return responses;
+		}
+		CommandBatch batch = new CommandBatch(commands, getCommandSuccessList(), getCommandErrorList());
+		TelnetSession session = telnetSession;
+		if (session != null) {
+			return batch.split(getHost(), circuitBreaker.call(() -> await(session.send(batch.getRequest(), batch.size()))));
+		}
+		currentBatch.set(batch);
+		try {
+			return batch.split(getHost(), send(batch.getRequest()));
+		} finally {
+			currentBatch.remove();
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -111,7 +269,65 @@ public class TelnetCommunicatorDevice extends TelnetCommunicator implements Moni
 		// otherwise, this method can be omitted
 
 		// note also that exception thrown by this method will prevent object from being initialized and used
+		if (streamingPromptDetection) {
+			promptMatcher = new PromptMatcher(getCommandSuccessList(), getCommandErrorList());
+			customDoneReading = isDoneReadingOverridden();
+		}
 		super.internalInit();
+
+		if (nioTransport) {
+			telnetSession = new TelnetSession(this);
+		}
+	}
+
+	/**
+	 * {@inheritDoc} <br>
+	 * With {@link #setStreamingPromptDetection(boolean) streaming prompt detection}, command responses are matched against command success and error
+	 * lists byte by byte as they are received, and {@link #doneReading(String, String)} is only called if a subclass overrides it. Login responses
+	 * are read by the library.
+	 */
+	@Override
+	protected String read(String command, InputStream inputStream) throws Exception {
+		if (command == null || promptMatcher == null) {
+			return super.read(command, inputStream);
+		}
+		CommandBatch batch = currentBatch.get();
+		int expectedResponses = batch != null ? batch.size() : 1;
+		PromptMatcher.Scanner scanner = promptMatcher.scanner();
+		ByteArrayOutputStream response = new ByteArrayOutputStream();
+		byte[] buffer = new byte[getBufferLength()];
+		long start = System.currentTimeMillis();
+		while (true) {
+			int available = inputStream.available();
+			if (available > 0) {
+				int length = inputStream.read(buffer, 0, Math.min(available, buffer.length));
+				if (length < 0) {
+					throw new Exception("Connection was forcible closed");
+				}
+				response.write(buffer, 0, length);
+				scanner.feed(buffer, 0, length);
+				// same as the library, end of response is only checked once all the data received is read
+				boolean allRead = inputStream.available() == 0 && response.size() > 0;
+				if (allRead && customDoneReading) {
+					String result = response.toString();
+					if (doneReading(command, result)) {
+						return result;
+					}
+				} else if (allRead && scanner.isEnd() && (batch == null || scanner.getMatches() >= expectedResponses)) {
+					String result = response.toString();
+					// failed commands of a batch are reported once the batch is split into responses
+					if (batch == null && scanner.isError()) {
+						throw new CommandFailureException(getHost(), command, result);
+					}
+					return result;
+				}
+			} else {
+				Thread.sleep(10);
+			}
+			if (System.currentTimeMillis() - start > getTimeout()) {
+				throw new IOException("The read operation timed out. Command sent was: " + command + " Data read so far: " + response);
+			}
+		}
 	}
 
 	/**
@@ -135,15 +351,40 @@ public class TelnetCommunicatorDevice extends TelnetCommunicator implements Moni
 		// command response can be placed here. If needed, custom end of response parsing can be done for specific commands only, and rest can be still
 		// delegated to parent library
 		// otherwise, this method can be omitted
+		// note that with streaming prompt detection this method is only called if it is overridden by a subclass
 
+		// batch is read until the responses of all its commands are received
+		CommandBatch batch = currentBatch.get();
+		if (batch != null) {
+			return batch.isComplete(response);
+		}
 		return super.doneReading(command, response);
 	}
 
+	/**
+	 * @return true if {@link #doneReading(String, String)} is overridden by a subclass
+	 */
+	private boolean isDoneReadingOverridden() {
+		for (Class<?> type = getClass(); type != TelnetCommunicatorDevice.class; type = type.getSuperclass()) {
+			try {
+				type.getDeclaredMethod("doneReading", String.class, String.class);
+				return true;
+			} catch (NoSuchMethodException e) {
+				// not overridden at this level
+			}
+		}
+		return false;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
 	protected void internalDestroy() {
+		if (telnetSession != null) {
+			telnetSession.close();
+			telnetSession = null;
+		}
 		super.internalDestroy();
 
 		// if needed, code to perform any extra clean up can be put here
@@ -173,8 +414,46 @@ public class TelnetCommunicatorDevice extends TelnetCommunicator implements Moni
 		// send command via telnet and parse response to get statistics
 		// for illustration purposes, this sample communicates with embedded telnet server simulator and uses response of one of commands simulator supports to
 		// build monitoring statistics
-		String response = send("hostname");
+		String response;
+		try {
+			response = send("hostname");
+		} catch (CircuitBreaker.OpenException e) {
+			// the device is not responding, the poll fails without waiting for the timeout until it does
+			throw circuitBreaker.toNotReachable(e);
+		}
+		return createStatistics(response);
+	}
 
+	/**
+	 * Collects monitoring statistics without blocking the calling thread, if the {@link #setNioTransport(boolean) non-blocking transport} is enabled,
+	 * see {@link #sendAsync(String)}. <br>
+	 * As with {@link #getMultipleStatistics()}, the poll fails with {@link ResourceNotReachableException} while the circuit breaker is open.
+	 *
+	 * @return future of the monitoring statistics, completed exceptionally if any error occurs
+	 */
+	public CompletableFuture<List<Statistics>> getMultipleStatisticsAsync() {
+		CompletableFuture<List<Statistics>> statistics = new CompletableFuture<>();
+		sendAsync("hostname").whenComplete((response, failure) -> {
+			Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+			if (cause == null) {
+				statistics.complete(createStatistics(response));
+			} else if (cause instanceof CircuitBreaker.OpenException) {
+				// the device is not responding, the poll fails without waiting for the timeout until it does
+				statistics.completeExceptionally(circuitBreaker.toNotReachable((CircuitBreaker.OpenException) cause));
+			} else {
+				statistics.completeExceptionally(cause);
+			}
+		});
+		return statistics;
+	}
+
+	/**
+	 * Builds monitoring statistics from the response of the device.
+	 *
+	 * @param response response of the device
+	 * @return monitoring statistics
+	 */
+	private List<Statistics> createStatistics(String response) {
 		// parse response data and extract available statistics
 		// note that type of statistics depends on what monitoring information can be obtained from device
 		int bitRateRx = response.length();
@@ -193,7 +472,32 @@ public class TelnetCommunicatorDevice extends TelnetCommunicator implements Moni
 
 		// note that response might contain multiple statistics
 		// e.g. ExtendedStatistics and ExtendedStatistics
-		return Collections.singletonList(statistics);
+		// here, state of the circuit breaker is reported once the device failed to respond
+		List<Statistics> multipleStatistics = new ArrayList<>(2);
+		multipleStatistics.add(statistics);
+		circuitBreaker.addStatistics(multipleStatistics);
+		return multipleStatistics;
+	}
+
+	/**
+	 * Waits for the response of a command sent over the non-blocking transport. <br>
+	 * The session fails a command once its connect, login or response takes longer than the timeout, the wait is bound by the three of them
+	 * so the caller is not blocked forever should the engine fail to complete the command.
+	 *
+	 * @param response future of the response
+	 * @return the response
+	 * @throws SocketTimeoutException if the command did not complete in time
+	 * @throws Exception failure of the command
+	 */
+	private String await(CompletableFuture<String> response) throws Exception {
+		try {
+			return response.get(3L * getTimeout(), TimeUnit.MILLISECONDS);
+		} catch (ExecutionException e) {
+			throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+		} catch (TimeoutException e) {
+			response.cancel(false);
+			throw new SocketTimeoutException("Telnet command to " + getHost() + " did not complete within " + 3L * getTimeout() + "ms");
+		}
 	}
 
 	/**
@@ -1,37 +1,82 @@
 package com.avispl.symphony.dal.communicator.sample.aggregator;
 
+import com.avispl.symphony.api.common.error.NotModifiedException;
 import com.avispl.symphony.api.dal.control.Controller;
 import com.avispl.symphony.api.dal.dto.control.AdvancedControllableProperty;
 import com.avispl.symphony.api.dal.dto.control.ControllableProperty;
 import com.avispl.symphony.api.dal.dto.monitor.ExtendedStatistics;
 import com.avispl.symphony.api.dal.dto.monitor.Statistics;
 import com.avispl.symphony.api.dal.dto.monitor.aggregator.AggregatedDevice;
+import com.avispl.symphony.api.dal.error.CommandFailureException;
 import com.avispl.symphony.api.dal.monitor.Monitorable;
 import com.avispl.symphony.api.dal.monitor.aggregator.Aggregator;
-import com.avispl.symphony.dal.aggregator.parser.AggregatedDeviceProcessor;
-import com.avispl.symphony.dal.aggregator.parser.PropertiesMapping;
-import com.avispl.symphony.dal.aggregator.parser.PropertiesMappingParser;
 import com.avispl.symphony.dal.communicator.RestCommunicator;
+import com.avispl.symphony.dal.communicator.sample.util.ContentEncodingNegotiator;
+import com.avispl.symphony.dal.communicator.sample.util.RestRequests;
+import com.avispl.symphony.dal.communicator.sample.util.ResumingSslClient;
+import com.avispl.symphony.dal.communicator.sample.util.SharedConnectionPool;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriUtils;
 
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static java.util.Collections.singletonList;
 
 public class AggregatorControlsCommunicator extends RestCommunicator implements Aggregator, Monitorable, Controller {
 
-    private String loginId;
+    private volatile String loginId;
     private ObjectMapper objectMapper;
+    private final SessionManager sessionManager = new SessionManager();
 
-    private AggregatedDeviceProcessor aggregatedDeviceProcessor;
+    private CompiledDeviceMapping deviceMapping;
+    private DeviceStreamReader deviceStreamReader;
+
+    private long snapshotRefreshInterval;
+    private long snapshotMaxStaleness;
+    private DeviceSnapshotPoller snapshotPoller;
+    private int deviceDetailsFetchLimit;
+
+    private int pageSize;
+    private String paginationMode = DevicePageFetcher.Mode.OFFSET.name();
+    private int pageParallelism = 4;
+    private int pageRetryAttempts = 2;
+    private int maxDevices = 100000;
+    private String pageOffsetParameter = "offset";
+    private String pageLimitParameter = "limit";
+    private String pageCursorParameter = "cursor";
+    private String pageTotalField = "Total";
+    private String pageNextCursorField = "NextCursor";
+    private DevicePageFetcher devicePageFetcher;
+    private final DeviceListCache deviceListCache = new DeviceListCache();
+    private boolean acceptCompressedResponses;
+    private final ContentEncodingNegotiator contentEncodingNegotiator = new ContentEncodingNegotiator();
+    private boolean sharedConnectionPool;
+    private final ResumingSslClient resumingSslClient = new ResumingSslClient();
+
+    private int controlConcurrency = 8;
+    private int controllerControlConcurrency = 4;
+    private long controlDeadline = 60000;
+    private ControlDispatcher controlDispatcher;
 
     public static String BASE_URL = "/test/api/";
 
@@ -45,11 +90,364 @@ public class AggregatorControlsCommunicator extends RestCommunicator implements
         return loginId;
     }
 
+    /**
+     * @return session lifetime in ms, after which the adapter logs in again before the next request
+     */
+    public long getSessionTimeout() {
+        return sessionManager.getSessionTimeout();
+    }
+
+    /**
+     * @param sessionTimeout session lifetime in ms, after which the adapter logs in again before the next request
+     */
+    public void setSessionTimeout(long sessionTimeout) {
+        sessionManager.setSessionTimeout(sessionTimeout);
+    }
+
+    /**
+     * @return number of logins performed by this adapter
+     */
+    public long getLoginCount() {
+        return sessionManager.getLoginCount();
+    }
+
+    /**
+     * @return number of device list polls answered with 304 Not Modified, which reused previously mapped devices
+     */
+    public long getNotModifiedCount() {
+        return deviceListCache.getNotModifiedCount();
+    }
+
+    /**
+     * @return true if gzip or deflate compressed responses are requested
+     */
+    public boolean isAcceptCompressedResponses() {
+        return acceptCompressedResponses;
+    }
+
+    /**
+     * Enables negotiation of compressed responses, see {@link ContentEncodingNegotiator}.
+     *
+     * @param acceptCompressedResponses true to request gzip or deflate compressed responses
+     */
+    public void setAcceptCompressedResponses(boolean acceptCompressedResponses) {
+        this.acceptCompressedResponses = acceptCompressedResponses;
+    }
+
+    /**
+     * @return number of response body bytes received over the network, counted while compressed responses are requested
+     */
+    public long getReceivedBytes() {
+        return contentEncodingNegotiator.getReceivedBytes();
+    }
+
+    /**
+     * @return number of response body bytes after decompression, counted while compressed responses are requested
+     */
+    public long getDecodedBytes() {
+        return contentEncodingNegotiator.getDecodedBytes();
+    }
+
+    /**
+     * @return true if requests go through the connection pool shared by the process
+     */
+    public boolean isSharedConnectionPool() {
+        return sharedConnectionPool;
+    }
+
+    /**
+     * Enables the connection pool shared by the process, see {@link SharedConnectionPool}.
+     * Connections to the device are then kept alive between polls instead of being opened by every poll.
+     *
+     * @param sharedConnectionPool true to use the shared connection pool
+     */
+    public void setSharedConnectionPool(boolean sharedConnectionPool) {
+        this.sharedConnectionPool = sharedConnectionPool;
+    }
+
+    /**
+     * @return interval in ms of background device snapshot refresh, 0 if devices are fetched on every poll
+     */
+    public long getSnapshotRefreshInterval() {
+        return snapshotRefreshInterval;
+    }
+
+    /**
+     * Enables background snapshot mode: devices are fetched by a dedicated refresher thread with given interval,
+     * and {@link #retrieveMultipleStatistics()} returns the last fetched snapshot without any remote calls.
+     *
+     * @param snapshotRefreshInterval interval in ms of background device snapshot refresh, 0 to fetch devices on every poll
+     */
+    public void setSnapshotRefreshInterval(long snapshotRefreshInterval) {
+        this.snapshotRefreshInterval = snapshotRefreshInterval;
+    }
+
+    /**
+     * @return max age in ms of device snapshot before it is reported as unavailable, 0 if snapshot never expires
+     */
+    public long getSnapshotMaxStaleness() {
+        return snapshotMaxStaleness;
+    }
+
+    /**
+     * @param snapshotMaxStaleness max age in ms of device snapshot before it is reported as unavailable, 0 if snapshot never expires
+     */
+    public void setSnapshotMaxStaleness(long snapshotMaxStaleness) {
+        this.snapshotMaxStaleness = snapshotMaxStaleness;
+    }
+
+    /**
+     * @return max number of requested devices that are fetched one by one from devices/{id} endpoint
+     */
+    public int getDeviceDetailsFetchLimit() {
+        return deviceDetailsFetchLimit;
+    }
+
+    /**
+     * When {@link #retrieveMultipleStatistics(List)} is asked for a few devices only, fetching them one by one from
+     * devices/{id} endpoint is cheaper than refreshing the whole device list.
+     *
+     * @param deviceDetailsFetchLimit max number of requested devices that are fetched one by one, 0 to always refresh the whole device list
+     */
+    public void setDeviceDetailsFetchLimit(int deviceDetailsFetchLimit) {
+        this.deviceDetailsFetchLimit = deviceDetailsFetchLimit;
+    }
+
+    /**
+     * @return number of devices requested per page, 0 if the whole device list is requested at once
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Enables paginated retrieval of the device list, for controllers that cannot return the whole inventory
+     * in one response.
+     *
+     * @param pageSize number of devices requested per page, 0 to request the whole device list at once
+     */
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * @return pagination mode of the controller api, {@code OFFSET} or {@code CURSOR}
+     */
+    public String getPaginationMode() {
+        return paginationMode;
+    }
+
+    /**
+     * @param paginationMode pagination mode of the controller api, {@code OFFSET} or {@code CURSOR}
+     */
+    public void setPaginationMode(String paginationMode) {
+        this.paginationMode = paginationMode;
+    }
+
+    /**
+     * @return max number of device pages requested at the same time
+     */
+    public int getPageParallelism() {
+        return pageParallelism;
+    }
+
+    /**
+     * @param pageParallelism max number of device pages requested at the same time
+     */
+    public void setPageParallelism(int pageParallelism) {
+        this.pageParallelism = pageParallelism;
+    }
+
+    /**
+     * @return number of extra attempts to retrieve a failed device page
+     */
+    public int getPageRetryAttempts() {
+        return pageRetryAttempts;
+    }
+
+    /**
+     * @param pageRetryAttempts number of extra attempts to retrieve a failed device page
+     */
+    public void setPageRetryAttempts(int pageRetryAttempts) {
+        this.pageRetryAttempts = pageRetryAttempts;
+    }
+
+    /**
+     * @return max number of devices retrieved page by page
+     */
+    public int getMaxDevices() {
+        return maxDevices;
+    }
+
+    /**
+     * Bounds paginated retrieval of the device list, in case the controller keeps returning pages.
+     *
+     * @param maxDevices max number of devices retrieved page by page
+     */
+    public void setMaxDevices(int maxDevices) {
+        this.maxDevices = maxDevices;
+    }
+
+    /**
+     * @return name of the query parameter with offset of the device page, in {@code OFFSET} mode
+     */
+    public String getPageOffsetParameter() {
+        return pageOffsetParameter;
+    }
+
+    /**
+     * @param pageOffsetParameter name of the query parameter with offset of the device page, in {@code OFFSET} mode
+     */
+    public void setPageOffsetParameter(String pageOffsetParameter) {
+        this.pageOffsetParameter = pageOffsetParameter;
+    }
+
+    /**
+     * @return name of the query parameter with size of the device page
+     */
+    public String getPageLimitParameter() {
+        return pageLimitParameter;
+    }
+
+    /**
+     * @param pageLimitParameter name of the query parameter with size of the device page
+     */
+    public void setPageLimitParameter(String pageLimitParameter) {
+        this.pageLimitParameter = pageLimitParameter;
+    }
+
+    /**
+     * @return name of the query parameter with cursor of the device page, in {@code CURSOR} mode
+     */
+    public String getPageCursorParameter() {
+        return pageCursorParameter;
+    }
+
+    /**
+     * @param pageCursorParameter name of the query parameter with cursor of the device page, in {@code CURSOR} mode
+     */
+    public void setPageCursorParameter(String pageCursorParameter) {
+        this.pageCursorParameter = pageCursorParameter;
+    }
+
+    /**
+     * @return name of the device page field with total number of devices, in {@code OFFSET} mode
+     */
+    public String getPageTotalField() {
+        return pageTotalField;
+    }
+
+    /**
+     * @param pageTotalField name of the device page field with total number of devices, in {@code OFFSET} mode
+     */
+    public void setPageTotalField(String pageTotalField) {
+        this.pageTotalField = pageTotalField;
+    }
+
+    /**
+     * @return name of the device page field with cursor of the next page, in {@code CURSOR} mode
+     */
+    public String getPageNextCursorField() {
+        return pageNextCursorField;
+    }
+
+    /**
+     * @param pageNextCursorField name of the device page field with cursor of the next page, in {@code CURSOR} mode
+     */
+    public void setPageNextCursorField(String pageNextCursorField) {
+        this.pageNextCursorField = pageNextCursorField;
+    }
+
+    /**
+     * @return max number of control commands of a batch in flight
+     */
+    public int getControlConcurrency() {
+        return controlConcurrency;
+    }
+
+    /**
+     * @param controlConcurrency max number of control commands of a batch in flight
+     */
+    public void setControlConcurrency(int controlConcurrency) {
+        this.controlConcurrency = controlConcurrency;
+    }
+
+    /**
+     * @return max number of control commands of a batch in flight per controller
+     */
+    public int getControllerControlConcurrency() {
+        return controllerControlConcurrency;
+    }
+
+    /**
+     * @param controllerControlConcurrency max number of control commands of a batch in flight per controller
+     */
+    public void setControllerControlConcurrency(int controllerControlConcurrency) {
+        this.controllerControlConcurrency = controllerControlConcurrency;
+    }
+
+    /**
+     * @return max time in ms a batch of control commands may take
+     */
+    public long getControlDeadline() {
+        return controlDeadline;
+    }
+
+    /**
+     * @param controlDeadline max time in ms a batch of control commands may take
+     */
+    public void setControlDeadline(long controlDeadline) {
+        this.controlDeadline = controlDeadline;
+    }
+
     @Override
     protected void internalInit() throws Exception {
         super.internalInit();
-        Map<String, PropertiesMapping> mapping = new PropertiesMappingParser().loadYML("aggregator/model-mapping-controls.yml", getClass());
-        aggregatedDeviceProcessor = new AggregatedDeviceProcessor(mapping);
+        deviceMapping = CompiledDeviceMapping.load("aggregator/model-mapping-controls.yml", getClass());
+        // devices are streamed one by one only if all models take them from the same node,
+        // otherwise the whole payload is needed to extract devices of every model
+        Set<String> nodes = deviceMapping.getNodes();
+        deviceStreamReader = nodes.size() == 1 ? new DeviceStreamReader(objectMapper, nodes.iterator().next()) : null;
+        controlDispatcher = new ControlDispatcher(controlConcurrency, controllerControlConcurrency, controlDeadline,
+                getClass().getSimpleName() + "-" + getHost() + "-controls");
+        if (pageSize > 0) {
+            // page size and completeness are judged by a single devices node of the page
+            if (nodes.size() != 1) {
+                throw new IllegalArgumentException("Device pagination requires all models to take devices from the same node, found " + nodes);
+            }
+            devicePageFetcher = new DevicePageFetcher(DevicePageFetcher.Mode.parse(paginationMode), pageSize,
+                    pageParallelism, pageRetryAttempts, nodes.iterator().next(), getClass().getSimpleName() + "-" + getHost() + "-pages");
+            devicePageFetcher.setMaxDevices(maxDevices);
+            devicePageFetcher.setOffsetParameter(pageOffsetParameter);
+            devicePageFetcher.setLimitParameter(pageLimitParameter);
+            devicePageFetcher.setCursorParameter(pageCursorParameter);
+            devicePageFetcher.setTotalNode(pageTotalField);
+            devicePageFetcher.setNextCursorNode(pageNextCursorField);
+        }
+        if (snapshotRefreshInterval > 0) {
+            snapshotPoller = new DeviceSnapshotPoller(this::fetchDevicesList, snapshotRefreshInterval, snapshotMaxStaleness);
+            snapshotPoller.start(getClass().getSimpleName() + "-" + getHost() + "-refresher");
+        }
+    }
+
+    @Override
+    protected void internalDestroy() {
+        if (snapshotPoller != null) {
+            snapshotPoller.stop();
+            snapshotPoller = null;
+        }
+        if (devicePageFetcher != null) {
+            devicePageFetcher.stop();
+            devicePageFetcher = null;
+        }
+        if (controlDispatcher != null) {
+            controlDispatcher.stop();
+            controlDispatcher = null;
+        }
+        sessionManager.reset();
+        deviceListCache.reset();
+        super.internalDestroy();
+        resumingSslClient.close();
     }
 
     @Override
@@ -72,29 +470,59 @@ public class AggregatorControlsCommunicator extends RestCommunicator implements
         if (CollectionUtils.isEmpty(controllablePropertyList)) {
             throw new IllegalArgumentException("Controllable properties cannot be null or empty");
         }
-        for(ControllableProperty controllableProperty: controllablePropertyList){
-            controlProperty(controllableProperty);
+        List<ControlDispatcher.ControlResult> failedResults = dispatchControlProperties(controllablePropertyList).stream()
+                .filter(result -> !result.isSuccessful()).collect(Collectors.toList());
+        if (!failedResults.isEmpty()) {
+            String failedDevices = failedResults.stream().map(ControlDispatcher.ControlResult::getDeviceId).collect(Collectors.joining(", "));
+            throw new CommandFailureException(getHost(), "controlProperties", "Control failed for devices: " + failedDevices,
+                    failedResults.get(0).getError());
         }
     }
 
+    /**
+     * Dispatches batch of control commands concurrently, see {@link ControlDispatcher}.
+     * Unlike {@link #controlProperties(List)}, reports the outcome of every command.
+     *
+     * @param controllablePropertyList control commands
+     * @return result of every command left after merging duplicate commands
+     * @throws Exception if dispatching is interrupted
+     */
+    public List<ControlDispatcher.ControlResult> dispatchControlProperties(List<ControllableProperty> controllablePropertyList) throws Exception {
+        return controlDispatcher.dispatch(controllablePropertyList, controllableProperty -> getHost(), this::controlProperty);
+    }
+
     @Override
     public List<AggregatedDevice> retrieveMultipleStatistics() throws Exception {
+        if (snapshotPoller != null) {
+            return snapshotPoller.getSnapshot().getDevices();
+        }
         return fetchDevicesList();
     }
 
     @Override
     public List<AggregatedDevice> retrieveMultipleStatistics(List<String> list) throws Exception {
-        return retrieveMultipleStatistics()
-                .stream()
-                .filter(aggregatedDevice -> list.contains(aggregatedDevice.getDeviceId()))
-                .collect(Collectors.toList());
+        if (snapshotPoller != null) {
+            return snapshotPoller.getSnapshot().getIndex().select(list);
+        }
+        if (list.size() <= deviceDetailsFetchLimit) {
+            return fetchDevicesById(list);
+        }
+        return fetchDeviceIndex().select(list);
     }
 
     @Override
-    public List<Statistics> getMultipleStatistics() {
+    public List<Statistics> getMultipleStatistics() throws Exception {
         ExtendedStatistics statistics = new ExtendedStatistics();
         List<AdvancedControllableProperty> controls = new ArrayList<>();
         Map<String, String> multipleStatistics = new HashMap<>();
+        if (snapshotPoller != null) {
+            multipleStatistics.put("SnapshotAge(ms)", String.valueOf(snapshotPoller.getSnapshotAge()));
+        }
+        if (acceptCompressedResponses) {
+            multipleStatistics.put("ReceivedBytes", String.valueOf(contentEncodingNegotiator.getReceivedBytes()));
+            multipleStatistics.put("DecodedBytes", String.valueOf(contentEncodingNegotiator.getDecodedBytes()));
+        }
+        SharedConnectionPool.addStatisticsIfEnabled(sharedConnectionPool, this, multipleStatistics);
 
         statistics.setStatistics(multipleStatistics);
         statistics.setControllableProperties(controls);
@@ -118,11 +546,10 @@ public class AggregatorControlsCommunicator extends RestCommunicator implements
     }
 
     /**
-     * aggregatedDeviceProcessor.extractDevices(JsonNode) generates a list of AggregatedDevice instances based on
+     * deviceMapping.extractDevices(JsonNode) generates a list of AggregatedDevice instances based on
      * the yml mapping defined like following
-     *         Map<String, PropertiesMapping> mapping = new PropertiesMappingParser().loadYML("aggregator/model-mapping-controls.yml", getClass());
-     * The AggregateDeviceProcessor is then initialized using this mapping
-     *          aggregatedDeviceProcessor = new AggregatedDeviceProcessor(mapping);
+     *         deviceMapping = CompiledDeviceMapping.load("aggregator/model-mapping-controls.yml", getClass());
+     * The mapping is compiled once and shared by all the adapters loading the same yml file
      *
      * Basic mapping features:
      * Properties:
@@ -131,7 +558,7 @@ public class AggregatorControlsCommunicator extends RestCommunicator implements
      *  Contains native aggregated device properties (serialNumber, deviceModel etc., check AggregatedDevice source code to see more)
      * Control:
      *  Is used to create controls for the device adapters. There are 2 ways to define a control - legacy and relevant one, legacy
-     *  implies using AggregatedDevice.setControl(Map<String, String>), not supported by the aggregatedDeviceProcessor.
+     *  implies using AggregatedDevice.setControl(Map<String, String>), not supported by the device mapping.
      *  Relevant version mapping implies control information definition like so:
      *         Button:                                              // Control name
      *           type: Button                                       // Control type
@@ -168,25 +595,195 @@ public class AggregatorControlsCommunicator extends RestCommunicator implements
      *
      * */
     private List<AggregatedDevice> fetchDevicesList() throws Exception {
-        List<AggregatedDevice> devices = aggregatedDeviceProcessor.extractDevices(getDevices());
+        if (devicePageFetcher != null) {
+            return devicePageFetcher.fetch(this::getDevicesPage, deviceMapping::extractDevices);
+        }
+        try {
+            List<AggregatedDevice> devices;
+            HttpHeaders responseHeaders;
+            if (deviceStreamReader == null) {
+                ResponseEntity<String> response = sessionManager.execute(this::login,
+                        () -> doRequest(BASE_URL + "devices", HttpMethod.GET, null, null, String.class));
+                devices = deviceMapping.extractDevices(objectMapper.readTree(response.getBody()));
+                responseHeaders = response.getHeaders();
+            } else {
+                List<AggregatedDevice> streamedDevices = new ArrayList<>();
+                responseHeaders = streamDevices(device -> streamedDevices.addAll(deviceMapping.mapDevice(device)));
+                if (responseHeaders == null) {
+                    return deviceListCache.getDevices();
+                }
+                devices = streamedDevices;
+            }
+            deviceListCache.update(responseHeaders, devices);
+            return devices;
+        } catch (NotModifiedException e) {
+            return deviceListCache.getDevices();
+        }
+    }
+
+    /**
+     * Retrieves the device list as an index. If the device list is not modified since the last full devices response,
+     * the index kept with it by {@link DeviceListCache} is reused instead of being built again.
+     *
+     * @return index of the current device list
+     * @throws Exception if the device list cannot be retrieved
+     */
+    private DeviceIndex fetchDeviceIndex() throws Exception {
+        List<AggregatedDevice> devices = fetchDevicesList();
+        DeviceIndex index = deviceListCache.getIndex();
+        return index != null ? index : DeviceIndex.of(devices);
+    }
+
+    /**
+     * Streams devices payload instead of reading it into a string and a full json tree,
+     * so memory footprint depends on the size of a single device rather than on the whole inventory.
+     *
+     * @param deviceConsumer consumer of devices parsed from the payload one by one
+     * @return headers of the response, or null if the devices are not modified since the last retrieval
+     * @throws Exception if any error occurs
+     */
+    private HttpHeaders streamDevices(Consumer<JsonNode> deviceConsumer) throws Exception {
+        String uri = BASE_URL + "devices";
+        return sessionManager.execute(this::login, () -> {
+            HttpHeaders headers = new HttpHeaders();
+            if (getContentType() != null) {
+                headers.set("Accept", getContentType());
+            }
+            putExtraRequestHeaders(HttpMethod.GET, uri, headers);
+            return RestRequests.get(this, obtainRestTemplate(), uri, headers, response -> {
+                if (response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                    return null;
+                }
+                deviceStreamReader.read(response.getBody(), deviceConsumer);
+                return response.getHeaders();
+            });
+        });
+    }
+
+    private List<AggregatedDevice> fetchDevicesById(List<String> deviceIds) throws Exception {
+        List<AggregatedDevice> devices = new ArrayList<>(deviceIds.size());
+        for (String deviceId : deviceIds) {
+            JsonNode device = getDevice(deviceId);
+            if (device != null) {
+                devices.addAll(deviceMapping.extractDevices(device));
+            }
+        }
         return devices;
     }
 
     private void reboot(String deviceSerialNumber) throws Exception {
-        doPut(BASE_URL + "Devices/" + deviceSerialNumber + "/Reboot", String.class);
+        sessionManager.execute(this::login, () -> doPut(BASE_URL + "Devices/" + deviceSerialNumber + "/Reboot", String.class));
     }
 
-    public JsonNode getDevices() throws Exception {
+    /**
+     * Login routine used by {@link SessionManager}, so the session is only renewed when it is expired or rejected.
+     *
+     * @return new session id
+     * @throws Exception if login fails
+     */
+    private String login() throws Exception {
         authenticate();
-        String devicesResponse = doGet(BASE_URL + "devices", String.class);
+        return loginId;
+    }
+
+    /**
+     * @param query query string of the page, e.g. {@code offset=100&limit=100}
+     * @return single page of the devices payload
+     * @throws Exception if any error occurs
+     */
+    private JsonNode getDevicesPage(String query) throws Exception {
+        return objectMapper.readTree(sessionManager.execute(this::login, () -> doGet(BASE_URL + "devices?" + query, String.class)));
+    }
+
+    /**
+     * Retrieves the whole devices payload. Validators of the last mapped device list are sent along,
+     * see {@link DeviceListCache}.
+     *
+     * @return devices payload
+     * @throws NotModifiedException if the devices are not modified since the last mapped device list
+     * @throws Exception if any other error occurs
+     */
+    public JsonNode getDevices() throws Exception {
+        String devicesResponse = sessionManager.execute(this::login, () -> doGet(BASE_URL + "devices", String.class));
         JsonNode devices = objectMapper.readTree(devicesResponse);
         return devices;
     }
 
+    /**
+     * Performs GET request to an uri with encoded path segments, which {@code doGet} would encode again,
+     * see {@link RestRequests#get(RestCommunicator, RestTemplate, URI, HttpHeaders, ResponseExtractor)}.
+     *
+     * @param uri request uri, relative to base uri, encoded
+     * @return response body
+     * @throws Exception if any error occurs
+     */
+    private String doGetEncoded(String uri) throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        if (getContentType() != null) {
+            headers.set("Accept", getContentType());
+        }
+        putExtraRequestHeaders(HttpMethod.GET, uri, headers);
+        return RestRequests.get(this, obtainRestTemplate(), URI.create(RestRequests.buildRequestUrl(this, uri)), headers, response -> {
+            MediaType contentType = response.getHeaders().getContentType();
+            Charset charset = contentType != null && contentType.getCharSet() != null ? contentType.getCharSet() : StandardCharsets.UTF_8;
+            return StreamUtils.copyToString(response.getBody(), charset);
+        });
+    }
+
+    /**
+     * Retrieves single device from devices/{id} endpoint and wraps it into the same payload shape as devices list,
+     * so the same model mapping applies to it.
+     *
+     * @param deviceId id of the device
+     * @return devices payload with single device, or null if the controller does not know the device
+     * @throws Exception if any error occurs
+     */
+    public JsonNode getDevice(String deviceId) throws Exception {
+        String deviceResponse;
+        try {
+            String uri = BASE_URL + "devices/" + UriUtils.encodePathSegment(deviceId, "UTF-8");
+            deviceResponse = sessionManager.execute(this::login, () -> doGetEncoded(uri));
+        } catch (CommandFailureException e) {
+            if (e.getStatusCode() == 404) {
+                logger.debug("Device " + deviceId + " is not found");
+                return null;
+            }
+            throw e;
+        }
+        JsonNode device = objectMapper.readTree(deviceResponse);
+        if (deviceStreamReader != null) {
+            return deviceStreamReader.wrap(device);
+        }
+        ObjectNode devices = objectMapper.createObjectNode();
+        devices.putArray("Devices").add(device);
+        return devices;
+    }
+
+    /**
+     * {@inheritDoc} <br>
+     * Routes requests through the shared connection pool if {@link #sharedConnectionPool} is enabled, otherwise
+     * through a client resuming TLS sessions, see {@link ResumingSslClient}, and negotiates compressed responses if {@link #acceptCompressedResponses} is enabled.
+     */
+    @Override
+    protected RestTemplate obtainRestTemplate() throws Exception {
+        RestTemplate restTemplate = super.obtainRestTemplate();
+        SharedConnectionPool.installIfEnabled(sharedConnectionPool, restTemplate, this);
+        if (!sharedConnectionPool) {
+            resumingSslClient.installIfTrustingAll(restTemplate, this);
+        }
+        if (acceptCompressedResponses) {
+            contentEncodingNegotiator.install(restTemplate);
+        }
+        return restTemplate;
+    }
+
     @Override
     protected HttpHeaders putExtraRequestHeaders(HttpMethod httpMethod, String uri, HttpHeaders headers) {
         headers.set("Content-Type", "application/json");
         headers.set("SessionID", loginId);
+        if (httpMethod == HttpMethod.GET && uri.equals(BASE_URL + "devices")) {
+            deviceListCache.putValidators(headers);
+        }
         return headers;
     }
 
@@ -0,0 +1,418 @@
+package com.avispl.symphony.dal.communicator.sample.aggregator;
+
+import com.avispl.symphony.api.dal.dto.control.AdvancedControllableProperty;
+import com.avispl.symphony.api.dal.dto.monitor.aggregator.AggregatedDevice;
+import com.avispl.symphony.dal.aggregator.parser.PropertiesMapping;
+import com.avispl.symphony.dal.aggregator.parser.PropertiesMappingParser;
+import com.avispl.symphony.dal.aggregator.parser.converter.JsonPropertyConverter;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.commons.beanutils.BeanUtilsBean;
+import org.apache.commons.beanutils.Converter;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Model mapping compiled into accessors, predicates and setters, so mapping devices does not involve any expression
+ * parsing, script evaluation or reflection. <br>
+ * Produces the same devices as {@link com.avispl.symphony.dal.aggregator.parser.AggregatedDeviceProcessor} does for
+ * the same mapping. Device properties of {@link AggregatedDevice} are set directly, any other property is set through
+ * bean utils, the same way the processor sets all of them. Compiled mapping is immutable and is cached per resolved yml
+ * resource, so all communicators loading the same file share a single instance, while communicators loading a resource
+ * of the same name from different class loaders get their own mapping.
+ *
+ * @author Symphony Dev Team<br> Created on Oct 17, 2026
+ */
+public final class CompiledDeviceMapping {
+
+    private static final Log logger = LogFactory.getLog(CompiledDeviceMapping.class);
+    private static final Map<String, CompiledDeviceMapping> cache = new ConcurrentHashMap<>();
+    private static final String GENERIC_MODEL = "generic";
+    private static final Map<String, BiConsumer<AggregatedDevice, String>> deviceSetters = new HashMap<>();
+    private static final BeanUtilsBean beanUtils = new BeanUtilsBean();
+
+    static {
+        deviceSetters.put("deviceType", AggregatedDevice::setDeviceType);
+        deviceSetters.put("deviceId", AggregatedDevice::setDeviceId);
+        deviceSetters.put("deviceName", AggregatedDevice::setDeviceName);
+        deviceSetters.put("deviceMake", AggregatedDevice::setDeviceMake);
+        deviceSetters.put("deviceModel", AggregatedDevice::setDeviceModel);
+        deviceSetters.put("deviceOnline", (device, value) -> device.setDeviceOnline(toBoolean(value)));
+        deviceSetters.put("serialNumber", AggregatedDevice::setSerialNumber);
+        deviceSetters.put("macAddresses", (device, value) -> device.setMacAddresses(Collections.singletonList(value)));
+        deviceSetters.put("aviSplAssetId", AggregatedDevice::setAviSplAssetId);
+        deviceSetters.put("ownerAssetId", AggregatedDevice::setOwnerAssetId);
+        // same as the aggregated device processor, lists are set from single values
+        beanUtils.getConvertUtils().register(new Converter() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T convert(Class<T> type, Object value) {
+                return (T) Collections.singletonList(value);
+            }
+        }, List.class);
+    }
+
+    private static JsonPropertyConverter scriptConverter;
+
+    private final Map<String, CompiledModel> models;
+    private final Set<String> nodes;
+
+    private CompiledDeviceMapping(Map<String, CompiledModel> models, Set<String> nodes) {
+        this.models = models;
+        this.nodes = nodes;
+    }
+
+    /**
+     * Loads and compiles model mapping, or returns the one already compiled from the same resource.
+     * The resource is resolved by the class loader of the owner, the same way
+     * {@link PropertiesMappingParser#loadYML(String, Class)} does.
+     *
+     * @param resource path of the mapping yml resource
+     * @param owner class to load the resource with
+     * @return compiled mapping
+     * @throws IOException if the resource cannot be loaded
+     */
+    public static CompiledDeviceMapping load(String resource, Class<?> owner) throws IOException {
+        URL url = owner.getClassLoader().getResource(resource);
+        if (url == null) {
+            throw new FileNotFoundException("Model mapping " + resource + " is not found by the class loader of " + owner.getName());
+        }
+        // url string rather than url itself, to avoid host name resolution by URL.equals
+        String key = url.toString();
+        CompiledDeviceMapping compiled = cache.get(key);
+        if (compiled == null) {
+            compiled = compile(new PropertiesMappingParser().loadYML(resource, owner));
+            CompiledDeviceMapping existing = cache.putIfAbsent(key, compiled);
+            if (existing != null) {
+                compiled = existing;
+            }
+        }
+        return compiled;
+    }
+
+    /**
+     * Compiles model mapping.
+     *
+     * @param mapping model mapping, keyed by model name
+     * @return compiled mapping
+     */
+    public static CompiledDeviceMapping compile(Map<String, PropertiesMapping> mapping) {
+        Map<String, CompiledModel> models = new LinkedHashMap<>(mapping.size() * 4 / 3 + 1);
+        Set<String> nodes = new LinkedHashSet<>();
+        mapping.forEach((name, model) -> {
+            models.put(name, new CompiledModel(model));
+            nodes.add(model.getNode());
+        });
+        return new CompiledDeviceMapping(Collections.unmodifiableMap(models), Collections.unmodifiableSet(nodes));
+    }
+
+    /**
+     * @return nodes of the devices arrays used by the models
+     */
+    public Set<String> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Extracts devices of all models from the devices payload.
+     *
+     * @param payload devices payload
+     * @return list of mapped devices
+     */
+    public List<AggregatedDevice> extractDevices(JsonNode payload) {
+        List<AggregatedDevice> devices = new ArrayList<>();
+        for (CompiledModel model : models.values()) {
+            if (model.filter == null) {
+                continue;
+            }
+            JsonNode node = model.resolveNode(payload);
+            if (node == null || !node.isArray()) {
+                logger.error("Failed to extract devices from the json payload.");
+                continue;
+            }
+            for (JsonNode device : node) {
+                if (model.filter.test(device)) {
+                    devices.add(model.map(device));
+                }
+            }
+        }
+        return devices;
+    }
+
+    /**
+     * Maps single element of the devices array, e.g. one read by {@link DeviceStreamReader}.
+     *
+     * @param device device json
+     * @return devices of all models matching given json
+     */
+    public List<AggregatedDevice> mapDevice(JsonNode device) {
+        List<AggregatedDevice> devices = new ArrayList<>(1);
+        for (CompiledModel model : models.values()) {
+            if (model.filter != null && model.filter.test(device)) {
+                devices.add(model.map(device));
+            }
+        }
+        return devices;
+    }
+
+    /**
+     * Applies mapping of the given model to the device, the same way
+     * {@link com.avispl.symphony.dal.aggregator.parser.AggregatedDeviceProcessor#applyProperties(AggregatedDevice, JsonNode, String)}
+     * does: if there's no such model in the mapping, the {@code generic} model is applied.
+     *
+     * @param device device to apply the mapping to
+     * @param json device json
+     * @param modelName name of the model to apply
+     * @throws IllegalArgumentException if there's neither the given model nor the generic one in the mapping
+     */
+    public void applyProperties(AggregatedDevice device, JsonNode json, String modelName) {
+        CompiledModel model = models.getOrDefault(modelName, models.get(GENERIC_MODEL));
+        if (model == null) {
+            throw new IllegalArgumentException("Neither " + modelName + " nor " + GENERIC_MODEL + " model is mapped");
+        }
+        model.apply(device, json);
+    }
+
+    /**
+     * Script converter is only created if some expression of the mapping cannot be compiled.
+     */
+    private static synchronized JsonPropertyConverter getScriptConverter() {
+        if (scriptConverter == null) {
+            scriptConverter = new JsonPropertyConverter();
+        }
+        return scriptConverter;
+    }
+
+    /**
+     * Converts value the same way as the bean utils boolean converter, which maps unknown values to false.
+     */
+    private static Boolean toBoolean(String value) {
+        switch (value.trim().toLowerCase()) {
+            case "true":
+            case "yes":
+            case "y":
+            case "on":
+            case "1":
+                return Boolean.TRUE;
+            default:
+                return Boolean.FALSE;
+        }
+    }
+
+    /**
+     * Expressions of a mapping value that refer to the device json are compiled,
+     * others are taken literally.
+     */
+    private static MappingExpression compileValue(Object value) {
+        if (value == null) {
+            return MappingExpression.constant("");
+        }
+        String text = String.valueOf(value);
+        return text.contains(MappingExpression.DEVICE_PREFIX)
+                ? MappingExpression.compile(text, CompiledDeviceMapping::getScriptConverter)
+                : MappingExpression.constant(text);
+    }
+
+    /**
+     * Single compiled model of the mapping.
+     */
+    private static final class CompiledModel {
+        private final String node;
+        private final MappingExpression.Path nodePath;
+        private final MappingExpression filter;
+        private final List<BiConsumer<AggregatedDevice, String>> setters = new ArrayList<>();
+        private final List<MappingExpression> setterValues = new ArrayList<>();
+        private final String[] propertyNames;
+        private final MappingExpression[] propertyValues;
+        private final String[] statisticNames;
+        private final MappingExpression[] statisticValues;
+        private final List<CompiledControl> controls = new ArrayList<>();
+
+        CompiledModel(PropertiesMapping model) {
+            node = model.getNode();
+            nodePath = MappingExpression.compileNode(node);
+            filter = model.getFilter() == null || model.getFilter().isEmpty() ? null
+                    : MappingExpression.compile(model.getFilter(), CompiledDeviceMapping::getScriptConverter);
+            model.getDeviceProperties().forEach((property, value) -> {
+                setters.add(deviceSetters.getOrDefault(property, (device, propertyValue) -> setBeanProperty(device, property, propertyValue)));
+                setterValues.add(compileValue(value));
+            });
+            propertyNames = model.getProperties().keySet().toArray(new String[0]);
+            propertyValues = compileAll(model.getProperties(), propertyNames);
+            statisticNames = model.getStatistics().keySet().toArray(new String[0]);
+            statisticValues = compileAll(model.getStatistics(), statisticNames);
+            // same iteration order as the controls are created in by the aggregated device processor
+            Map<String, Object> controlProperties = new HashMap<String, Object>(model.getControlProperties());
+            controlProperties.forEach((control, definition) -> {
+                if (definition != null) {
+                    controls.add(new CompiledControl(control, definition));
+                }
+            });
+        }
+
+        private static MappingExpression[] compileAll(Map<String, String> values, String[] names) {
+            MappingExpression[] expressions = new MappingExpression[names.length];
+            for (int i = 0; i < names.length; i++) {
+                expressions[i] = MappingExpression.compile(values.get(names[i]), CompiledDeviceMapping::getScriptConverter);
+            }
+            return expressions;
+        }
+
+        JsonNode resolveNode(JsonNode payload) {
+            if (nodePath != null) {
+                return nodePath.resolve(payload);
+            }
+            // node is not a plain path, which is only expected from hand-written mappings
+            synchronized (getScriptConverter()) {
+                return getScriptConverter().retrieveJsonNode(payload, node);
+            }
+        }
+
+        AggregatedDevice map(JsonNode json) {
+            AggregatedDevice device = new AggregatedDevice();
+            apply(device, json);
+            return device;
+        }
+
+        // control map is deprecated in favor of controllable properties, it is still set as AggregatedDeviceProcessor does
+        @SuppressWarnings("deprecation")
+        void apply(AggregatedDevice device, JsonNode json) {
+            for (int i = 0; i < setters.size(); i++) {
+                setters.get(i).accept(device, setterValues.get(i).evaluate(json));
+            }
+            device.setProperties(evaluateAll(json, propertyNames, propertyValues));
+            device.setStatistics(evaluateAll(json, statisticNames, statisticValues));
+            Map<String, String> control = new HashMap<>();
+            List<AdvancedControllableProperty> controllableProperties = new ArrayList<>(controls.size());
+            for (CompiledControl compiledControl : controls) {
+                compiledControl.apply(json, control, controllableProperties);
+            }
+            device.setControl(control);
+            device.setControllableProperties(controllableProperties);
+        }
+
+        /**
+         * Sets device property that has no setter compiled, e.g. timestamp, or a property of a subclass of
+         * {@link AggregatedDevice} the mapping is {@link CompiledDeviceMapping#applyProperties(AggregatedDevice, JsonNode, String) applied} to.
+         */
+        private static void setBeanProperty(AggregatedDevice device, String property, String value) {
+            try {
+                beanUtils.setProperty(device, property, value);
+            } catch (Exception e) {
+                logger.error("Failed to applyProperties: " + property, e);
+            }
+        }
+
+        private static Map<String, String> evaluateAll(JsonNode json, String[] names, MappingExpression[] values) {
+            Map<String, String> result = new HashMap<>(names.length * 4 / 3 + 1);
+            for (int i = 0; i < names.length; i++) {
+                result.put(names[i], values[i].evaluate(json));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Single compiled control of the model, either a plain control value or an advanced controllable property.
+     */
+    private static final class CompiledControl {
+        private final String name;
+        private final String type;
+        private final String plainValue;
+        private final MappingExpression value;
+        private final MappingExpression options;
+        private final MappingExpression labels;
+        private final MappingExpression labelStart;
+        private final MappingExpression labelEnd;
+        private final MappingExpression rangeStart;
+        private final MappingExpression rangeEnd;
+        private final MappingExpression label;
+        private final MappingExpression labelPressed;
+        private final MappingExpression gracePeriod;
+        private final String labelOn;
+        private final String labelOff;
+
+        @SuppressWarnings("unchecked")
+        CompiledControl(String name, Object definition) {
+            this.name = name;
+            Map<String, Object> attributes = definition instanceof Map ? (Map<String, Object>) definition : Collections.emptyMap();
+            type = definition instanceof Map ? (String) attributes.get("type") : null;
+            plainValue = definition instanceof String ? (String) definition : null;
+            value = compileValue(attributes.get("value"));
+            options = compileValue(attributes.get("options"));
+            labels = compileValue(attributes.get("labels"));
+            labelStart = compileValue(attributes.get("labelStart"));
+            labelEnd = compileValue(attributes.get("labelEnd"));
+            rangeStart = compileValue(attributes.get("rangeStart"));
+            rangeEnd = compileValue(attributes.get("rangeEnd"));
+            label = compileValue(attributes.get("label"));
+            labelPressed = compileValue(attributes.get("labelPressed"));
+            gracePeriod = compileValue(attributes.get("gracePeriod"));
+            labelOn = (String) attributes.get("labelOn");
+            labelOff = (String) attributes.get("labelOff");
+        }
+
+        void apply(JsonNode json, Map<String, String> control, List<AdvancedControllableProperty> controllableProperties) {
+            if (plainValue != null) {
+                control.put(name, plainValue);
+                return;
+            }
+            if (type == null) {
+                return;
+            }
+            AdvancedControllableProperty.ControllableType controllableType;
+            switch (type) {
+                case "DropDown":
+                    AdvancedControllableProperty.DropDown dropDown = new AdvancedControllableProperty.DropDown();
+                    dropDown.setOptions(options.evaluate(json).split(","));
+                    dropDown.setLabels(labels.evaluate(json).split(","));
+                    controllableType = dropDown;
+                    break;
+                case "Slider":
+                    AdvancedControllableProperty.Slider slider = new AdvancedControllableProperty.Slider();
+                    slider.setLabelStart(labelStart.evaluate(json));
+                    slider.setLabelEnd(labelEnd.evaluate(json));
+                    slider.setRangeStart(Float.valueOf(rangeStart.evaluate(json)));
+                    slider.setRangeEnd(Float.valueOf(rangeEnd.evaluate(json)));
+                    controllableType = slider;
+                    break;
+                case "Preset":
+                    AdvancedControllableProperty.Preset preset = new AdvancedControllableProperty.Preset();
+                    preset.setOptions(options.evaluate(json).split(","));
+                    preset.setLabels(labels.evaluate(json).split(","));
+                    controllableType = preset;
+                    break;
+                case "Button":
+                    AdvancedControllableProperty.Button button = new AdvancedControllableProperty.Button();
+                    button.setGracePeriod(Long.valueOf(gracePeriod.evaluate(json)));
+                    button.setLabel(label.evaluate(json));
+                    button.setLabelPressed(labelPressed.evaluate(json));
+                    controllableType = button;
+                    break;
+                case "Switch":
+                    AdvancedControllableProperty.Switch switchType = new AdvancedControllableProperty.Switch();
+                    switchType.setLabelOff(labelOff);
+                    switchType.setLabelOn(labelOn);
+                    controllableType = switchType;
+                    break;
+                default:
+                    return;
+            }
+            controllableProperties.add(new AdvancedControllableProperty(name, new Date(), controllableType, value.evaluate(json)));
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.avispl.symphony.dal.communicator.sample.aggregator;
+
+import com.avispl.symphony.api.dal.dto.control.ControllableProperty;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Dispatches a batch of control commands concurrently instead of one round trip after another. <br>
+ * Commands for the same device and property are merged first, the last value of a batch wins. The remaining commands
+ * run on a bounded pool, with at most {@code controllerConcurrency} commands in flight per controller, and the whole
+ * batch is limited by a deadline. The limit per controller applies across batches, batches of a single command included.
+ * Every command gets its own result, so a failed command does not abort the others.
+ *
+ * @author Symphony Dev Team<br> Created on Oct 17, 2026
+ */
+public class ControlDispatcher {
+
+    /**
+     * Executes single control command.
+     */
+    @FunctionalInterface
+    public interface ControlAction {
+        /**
+         * @param controllableProperty control command
+         * @throws Exception if the command fails
+         */
+        void control(ControllableProperty controllableProperty) throws Exception;
+    }
+
+    private final int controllerConcurrency;
+    private final long deadline;
+    private final ExecutorService executor;
+    private final Map<String, ControllerQueue> controllerQueues = new ConcurrentHashMap<>();
+
+    /**
+     * ControlDispatcher constructor.
+     *
+     * @param concurrency max number of commands in flight
+     * @param controllerConcurrency max number of commands in flight per controller
+     * @param deadline max time in ms a batch of commands may take
+     * @param threadName name of the dispatching threads
+     */
+    public ControlDispatcher(int concurrency, int controllerConcurrency, long deadline, String threadName) {
+        this.controllerConcurrency = Math.max(1, controllerConcurrency);
+        this.deadline = deadline;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, concurrency), runnable -> {
+            Thread thread = new Thread(runnable, threadName + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Dispatches batch of control commands and waits for all of them to complete or for the deadline to pass. <br>
+     * Commands of a controller which already has {@code controllerConcurrency} commands in flight wait in the queue of
+     * the controller, not on the pool, so commands for other controllers are not held up behind them.
+     *
+     * @param controllableProperties control commands
+     * @param controllerOf resolves controller a command is sent to
+     * @param action executes single command
+     * @return result of every command left after merging, in the order of the first occurrence of the command
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the commands
+     */
+    public List<ControlResult> dispatch(List<ControllableProperty> controllableProperties,
+            Function<ControllableProperty, String> controllerOf, ControlAction action) throws InterruptedException {
+        List<ControllableProperty> commands = merge(controllableProperties);
+        List<ControlResult> results = new ArrayList<>(commands.size());
+        long deadlineAt = System.currentTimeMillis() + deadline;
+        List<FutureTask<ControlResult>> futures = new ArrayList<>(commands.size());
+        for (ControllableProperty command : commands) {
+            FutureTask<ControlResult> future = new FutureTask<>(() -> execute(command, action));
+            controllerQueues.computeIfAbsent(controllerOf.apply(command), controller -> new ControllerQueue()).enqueue(future);
+            futures.add(future);
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            FutureTask<ControlResult> future = futures.get(i);
+            try {
+                results.add(future.get(Math.max(0, deadlineAt - System.currentTimeMillis()), TimeUnit.MILLISECONDS));
+            } catch (TimeoutException e) {
+                // a command still waiting in the queue of its controller is skipped once its turn comes
+                future.cancel(true);
+                results.add(new ControlResult(commands.get(i), new TimeoutException("Control deadline of " + deadline + "ms exceeded")));
+            } catch (ExecutionException e) {
+                results.add(new ControlResult(commands.get(i), e.getCause()));
+            } catch (CancellationException e) {
+                results.add(new ControlResult(commands.get(i), e));
+            } catch (InterruptedException e) {
+                futures.forEach(pending -> pending.cancel(true));
+                throw e;
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Stops dispatching threads.
+     */
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Merges commands for the same device and property, keeping the position of the first one and the value
+     * of the last one.
+     *
+     * @param controllableProperties control commands
+     * @return merged control commands
+     */
+    static List<ControllableProperty> merge(List<ControllableProperty> controllableProperties) {
+        Map<String, ControllableProperty> commands = new LinkedHashMap<>();
+        for (ControllableProperty controllableProperty : controllableProperties) {
+            commands.put(controllableProperty.getDeviceId() + "\u0000" + controllableProperty.getProperty(), controllableProperty);
+        }
+        return new ArrayList<>(commands.values());
+    }
+
+    /**
+     * Commands of a single controller. At most {@code controllerConcurrency} of them are on the pool at a time,
+     * the next one is submitted when one of them completes.
+     */
+    private final class ControllerQueue {
+        private final Queue<FutureTask<ControlResult>> pending = new ArrayDeque<>();
+        private int inFlight;
+
+        synchronized void enqueue(FutureTask<ControlResult> command) {
+            if (inFlight < controllerConcurrency) {
+                inFlight++;
+                submit(command);
+            } else {
+                pending.add(command);
+            }
+        }
+
+        private synchronized void completed() {
+            FutureTask<ControlResult> command = pending.poll();
+            if (command == null) {
+                inFlight--;
+            } else {
+                submit(command);
+            }
+        }
+
+        private void submit(FutureTask<ControlResult> command) {
+            try {
+                executor.execute(() -> {
+                    try {
+                        command.run();
+                    } finally {
+                        completed();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // the dispatcher is stopped
+                command.cancel(false);
+                pending.forEach(queued -> queued.cancel(false));
+                pending.clear();
+            }
+        }
+    }
+
+    private static ControlResult execute(ControllableProperty command, ControlAction action) {
+        try {
+            action.control(command);
+            return new ControlResult(command, null);
+        } catch (Exception e) {
+            return new ControlResult(command, e);
+        }
+    }
+
+    /**
+     * Outcome of a single control command.
+     */
+    public static final class ControlResult {
+        private final ControllableProperty controllableProperty;
+        private final Throwable error;
+
+        ControlResult(ControllableProperty controllableProperty, Throwable error) {
+            this.controllableProperty = controllableProperty;
+            this.error = error;
+        }
+
+        /**
+         * @return control command
+         */
+        public ControllableProperty getControllableProperty() {
+            return controllableProperty;
+        }
+
+        /**
+         * @return id of the controlled device
+         */
+        public String getDeviceId() {
+            return controllableProperty.getDeviceId();
+        }
+
+        /**
+         * @return true if the command succeeded
+         */
+        public boolean isSuccessful() {
+            return error == null;
+        }
+
+        /**
+         * @return error of the command, null if the command succeeded
+         */
+        public Throwable getError() {
+            return error;
+        }
+    }
+}
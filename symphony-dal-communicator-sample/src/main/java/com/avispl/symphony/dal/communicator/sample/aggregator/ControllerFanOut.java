@@ -0,0 +1,234 @@
+package com.avispl.symphony.dal.communicator.sample.aggregator;
+
+import com.avispl.symphony.api.dal.dto.monitor.aggregator.AggregatedDevice;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Polls devices of several controllers in parallel on a shared bounded pool and merges them into one list. <br>
+ * Every controller is a partition of the merged list: device ids are qualified with the controller they come from,
+ * see {@link #qualify(String, String)}. A controller that fails or does not respond within the timeout only degrades
+ * its own partition, which keeps the devices of its last successful poll until they get older than the max staleness:
+ * the devices are dropped then, and the controller is reported unreachable until it responds again. A poll that is still running when the timeout
+ * passes is not started again, the next poll waits for it instead, so a slow controller never holds more than one
+ * thread of the pool.
+ *
+ * @author Symphony Dev Team<br> Created on Oct 17, 2026
+ */
+public class ControllerFanOut {
+
+    /**
+     * Separator of the controller and the device id in a qualified device id
+     */
+    public static final char SEPARATOR = '/';
+
+    private static final Log logger = LogFactory.getLog(ControllerFanOut.class);
+
+    private final Map<String, Partition> partitions = new LinkedHashMap<>();
+    private final long timeout;
+    private final long maxStaleness;
+    private final ExecutorService executor;
+
+    /**
+     * ControllerFanOut constructor.
+     *
+     * @param sources device sources by controller
+     * @param parallelism max number of controllers polled at the same time
+     * @param timeout max time in ms a poll of all the controllers may take
+     * @param maxStaleness max age in ms of the devices of a controller that fails or is late, 0 or less to keep them until it responds
+     * @param threadName name of the polling threads
+     */
+    public ControllerFanOut(Map<String, Callable<List<AggregatedDevice>>> sources, int parallelism, long timeout, long maxStaleness,
+            String threadName) {
+        sources.forEach((controller, source) -> partitions.put(controller, new Partition(controller, source)));
+        this.timeout = timeout;
+        this.maxStaleness = maxStaleness;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, parallelism), runnable -> {
+            Thread thread = new Thread(runnable, threadName + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Polls all the controllers and merges their devices, in the order of the controllers.
+     *
+     * @return devices of all the controllers, with qualified device ids
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the controllers
+     */
+    public synchronized List<AggregatedDevice> fetch() throws InterruptedException {
+        long deadlineAt = System.currentTimeMillis() + timeout;
+        for (Partition partition : partitions.values()) {
+            partition.submit();
+        }
+        List<AggregatedDevice> devices = new ArrayList<>();
+        for (Partition partition : partitions.values()) {
+            partition.await(deadlineAt);
+            devices.addAll(partition.devices);
+        }
+        return devices;
+    }
+
+    /**
+     * @return status of the last poll by controller, {@code OK} if the controller responded in time
+     */
+    public Map<String, String> getStatuses() {
+        Map<String, String> statuses = new LinkedHashMap<>();
+        partitions.forEach((controller, partition) -> statuses.put(controller, partition.status));
+        return statuses;
+    }
+
+    /**
+     * @return number of devices reported by controller, 0 for a controller whose devices got older than the max staleness
+     */
+    public Map<String, Integer> getDeviceCounts() {
+        Map<String, Integer> deviceCounts = new LinkedHashMap<>();
+        partitions.forEach((controller, partition) -> deviceCounts.put(controller, partition.devices.size()));
+        return deviceCounts;
+    }
+
+    /**
+     * Stops polling threads.
+     */
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @param controller controller as {@code host}, {@code host:port}, {@code [IPv6 address]} or {@code [IPv6 address]:port},
+     * a bare IPv6 address is taken as a host without port
+     * @return host of the controller, without brackets of an IPv6 address
+     */
+    public static String hostOf(String controller) {
+        if (controller.startsWith("[")) {
+            int end = controller.indexOf(']');
+            if (end < 0) {
+                throw new IllegalArgumentException("Controller " + controller + " misses closing bracket of IPv6 address");
+            }
+            return controller.substring(1, end);
+        }
+        int portSeparator = controller.indexOf(':');
+        return portSeparator < 0 || portSeparator != controller.lastIndexOf(':') ? controller : controller.substring(0, portSeparator);
+    }
+
+    /**
+     * @param controller controller as {@code host}, {@code host:port}, {@code [IPv6 address]} or {@code [IPv6 address]:port}
+     * @param defaultPort port of the controllers that don't specify one
+     * @return port of the controller
+     */
+    public static int portOf(String controller, int defaultPort) {
+        int portSeparator;
+        if (controller.startsWith("[")) {
+            int end = controller.indexOf(']');
+            portSeparator = end >= 0 && controller.startsWith(":", end + 1) ? end + 1 : -1;
+        } else {
+            portSeparator = controller.indexOf(':');
+            if (portSeparator != controller.lastIndexOf(':')) {
+                portSeparator = -1;
+            }
+        }
+        return portSeparator < 0 ? defaultPort : Integer.parseInt(controller.substring(portSeparator + 1));
+    }
+
+    /**
+     * @param controller controller the device belongs to
+     * @param deviceId id of the device reported by the controller
+     * @return device id unique across all the controllers
+     */
+    public static String qualify(String controller, String deviceId) {
+        return controller + SEPARATOR + deviceId;
+    }
+
+    /**
+     * @param qualifiedDeviceId qualified device id
+     * @return controller the device belongs to, null if the device id is not qualified
+     */
+    public static String controllerOf(String qualifiedDeviceId) {
+        int separator = qualifiedDeviceId == null ? -1 : qualifiedDeviceId.indexOf(SEPARATOR);
+        return separator < 0 ? null : qualifiedDeviceId.substring(0, separator);
+    }
+
+    /**
+     * @param qualifiedDeviceId qualified device id
+     * @return id of the device reported by the controller
+     */
+    public static String deviceIdOf(String qualifiedDeviceId) {
+        return qualifiedDeviceId.substring(qualifiedDeviceId.indexOf(SEPARATOR) + 1);
+    }
+
+    /**
+     * Devices of a single controller, along with the poll in progress.
+     */
+    private final class Partition {
+        private final String controller;
+        private final Callable<List<AggregatedDevice>> source;
+        private Future<List<AggregatedDevice>> pending;
+        private volatile List<AggregatedDevice> devices = Collections.emptyList();
+        private volatile String status = "Pending";
+        private long polledAt;
+
+        Partition(String controller, Callable<List<AggregatedDevice>> source) {
+            this.controller = controller;
+            this.source = source;
+        }
+
+        /**
+         * Starts a poll of the controller, unless the previous one is still running.
+         */
+        void submit() {
+            if (pending == null) {
+                pending = executor.submit(source);
+            }
+        }
+
+        /**
+         * Waits for the poll until the deadline, keeping the devices of the last successful poll if it fails or is late,
+         * unless they are older than the max staleness.
+         */
+        void await(long deadlineAt) throws InterruptedException {
+            try {
+                devices = pending.get(Math.max(0, deadlineAt - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                pending = null;
+                polledAt = System.currentTimeMillis();
+                status = "OK";
+            } catch (TimeoutException e) {
+                status = "Timed out";
+                logger.warn("Controller " + controller + " did not respond in " + timeout + "ms, reporting its last known devices");
+                dropStaleDevices();
+            } catch (ExecutionException e) {
+                pending = null;
+                status = "Failed: " + e.getCause().getMessage();
+                logger.warn("Failed to retrieve devices of controller " + controller + ", reporting its last known devices", e.getCause());
+                dropStaleDevices();
+            }
+        }
+
+        private void dropStaleDevices() {
+            long age = System.currentTimeMillis() - polledAt;
+            if (maxStaleness <= 0 || polledAt == 0 || age <= maxStaleness) {
+                return;
+            }
+            if (!devices.isEmpty()) {
+                logger.warn("Devices of controller " + controller + " are " + age + "ms old, max staleness is " + maxStaleness
+                        + "ms, dropping them until the controller responds");
+                devices = Collections.emptyList();
+            }
+            status = "Unreachable, last responded " + age + "ms ago: " + status;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.avispl.symphony.dal.communicator.sample.aggregator;
+
+import com.avispl.symphony.api.dal.dto.monitor.aggregator.AggregatedDevice;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable deviceId-keyed index over the last mapped list of aggregated devices. <br>
+ * Used by {@code retrieveMultipleStatistics(List<String>)} to look up requested devices by hash instead of scanning the
+ * whole device list for every requested id.
+ *
+ * @author Symphony Dev Team<br> Created on Oct 17, 2026
+ */
+public final class DeviceIndex {
+
+    private final Map<String, AggregatedDevice> devicesById;
+
+    private DeviceIndex(Map<String, AggregatedDevice> devicesById) {
+        this.devicesById = devicesById;
+    }
+
+    /**
+     * Builds index over given devices. Devices without id are not indexed.
+     *
+     * @param devices list of devices
+     * @return device index
+     */
+    public static DeviceIndex of(List<AggregatedDevice> devices) {
+        Map<String, AggregatedDevice> devicesById = new HashMap<>(devices.size() * 4 / 3 + 1);
+        for (AggregatedDevice device : devices) {
+            if (device.getDeviceId() != null) {
+                devicesById.put(device.getDeviceId(), device);
+            }
+        }
+        return new DeviceIndex(Collections.unmodifiableMap(devicesById));
+    }
+
+    /**
+     * @return number of indexed devices
+     */
+    public int size() {
+        return devicesById.size();
+    }
+
+    /**
+     * @param deviceId id of the device
+     * @return device with given id, or null if there is no such device
+     */
+    public AggregatedDevice get(String deviceId) {
+        return devicesById.get(deviceId);
+    }
+
+    /**
+     * @param deviceIds ids of devices to select
+     * @return devices with given ids in the order of requested ids, unknown ids are skipped
+     */
+    public List<AggregatedDevice> select(List<String> deviceIds) {
+        List<AggregatedDevice> devices = new ArrayList<>(deviceIds.size());
+        for (String deviceId : deviceIds) {
+            AggregatedDevice device = devicesById.get(deviceId);
+            if (device != null) {
+                devices.add(device);
+            }
+        }
+        return devices;
+    }
+}
@@ -0,0 +1,120 @@
+package com.avispl.symphony.dal.communicator.sample.aggregator;
+
+import com.avispl.symphony.api.dal.dto.monitor.aggregator.AggregatedDevice;
+import org.springframework.http.HttpHeaders;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers validators ({@code ETag}, {@code Last-Modified}) of the last devices response along with the devices
+ * mapped from it. <br>
+ * Validators are sent with the next devices request as {@code If-None-Match} and {@code If-Modified-Since}, so when
+ * the inventory has not changed the controller responds with {@code 304 Not Modified} and the devices mapped before
+ * are reused without transferring, parsing or mapping the payload again. Responses without validators are not cached. <br>
+ * A {@link DeviceIndex} over the cached devices is built on first use and kept along with them, so subsets of devices
+ * are selected from it for as long as the validators stay the same.
+ *
+ * @author Symphony Dev Team<br> Created on Oct 17, 2026
+ */
+public class DeviceListCache {
+
+    private final AtomicLong notModifiedCount = new AtomicLong();
+    private volatile Entry entry;
+
+    /**
+     * Adds conditional headers to the devices request, if there are devices to fall back to.
+     *
+     * @param headers request headers
+     */
+    public void putValidators(HttpHeaders headers) {
+        Entry current = entry;
+        if (current == null) {
+            return;
+        }
+        if (current.etag != null) {
+            headers.set(HttpHeaders.IF_NONE_MATCH, current.etag);
+        }
+        if (current.lastModified != null) {
+            headers.set(HttpHeaders.IF_MODIFIED_SINCE, current.lastModified);
+        }
+    }
+
+    /**
+     * Remembers devices mapped from a full devices response.
+     *
+     * @param responseHeaders headers of the devices response
+     * @param devices devices mapped from the response
+     */
+    public void update(HttpHeaders responseHeaders, List<AggregatedDevice> devices) {
+        String etag = responseHeaders.getETag();
+        String lastModified = responseHeaders.getFirst(HttpHeaders.LAST_MODIFIED);
+        entry = etag == null && lastModified == null ? null
+                : new Entry(etag, lastModified, Collections.unmodifiableList(new ArrayList<>(devices)));
+    }
+
+    /**
+     * @return devices mapped from the last full devices response, to be used when the controller responds with 304
+     * @throws IllegalStateException if there are no cached devices
+     */
+    public List<AggregatedDevice> getDevices() {
+        Entry current = entry;
+        if (current == null) {
+            throw new IllegalStateException("Devices are reported as not modified, but there are no devices cached");
+        }
+        notModifiedCount.incrementAndGet();
+        return new ArrayList<>(current.devices);
+    }
+
+    /**
+     * @return index of the devices mapped from the last full devices response, or null if there are no cached devices
+     */
+    public DeviceIndex getIndex() {
+        Entry current = entry;
+        return current == null ? null : current.getIndex();
+    }
+
+    /**
+     * @return number of devices responses that were not modified
+     */
+    public long getNotModifiedCount() {
+        return notModifiedCount.get();
+    }
+
+    /**
+     * Drops cached devices, so the next devices request is unconditional.
+     */
+    public void reset() {
+        entry = null;
+    }
+
+    /**
+     * Validators and devices of a single response, replaced as a whole.
+     */
+    private static final class Entry {
+        private final String etag;
+        private final String lastModified;
+        private final List<AggregatedDevice> devices;
+        private volatile DeviceIndex index;
+
+        Entry(String etag, String lastModified, List<AggregatedDevice> devices) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.devices = devices;
+        }
+
+        /**
+         * Builds the index on first use. Concurrent first uses may build it more than once, each index is the same.
+         */
+        DeviceIndex getIndex() {
+            DeviceIndex current = index;
+            if (current == null) {
+                current = DeviceIndex.of(devices);
+                index = current;
+            }
+            return current;
+        }
+    }
+}
@@ -0,0 +1,399 @@
+package com.avispl.symphony.dal.communicator.sample.aggregator;
+
+import com.avispl.symphony.api.dal.dto.monitor.aggregator.AggregatedDevice;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Retrieves device inventory page by page, for controllers that cannot return the whole inventory in one response. <br>
+ * Two pagination modes are supported:
+ * <ul>
+ *     <li>{@link Mode#OFFSET} - pages are requested with {@code offset} and {@code limit} query parameters. If the first
+ *     page reports total number of devices in its {@code Total} field, all the remaining pages are requested right away, otherwise pages are
+ *     requested in batches until a page comes back incomplete. Either way at most {@code parallelism} pages are
+ *     in flight.</li>
+ *     <li>{@link Mode#CURSOR} - pages are requested with {@code cursor} and {@code limit} query parameters, the cursor of
+ *     the next page is taken from {@code NextCursor} field of the current one, so pages are requested one after
+ *     another.</li>
+ * </ul>
+ * Names of the query parameters and page fields above are defaults, each of them can be changed with its setter. <br>
+ * Every page is mapped as soon as it arrives. A failed page is retried on its own, the pages already retrieved are
+ * kept. Devices are returned in the page order regardless of the order pages arrive in. <br>
+ * A controller ignoring the pagination parameters would keep returning the same full page: retrieval stops at the
+ * first page starting with the same device as the page before it, or returning a cursor already seen, and at most
+ * {@link #setMaxDevices(int) maxDevices} devices worth of pages are requested.
+ *
+ * @author Symphony Dev Team<br> Created on Oct 17, 2026
+ */
+public class DevicePageFetcher {
+
+    /**
+     * Pagination mode of the controller api
+     */
+    public enum Mode {
+        OFFSET, CURSOR;
+
+        /**
+         * @param value name of the mode, case insensitive
+         * @return the mode
+         * @throws IllegalArgumentException if the value is not a mode name
+         */
+        public static Mode parse(String value) {
+            for (Mode mode : values()) {
+                if (mode.name().equalsIgnoreCase(value)) {
+                    return mode;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported pagination mode " + value + ", expected one of " + Arrays.toString(values()));
+        }
+    }
+
+    /**
+     * Loads single page of devices.
+     */
+    @FunctionalInterface
+    public interface PageLoader {
+        /**
+         * @param query query string of the page request, e.g. {@code offset=100&limit=100}
+         * @return page payload
+         * @throws Exception if the page cannot be retrieved
+         */
+        JsonNode load(String query) throws Exception;
+    }
+
+    private static final Log logger = LogFactory.getLog(DevicePageFetcher.class);
+
+    private final Mode mode;
+    private final int pageSize;
+    private final int parallelism;
+    private final int retryAttempts;
+    private final String[] devicesNode;
+    private final ExecutorService executor;
+    private final boolean ownExecutor;
+
+    private String offsetParameter = "offset";
+    private String limitParameter = "limit";
+    private String cursorParameter = "cursor";
+    private String totalNode = "Total";
+    private String nextCursorNode = "NextCursor";
+    private int maxDevices = 100000;
+
+    /**
+     * DevicePageFetcher constructor.
+     *
+     * @param mode pagination mode
+     * @param pageSize number of devices requested per page
+     * @param parallelism max number of pages requested at the same time
+     * @param retryAttempts number of extra attempts to retrieve a failed page
+     * @param devicesNode dot separated path of the devices array in the page payload
+     * @param threadName name of the page fetching threads
+     */
+    public DevicePageFetcher(Mode mode, int pageSize, int parallelism, int retryAttempts, String devicesNode, String threadName) {
+        this(mode, pageSize, parallelism, retryAttempts, devicesNode, createExecutor(Math.max(1, parallelism), threadName), true);
+    }
+
+    /**
+     * DevicePageFetcher constructor, for fetchers sharing page fetching threads, see {@link #createExecutor(int, String)}.
+     * The executor is not shut down by {@link #stop()}.
+     *
+     * @param mode pagination mode
+     * @param pageSize number of devices requested per page
+     * @param parallelism max number of pages of this fetcher requested at the same time
+     * @param retryAttempts number of extra attempts to retrieve a failed page
+     * @param devicesNode dot separated path of the devices array in the page payload
+     * @param executor page fetching threads
+     */
+    public DevicePageFetcher(Mode mode, int pageSize, int parallelism, int retryAttempts, String devicesNode, ExecutorService executor) {
+        this(mode, pageSize, parallelism, retryAttempts, devicesNode, executor, false);
+    }
+
+    private DevicePageFetcher(Mode mode, int pageSize, int parallelism, int retryAttempts, String devicesNode, ExecutorService executor, boolean ownExecutor) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        this.mode = mode;
+        this.pageSize = pageSize;
+        this.parallelism = Math.max(1, parallelism);
+        this.retryAttempts = Math.max(0, retryAttempts);
+        this.devicesNode = devicesNode == null || devicesNode.isEmpty() ? new String[0] : devicesNode.split("\\.");
+        this.executor = executor;
+        this.ownExecutor = ownExecutor;
+    }
+
+    /**
+     * Creates page fetching threads, to be shared by several fetchers and shut down once all of them are stopped.
+     *
+     * @param threads number of threads
+     * @param threadName name of the threads
+     * @return page fetching threads
+     */
+    public static ExecutorService createExecutor(int threads, String threadName) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, threadName + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @param offsetParameter name of the query parameter with offset of the page, in {@link Mode#OFFSET} mode
+     */
+    public void setOffsetParameter(String offsetParameter) {
+        this.offsetParameter = requireName(offsetParameter, "Offset parameter");
+    }
+
+    /**
+     * @param limitParameter name of the query parameter with page size
+     */
+    public void setLimitParameter(String limitParameter) {
+        this.limitParameter = requireName(limitParameter, "Limit parameter");
+    }
+
+    /**
+     * @param cursorParameter name of the query parameter with cursor of the page, in {@link Mode#CURSOR} mode
+     */
+    public void setCursorParameter(String cursorParameter) {
+        this.cursorParameter = requireName(cursorParameter, "Cursor parameter");
+    }
+
+    /**
+     * @param totalNode name of the page field with total number of devices
+     */
+    public void setTotalNode(String totalNode) {
+        this.totalNode = requireName(totalNode, "Total field");
+    }
+
+    /**
+     * @param nextCursorNode name of the page field with the cursor of the next page
+     */
+    public void setNextCursorNode(String nextCursorNode) {
+        this.nextCursorNode = requireName(nextCursorNode, "Next cursor field");
+    }
+
+    /**
+     * @param maxDevices max number of devices retrieved, pages past it are not requested
+     */
+    public void setMaxDevices(int maxDevices) {
+        this.maxDevices = maxDevices;
+    }
+
+    /**
+     * Retrieves and maps all pages of devices.
+     *
+     * @param loader page loader
+     * @param mapper mapper of the page payload to devices
+     * @return devices of all pages, in page order
+     * @throws Exception if a page cannot be retrieved after all retry attempts
+     */
+    public List<AggregatedDevice> fetch(PageLoader loader, Function<JsonNode, List<AggregatedDevice>> mapper) throws Exception {
+        switch (mode) {
+            case OFFSET:
+                return fetchByOffset(loader, mapper);
+            case CURSOR:
+                return fetchByCursor(loader, mapper);
+            default:
+                throw new IllegalStateException("Unsupported pagination mode " + mode);
+        }
+    }
+
+    /**
+     * Stops page fetching threads, unless they are shared with other fetchers.
+     */
+    public void stop() {
+        if (ownExecutor) {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<AggregatedDevice> fetchByOffset(PageLoader loader, Function<JsonNode, List<AggregatedDevice>> mapper) throws Exception {
+        JsonNode firstPage = loadPage(loader, offsetQuery(0));
+        Pages pages = new Pages();
+        pages.add(new Page(mapper.apply(firstPage), countDevices(firstPage)));
+        if (pages.complete) {
+            return pages.devices;
+        }
+        int maxPages = getMaxPages();
+        JsonNode total = firstPage.get(totalNode);
+        if (total != null && total.canConvertToInt()) {
+            int pageCount = Math.min((total.asInt() + pageSize - 1) / pageSize, maxPages);
+            List<Future<Page>> futures = new ArrayList<>(pageCount);
+            for (int page = 1; page < pageCount; page++) {
+                futures.add(submitPage(loader, mapper, page));
+            }
+            collect(futures, pages);
+            return pages.devices;
+        }
+        // total is unknown, request batches of pages until one of them comes back incomplete
+        int nextPage = 1;
+        while (!pages.complete) {
+            if (nextPage >= maxPages) {
+                logger.warn("Stopped retrieving devices after " + nextPage + " pages, max number of devices is " + maxDevices);
+                break;
+            }
+            List<Future<Page>> futures = new ArrayList<>(parallelism);
+            for (int i = 0; i < parallelism && nextPage < maxPages; i++) {
+                futures.add(submitPage(loader, mapper, nextPage++));
+            }
+            collect(futures, pages);
+        }
+        return pages.devices;
+    }
+
+    private List<AggregatedDevice> fetchByCursor(PageLoader loader, Function<JsonNode, List<AggregatedDevice>> mapper) throws Exception {
+        Pages pages = new Pages();
+        Set<String> cursors = new HashSet<>();
+        int maxPages = getMaxPages();
+        String cursor = null;
+        do {
+            if (pages.count >= maxPages) {
+                logger.warn("Stopped retrieving devices after " + pages.count + " pages, max number of devices is " + maxDevices);
+                break;
+            }
+            JsonNode page = loadPage(loader, cursor == null ? limitQuery() : encode(cursorParameter) + "=" + encode(cursor) + "&" + limitQuery());
+            int count = countDevices(page);
+            pages.add(new Page(mapper.apply(page), count));
+            JsonNode nextCursor = page.get(nextCursorNode);
+            cursor = pages.complete || count == 0 || nextCursor == null || nextCursor.isNull() || nextCursor.asText().isEmpty()
+                    ? null : nextCursor.asText();
+            if (cursor != null && !cursors.add(cursor)) {
+                logger.warn("Controller returned cursor " + cursor + " again, stopped retrieving devices");
+                cursor = null;
+            }
+        } while (cursor != null);
+        return pages.devices;
+    }
+
+    private Future<Page> submitPage(PageLoader loader, Function<JsonNode, List<AggregatedDevice>> mapper, int page) {
+        return executor.submit(() -> {
+            JsonNode payload = loadPage(loader, offsetQuery(page * pageSize));
+            return new Page(mapper.apply(payload), countDevices(payload));
+        });
+    }
+
+    /**
+     * Waits for given pages and adds their devices in page order, up to the end of the device list.
+     */
+    private void collect(List<Future<Page>> futures, Pages pages) throws Exception {
+        try {
+            for (Future<Page> future : futures) {
+                Page page = future.get();
+                if (!pages.complete) {
+                    pages.add(page);
+                }
+            }
+        } catch (ExecutionException e) {
+            futures.forEach(page -> page.cancel(true));
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        } catch (InterruptedException e) {
+            futures.forEach(page -> page.cancel(true));
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+
+    /**
+     * @return max number of pages requested
+     */
+    private int getMaxPages() {
+        return Math.max(1, (maxDevices + pageSize - 1) / pageSize);
+    }
+
+    /**
+     * Loads single page, retrying it on failure.
+     */
+    private JsonNode loadPage(PageLoader loader, String query) throws Exception {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return loader.load(query);
+            } catch (Exception e) {
+                if (attempt >= retryAttempts || Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+                logger.warn("Failed to retrieve devices page " + query + ", retrying", e);
+            }
+        }
+    }
+
+    private String offsetQuery(int offset) throws UnsupportedEncodingException {
+        return encode(offsetParameter) + "=" + offset + "&" + limitQuery();
+    }
+
+    private String limitQuery() throws UnsupportedEncodingException {
+        return encode(limitParameter) + "=" + pageSize;
+    }
+
+    private static String encode(String value) throws UnsupportedEncodingException {
+        return URLEncoder.encode(value, "UTF-8");
+    }
+
+    private static String requireName(String name, String description) {
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException(description + " name must not be empty");
+        }
+        return name.trim();
+    }
+
+    private int countDevices(JsonNode page) {
+        JsonNode devices = page;
+        for (String segment : devicesNode) {
+            devices = devices == null ? null : devices.get(segment);
+        }
+        return devices != null && devices.isArray() ? devices.size() : 0;
+    }
+
+    /**
+     * Devices of the pages retrieved so far, in page order.
+     */
+    private final class Pages {
+        private final List<AggregatedDevice> devices = new ArrayList<>();
+        private int count;
+        private String previousFirstDeviceId;
+        // true once the last page is reached
+        private boolean complete;
+
+        /**
+         * Adds devices of the next page, unless it repeats the page before it.
+         */
+        void add(Page page) {
+            String firstDeviceId = page.devices.isEmpty() ? null : page.devices.get(0).getDeviceId();
+            if (firstDeviceId != null && firstDeviceId.equals(previousFirstDeviceId)) {
+                logger.warn("Devices page " + count + " repeats the page before it, controller may not support pagination, stopped retrieving devices");
+                complete = true;
+                return;
+            }
+            previousFirstDeviceId = firstDeviceId;
+            devices.addAll(page.devices);
+            count++;
+            complete = page.count < pageSize;
+        }
+    }
+
+    /**
+     * Mapped devices of a page, along with the number of devices in the page payload.
+     */
+    private static final class Page {
+        private final List<AggregatedDevice> devices;
+        private final int count;
+
+        Page(List<AggregatedDevice> devices, int count) {
+            this.devices = devices;
+            this.count = count;
+        }
+    }
+}
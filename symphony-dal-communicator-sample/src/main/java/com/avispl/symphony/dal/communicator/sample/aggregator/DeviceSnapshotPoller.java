@@ -0,0 +1,170 @@
+package com.avispl.symphony.dal.communicator.sample.aggregator;
+
+import com.avispl.symphony.api.dal.dto.monitor.aggregator.AggregatedDevice;
+import com.avispl.symphony.api.dal.error.ResourceNotReachableException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps an immutable snapshot of aggregated devices up to date on a dedicated refresher thread. <br>
+ * This way {@code retrieveMultipleStatistics()} returns the last snapshot right away instead of blocking Symphony poll
+ * thread for the whole login, fetch and mapping cycle. The capture time is kept by {@link DeviceSnapshot} only:
+ * devices are not modified, as the ones of an unchanged device list are the same instances the previous snapshot
+ * already handed out, see {@link DeviceListCache}. <br>
+ * Once the snapshot gets older than {@code maxStaleness}, e.g. because the controller is not reachable,
+ * {@link #getSnapshot()} reports the data as unavailable instead of returning outdated devices. Until the first refresh
+ * succeeds there is no data to serve, so it is reported as unavailable as well.
+ *
+ * @author Symphony Dev Team<br> Created on Oct 17, 2026
+ */
+public class DeviceSnapshotPoller {
+
+    private static final Log logger = LogFactory.getLog(DeviceSnapshotPoller.class);
+
+    private final Callable<List<AggregatedDevice>> fetch;
+    private final long refreshInterval;
+    private final long maxStaleness;
+
+    private ScheduledExecutorService refresher;
+    private volatile boolean started;
+    private volatile DeviceSnapshot snapshot;
+    private volatile Throwable lastError;
+
+    /**
+     * DeviceSnapshotPoller constructor.
+     *
+     * @param fetch routine retrieving current list of devices from the controller
+     * @param refreshInterval delay in ms between end of one refresh and start of the next one
+     * @param maxStaleness max age of the snapshot in ms before it is reported as unavailable, 0 or less to never expire
+     */
+    public DeviceSnapshotPoller(Callable<List<AggregatedDevice>> fetch, long refreshInterval, long maxStaleness) {
+        if (refreshInterval <= 0) {
+            throw new IllegalArgumentException("Snapshot refresh interval must be positive: " + refreshInterval);
+        }
+        this.fetch = fetch;
+        this.refreshInterval = refreshInterval;
+        this.maxStaleness = maxStaleness;
+    }
+
+    /**
+     * Starts refresher thread. Until the first refresh succeeds, the snapshot is reported as unavailable.
+     *
+     * @param name name of the refresher thread
+     */
+    public synchronized void start(String name) {
+        if (refresher != null) {
+            return;
+        }
+        started = true;
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(this::refresh, 0, refreshInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops refresher thread and drops current snapshot.
+     */
+    public synchronized void stop() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+            refresher = null;
+        }
+        started = false;
+        snapshot = null;
+    }
+
+    /**
+     * @return current snapshot
+     * @throws ResourceNotReachableException if the snapshot is not captured yet, or is older than max staleness
+     * @throws IllegalStateException if the poller is not started
+     */
+    public DeviceSnapshot getSnapshot() {
+        if (!started) {
+            throw new IllegalStateException("Device snapshot poller is not started");
+        }
+        DeviceSnapshot current = snapshot;
+        if (current == null) {
+            throw new ResourceNotReachableException("Device snapshot is not captured yet", lastError);
+        }
+        if (maxStaleness > 0 && current.getAge() > maxStaleness) {
+            throw new ResourceNotReachableException("Device snapshot is " + current.getAge() + "ms old, max staleness is "
+                    + maxStaleness + "ms", lastError);
+        }
+        return current;
+    }
+
+    /**
+     * @return age of current snapshot in ms regardless of max staleness, -1 if no snapshot is captured yet
+     */
+    public long getSnapshotAge() {
+        DeviceSnapshot current = snapshot;
+        return current == null ? -1 : current.getAge();
+    }
+
+    private void refresh() {
+        try {
+            List<AggregatedDevice> devices = fetch.call();
+            snapshot = new DeviceSnapshot(Collections.unmodifiableList(new ArrayList<>(devices)), DeviceIndex.of(devices),
+                    System.currentTimeMillis());
+            lastError = null;
+        } catch (Throwable e) {
+            // keep serving previous snapshot until it gets too stale
+            lastError = e;
+            logger.error("Failed to refresh device snapshot", e);
+        }
+    }
+
+    /**
+     * Immutable list of devices and its index by deviceId, along with the time it was captured.
+     */
+    public static final class DeviceSnapshot {
+        private final List<AggregatedDevice> devices;
+        private final DeviceIndex index;
+        private final long timestamp;
+
+        DeviceSnapshot(List<AggregatedDevice> devices, DeviceIndex index, long timestamp) {
+            this.devices = devices;
+            this.index = index;
+            this.timestamp = timestamp;
+        }
+
+        /**
+         * @return unmodifiable list of devices
+         */
+        public List<AggregatedDevice> getDevices() {
+            return devices;
+        }
+
+        /**
+         * @return index of snapshot devices by deviceId
+         */
+        public DeviceIndex getIndex() {
+            return index;
+        }
+
+        /**
+         * @return time the snapshot was captured at, ms since epoch
+         */
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        /**
+         * @return age of the snapshot in ms
+         */
+        public long getAge() {
+            return System.currentTimeMillis() - timestamp;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.avispl.symphony.dal.communicator.sample.aggregator;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * Reads devices payload token by token, so only one device is held in memory at a time. <br>
+ * The devices array is located by the node path of the model mapping (e.g. {@code Devices} or {@code Data.Devices}),
+ * every array element is parsed into its own {@link JsonNode} and handed to the consumer, which is expected to map it
+ * and let it go. Empty node path means the payload itself is the devices array. <br>
+ * {@link #wrap(JsonNode)} puts a single device back into the payload shape, so the regular model mapping
+ * applies to it.
+ *
+ * @author Symphony Dev Team<br> Created on Oct 17, 2026
+ */
+public class DeviceStreamReader {
+
+    private final ObjectMapper objectMapper;
+    private final String[] nodePath;
+
+    /**
+     * DeviceStreamReader constructor.
+     *
+     * @param objectMapper object mapper to parse devices with
+     * @param node dot separated path of the devices array in the payload, empty if the payload is the array
+     */
+    public DeviceStreamReader(ObjectMapper objectMapper, String node) {
+        this.objectMapper = objectMapper;
+        this.nodePath = node == null || node.isEmpty() ? new String[0] : node.split("\\.");
+    }
+
+    /**
+     * Parses devices one by one from the payload stream.
+     *
+     * @param payload devices payload
+     * @param deviceConsumer consumer of parsed devices
+     * @return number of parsed devices
+     * @throws IOException if payload cannot be read or parsed
+     */
+    public int read(InputStream payload, Consumer<JsonNode> deviceConsumer) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(payload)) {
+            if (!seekDevicesArray(parser)) {
+                return 0;
+            }
+            int count = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.END_ARRAY) {
+                deviceConsumer.accept(objectMapper.readTree(parser));
+                count++;
+            }
+            return count;
+        }
+    }
+
+    /**
+     * @param device single device
+     * @return devices payload containing given device only
+     */
+    public JsonNode wrap(JsonNode device) {
+        if (nodePath.length == 0) {
+            return objectMapper.createArrayNode().add(device);
+        }
+        ObjectNode payload = objectMapper.createObjectNode();
+        ObjectNode parent = payload;
+        for (int i = 0; i < nodePath.length - 1; i++) {
+            parent = parent.putObject(nodePath[i]);
+        }
+        parent.putArray(nodePath[nodePath.length - 1]).add(device);
+        return payload;
+    }
+
+    /**
+     * Moves parser to the start of the devices array.
+     *
+     * @return false if the payload does not contain devices array
+     */
+    private boolean seekDevicesArray(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        for (String segment : nodePath) {
+            if (token != JsonToken.START_OBJECT || !seekField(parser, segment)) {
+                return false;
+            }
+            token = parser.nextToken();
+        }
+        return token == JsonToken.START_ARRAY;
+    }
+
+    /**
+     * Moves parser within current object to the field with given name, skipping other fields entirely.
+     *
+     * @return false if current object does not have such field
+     */
+    private static boolean seekField(JsonParser parser, String name) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            if (name.equals(parser.getCurrentName())) {
+                return true;
+            }
+            parser.nextToken();
+            parser.skipChildren();
+        }
+        return false;
+    }
+}
@@ -0,0 +1,408 @@
+package com.avispl.symphony.dal.communicator.sample.aggregator;
+
+import com.avispl.symphony.dal.aggregator.parser.converter.JsonPropertyConverter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Model mapping value expression, compiled once from its text form. <br>
+ * Mapping values are JavaScript expressions evaluated against the device json, e.g. {@code device.FirmwareVersion},
+ * {@code device.Model=='TestDevice'} or {@code device.Status==0}. The common forms are compiled into
+ * plain java objects with the same results as the script evaluation:
+ * <ul>
+ *     <li>property paths, resolved through pre-split segments</li>
+ *     <li>comparisons of a property path with a literal, evaluated as typed comparisons</li>
+ *     <li>literals</li>
+ * </ul>
+ * Anything else is evaluated by the script engine, exactly as before.
+ *
+ * @author Symphony Dev Team<br> Created on Oct 17, 2026
+ */
+abstract class MappingExpression {
+
+    /**
+     * Prefix of the expressions that refer to the device json
+     */
+    static final String DEVICE_PREFIX = "device.";
+
+    private static final Pattern COMPARISON = Pattern.compile("^(.+?)(===|!==|==|!=)(.+)$");
+    private static final Pattern NUMBER = Pattern.compile("^-?(\\d+\\.?\\d*|\\.\\d+)([eE][+-]?\\d+)?$");
+    private static final Pattern IDENTIFIER = Pattern.compile("^[A-Za-z_$][\\w$]*$");
+    private static final Pattern PATH_SEGMENT = Pattern.compile("\\.([A-Za-z_$][\\w$]*)|\\[(\\d+)]|\\['([^'\\\\]*)']|\\[\"([^\"\\\\]*)\"]");
+    /**
+     * Identifiers that have a value in the script scope, any other bare identifier fails with a reference error
+     */
+    private static final Set<String> SCRIPT_GLOBALS = new HashSet<>(Arrays.asList("device", "json", "pattern", "value",
+            "convert", "this", "arguments", "Math", "JSON", "Object", "Array", "String", "Number", "Boolean", "Date",
+            "RegExp", "Function", "Error", "NaN", "Infinity", "eval", "parseInt", "parseFloat", "isNaN", "isFinite",
+            "escape", "unescape", "print", "load", "java", "javax", "Java", "Packages", "com", "org", "net", "edu"));
+    private static final Object NULL_LITERAL = new Object();
+
+    /**
+     * @param device device json
+     * @return value of the expression, formatted the same way as the script evaluation formats it
+     */
+    abstract String evaluate(JsonNode device);
+
+    /**
+     * @param device device json
+     * @return true if the expression evaluates to {@code true}
+     */
+    boolean test(JsonNode device) {
+        return Boolean.parseBoolean(evaluate(device));
+    }
+
+    /**
+     * @param value value to return for every device
+     * @return expression returning given value as is
+     */
+    static MappingExpression constant(String value) {
+        return new Constant(value);
+    }
+
+    /**
+     * Compiles node of the model mapping, which is a property path relative to the payload root.
+     *
+     * @param node dot separated path of the devices array, empty if the payload is the array
+     * @return compiled path, or null if the path cannot be compiled
+     */
+    static Path compileNode(String node) {
+        if (node == null || node.isEmpty()) {
+            return new Path(new Object[0]);
+        }
+        return parsePath("device." + node);
+    }
+
+    /**
+     * Compiles expression of the model mapping.
+     *
+     * @param expression text of the expression
+     * @param scriptConverter supplier of the shared script converter for the expressions that cannot be compiled
+     * @return compiled expression
+     */
+    static MappingExpression compile(String expression, Supplier<JsonPropertyConverter> scriptConverter) {
+        String trimmed = expression.trim();
+        Path path = parsePath(trimmed);
+        if (path != null) {
+            return path;
+        }
+        Matcher comparison = COMPARISON.matcher(trimmed);
+        if (comparison.matches()) {
+            String operator = comparison.group(2);
+            Path left = parsePath(comparison.group(1).trim());
+            Object right = parseLiteral(comparison.group(3).trim());
+            if (left != null && right != null) {
+                return new Comparison(left, right, operator.length() == 3, operator.startsWith("!"));
+            }
+            Path reversedRight = parsePath(comparison.group(3).trim());
+            Object reversedLeft = parseLiteral(comparison.group(1).trim());
+            if (reversedRight != null && reversedLeft != null) {
+                return new Comparison(reversedRight, reversedLeft, operator.length() == 3, operator.startsWith("!"));
+            }
+        }
+        Object literal = parseLiteral(trimmed);
+        if (literal != null) {
+            return new Constant(formatLiteral(literal));
+        }
+        if (IDENTIFIER.matcher(trimmed).matches() && !SCRIPT_GLOBALS.contains(trimmed)) {
+            // the script fails with a reference error, which is reported as an empty value
+            return new Constant("");
+        }
+        return new Script(expression, scriptConverter);
+    }
+
+    /**
+     * @return compiled path, or null if given expression is not a plain property path of the device
+     */
+    private static Path parsePath(String expression) {
+        if (!expression.startsWith("device")) {
+            return null;
+        }
+        List<Object> segments = new ArrayList<>();
+        Matcher matcher = PATH_SEGMENT.matcher(expression);
+        int position = "device".length();
+        while (position < expression.length()) {
+            if (!matcher.find(position) || matcher.start() != position) {
+                return null;
+            }
+            if (matcher.group(1) != null) {
+                segments.add(matcher.group(1));
+            } else if (matcher.group(2) != null) {
+                segments.add(Integer.valueOf(matcher.group(2)));
+            } else {
+                segments.add(matcher.group(3) != null ? matcher.group(3) : matcher.group(4));
+            }
+            position = matcher.end();
+        }
+        return segments.isEmpty() ? null : new Path(segments.toArray());
+    }
+
+    /**
+     * @return String, Double, Boolean or {@link #NULL_LITERAL}, or null if given text is not a literal
+     */
+    private static Object parseLiteral(String text) {
+        if (text.length() >= 2) {
+            char quote = text.charAt(0);
+            if ((quote == '\'' || quote == '"') && text.charAt(text.length() - 1) == quote) {
+                String value = text.substring(1, text.length() - 1);
+                return value.indexOf(quote) < 0 && value.indexOf('\\') < 0 ? value : null;
+            }
+        }
+        if (NUMBER.matcher(text).matches()) {
+            return Double.valueOf(text);
+        }
+        switch (text) {
+            case "true":
+                return Boolean.TRUE;
+            case "false":
+                return Boolean.FALSE;
+            case "null":
+                return NULL_LITERAL;
+            default:
+                return null;
+        }
+    }
+
+    private static String formatLiteral(Object literal) {
+        if (literal instanceof Double) {
+            return formatNumber((Double) literal);
+        }
+        return literal == NULL_LITERAL ? "null" : literal.toString();
+    }
+
+    /**
+     * Formats json value the way {@code JSON.stringify} does, except for strings which are returned unquoted.
+     *
+     * @param node json value, null if the value is undefined
+     * @return formatted value, empty if the value is undefined
+     */
+    static String format(JsonNode node) {
+        if (node == null || node.isMissingNode()) {
+            return "";
+        }
+        if (node.isTextual()) {
+            return node.textValue();
+        }
+        if (node.isNumber()) {
+            if (node.canConvertToLong() && node.isIntegralNumber() && Math.abs(node.longValue()) <= (1L << 53)) {
+                return node.asText();
+            }
+            return formatNumber(node.doubleValue());
+        }
+        return node.toString();
+    }
+
+    /**
+     * Formats number the way script numbers are formatted.
+     */
+    static String formatNumber(double number) {
+        if (Double.isNaN(number) || Double.isInfinite(number)) {
+            return "null";
+        }
+        if (number == 0) {
+            return "0";
+        }
+        BigDecimal decimal = new BigDecimal(Double.toString(number)).stripTrailingZeros();
+        double magnitude = Math.abs(number);
+        if (magnitude >= 1e-6 && magnitude < 1e21) {
+            return decimal.toPlainString();
+        }
+        String digits = decimal.unscaledValue().abs().toString();
+        int exponent = digits.length() - decimal.scale() - 1;
+        StringBuilder formatted = new StringBuilder();
+        if (number < 0) {
+            formatted.append('-');
+        }
+        formatted.append(digits.charAt(0));
+        if (digits.length() > 1) {
+            formatted.append('.').append(digits, 1, digits.length());
+        }
+        return formatted.append('e').append(exponent < 0 ? "-" : "+").append(Math.abs(exponent)).toString();
+    }
+
+    /**
+     * Converts text to a number the way script loose equality does.
+     *
+     * @return number, NaN if the text is not a number
+     */
+    static double toNumber(String text) {
+        String trimmed = text.trim();
+        if (trimmed.isEmpty()) {
+            return 0;
+        }
+        if (trimmed.startsWith("0x") || trimmed.startsWith("0X")) {
+            try {
+                return Long.parseLong(trimmed.substring(2), 16);
+            } catch (NumberFormatException e) {
+                return Double.NaN;
+            }
+        }
+        if (!NUMBER.matcher(trimmed.startsWith("+") ? trimmed.substring(1) : trimmed).matches()) {
+            return "Infinity".equals(trimmed) || "+Infinity".equals(trimmed) ? Double.POSITIVE_INFINITY
+                    : "-Infinity".equals(trimmed) ? Double.NEGATIVE_INFINITY : Double.NaN;
+        }
+        return Double.parseDouble(trimmed);
+    }
+
+    /**
+     * Expression with the same value for every device.
+     */
+    private static final class Constant extends MappingExpression {
+        private final String value;
+
+        Constant(String value) {
+            this.value = value;
+        }
+
+        @Override
+        String evaluate(JsonNode device) {
+            return value;
+        }
+    }
+
+    /**
+     * Property path of the device, e.g. {@code device.Network.Address} or {@code device.Ports[0]}.
+     */
+    static final class Path extends MappingExpression {
+        private final Object[] segments;
+
+        Path(Object[] segments) {
+            this.segments = segments;
+        }
+
+        /**
+         * @param root json to resolve the path against
+         * @return value at the path, or null if there is no such value
+         */
+        JsonNode resolve(JsonNode root) {
+            JsonNode current = root;
+            for (Object segment : segments) {
+                if (current == null || current.isNull()) {
+                    return null;
+                }
+                if (segment instanceof Integer) {
+                    current = current.isArray() ? current.get((Integer) segment) : current.get(segment.toString());
+                } else if ("length".equals(segment) && (current.isArray() || current.isTextual())) {
+                    return IntNode.valueOf(current.isArray() ? current.size() : current.textValue().length());
+                } else {
+                    current = current.isObject() ? current.get((String) segment) : null;
+                }
+            }
+            return current;
+        }
+
+        @Override
+        String evaluate(JsonNode device) {
+            return format(resolve(device));
+        }
+    }
+
+    /**
+     * Comparison of a property path with a literal, with the same coercion rules as the script {@code ==} and
+     * {@code ===} operators. Literal is converted to its typed form once, when the mapping is compiled.
+     */
+    private static final class Comparison extends MappingExpression {
+        private final Path path;
+        private final Object literal;
+        private final double literalNumber;
+        private final boolean strict;
+        private final boolean negated;
+
+        Comparison(Path path, Object literal, boolean strict, boolean negated) {
+            this.path = path;
+            this.literal = literal;
+            this.strict = strict;
+            this.negated = negated;
+            if (literal instanceof Double) {
+                literalNumber = (Double) literal;
+            } else if (literal instanceof Boolean) {
+                literalNumber = (Boolean) literal ? 1 : 0;
+            } else if (literal instanceof String) {
+                literalNumber = toNumber((String) literal);
+            } else {
+                literalNumber = Double.NaN;
+            }
+        }
+
+        @Override
+        boolean test(JsonNode device) {
+            JsonNode value = path.resolve(device);
+            return negated != (strict ? strictEquals(value) : looseEquals(value));
+        }
+
+        @Override
+        String evaluate(JsonNode device) {
+            return String.valueOf(test(device));
+        }
+
+        private boolean strictEquals(JsonNode value) {
+            if (value == null) {
+                return false;
+            }
+            if (value.isNull()) {
+                return literal == NULL_LITERAL;
+            }
+            if (value.isTextual()) {
+                return value.textValue().equals(literal);
+            }
+            if (value.isNumber()) {
+                return literal instanceof Double && value.doubleValue() == literalNumber;
+            }
+            if (value.isBoolean()) {
+                return literal.equals(value.booleanValue());
+            }
+            return false;
+        }
+
+        private boolean looseEquals(JsonNode value) {
+            if (value == null || value.isNull()) {
+                return literal == NULL_LITERAL;
+            }
+            if (literal == NULL_LITERAL || value.isContainerNode()) {
+                return false;
+            }
+            if (value.isTextual() && literal instanceof String) {
+                return value.textValue().equals(literal);
+            }
+            if (value.isTextual()) {
+                return toNumber(value.textValue()) == literalNumber;
+            }
+            if (value.isBoolean()) {
+                return (value.booleanValue() ? 1 : 0) == literalNumber;
+            }
+            return value.isNumber() && value.doubleValue() == literalNumber;
+        }
+    }
+
+    /**
+     * Expression that is not compiled and is evaluated by the shared script converter.
+     */
+    private static final class Script extends MappingExpression {
+        private final String expression;
+        private final Supplier<JsonPropertyConverter> scriptConverter;
+
+        Script(String expression, Supplier<JsonPropertyConverter> scriptConverter) {
+            this.expression = expression;
+            this.scriptConverter = scriptConverter;
+        }
+
+        @Override
+        String evaluate(JsonNode device) {
+            JsonPropertyConverter converter = scriptConverter.get();
+            // script engine is shared by all communicators using the same mapping
+            synchronized (converter) {
+                return converter.retrieveJsonValue(device, expression);
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.avispl.symphony.dal.communicator.sample.aggregator;
+
+import com.avispl.symphony.api.dal.error.CommandFailureException;
+
+import javax.security.auth.login.FailedLoginException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps a device session id across polls and control requests. <br>
+ * A new login is only performed when there is no session yet, the session is older than {@link #setSessionTimeout(long)}
+ * or the device rejected the session with 401/403. Logins are single-flight: concurrent callers that need a session
+ * wait for the one login in progress instead of starting their own.
+ *
+ * @author Symphony Dev Team<br> Created on Oct 17, 2026
+ */
+public class SessionManager {
+
+    /**
+     * Default session lifetime, 10 minutes
+     */
+    public static final long DEFAULT_SESSION_TIMEOUT = 600000L;
+
+    private final Lock loginLock = new ReentrantLock();
+    private final AtomicLong loginCount = new AtomicLong();
+
+    private volatile String sessionId;
+    private volatile long expiresAt;
+    private long sessionTimeout = DEFAULT_SESSION_TIMEOUT;
+
+    /**
+     * @return session lifetime in ms, after which a new login is performed before the next request
+     */
+    public long getSessionTimeout() {
+        return sessionTimeout;
+    }
+
+    /**
+     * @param sessionTimeout session lifetime in ms, after which a new login is performed before the next request
+     */
+    public void setSessionTimeout(long sessionTimeout) {
+        this.sessionTimeout = sessionTimeout;
+    }
+
+    /**
+     * @return number of logins performed since this manager was created
+     */
+    public long getLoginCount() {
+        return loginCount.get();
+    }
+
+    /**
+     * Returns current session id, logging in first if there is no valid session.
+     *
+     * @param login login routine, returns new session id
+     * @return valid session id
+     * @throws Exception if login fails
+     */
+    public String obtainSessionId(Callable<String> login) throws Exception {
+        String currentSessionId = sessionId;
+        if (currentSessionId != null && System.currentTimeMillis() < expiresAt) {
+            return currentSessionId;
+        }
+        loginLock.lock();
+        try {
+            // another thread might have logged in while this one was waiting for the lock
+            if (sessionId != null && System.currentTimeMillis() < expiresAt) {
+                return sessionId;
+            }
+            String newSessionId = login.call();
+            loginCount.incrementAndGet();
+            expiresAt = System.currentTimeMillis() + sessionTimeout;
+            sessionId = newSessionId;
+            return newSessionId;
+        } finally {
+            loginLock.unlock();
+        }
+    }
+
+    /**
+     * Invalidates the session, but only if it is still the one that was rejected.
+     * This way a burst of requests failing with the same stale session leads to a single new login.
+     *
+     * @param rejectedSessionId session id the device rejected
+     */
+    public void invalidate(String rejectedSessionId) {
+        loginLock.lock();
+        try {
+            if (sessionId != null && sessionId.equals(rejectedSessionId)) {
+                sessionId = null;
+                expiresAt = 0L;
+            }
+        } finally {
+            loginLock.unlock();
+        }
+    }
+
+    /**
+     * Drops current session unconditionally, e.g. when the adapter is destroyed.
+     */
+    public void reset() {
+        loginLock.lock();
+        try {
+            sessionId = null;
+            expiresAt = 0L;
+        } finally {
+            loginLock.unlock();
+        }
+    }
+
+    /**
+     * Executes request within a valid session. If the device rejects the session with 401/403, the session is renewed
+     * once and the request is retried.
+     *
+     * @param login login routine, returns new session id
+     * @param request request to execute
+     * @param <T> type of the response
+     * @return response of the request
+     * @throws Exception if login or request fails
+     */
+    public <T> T execute(Callable<String> login, Callable<T> request) throws Exception {
+        String usedSessionId = obtainSessionId(login);
+        try {
+            return request.call();
+        } catch (Exception e) {
+            if (!isSessionRejected(e)) {
+                throw e;
+            }
+            invalidate(usedSessionId);
+            obtainSessionId(login);
+            return request.call();
+        }
+    }
+
+    /**
+     * @param e error of the request
+     * @return true if the device responded with 401 or 403
+     */
+    private static boolean isSessionRejected(Exception e) {
+        if (e instanceof FailedLoginException) {
+            return true;
+        }
+        if (e instanceof CommandFailureException) {
+            int statusCode = ((CommandFailureException) e).getStatusCode();
+            return statusCode == 401 || statusCode == 403;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,235 @@
+package com.avispl.symphony.dal.communicator.sample.controls;
+
+import com.avispl.symphony.api.dal.dto.control.ControllableProperty;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers control commands to a device, one command at a time per device. <br>
+ * Continuous controls (e.g. a slider being dragged) produce bursts of commands, and a slow device would replay every
+ * intermediate position. Commands of such controls are debounced: the first command of a burst opens a window, the
+ * commands arriving within the window only replace the pending value, and when the window closes the latest value is
+ * sent. A window closed early by a discrete command doesn't affect the window opened by the next value. Continuous commands
+ * return right away, their failures are logged. <br>
+ * Discrete controls (e.g. buttons and switches) are never dropped and keep strict ordering: the values pending for
+ * the same device are sent first, then the command itself, and the caller waits for its outcome.
+ *
+ * @author Symphony Dev Team<br> Created on Oct 17, 2026
+ */
+public class ControlPipeline {
+
+    /**
+     * Sends single control command to the device.
+     */
+    @FunctionalInterface
+    public interface ControlAction {
+        /**
+         * @param controllableProperty control command
+         * @throws Exception if the command fails
+         */
+        void control(ControllableProperty controllableProperty) throws Exception;
+    }
+
+    private static final Log logger = LogFactory.getLog(ControlPipeline.class);
+    private static final long STOP_TIMEOUT = 5000;
+
+    private final long debounceWindow;
+    private final Set<String> debouncedProperties;
+    private final ControlAction action;
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private final ExecutorService executor;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * ControlPipeline constructor.
+     *
+     * @param debounceWindow time in ms the commands of continuous controls are collected for before the latest one is sent
+     * @param debouncedProperties names of continuous controls
+     * @param action sends single command to the device
+     * @param threadName name of the control threads
+     */
+    public ControlPipeline(long debounceWindow, Collection<String> debouncedProperties, ControlAction action, String threadName) {
+        this.debounceWindow = debounceWindow;
+        this.debouncedProperties = new HashSet<>(debouncedProperties);
+        this.action = action;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, threadName + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, threadName + "-debounce");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Submits control command.
+     *
+     * @param controllableProperty control command
+     * @throws Exception if a discrete command fails
+     */
+    public void submit(ControllableProperty controllableProperty) throws Exception {
+        Lane lane = lanes.computeIfAbsent(String.valueOf(controllableProperty.getDeviceId()), deviceId -> new Lane());
+        if (debouncedProperties.contains(controllableProperty.getProperty())) {
+            long window = lane.debounce(controllableProperty);
+            if (window > 0) {
+                scheduler.schedule(() -> lane.close(controllableProperty.getProperty(), window), debounceWindow, TimeUnit.MILLISECONDS);
+            } else {
+                coalescedCount.incrementAndGet();
+            }
+            return;
+        }
+        try {
+            lane.send(controllableProperty).get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    /**
+     * @return number of commands of continuous controls replaced by a later command before being sent
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    /**
+     * Stops control threads. Values of continuous controls still waiting for their window to close are sent right away,
+     * and the commands being sent are waited for up to 5 seconds before the threads are interrupted.
+     */
+    public void stop() {
+        scheduler.shutdownNow();
+        lanes.values().forEach(Lane::flushAll);
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(STOP_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                logger.warn("Control commands are not sent within " + STOP_TIMEOUT + "ms, interrupting");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor.shutdownNow();
+    }
+
+    /**
+     * Commands of a single device, sent one after another.
+     */
+    private final class Lane {
+        private final Map<String, ControllableProperty> pending = new LinkedHashMap<>();
+        private final Map<String, Long> windows = new HashMap<>();
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+        private long lastWindow;
+        private boolean running;
+
+        /**
+         * Remembers the latest value of a continuous control.
+         *
+         * @return id of the debounce window opened by the value, or 0 if the value replaces one pending in an open window
+         */
+        synchronized long debounce(ControllableProperty controllableProperty) {
+            String property = controllableProperty.getProperty();
+            if (pending.put(property, controllableProperty) != null) {
+                return 0;
+            }
+            windows.put(property, ++lastWindow);
+            return lastWindow;
+        }
+
+        /**
+         * Closes debounce window of a continuous control, unless the window is already closed by a discrete command.
+         */
+        synchronized void close(String property, long window) {
+            Long openWindow = windows.get(property);
+            if (openWindow != null && openWindow == window) {
+                flush(property);
+            }
+        }
+
+        /**
+         * Sends the values of all continuous controls, whether their windows are closed or not.
+         */
+        synchronized void flushAll() {
+            for (String property : pending.keySet().toArray(new String[0])) {
+                flush(property);
+            }
+        }
+
+        /**
+         * Sends the latest value of a continuous control.
+         */
+        private synchronized void flush(String property) {
+            windows.remove(property);
+            ControllableProperty controllableProperty = pending.remove(property);
+            if (controllableProperty != null) {
+                execute(() -> {
+                    try {
+                        action.control(controllableProperty);
+                    } catch (Exception e) {
+                        logger.warn("Failed to send " + property + " value " + controllableProperty.getValue(), e);
+                    }
+                });
+            }
+        }
+
+        /**
+         * Sends a discrete command after all the values pending for the device.
+         */
+        synchronized CompletableFuture<Void> send(ControllableProperty controllableProperty) {
+            flushAll();
+            CompletableFuture<Void> result = new CompletableFuture<>();
+            execute(() -> {
+                try {
+                    action.control(controllableProperty);
+                    result.complete(null);
+                } catch (Exception e) {
+                    result.completeExceptionally(e);
+                }
+            });
+            return result;
+        }
+
+        private synchronized void execute(Runnable task) {
+            tasks.add(task);
+            if (!running) {
+                running = true;
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                Runnable task;
+                synchronized (this) {
+                    task = tasks.poll();
+                    if (task == null) {
+                        running = false;
+                        return;
+                    }
+                }
+                task.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.avispl.symphony.dal.communicator.sample.controls;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Current values of the controls, fed by control commands and read by polls. <br>
+ * The values are kept in an immutable {@link Snapshot} which is replaced as a whole on every change with a
+ * compare-and-set, so writers never block each other or the readers, no update is lost, and a reader gets all the
+ * values as of a single point in time with one volatile read. Every change bumps the snapshot version, so a poll can
+ * tell whether anything changed since the previous one by comparing a single number. Copying the snapshot on write
+ * costs O(number of controls), which is negligible next to a control round trip to the device.
+ *
+ * @author Symphony Dev Team<br> Created on Oct 17, 2026
+ */
+public class ControlValueStore {
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(new Snapshot(0, Collections.emptyMap()));
+    private final Map<String, String> statusView = new StatusView();
+
+    /**
+     * @param name control name
+     * @param value new control value
+     */
+    public void put(String name, Object value) {
+        Date timestamp = new Date();
+        Snapshot current;
+        Snapshot updated;
+        do {
+            current = snapshot.get();
+            Map<String, ControlValue> values = new HashMap<>(current.values);
+            values.put(name, new ControlValue(value, current.version + 1, timestamp));
+            updated = new Snapshot(current.version + 1, Collections.unmodifiableMap(values));
+        } while (!snapshot.compareAndSet(current, updated));
+    }
+
+    /**
+     * @param name control name
+     * @return current value of the control, null if the control was never changed
+     */
+    public ControlValue get(String name) {
+        return snapshot.get().get(name);
+    }
+
+    /**
+     * @return number of changes made to the store
+     */
+    public long getVersion() {
+        return snapshot.get().version;
+    }
+
+    /**
+     * @return all the values as of this moment
+     */
+    public Snapshot snapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * @return read-only view of the control values as strings, always reflecting the current values
+     */
+    public Map<String, String> asStatusMap() {
+        return statusView;
+    }
+
+    /**
+     * Immutable set of control values as of a single store version.
+     */
+    public static final class Snapshot {
+        private final long version;
+        private final Map<String, ControlValue> values;
+
+        Snapshot(long version, Map<String, ControlValue> values) {
+            this.version = version;
+            this.values = values;
+        }
+
+        /**
+         * @return store version the snapshot was taken at
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * @param name control name
+         * @return value of the control, null if the control was never changed
+         */
+        public ControlValue get(String name) {
+            return values.get(name);
+        }
+
+        /**
+         * @return values by control name
+         */
+        public Map<String, ControlValue> getValues() {
+            return values;
+        }
+    }
+
+    /**
+     * Immutable value of a control along with the store version and the time it was set at.
+     */
+    public static final class ControlValue {
+        private final Object value;
+        private final String statisticsValue;
+        private final long version;
+        private final Date timestamp;
+
+        ControlValue(Object value, long version, Date timestamp) {
+            this.value = value;
+            this.statisticsValue = value == null ? "" : String.valueOf(value);
+            this.version = version;
+            this.timestamp = timestamp;
+        }
+
+        /**
+         * @return control value
+         */
+        public Object getValue() {
+            return value;
+        }
+
+        /**
+         * @return control value as reported in statistics
+         */
+        public String getStatisticsValue() {
+            return statisticsValue;
+        }
+
+        /**
+         * @return store version the value was set at, 0 for a default value
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * @return time the value was set
+         */
+        public Date getTimestamp() {
+            return new Date(timestamp.getTime());
+        }
+    }
+
+    /**
+     * Read-only map view over the current snapshot.
+     */
+    private final class StatusView extends AbstractMap<String, String> {
+        @Override
+        public String get(Object key) {
+            ControlValue value = snapshot.get().values.get(key);
+            return value == null ? null : value.getStatisticsValue();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return snapshot.get().values.containsKey(key);
+        }
+
+        @Override
+        public Set<Entry<String, String>> entrySet() {
+            return Collections.unmodifiableSet(snapshot.get().values.entrySet().stream()
+                    .map(entry -> new SimpleImmutableEntry<>(entry.getKey(), entry.getValue().getStatisticsValue()))
+                    .collect(Collectors.toSet()));
+        }
+    }
+}
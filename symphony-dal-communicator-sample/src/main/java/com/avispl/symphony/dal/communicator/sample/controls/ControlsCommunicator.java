@@ -7,14 +7,24 @@ import com.avispl.symphony.api.dal.dto.monitor.ExtendedStatistics;
 import com.avispl.symphony.api.dal.dto.monitor.Statistics;
 import com.avispl.symphony.api.dal.monitor.Monitorable;
 import com.avispl.symphony.dal.communicator.RestCommunicator;
+import com.avispl.symphony.dal.communicator.sample.util.ResumingSslClient;
+import com.avispl.symphony.dal.communicator.sample.util.SharedConnectionPool;
 import org.springframework.util.CollectionUtils;
+import org.springframework.web.client.RestTemplate;
 
 import java.util.*;
 
 import static java.util.Collections.singletonList;
 
 public class ControlsCommunicator extends RestCommunicator implements Monitorable, Controller {
-    private Map<String, String> controlsStatus = new HashMap<>();
+    private final ControlValueStore controlValues = new ControlValueStore();
+    private final StatisticsTemplate statisticsTemplate = createStatisticsTemplate();
+
+    private long controlDebounceWindow;
+    private String debouncedControls = "Slider,Numeric";
+    private ControlPipeline controlPipeline;
+    private boolean sharedConnectionPool;
+    private final ResumingSslClient resumingSslClient = new ResumingSslClient();
 
     public ControlsCommunicator() {
         super();
@@ -26,13 +36,111 @@ public class ControlsCommunicator extends RestCommunicator implements Monitorabl
 
     }
 
+    /**
+     * @return time in ms commands of continuous controls are collected for before the latest one is sent, 0 if every command is sent
+     */
+    public long getControlDebounceWindow() {
+        return controlDebounceWindow;
+    }
+
+    /**
+     * Enables debouncing of continuous controls, see {@link ControlPipeline}.
+     *
+     * @param controlDebounceWindow time in ms commands of continuous controls are collected for before the latest one is sent,
+     * 0 to send every command right away
+     */
+    public void setControlDebounceWindow(long controlDebounceWindow) {
+        this.controlDebounceWindow = controlDebounceWindow;
+    }
+
+    /**
+     * @return comma separated names of continuous controls
+     */
+    public String getDebouncedControls() {
+        return debouncedControls;
+    }
+
+    /**
+     * @param debouncedControls comma separated names of continuous controls, only the latest value of which matters
+     */
+    public void setDebouncedControls(String debouncedControls) {
+        this.debouncedControls = debouncedControls;
+    }
+
+    /**
+     * @return number of continuous control commands dropped in favor of a later value
+     */
+    public long getCoalescedControlCount() {
+        return controlPipeline == null ? 0 : controlPipeline.getCoalescedCount();
+    }
+
+    /**
+     * @return true if requests go through the connection pool shared by the process
+     */
+    public boolean isSharedConnectionPool() {
+        return sharedConnectionPool;
+    }
+
+    /**
+     * Enables the connection pool shared by the process, see {@link SharedConnectionPool}.
+     * Its connections also share the trust-all SSL context, so reconnects resume TLS sessions.
+     *
+     * @param sharedConnectionPool true to use the shared connection pool
+     */
+    public void setSharedConnectionPool(boolean sharedConnectionPool) {
+        this.sharedConnectionPool = sharedConnectionPool;
+    }
+
     @Override
     protected void internalInit() throws Exception {
         super.internalInit();
+        if (controlDebounceWindow > 0) {
+            List<String> debouncedProperties = new ArrayList<>();
+            for (String property : debouncedControls.split(",")) {
+                if (!property.trim().isEmpty()) {
+                    debouncedProperties.add(property.trim());
+                }
+            }
+            controlPipeline = new ControlPipeline(controlDebounceWindow, debouncedProperties, this::executeControl,
+                    getClass().getSimpleName() + "-" + getHost() + "-controls");
+        }
+    }
+
+    @Override
+    protected void internalDestroy() {
+        if (controlPipeline != null) {
+            controlPipeline.stop();
+            controlPipeline = null;
+        }
+        super.internalDestroy();
+        resumingSslClient.close();
+    }
+
+    /**
+     * {@inheritDoc} <br>
+     * Routes requests through the shared connection pool if {@link #sharedConnectionPool} is enabled, otherwise
+     * through a client resuming TLS sessions, see {@link ResumingSslClient}.
+     */
+    @Override
+    protected RestTemplate obtainRestTemplate() throws Exception {
+        RestTemplate restTemplate = super.obtainRestTemplate();
+        SharedConnectionPool.installIfEnabled(sharedConnectionPool, restTemplate, this);
+        if (!sharedConnectionPool) {
+            resumingSslClient.installIfTrustingAll(restTemplate, this);
+        }
+        return restTemplate;
     }
 
     @Override
     public void controlProperty(ControllableProperty controllableProperty) throws Exception {
+        if (controlPipeline != null) {
+            controlPipeline.submit(controllableProperty);
+        } else {
+            executeControl(controllableProperty);
+        }
+    }
+
+    private void executeControl(ControllableProperty controllableProperty) {
         String property = controllableProperty.getProperty();
         Object value = controllableProperty.getValue();
         
@@ -66,37 +174,37 @@ public class ControlsCommunicator extends RestCommunicator implements Monitorabl
 
     private void buttonAction() {
         System.out.println("Button press action");
-        controlsStatus.put("Button", "Pressed");
+        controlValues.put("Button", "Pressed");
     }
 
     private void dropdownAction(Object value) {
         System.out.println("Dropdown select action with value " + value);
-        controlsStatus.put("DropDown", String.valueOf(value));
+        controlValues.put("DropDown", value);
     }
 
     private void switchAction(Object value) {
         System.out.println("Switch action trigger with value " + value);
-        controlsStatus.put("Switch", String.valueOf(value));
+        controlValues.put("Switch", value);
     }
 
     private void numericAction(Object value) {
         System.out.println("Numeric action trigger with value " + value);
-        controlsStatus.put("Numeric", String.valueOf(value));
+        controlValues.put("Numeric", value);
     }
 
     private void textAction(Object value) {
         System.out.println("Text action trigger with value " + value);
-        controlsStatus.put("Text", String.valueOf(value));
+        controlValues.put("Text", value);
     }
 
     private void sliderAction(Object value) {
         System.out.println("Slider action trigger with value " + value);
-        controlsStatus.put("Slider", String.valueOf(value));
+        controlValues.put("Slider", value);
     }
 
     private void presetAction(Object value) {
         System.out.println("Preset action trigger with value " + value);
-        controlsStatus.put("Preset", String.valueOf(value));
+        controlValues.put("Preset", value);
     }
 
     @Override
@@ -109,40 +217,46 @@ public class ControlsCommunicator extends RestCommunicator implements Monitorabl
         }
     }
 
+    /**
+     * Statistics are rendered from the control layout built once, with the current control values,
+     * see {@link StatisticsTemplate}. If no control changed since the last poll, the same statistics are returned.
+     */
     @Override
     public List<Statistics> getMultipleStatistics() {
-        ExtendedStatistics statistics = new ExtendedStatistics();
+        return singletonList(statisticsTemplate.render(controlValues));
+    }
+
+    /**
+     * @return layout of the controls, with the default control values
+     */
+    private static StatisticsTemplate createStatisticsTemplate() {
         List<AdvancedControllableProperty> controls = new ArrayList<>();
-        Map<String, String> multipleStatistics = new HashMap<>();
+        Date timestamp = new Date();
 
         AdvancedControllableProperty.Button buttonControl = new AdvancedControllableProperty.Button();
         buttonControl.setLabel("Button");                       // Default button label
         buttonControl.setLabelPressed("Pressed");               // Button name after pressed, indicates that the button press took action, gets back to default state after short period of time
         buttonControl.setGracePeriod(120000L);                  // Period to pause monitoring of the device for
-        AdvancedControllableProperty buttonWrapper = new AdvancedControllableProperty("Button", new Date(), buttonControl, "");
+        AdvancedControllableProperty buttonWrapper = new AdvancedControllableProperty("Button", timestamp, buttonControl, "");
         controls.add(buttonWrapper);
-        multipleStatistics.put("Button", "");                   // In order to display the control on UI - name and value should match ^
 
         AdvancedControllableProperty.Switch switchControl = new AdvancedControllableProperty.Switch();
         switchControl.setLabelOn("On"); // Label indicating "On" state of the switch
         switchControl.setLabelOff("Off"); // Label indicating "Off" state of the switch
-        AdvancedControllableProperty switchWrapper = new AdvancedControllableProperty("Switch", new Date(), switchControl, true);
+        AdvancedControllableProperty switchWrapper = new AdvancedControllableProperty("Switch", timestamp, switchControl, true);
         controls.add(switchWrapper);
-        multipleStatistics.put("Switch", "true");               // In order to display the control on UI - name and value should match ^
 
         AdvancedControllableProperty.DropDown dropDownControl = new AdvancedControllableProperty.DropDown();
         dropDownControl.setLabels(new String[] {"Option 1", "Option 2", "Option 3"}); // Dropdown options labels
         dropDownControl.setOptions(new String[] {"Option 1 value", "Option 2 value", "Option 3 value"}); // Dropdown options values
-        AdvancedControllableProperty dropdownWrapper = new AdvancedControllableProperty("DropDown", new Date(), dropDownControl, "Option 1 value");
+        AdvancedControllableProperty dropdownWrapper = new AdvancedControllableProperty("DropDown", timestamp, dropDownControl, "Option 1 value");
         controls.add(dropdownWrapper);
-        multipleStatistics.put("DropDown", "Option 1 value");   // In order to display the control on UI - name and value should match ^
 
         AdvancedControllableProperty.Preset presetControl = new AdvancedControllableProperty.Preset();
         presetControl.setLabels(new String[] {"Option 1", "Option 2", "Option 3"}); // Preset options labels
         presetControl.setOptions(new String[] {"Option 1 value", "Option 2 value", "Option 3 value"}); // Preset options values
-        AdvancedControllableProperty presetWrapper = new AdvancedControllableProperty("Preset", new Date(), presetControl, "Option 1 value");
+        AdvancedControllableProperty presetWrapper = new AdvancedControllableProperty("Preset", timestamp, presetControl, "Option 1 value");
         controls.add(presetWrapper);
-        multipleStatistics.put("Preset", "Option 1 value");     // In order to display the control on UI - name and value should match ^
 
         AdvancedControllableProperty.Slider sliderControl = new AdvancedControllableProperty.Slider();
         sliderControl.setRangeStart(1.0f);                      // Slider range start value
@@ -150,27 +264,24 @@ public class ControlsCommunicator extends RestCommunicator implements Monitorabl
                                                                 // Values are interpolated by 0.1
         sliderControl.setLabelStart("Min");                     // Label indicating range start
         sliderControl.setLabelEnd("Max");                       // Label indicating range end
-        AdvancedControllableProperty sliderWrapper = new AdvancedControllableProperty("Slider", new Date(), sliderControl, 1.5f);
+        AdvancedControllableProperty sliderWrapper = new AdvancedControllableProperty("Slider", timestamp, sliderControl, 1.5f);
         controls.add(sliderWrapper);
-        multipleStatistics.put("Slider", "1.5");                // In order to display the control on UI - name and value should match ^
 
         AdvancedControllableProperty.Text textControl = new AdvancedControllableProperty.Text();
-        AdvancedControllableProperty textWrapper = new AdvancedControllableProperty("Text", new Date(), textControl, "TextValue");
+        AdvancedControllableProperty textWrapper = new AdvancedControllableProperty("Text", timestamp, textControl, "TextValue");
         controls.add(textWrapper);
-        multipleStatistics.put("Text", "TextValue");
 
         AdvancedControllableProperty.Numeric numericControl = new AdvancedControllableProperty.Numeric();
-        AdvancedControllableProperty numericWrapper = new AdvancedControllableProperty("Numeric", new Date(), numericControl, 10);
+        AdvancedControllableProperty numericWrapper = new AdvancedControllableProperty("Numeric", timestamp, numericControl, 10);
         controls.add(numericWrapper);
-        multipleStatistics.put("Numeric", "10");
-
-        statistics.setStatistics(multipleStatistics);
-        statistics.setControllableProperties(controls);
 
-        return singletonList(statistics);
+        return new StatisticsTemplate(controls);
     }
 
-    public Map getControlsStatus(){
-        return controlsStatus;
+    /**
+     * @return read-only view of the current control values
+     */
+    public Map<String, String> getControlsStatus(){
+        return controlValues.asStatusMap();
     }
 }
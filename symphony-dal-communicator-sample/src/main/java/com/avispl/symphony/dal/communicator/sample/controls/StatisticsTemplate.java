@@ -0,0 +1,101 @@
+package com.avispl.symphony.dal.communicator.sample.controls;
+
+import com.avispl.symphony.api.dal.dto.control.AdvancedControllableProperty;
+import com.avispl.symphony.api.dal.dto.monitor.ExtendedStatistics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Control layout built once and rendered into statistics on every poll. <br>
+ * Names, types (labels, options, ranges) and default values of the controls never change, only the values do.
+ * Every rendering reads the values from a single {@link ControlValueStore.Snapshot}, so it is consistent.
+ * The template keeps the last rendered statistics along with the {@link ControlValueStore} version they reflect:
+ * if the store has not changed since, the very same statistics are returned, otherwise only the controls whose value
+ * changed get new {@link AdvancedControllableProperty} objects, the others are reused.
+ *
+ * @author Symphony Dev Team<br> Created on Oct 17, 2026
+ */
+public class StatisticsTemplate {
+
+    private final List<AdvancedControllableProperty> controls;
+    private final List<ControlValueStore.ControlValue> defaults;
+    private volatile Rendering lastRendering;
+
+    /**
+     * StatisticsTemplate constructor.
+     *
+     * @param controls controls with their types and default values, in the order of the statistics
+     */
+    public StatisticsTemplate(List<AdvancedControllableProperty> controls) {
+        List<AdvancedControllableProperty> layout = new ArrayList<>(controls.size());
+        List<ControlValueStore.ControlValue> defaultValues = new ArrayList<>(controls.size());
+        for (AdvancedControllableProperty control : controls) {
+            ControlValueStore.ControlValue defaultValue = new ControlValueStore.ControlValue(control.getValue(), 0, control.getTimestamp());
+            layout.add(new AdvancedControllableProperty(control.getName(), defaultValue.getTimestamp(), control.getType(), control.getValue()));
+            defaultValues.add(defaultValue);
+        }
+        this.controls = Collections.unmodifiableList(layout);
+        this.defaults = Collections.unmodifiableList(defaultValues);
+    }
+
+    /**
+     * Renders statistics with the current control values.
+     *
+     * @param valueStore current control values
+     * @return statistics, the same instance as the last time if no control changed since
+     */
+    public ExtendedStatistics render(ControlValueStore valueStore) {
+        Rendering previous = lastRendering;
+        ControlValueStore.Snapshot snapshot = valueStore.snapshot();
+        if (previous != null && previous.version == snapshot.getVersion()) {
+            return previous.statistics;
+        }
+        synchronized (this) {
+            previous = lastRendering;
+            if (previous != null && previous.version >= snapshot.getVersion()) {
+                return previous.statistics;
+            }
+            ControlValueStore.ControlValue[] values = new ControlValueStore.ControlValue[controls.size()];
+            List<AdvancedControllableProperty> properties = new ArrayList<>(controls.size());
+            Map<String, String> statistics = new HashMap<>(controls.size() * 2);
+            for (int i = 0; i < controls.size(); i++) {
+                AdvancedControllableProperty control = controls.get(i);
+                // buttons have no state, pressing a button doesn't change its value
+                ControlValueStore.ControlValue value = control.getType() instanceof AdvancedControllableProperty.Button
+                        ? null : snapshot.get(control.getName());
+                values[i] = value != null ? value : defaults.get(i);
+                if (previous != null && previous.values[i] == values[i]) {
+                    properties.add(previous.statistics.getControllableProperties().get(i));
+                } else {
+                    properties.add(new AdvancedControllableProperty(control.getName(), values[i].getTimestamp(), control.getType(), values[i].getValue()));
+                }
+                // in order to display the control on UI - statistics name and value should match the control
+                statistics.put(control.getName(), values[i].getStatisticsValue());
+            }
+            ExtendedStatistics extendedStatistics = new ExtendedStatistics();
+            extendedStatistics.setStatistics(statistics);
+            extendedStatistics.setControllableProperties(properties);
+            lastRendering = new Rendering(snapshot.getVersion(), values, extendedStatistics);
+            return extendedStatistics;
+        }
+    }
+
+    /**
+     * Statistics rendered for a version of the value store.
+     */
+    private static final class Rendering {
+        private final long version;
+        private final ControlValueStore.ControlValue[] values;
+        private final ExtendedStatistics statistics;
+
+        Rendering(long version, ControlValueStore.ControlValue[] values, ExtendedStatistics statistics) {
+            this.version = version;
+            this.values = values;
+            this.statistics = statistics;
+        }
+    }
+}
@@ -0,0 +1,389 @@
+/*
+ * Copyright (c) 2026 AVI-SPL, Inc. All Rights Reserved.
+ */
+package com.avispl.symphony.dal.communicator.sample.util;
+
+import com.avispl.symphony.api.dal.dto.monitor.ExtendedStatistics;
+import com.avispl.symphony.api.dal.dto.monitor.Statistics;
+import com.avispl.symphony.api.dal.error.CommandFailureException;
+import com.avispl.symphony.api.dal.error.ResourceNotReachableException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.jcraft.jsch.JSchException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+
+import javax.security.auth.login.FailedLoginException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Stops talking to a device that does not respond, so an unreachable device does not hold a thread for the whole
+ * timeout on every poll. <br>
+ * The breaker is closed while the device responds. After {@link #getFailureThreshold()} consecutive connectivity
+ * failures it opens, and calls fail right away with {@link OpenException}. Once the backoff passes, a single call is let
+ * through as a probe: a cheap check (e.g. {@link #connect(String, int, int) TCP connect}) runs first, and if the device
+ * responds the breaker closes again, otherwise it reopens with the backoff doubled, up to {@link #getMaxBackoff()}.
+ * Backoffs are randomized by up to a half, so devices that went down together are not probed at the same moment. <br>
+ * Only connectivity failures count, see {@link #isConnectivityFailure(Exception)}: a device that rejects a command or a
+ * login, or sends a malformed response, still responds.
+ *
+ * @author Symphony Dev Team<br> Created on Oct 17, 2026
+ */
+public class CircuitBreaker {
+
+    /**
+     * Cheap check whether the device responds.
+     */
+    @FunctionalInterface
+    public interface Probe {
+        /**
+         * @throws Exception if the device does not respond
+         */
+        void check() throws Exception;
+    }
+
+    /**
+     * State of the breaker.
+     */
+    public enum State {
+        /**
+         * Calls go through
+         */
+        CLOSED,
+        /**
+         * Calls fail right away until the backoff passes
+         */
+        OPEN,
+        /**
+         * Single probe is in progress, other calls fail right away
+         */
+        HALF_OPEN
+    }
+
+    /**
+     * Max time in ms the {@link #connect(String, int, int) TCP connect} probe takes
+     */
+    public static final int PROBE_TIMEOUT = 3000;
+
+    /**
+     * Message of the failure the shell communicators report when the device closes the connection
+     */
+    private static final String CONNECTION_CLOSED = "Connection was forcible closed";
+
+    private static final Log logger = LogFactory.getLog(CircuitBreaker.class);
+
+    private final Supplier<String> name;
+    private final Probe probe;
+    private volatile int failureThreshold = 3;
+    private volatile long initialBackoff = 5000;
+    private volatile long maxBackoff = 300000;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long backoff;
+    private long retryAt;
+    private long trips;
+
+    /**
+     * CircuitBreaker constructor.
+     *
+     * @param name name of the device used in messages, e.g. its host
+     * @param probe cheap check of the device run before the first call after the backoff, null to use the call itself
+     */
+    public CircuitBreaker(Supplier<String> name, Probe probe) {
+        this.name = name;
+        this.probe = probe;
+    }
+
+    /**
+     * Makes the call, unless the breaker is open.
+     *
+     * @param action call to the device
+     * @param <T> type of the result
+     * @return result of the call
+     * @throws OpenException if the breaker is open
+     * @throws Exception if the call or the probe fails
+     */
+    public <T> T call(Callable<T> action) throws Exception {
+        if (failureThreshold <= 0) {
+            return action.call();
+        }
+        boolean probing = acquire();
+        boolean succeeded = false;
+        try {
+            if (probing && probe != null) {
+                probe.check();
+            }
+            T result = action.call();
+            succeeded = true;
+            return result;
+        } catch (Exception e) {
+            succeeded = !isConnectivityFailure(e);
+            throw e;
+        } finally {
+            release(succeeded);
+        }
+    }
+
+    /**
+     * Makes the asynchronous call, unless the breaker is open. The outcome of the call is taken into account once the
+     * returned future completes. <br>
+     * The probe blocks, so it is not run here: the first call after the backoff is the probe itself.
+     *
+     * @param action asynchronous call to the device
+     * @param <T> type of the result
+     * @return future of the result, completed exceptionally with {@link OpenException} if the breaker is open
+     */
+    public <T> CompletableFuture<T> callAsync(Supplier<CompletableFuture<T>> action) {
+        if (failureThreshold <= 0) {
+            return action.get();
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            acquire();
+        } catch (OpenException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+        CompletableFuture<T> call;
+        try {
+            call = action.get();
+        } catch (RuntimeException e) {
+            release(!isConnectivityFailure(e));
+            result.completeExceptionally(e);
+            return result;
+        }
+        call.whenComplete((value, failure) -> {
+            Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+            release(cause == null || cause instanceof Exception && !isConnectivityFailure((Exception) cause));
+            if (cause == null) {
+                result.complete(value);
+            } else {
+                result.completeExceptionally(cause);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * @return current state
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * @return number of connectivity failures since the last successful call
+     */
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    /**
+     * @return number of times the breaker opened after being closed
+     */
+    public synchronized long getTrips() {
+        return trips;
+    }
+
+    /**
+     * Reports a call rejected by the open breaker as a failed poll, so the platform keeps the device offline
+     * while it is not responding.
+     *
+     * @param e failure of the rejected call
+     * @return failure of the poll, with the state of the breaker in its message
+     */
+    public synchronized ResourceNotReachableException toNotReachable(OpenException e) {
+        return new ResourceNotReachableException(e.getMessage() + ", circuit breaker " + state + " after " + consecutiveFailures
+                + " consecutive failures, tripped " + trips + " times", e);
+    }
+
+    /**
+     * Adds state of the breaker to device statistics as {@link ExtendedStatistics}, once it has seen any failure.
+     *
+     * @param statistics device statistics
+     */
+    public void addStatistics(List<Statistics> statistics) {
+        Map<String, String> breakerStatistics = new HashMap<>();
+        putStatistics(breakerStatistics);
+        if (!breakerStatistics.isEmpty()) {
+            ExtendedStatistics extendedStatistics = new ExtendedStatistics();
+            extendedStatistics.setStatistics(breakerStatistics);
+            statistics.add(extendedStatistics);
+        }
+    }
+
+    /**
+     * Adds state of the breaker to device statistics, once it has seen any failure.
+     *
+     * @param statistics device statistics
+     */
+    public synchronized void putStatistics(Map<String, String> statistics) {
+        if (trips == 0 && consecutiveFailures == 0) {
+            return;
+        }
+        statistics.put("CircuitBreaker#State", state.name());
+        statistics.put("CircuitBreaker#ConsecutiveFailures", String.valueOf(consecutiveFailures));
+        statistics.put("CircuitBreaker#Trips", String.valueOf(trips));
+        if (state == State.OPEN) {
+            statistics.put("CircuitBreaker#NextProbe(ms)", String.valueOf(Math.max(0, retryAt - System.currentTimeMillis())));
+        }
+    }
+
+    /**
+     * @return number of consecutive connectivity failures which open the breaker, 0 if the breaker is disabled
+     */
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    /**
+     * @param failureThreshold number of consecutive connectivity failures which open the breaker, 0 to disable the breaker
+     */
+    public void setFailureThreshold(int failureThreshold) {
+        this.failureThreshold = failureThreshold;
+    }
+
+    /**
+     * @return time in ms the breaker stays open after the first trip
+     */
+    public long getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    /**
+     * @param initialBackoff time in ms the breaker stays open after the first trip
+     */
+    public void setInitialBackoff(long initialBackoff) {
+        this.initialBackoff = initialBackoff;
+    }
+
+    /**
+     * @return max time in ms the breaker stays open
+     */
+    public long getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    /**
+     * @param maxBackoff max time in ms the breaker stays open
+     */
+    public void setMaxBackoff(long maxBackoff) {
+        this.maxBackoff = maxBackoff;
+    }
+
+    /**
+     * Opens and immediately closes TCP connection to the device.
+     *
+     * @param host device host
+     * @param port device port
+     * @param timeout connect timeout in ms, capped at {@link #PROBE_TIMEOUT}
+     * @throws Exception if the connection cannot be opened
+     */
+    public static void connect(String host, int port, int timeout) throws Exception {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(host, port), timeout > 0 ? Math.min(timeout, PROBE_TIMEOUT) : PROBE_TIMEOUT);
+        }
+    }
+
+    /**
+     * Tells whether the call failed because the device could not be reached: an I/O error (connect, timeout, closed
+     * connection), a {@link ResourceAccessException}, a {@link ResourceNotReachableException} or an SSH failure other than
+     * authentication, either thrown or found among the causes of the failure. <br>
+     * Any other failure, e.g. a rejected command or login, an error status, or a response which cannot be parsed, means
+     * the device responded. Parse errors of Jackson are I/O errors and are excluded explicitly. The shell communicators of
+     * the library report a connection closed by the device as a plain exception, which is recognized by its message.
+     *
+     * @param e failure of a call
+     * @return true if the device did not respond, false if it responded with an error
+     */
+    public static boolean isConnectivityFailure(Exception e) {
+        if (e instanceof CommandFailureException || e instanceof FailedLoginException || e instanceof HttpStatusCodeException) {
+            return false;
+        }
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof JsonProcessingException) {
+                return false;
+            }
+            if (cause instanceof IOException || cause instanceof ResourceAccessException || cause instanceof ResourceNotReachableException
+                    || CONNECTION_CLOSED.equals(cause.getMessage())) {
+                return true;
+            }
+            if (cause instanceof JSchException) {
+                return cause.getMessage() == null || !cause.getMessage().startsWith("Auth");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the call is a probe
+     */
+    private synchronized boolean acquire() throws OpenException {
+        if (state == State.CLOSED) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        if (state == State.HALF_OPEN || now < retryAt) {
+            throw new OpenException(name.get(), state == State.HALF_OPEN ? 0 : retryAt - now);
+        }
+        state = State.HALF_OPEN;
+        return true;
+    }
+
+    private synchronized void release(boolean succeeded) {
+        if (succeeded) {
+            if (state != State.CLOSED) {
+                logger.info("Device " + name.get() + " responds again, closing circuit breaker");
+            }
+            state = State.CLOSED;
+            consecutiveFailures = 0;
+            backoff = 0;
+            return;
+        }
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN) {
+            backoff = Math.min(backoff * 2, maxBackoff);
+        } else if (state == State.CLOSED && consecutiveFailures >= failureThreshold) {
+            backoff = Math.min(initialBackoff, maxBackoff);
+            trips++;
+            logger.warn("Device " + name.get() + " failed to respond " + consecutiveFailures + " times in a row, opening circuit breaker");
+        } else {
+            return;
+        }
+        state = State.OPEN;
+        retryAt = System.currentTimeMillis() + backoff - ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+    }
+
+    /**
+     * Thrown instead of making a call while the breaker is open.
+     */
+    public static class OpenException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        private final long retryIn;
+
+        OpenException(String name, long retryIn) {
+            super("Device " + name + " is not responding, " + (retryIn > 0 ? "next attempt in " + retryIn + "ms" : "probe is in progress"));
+            this.retryIn = retryIn;
+        }
+
+        /**
+         * @return time in ms until the next attempt, 0 if a probe is already in progress
+         */
+        public long getRetryIn() {
+            return retryIn;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2026 AVI-SPL, Inc. All Rights Reserved.
+ */
+package com.avispl.symphony.dal.communicator.sample.util;
+
+import com.avispl.symphony.api.dal.error.CommandFailureException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Batch of shell commands written to a device back to back, whose combined output is split into per command responses. <br>
+ * The device processes the commands one after another as usual, but the commands no longer wait for each other's round
+ * trip: a batch of 20 commands costs about one round trip instead of 20. <br>
+ * Responses are delimited the way a single command response is, by the strings of the command success and error lists,
+ * typically ending with the command prompt: the batch is read until the combined output holds one such string per
+ * command, and a response ending with an error string fails its command. Error strings are matched before success
+ * strings, so an error string ending with the prompt is not taken for a success. This only works if the strings are not
+ * empty and do not occur inside the output of the commands, see {@link #isSupported(List, List)}. <br>
+ * Note that a device echoing input as it arrives rather than as it reads each command (e.g. a kernel tty with echo on)
+ * shows the echo of all the commands at the start of the first response. <br>
+ * A batch is meant for a single exchange with the device: {@link #isComplete(String)} expects the output read so far,
+ * growing between calls, and only scans what was not settled by the previous call.
+ *
+ * @author Symphony Dev Team<br> Created on Oct 17, 2026
+ */
+public class CommandBatch {
+
+    private final List<String> commands;
+    private final List<String> successList;
+    private final List<String> errorList;
+    private final int maxTerminatorLength;
+    /**
+     * response ends found by {@link #isComplete(String)} which further output cannot change
+     */
+    private final List<Integer> settledEnds = new ArrayList<>();
+    /**
+     * position {@link #isComplete(String)} resumes scanning the output from
+     */
+    private int resumeAt;
+
+    /**
+     * CommandBatch constructor.
+     *
+     * @param commands commands of the batch
+     * @param successList strings ending a successful command response
+     * @param errorList strings ending a failed command response
+     */
+    public CommandBatch(List<String> commands, List<String> successList, List<String> errorList) {
+        this.commands = commands;
+        this.successList = successList;
+        this.errorList = errorList;
+        int length = 0;
+        for (List<String> terminators : Arrays.asList(successList, errorList)) {
+            if (terminators != null) {
+                for (String terminator : terminators) {
+                    length = Math.max(length, terminator.length());
+                }
+            }
+        }
+        this.maxTerminatorLength = length;
+    }
+
+    /**
+     * @param successList strings ending a successful command response
+     * @param errorList strings ending a failed command response
+     * @return true if responses can be told apart in the combined output, i.e. none of the strings is empty
+     */
+    public static boolean isSupported(List<String> successList, List<String> errorList) {
+        return successList != null && !successList.isEmpty() && !successList.contains("") && (errorList == null || !errorList.contains(""));
+    }
+
+    /**
+     * @return number of commands of the batch
+     */
+    public int size() {
+        return commands.size();
+    }
+
+    /**
+     * @return commands of the batch, to be written to the device at once
+     */
+    public String getRequest() {
+        return String.join("\n", commands);
+    }
+
+    /**
+     * Checks the output read so far, resuming the scan where the previous call left it: a string matched far enough from
+     * the end of the output is final, while the last {@code maxTerminatorLength} positions are scanned again on the next
+     * call, as a longer (e.g. error) string may only match there once more output is received.
+     *
+     * @param response output read so far, starting with the output passed to the previous call
+     * @return true if the output holds the responses of all the commands
+     */
+    public boolean isComplete(String response) {
+        if (response.length() < resumeAt) {
+            // not the output of the previous call, start over
+            settledEnds.clear();
+            resumeAt = 0;
+        }
+        resumeAt = scan(response, resumeAt, response.length() - maxTerminatorLength + 1, settledEnds);
+        List<Integer> tailEnds = new ArrayList<>(1);
+        scan(response, resumeAt, response.length(), tailEnds);
+        int count = settledEnds.size() + tailEnds.size();
+        int lastEnd = !tailEnds.isEmpty() ? tailEnds.get(tailEnds.size() - 1) : !settledEnds.isEmpty() ? settledEnds.get(settledEnds.size() - 1) : -1;
+        return count >= commands.size() && lastEnd == response.length();
+    }
+
+    /**
+     * Splits the combined output into per command responses.
+     *
+     * @param host device host, reported by the failure
+     * @param response combined output of the batch
+     * @return responses of the commands, in order
+     * @throws CommandFailureException for the first command whose response ends with an error string
+     */
+    public List<String> split(String host, String response) throws CommandFailureException {
+        List<String> responses = new ArrayList<>(commands.size());
+        int start = 0;
+        for (int end : findResponseEnds(response)) {
+            if (responses.size() == commands.size()) {
+                break;
+            }
+            String commandResponse = response.substring(start, end);
+            if (errorList != null && errorList.stream().anyMatch(commandResponse::endsWith)) {
+                throw new CommandFailureException(host, commands.get(responses.size()), commandResponse);
+            }
+            responses.add(commandResponse);
+            start = end;
+        }
+        return responses;
+    }
+
+    /**
+     * @param response output read so far
+     * @return positions right after each success or error string found in the output
+     */
+    private List<Integer> findResponseEnds(String response) {
+        List<Integer> ends = new ArrayList<>(commands.size());
+        scan(response, 0, response.length(), ends);
+        return ends;
+    }
+
+    /**
+     * Looks for success or error strings starting before the limit.
+     *
+     * @param response output read so far
+     * @param position position to start scanning from
+     * @param limit position no string starts at or after
+     * @param ends positions right after each string found, added to
+     * @return position the scan stopped at, at least the limit unless the limit is not reached
+     */
+    private int scan(String response, int position, int limit, List<Integer> ends) {
+        while (position < limit) {
+            int end = matchAt(response, position, errorList);
+            if (end < 0) {
+                end = matchAt(response, position, successList);
+            }
+            if (end < 0) {
+                position++;
+            } else {
+                ends.add(end);
+                position = end;
+            }
+        }
+        return position;
+    }
+
+    private static int matchAt(String response, int position, List<String> terminators) {
+        if (terminators != null) {
+            for (String terminator : terminators) {
+                if (response.startsWith(terminator, position)) {
+                    return position + terminator.length();
+                }
+            }
+        }
+        return -1;
+    }
+}
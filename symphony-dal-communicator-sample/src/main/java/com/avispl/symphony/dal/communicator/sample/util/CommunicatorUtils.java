@@ -17,6 +17,7 @@ import java.net.ServerSocket;
 import java.net.Socket;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Map;
 import java.util.Scanner;
 
 import static java.util.concurrent.CompletableFuture.runAsync;
@@ -52,7 +53,9 @@ public class CommunicatorUtils {
     }
 
     /**
-     * Start simple telnet server on given port
+     * Start simple telnet server on given port. <br>
+     * The server accepts a single connection and runs every line received as a process, see
+     * {@link #startTelnetSimulator(int, Map)} to serve concurrent clients from scripted responses.
      *
      * @param port telnet port
      * @return resource holder
@@ -67,6 +70,25 @@ public class CommunicatorUtils {
         }
     }
 
+    /**
+     * Start telnet device simulator on given port, answering commands from the given responses
+     *
+     * @param port telnet port, 0 for any free port
+     * @param responses responses by command, without the trailing prompt
+     * @return simulator, to be further configured with latency, login etc. and closed once done
+     * @see TelnetSimulator
+     */
+    public static TelnetSimulator startTelnetSimulator(int port, Map<String, String> responses) {
+        TelnetSimulator simulator = new TelnetSimulator(port);
+        responses.forEach(simulator::addCommand);
+        try {
+            simulator.start();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return simulator;
+    }
+
     private static void processCommand(ServerSocket serverSocket) {
         try (Socket socket = serverSocket.accept()) {
             PrintStream out = new PrintStream(socket.getOutputStream());
@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2026 AVI-SPL, Inc. All Rights Reserved.
+ */
+package com.avispl.symphony.dal.communicator.sample.util;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.entity.DeflateInputStream;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.Configurable;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.protocol.HttpContext;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Negotiates compressed ({@code gzip} or {@code deflate}) responses for a {@link RestTemplate} based communicator
+ * and decompresses them while the body is being read, so a streamed response is never buffered as a whole. <br>
+ * Apache HttpClient can decompress responses on its own, but then the size of the response on the wire is lost.
+ * Once installed, the negotiator takes over: client side decompression is switched off for the requests, the
+ * {@code Accept-Encoding} header is added and response bodies are counted both before and after decompression,
+ * see {@link #getReceivedBytes()} and {@link #getDecodedBytes()}. Responses without content encoding count the same
+ * in both.
+ *
+ * @author Symphony Dev Team<br> Created on Oct 17, 2026
+ */
+public class ContentEncodingNegotiator {
+
+    private static final Log logger = LogFactory.getLog(ContentEncodingNegotiator.class);
+    private static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    private final AtomicLong receivedBytes = new AtomicLong();
+    private final AtomicLong decodedBytes = new AtomicLong();
+    private final AtomicLong compressedResponses = new AtomicLong();
+    private volatile boolean unsupportedFactoryReported;
+
+    /**
+     * Installs the negotiator into the request factory of given rest template. Does nothing if the negotiator is already
+     * installed into the template, so it's cheap to call on every request. The same negotiator may be installed into
+     * several templates, to count their responses together.
+     *
+     * @param restTemplate rest template of the communicator
+     */
+    public void install(RestTemplate restTemplate) {
+        ClientHttpRequestFactory requestFactory = restTemplate.getRequestFactory();
+        if (!(requestFactory instanceof HttpComponentsClientHttpRequestFactory)) {
+            // request interceptors (e.g. request compression) hide the underlying factory
+            if (!unsupportedFactoryReported) {
+                unsupportedFactoryReported = true;
+                logger.warn("Compressed responses cannot be negotiated with request factory " + requestFactory.getClass().getName());
+            }
+            return;
+        }
+        HttpComponentsClientHttpRequestFactory httpComponentsFactory = (HttpComponentsClientHttpRequestFactory) requestFactory;
+        if (httpComponentsFactory.getHttpClient() instanceof NegotiatingHttpClient) {
+            return;
+        }
+        synchronized (httpComponentsFactory) {
+            if (!(httpComponentsFactory.getHttpClient() instanceof NegotiatingHttpClient)) {
+                httpComponentsFactory.setHttpClient(new NegotiatingHttpClient(httpComponentsFactory.getHttpClient()));
+            }
+        }
+    }
+
+    /**
+     * @return number of response body bytes received, as transferred over the network
+     */
+    public long getReceivedBytes() {
+        return receivedBytes.get();
+    }
+
+    /**
+     * @return number of response body bytes after decompression
+     */
+    public long getDecodedBytes() {
+        return decodedBytes.get();
+    }
+
+    /**
+     * @return number of responses received compressed
+     */
+    public long getCompressedResponses() {
+        return compressedResponses.get();
+    }
+
+    /**
+     * Client that asks for compressed responses and takes decompression over from the delegate client.
+     */
+    private final class NegotiatingHttpClient extends CloseableHttpClient implements Configurable {
+        private final HttpClient delegate;
+
+        NegotiatingHttpClient(HttpClient delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        protected CloseableHttpResponse doExecute(HttpHost target, HttpRequest request, HttpContext context) throws IOException, ClientProtocolException {
+            if (request instanceof HttpRequestBase) {
+                HttpRequestBase requestBase = (HttpRequestBase) request;
+                RequestConfig config = requestBase.getConfig() != null ? requestBase.getConfig() : getConfig();
+                requestBase.setConfig(RequestConfig.copy(config != null ? config : RequestConfig.DEFAULT)
+                        .setContentCompressionEnabled(false).build());
+            }
+            if (!request.containsHeader(HttpHeaders.ACCEPT_ENCODING)) {
+                request.setHeader(HttpHeaders.ACCEPT_ENCODING, ACCEPT_ENCODING);
+            }
+            CloseableHttpResponse response = (CloseableHttpResponse) delegate.execute(target, request, context);
+            HttpEntity entity = response.getEntity();
+            if (entity != null) {
+                Header contentEncoding = entity.getContentEncoding();
+                String encoding = contentEncoding == null ? null : contentEncoding.getValue().trim().toLowerCase(Locale.ROOT);
+                response.setEntity(new DecodingEntity(entity, encoding));
+                if (encoding != null && !encoding.equals("identity")) {
+                    compressedResponses.incrementAndGet();
+                    response.removeHeaders(HttpHeaders.CONTENT_ENCODING);
+                    response.removeHeaders(HttpHeaders.CONTENT_LENGTH);
+                    response.removeHeaders(HttpHeaders.CONTENT_MD5);
+                }
+            }
+            return response;
+        }
+
+        @Override
+        public RequestConfig getConfig() {
+            return delegate instanceof Configurable ? ((Configurable) delegate).getConfig() : null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (delegate instanceof Closeable) {
+                ((Closeable) delegate).close();
+            }
+        }
+
+        // deprecated HttpClient methods are still abstract, they are delegated as they are; the types are not imported,
+        // as javac reports deprecated imports regardless of @SuppressWarnings
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public org.apache.http.params.HttpParams getParams() {
+            return delegate.getParams();
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public org.apache.http.conn.ClientConnectionManager getConnectionManager() {
+            return delegate.getConnectionManager();
+        }
+    }
+
+    /**
+     * Response entity decompressed while it's being read, counting bytes on both sides of decompression.
+     */
+    private final class DecodingEntity extends HttpEntityWrapper {
+        private final String encoding;
+        private InputStream content;
+
+        DecodingEntity(HttpEntity entity, String encoding) {
+            super(entity);
+            this.encoding = encoding;
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            if (content == null || !wrappedEntity.isStreaming()) {
+                InputStream received = new CountingInputStream(wrappedEntity.getContent(), receivedBytes);
+                if (encoding == null || encoding.equals("identity")) {
+                    content = new CountingInputStream(received, decodedBytes);
+                } else if (encoding.equals("gzip") || encoding.equals("x-gzip")) {
+                    content = new CountingInputStream(new GZIPInputStream(received), decodedBytes);
+                } else if (encoding.equals("deflate")) {
+                    content = new CountingInputStream(new DeflateInputStream(received), decodedBytes);
+                } else {
+                    received.close();
+                    throw new IOException("Unsupported content encoding: " + encoding);
+                }
+            }
+            return content;
+        }
+
+        @Override
+        public Header getContentEncoding() {
+            return encoding == null || encoding.equals("identity") ? super.getContentEncoding() : null;
+        }
+
+        @Override
+        public long getContentLength() {
+            return encoding == null || encoding.equals("identity") ? super.getContentLength() : -1;
+        }
+
+        @Override
+        public void writeTo(OutputStream outputStream) throws IOException {
+            try (InputStream inputStream = getContent()) {
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = inputStream.read(buffer)) != -1) {
+                    outputStream.write(buffer, 0, read);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds number of bytes read from the stream to a counter.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        private final AtomicLong counter;
+
+        CountingInputStream(InputStream inputStream, AtomicLong counter) {
+            super(inputStream);
+            this.counter = counter;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value != -1) {
+                counter.incrementAndGet();
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                counter.addAndGet(read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long count) throws IOException {
+            long skipped = super.skip(count);
+            counter.addAndGet(skipped);
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,404 @@
+/*
+ * Copyright (c) 2026 AVI-SPL, Inc. All Rights Reserved.
+ */
+package com.avispl.symphony.dal.communicator.sample.util;
+
+import com.avispl.symphony.api.dal.error.CommandFailureException;
+import com.jcraft.jsch.ChannelExec;
+import com.jcraft.jsch.JSch;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import javax.security.auth.login.FailedLoginException;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Authenticated SSH session to a device, kept alive across polls, which runs every command on its own exec channel. <br>
+ * Key exchange and authentication are paid once per session rather than once per connection, and commands don't wait
+ * for each other: up to {@link #MAX_CHANNELS} channels run at once over the same session, which is the default
+ * MaxSessions limit of OpenSSH. The session sends keepalives every {@link #getKeepaliveInterval() keepalive interval}
+ * and is dropped once {@link #KEEPALIVE_COUNT_MAX} of them go unanswered, then the next command reconnects.
+ * A command that finds the session down reconnects and is retried once. <br>
+ * Counters of sessions and channels opened and of the time spent on handshakes show how often the key exchange happens.
+ *
+ * @author Symphony Dev Team<br> Created on Oct 17, 2026
+ */
+public class PersistentSshSession implements Closeable {
+
+    /**
+     * Max number of commands running at once over the session
+     */
+    public static final int MAX_CHANNELS = 10;
+
+    /**
+     * Number of unanswered keepalives after which the session is dropped
+     */
+    public static final int KEEPALIVE_COUNT_MAX = 3;
+
+    /**
+     * Max number of threads running the commands of batches, for all the sessions
+     */
+    public static final int MAX_THREADS = 4 * MAX_CHANNELS;
+
+    private static final Log logger = LogFactory.getLog(PersistentSshSession.class);
+
+    /**
+     * Timer of command timeouts, shared by all the sessions
+     */
+    private static final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ssh-command-timeout");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    /**
+     * Threads running the commands of batches, shared by all the sessions. Commands beyond {@link #MAX_THREADS} wait in
+     * queue, their timeout starts once a thread runs them.
+     */
+    private static final ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), runnable -> {
+        Thread thread = new Thread(runnable, "ssh-channel-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    private final String host;
+    private final int port;
+    private final String login;
+    private final String password;
+    private final int timeout;
+    private final Map<String, String> config;
+    private final Semaphore channels = new Semaphore(MAX_CHANNELS);
+    private volatile int keepaliveInterval = 30000;
+
+    private volatile Session session;
+    private boolean closed;
+
+    private final AtomicLong sessionsOpened = new AtomicLong();
+    private final AtomicLong channelsOpened = new AtomicLong();
+    private final AtomicLong handshakeTime = new AtomicLong();
+
+    /**
+     * PersistentSshSession constructor, the session is opened by the first command.
+     *
+     * @param host device host
+     * @param port device SSH port
+     * @param login user name
+     * @param password password
+     * @param timeout connect timeout and max time of a command in ms
+     * @param config session configuration, e.g. StrictHostKeyChecking
+     */
+    public PersistentSshSession(String host, int port, String login, String password, int timeout, Map<String, String> config) {
+        this.host = host;
+        this.port = port;
+        this.login = login;
+        this.password = password;
+        this.timeout = timeout;
+        this.config = config;
+    }
+
+    /**
+     * Runs the command on a new channel of the session, opening the session if needed.
+     *
+     * @param command command to run
+     * @return standard output of the command
+     * @throws CommandFailureException if the command exits with a non zero status
+     * @throws FailedLoginException if the device rejects the credentials
+     * @throws SocketTimeoutException if the command does not complete within the timeout
+     * @throws Exception if the device cannot be reached
+     */
+    public String exec(String command) throws Exception {
+        return exec(command, null);
+    }
+
+    /**
+     * Runs the commands at once, each on its own channel of the session, up to {@link #MAX_CHANNELS} at a time. <br>
+     * Once a command fails, the commands still running are stopped by closing their channels, and the commands not
+     * started yet are not sent.
+     *
+     * @param commands commands to run
+     * @return standard output of the commands, in order
+     * @throws Exception the failure of the first command to fail, see {@link #exec(String)}
+     */
+    public List<String> execAll(List<String> commands) throws Exception {
+        CompletionService<String> completionService = new ExecutorCompletionService<>(executor);
+        ChannelGroup group = new ChannelGroup();
+        List<Future<String>> futures = new ArrayList<>(commands.size());
+        for (String command : commands) {
+            futures.add(completionService.submit(() -> exec(command, group)));
+        }
+        String[] responses = new String[commands.size()];
+        boolean completed = false;
+        try {
+            for (int i = 0; i < commands.size(); i++) {
+                Future<String> future = completionService.take();
+                responses[futures.indexOf(future)] = future.get();
+            }
+            completed = true;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        } finally {
+            if (!completed) {
+                group.abort();
+                futures.forEach(future -> future.cancel(true));
+            }
+        }
+        return Arrays.asList(responses);
+    }
+
+    private String exec(String command, ChannelGroup group) throws Exception {
+        if (!channels.tryAcquire(timeout, TimeUnit.MILLISECONDS)) {
+            throw new SocketTimeoutException("Timed out waiting for a free channel to " + host + " to send command: " + command);
+        }
+        try {
+            Session current = obtainSession();
+            ChannelExec channel;
+            try {
+                channel = openChannel(current);
+            } catch (JSchException e) {
+                // the session went down between commands
+                logger.debug("SSH session to " + host + " is down, reconnecting", e);
+                channel = openChannel(reconnect(current));
+            }
+            if (group == null) {
+                return run(channel, command);
+            }
+            if (!group.add(channel)) {
+                channel.disconnect();
+                throw new CancellationException("Command " + command + " to " + host + " was not sent, another command of its batch failed");
+            }
+            try {
+                return run(channel, command);
+            } finally {
+                group.remove(channel);
+            }
+        } finally {
+            channels.release();
+        }
+    }
+
+    /**
+     * @return number of sessions opened, each paying for key exchange and authentication
+     */
+    public long getSessionsOpened() {
+        return sessionsOpened.get();
+    }
+
+    /**
+     * @return number of channels opened, one per command
+     */
+    public long getChannelsOpened() {
+        return channelsOpened.get();
+    }
+
+    /**
+     * @return total time in ms spent on key exchange and authentication
+     */
+    public long getHandshakeTime() {
+        return handshakeTime.get();
+    }
+
+    /**
+     * @return true if the session is open
+     */
+    public boolean isConnected() {
+        Session current = session;
+        return current != null && current.isConnected();
+    }
+
+    /**
+     * @return time in ms between keepalives
+     */
+    public int getKeepaliveInterval() {
+        return keepaliveInterval;
+    }
+
+    /**
+     * @param keepaliveInterval time in ms between keepalives, applies to sessions opened afterwards
+     */
+    public void setKeepaliveInterval(int keepaliveInterval) {
+        this.keepaliveInterval = keepaliveInterval;
+    }
+
+    /**
+     * Closes the session, commands fail afterwards.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        disconnect();
+    }
+
+    private Session obtainSession() throws Exception {
+        Session current = session;
+        if (current != null && current.isConnected()) {
+            return current;
+        }
+        synchronized (this) {
+            current = session;
+            if (current != null && current.isConnected()) {
+                return current;
+            }
+            return connect();
+        }
+    }
+
+    private synchronized Session reconnect(Session failed) throws Exception {
+        if (session != failed && session != null && session.isConnected()) {
+            // another command reconnected already
+            return session;
+        }
+        disconnect();
+        return connect();
+    }
+
+    private Session connect() throws Exception {
+        if (closed) {
+            throw new IllegalStateException("SSH session to " + host + " is closed");
+        }
+        Session newSession = new JSch().getSession(login, host, port);
+        newSession.setPassword(password);
+        config.forEach(newSession::setConfig);
+        // keepalives are sent once the session has not read anything for the interval
+        newSession.setServerAliveInterval(keepaliveInterval);
+        newSession.setServerAliveCountMax(KEEPALIVE_COUNT_MAX);
+        long start = System.nanoTime();
+        try {
+            newSession.connect(timeout);
+        } catch (JSchException e) {
+            if ("Auth fail".equals(e.getMessage()) || "Auth cancel".equals(e.getMessage())) {
+                throw new FailedLoginException("Failed to login to " + host + " as " + login);
+            }
+            throw e;
+        }
+        handshakeTime.addAndGet(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        sessionsOpened.incrementAndGet();
+        session = newSession;
+        return newSession;
+    }
+
+    private synchronized void disconnect() {
+        if (session != null) {
+            session.disconnect();
+            session = null;
+        }
+    }
+
+    private ChannelExec openChannel(Session session) throws JSchException {
+        ChannelExec channel = (ChannelExec) session.openChannel("exec");
+        channelsOpened.incrementAndGet();
+        return channel;
+    }
+
+    private String run(ChannelExec channel, String command) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ByteArrayOutputStream error = new ByteArrayOutputStream();
+        AtomicBoolean timedOut = new AtomicBoolean();
+        channel.setCommand(command);
+        channel.setErrStream(error);
+        // timed out command is stopped by closing its channel, which ends the read below
+        ScheduledFuture<?> timeoutTask = timer.schedule(() -> {
+            timedOut.set(true);
+            channel.disconnect();
+        }, timeout, TimeUnit.MILLISECONDS);
+        try {
+            InputStream inputStream = channel.getInputStream();
+            channel.connect(timeout);
+            byte[] buffer = new byte[1024];
+            int length;
+            while ((length = inputStream.read(buffer)) != -1) {
+                output.write(buffer, 0, length);
+            }
+            // exit status is sent by the device after the output, right before closing the channel, JSch does not
+            // signal the close so it is polled, backing off as the device is rarely more than a few ms late
+            for (long delay = 1; !channel.isClosed() && !timedOut.get(); delay = Math.min(delay * 2, 50)) {
+                Thread.sleep(delay);
+            }
+        } catch (Exception e) {
+            if (!timedOut.get()) {
+                throw e;
+            }
+        } finally {
+            timeoutTask.cancel(false);
+            channel.disconnect();
+        }
+        if (timedOut.get()) {
+            throw new SocketTimeoutException("Command " + command + " to " + host + " did not complete within " + timeout + "ms");
+        }
+        String response = new String(output.toByteArray(), StandardCharsets.UTF_8);
+        int exitStatus = channel.getExitStatus();
+        if (exitStatus > 0) {
+            throw new CommandFailureException(host, command, response + new String(error.toByteArray(), StandardCharsets.UTF_8), exitStatus);
+        }
+        return response;
+    }
+
+    /**
+     * Channels of the commands of a batch, closed at once when a command of the batch fails.
+     */
+    private static class ChannelGroup {
+        private final Set<ChannelExec> channels = new HashSet<>();
+        private boolean aborted;
+
+        /**
+         * @return false if the batch is aborted, the channel is not to be used then
+         */
+        synchronized boolean add(ChannelExec channel) {
+            if (aborted) {
+                return false;
+            }
+            channels.add(channel);
+            return true;
+        }
+
+        synchronized void remove(ChannelExec channel) {
+            channels.remove(channel);
+        }
+
+        /**
+         * Closes the channels of the commands running, which ends their reads.
+         */
+        synchronized void abort() {
+            aborted = true;
+            channels.forEach(ChannelExec::disconnect);
+            channels.clear();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2026 AVI-SPL, Inc. All Rights Reserved.
+ */
+package com.avispl.symphony.dal.communicator.sample.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Detects the end of a command response while it is being received, by matching the strings of the command success and
+ * error lists (typically ending with the command prompt) against the incoming bytes. <br>
+ * The strings are compiled once into an automaton (Aho-Corasick, with every transition precomputed), and a
+ * {@link Scanner} created for each response carries the state of the automaton between reads. Every byte received is
+ * looked at once, so detecting the end of a response costs O(new bytes) per read, rather than comparing every string
+ * against the whole response received so far on every read. <br>
+ * Same as the default end of response detection, error strings take precedence over success strings ending at the same
+ * position, and an empty string matches at every position. Strings are matched as bytes of the platform charset, which
+ * is the charset responses are decoded with.
+ *
+ * @author Symphony Dev Team<br> Created on Oct 17, 2026
+ */
+public class PromptMatcher {
+
+    private static final int NONE = 0;
+    private static final int SUCCESS = 1;
+    private static final int ERROR = 2;
+
+    /**
+     * next state for every state and byte value
+     */
+    private final int[][] transitions;
+    /**
+     * {@link #ERROR}, {@link #SUCCESS} or {@link #NONE} for strings ending at every state
+     */
+    private final int[] outputs;
+    private final int emptyOutput;
+
+    /**
+     * PromptMatcher constructor.
+     *
+     * @param successList strings ending a successful command response
+     * @param errorList strings ending a failed command response
+     */
+    public PromptMatcher(List<String> successList, List<String> errorList) {
+        List<int[]> trie = new ArrayList<>();
+        List<Integer> trieOutputs = new ArrayList<>();
+        trie.add(newState());
+        trieOutputs.add(NONE);
+        int empty = NONE;
+        for (int kind : new int[]{ERROR, SUCCESS}) {
+            List<String> strings = kind == ERROR ? errorList : successList;
+            if (strings == null) {
+                continue;
+            }
+            for (String string : strings) {
+                if (string.isEmpty()) {
+                    empty = Math.max(empty, kind);
+                    continue;
+                }
+                int state = 0;
+                for (byte b : string.getBytes()) {
+                    int next = trie.get(state)[b & 0xFF];
+                    if (next < 0) {
+                        next = trie.size();
+                        trie.get(state)[b & 0xFF] = next;
+                        trie.add(newState());
+                        trieOutputs.add(NONE);
+                    }
+                    state = next;
+                }
+                trieOutputs.set(state, Math.max(trieOutputs.get(state), kind));
+            }
+        }
+        emptyOutput = empty;
+
+        // turn the trie into an automaton, breadth first so failure states are complete before they are used
+        transitions = trie.toArray(new int[0][]);
+        outputs = new int[transitions.length];
+        int[] failures = new int[transitions.length];
+        Deque<Integer> queue = new ArrayDeque<>();
+        outputs[0] = trieOutputs.get(0);
+        for (int b = 0; b < 256; b++) {
+            int next = transitions[0][b];
+            if (next < 0) {
+                transitions[0][b] = 0;
+            } else {
+                failures[next] = 0;
+                outputs[next] = trieOutputs.get(next);
+                queue.add(next);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int b = 0; b < 256; b++) {
+                int next = transitions[state][b];
+                if (next < 0) {
+                    transitions[state][b] = transitions[failures[state]][b];
+                } else {
+                    failures[next] = transitions[failures[state]][b];
+                    // a string ending at the failure state is a suffix of the strings ending here
+                    outputs[next] = Math.max(trieOutputs.get(next), outputs[failures[next]]);
+                    queue.add(next);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return scanner of a new response
+     */
+    public Scanner scanner() {
+        return new Scanner();
+    }
+
+    private static int[] newState() {
+        int[] state = new int[256];
+        Arrays.fill(state, -1);
+        return state;
+    }
+
+    /**
+     * State of the matching of a single response.
+     */
+    public class Scanner {
+        private int state;
+        private int matches;
+
+        /**
+         * Advances the matching over the bytes received.
+         *
+         * @param bytes buffer holding the bytes
+         * @param offset position of the first byte received
+         * @param length number of bytes received
+         */
+        public void feed(byte[] bytes, int offset, int length) {
+            int current = state;
+            for (int i = offset; i < offset + length; i++) {
+                current = transitions[current][bytes[i] & 0xFF];
+                if (outputs[current] != NONE) {
+                    matches++;
+                }
+            }
+            state = current;
+        }
+
+        /**
+         * @return true if the bytes received so far end with a success or an error string
+         */
+        public boolean isEnd() {
+            return Math.max(outputs[state], emptyOutput) != NONE;
+        }
+
+        /**
+         * @return true if the bytes received so far end with an error string
+         */
+        public boolean isError() {
+            return outputs[state] == ERROR || emptyOutput == ERROR;
+        }
+
+        /**
+         * @return number of positions in the bytes received so far where a non empty success or error string ends
+         */
+        public int getMatches() {
+            return matches;
+        }
+    }
+}
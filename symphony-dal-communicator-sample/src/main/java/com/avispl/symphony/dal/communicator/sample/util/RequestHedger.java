@@ -0,0 +1,291 @@
+/*
+ * Copyright (c) 2026 AVI-SPL, Inc. All Rights Reserved.
+ */
+package com.avispl.symphony.dal.communicator.sample.util;
+
+import com.avispl.symphony.api.dal.dto.monitor.ExtendedStatistics;
+import com.avispl.symphony.api.dal.dto.monitor.Statistics;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hedges idempotent requests to a device: when a request is still pending after the {@link #getPercentile() percentile}
+ * of the recent response times, an identical request is sent and whichever response arrives first is used. <br>
+ * A device which occasionally stalls (e.g. on a garbage collection or a congested link) then costs a poll at most about
+ * twice its usual response time instead of seconds. <br>
+ * Once hedging started, the request and its hedge are both made by pooled threads and the calling thread waits for the
+ * first of them to succeed: blocking socket reads do not respond to interruption, so the calling thread could not be
+ * freed from a stalled request it made itself. A stalled request is left to complete or time out in the background,
+ * its response time is still recorded so stalls stay visible in the percentile. Until hedging starts, requests are made
+ * on the calling thread. <br>
+ * Extra load is capped by a {@link #getBudget() budget}: every request earns a fraction of a hedge, and a hedge is only
+ * sent if a whole one was earned, so a device which is slow on every request is not sent every request twice.
+ * Hedging starts once {@link #MIN_SAMPLES} response times are known. <br>
+ * Only hedge requests which can be safely repeated, such as GETs.
+ *
+ * @author Symphony Dev Team<br> Created on Oct 17, 2026
+ */
+public class RequestHedger {
+
+    /**
+     * Number of recent response times the hedge delay is computed from
+     */
+    public static final int WINDOW = 128;
+
+    /**
+     * Number of response times needed before requests are hedged
+     */
+    public static final int MIN_SAMPLES = 20;
+
+    /**
+     * Max number of hedges that can be saved up by a device
+     */
+    private static final double MAX_TOKENS = 5;
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    /**
+     * Threads making hedges, shared by all the devices. Number of threads is bound by the number of devices polled at
+     * once and their budgets.
+     */
+    private static final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "hedged-request-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Thread sending the hedges once their delay is over, shared by all the devices
+     */
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "hedged-request-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile int percentile;
+    private volatile int budget = 10;
+
+    private final long[] samples = new long[WINDOW];
+    private int sampleCount;
+    private int nextSample;
+    private double tokens = 1;
+    private long hedges;
+    private long hedgeWins;
+
+    /**
+     * Makes the request, hedging it if it takes too long.
+     *
+     * @param request request to the device, must be safe to repeat
+     * @param <T> type of the result
+     * @return result of the first request to succeed
+     * @throws Exception if all the requests made fail, the failure of the last one
+     */
+    public <T> T call(Callable<T> request) throws Exception {
+        long delay = hedgeDelay();
+        long start = System.nanoTime();
+        if (delay < 0) {
+            T result = request.call();
+            record(start);
+            return result;
+        }
+
+        Attempts<T> attempts = new Attempts<>(request);
+        attempts.start(false);
+        ScheduledFuture<?> timer = scheduler.schedule(attempts::hedge, delay, TimeUnit.MILLISECONDS);
+        try {
+            return attempts.result.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        } finally {
+            timer.cancel(false);
+        }
+    }
+
+    /**
+     * @return percentile of the recent response times after which requests are hedged, 0 if requests are not hedged
+     */
+    public int getPercentile() {
+        return percentile;
+    }
+
+    /**
+     * @param percentile percentile of the recent response times after which requests are hedged, between 50 and 99,
+     * 0 to disable hedging
+     */
+    public void setPercentile(int percentile) {
+        if (percentile != 0 && (percentile < 50 || percentile > 99)) {
+            throw new IllegalArgumentException("Hedging percentile must be between 50 and 99, or 0 to disable hedging");
+        }
+        this.percentile = percentile;
+    }
+
+    /**
+     * @return max number of hedges per 100 requests
+     */
+    public int getBudget() {
+        return budget;
+    }
+
+    /**
+     * @param budget max number of hedges per 100 requests
+     */
+    public void setBudget(int budget) {
+        if (budget < 0 || budget > 100) {
+            throw new IllegalArgumentException("Hedging budget must be between 0 and 100");
+        }
+        this.budget = budget;
+    }
+
+    /**
+     * @return number of hedges sent
+     */
+    public synchronized long getHedges() {
+        return hedges;
+    }
+
+    /**
+     * @return number of hedges which responded before the request they hedged
+     */
+    public synchronized long getHedgeWins() {
+        return hedgeWins;
+    }
+
+    /**
+     * @return time in ms after which requests are hedged, -1 if requests are not hedged yet
+     */
+    public synchronized long getDelay() {
+        if (percentile == 0 || sampleCount < MIN_SAMPLES) {
+            return -1;
+        }
+        long[] sorted = Arrays.copyOf(samples, sampleCount);
+        Arrays.sort(sorted);
+        return TimeUnit.NANOSECONDS.toMillis(sorted[(sampleCount * percentile - 1) / 100]) + 1;
+    }
+
+    /**
+     * Adds hedging counters to device statistics as {@link ExtendedStatistics}, while hedging is enabled.
+     *
+     * @param statistics device statistics
+     */
+    public void addStatistics(List<Statistics> statistics) {
+        if (percentile == 0) {
+            return;
+        }
+        Map<String, String> hedgingStatistics = new HashMap<>();
+        long delay = getDelay();
+        synchronized (this) {
+            hedgingStatistics.put("HedgedRequests#Delay(ms)", delay < 0 ? "N/A" : String.valueOf(delay));
+            hedgingStatistics.put("HedgedRequests#Sent", String.valueOf(hedges));
+            hedgingStatistics.put("HedgedRequests#Won", String.valueOf(hedgeWins));
+        }
+        ExtendedStatistics extendedStatistics = new ExtendedStatistics();
+        extendedStatistics.setStatistics(hedgingStatistics);
+        statistics.add(extendedStatistics);
+    }
+
+    /**
+     * Counts the request against the budget.
+     *
+     * @return time in ms after which the request is hedged, -1 if it is not hedged
+     */
+    private synchronized long hedgeDelay() {
+        if (percentile == 0) {
+            return -1;
+        }
+        tokens = Math.min(MAX_TOKENS, tokens + budget / 100.0);
+        return getDelay();
+    }
+
+    private synchronized boolean acquireHedge() {
+        if (tokens < 1) {
+            return false;
+        }
+        tokens--;
+        hedges++;
+        return true;
+    }
+
+    private synchronized void record(long start) {
+        samples[nextSample] = System.nanoTime() - start;
+        nextSample = (nextSample + 1) % WINDOW;
+        if (sampleCount < WINDOW) {
+            sampleCount++;
+        }
+    }
+
+    /**
+     * Request and its hedge, each made by a pooled thread. The result completes with the first attempt to succeed, or
+     * with the failure of the last attempt once all the attempts made failed. The hedge is only sent if the request is
+     * still pending once the hedge delay is over, and the budget allows it.
+     */
+    private final class Attempts<T> {
+        private final Callable<T> request;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private int running;
+
+        Attempts(Callable<T> request) {
+            this.request = request;
+        }
+
+        /**
+         * Sends the hedge unless the request is already done or the budget is spent.
+         */
+        synchronized void hedge() {
+            if (result.isDone() || !acquireHedge()) {
+                return;
+            }
+            start(true);
+        }
+
+        synchronized void start(boolean hedge) {
+            running++;
+            executor.execute(() -> run(hedge));
+        }
+
+        private void run(boolean hedge) {
+            long start = System.nanoTime();
+            T value;
+            try {
+                value = request.call();
+            } catch (Throwable e) {
+                synchronized (this) {
+                    // a failure is only reported once no other attempt can succeed
+                    if (--running == 0) {
+                        result.completeExceptionally(e);
+                    }
+                }
+                return;
+            }
+            record(start);
+            synchronized (this) {
+                running--;
+                if (hedge && !result.isDone()) {
+                    synchronized (RequestHedger.this) {
+                        hedgeWins++;
+                    }
+                }
+                result.complete(value);
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2026 AVI-SPL, Inc. All Rights Reserved.
+ */
+package com.avispl.symphony.dal.communicator.sample.util;
+
+import com.avispl.symphony.api.dal.error.CommandFailureException;
+import com.avispl.symphony.api.dal.error.ResourceNotReachableException;
+import com.avispl.symphony.dal.communicator.HttpCommunicator;
+import com.avispl.symphony.dal.communicator.RestCommunicator;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriUtils;
+
+import javax.security.auth.login.FailedLoginException;
+import java.net.URI;
+
+/**
+ * Requests executed through the {@link RestTemplate} of a {@link RestCommunicator} outside of its doGet/doPost methods,
+ * e.g. to stream or decode the response body while it is being received. <br>
+ * {@link RestCommunicator} translates errors of its own requests into the DAL exceptions, this class does the same for
+ * the requests executed directly, so the callers, session handling and circuit breakers see the same exceptions
+ * whichever way a request was made:
+ * <ul>
+ *     <li>{@link ResourceAccessException} is reported as {@link ResourceNotReachableException}</li>
+ *     <li>401 response is reported as {@link FailedLoginException}, and the communicator is disconnected</li>
+ *     <li>any other error response, including a 403 rejecting the CSRF token, is reported as {@link CommandFailureException}</li>
+ * </ul>
+ * Only GET requests are executed here. {@link RestCommunicator} doesn't send the CSRF token with the safe methods
+ * either, and since the token itself is not accessible outside of the communicator, a device rejecting a GET request
+ * for a missing CSRF token gets the rejection reported with its 403 status, to be handled as a rejected session.
+ *
+ * @author Symphony Dev Team<br> Created on Oct 17, 2026
+ */
+public final class RestRequests {
+
+    private static final Log logger = LogFactory.getLog(RestRequests.class);
+
+    private RestRequests() {
+    }
+
+    /**
+     * Performs GET request, passing the response to the extractor while it is being received.
+     *
+     * @param communicator communicator the request is made on behalf of
+     * @param restTemplate rest template of the communicator
+     * @param uri request uri, relative to base uri
+     * @param headers request headers
+     * @param responseExtractor extractor of the response, called for 2xx and 3xx responses
+     * @param <T> type of the extracted response
+     * @return extracted response
+     * @throws FailedLoginException if the device rejects the credentials
+     * @throws CommandFailureException if the device responds with another error
+     * @throws ResourceNotReachableException if the device can't be reached
+     */
+    public static <T> T get(RestCommunicator communicator, RestTemplate restTemplate, String uri, HttpHeaders headers,
+                            ResponseExtractor<T> responseExtractor) throws FailedLoginException {
+        return get(communicator, restTemplate, restTemplate.getUriTemplateHandler().expand(buildRequestUrl(communicator, uri)),
+                headers, responseExtractor);
+    }
+
+    /**
+     * Performs GET request to an url that is already encoded, passing the response to the extractor while it is being
+     * received. <br>
+     * Urls given as strings, to this class and to {@link RestCommunicator} alike, are encoded by the rest template,
+     * so a path segment encoded beforehand, e.g. with {@link UriUtils#encodePathSegment(String, String)}, would be
+     * encoded twice. Values that may contain {@code /}, {@code ?} or {@code %}, such as device ids, are to be requested
+     * this way instead.
+     *
+     * @param communicator communicator the request is made on behalf of
+     * @param restTemplate rest template of the communicator
+     * @param url full encoded request url
+     * @param headers request headers
+     * @param responseExtractor extractor of the response, called for 2xx and 3xx responses
+     * @param <T> type of the extracted response
+     * @return extracted response
+     * @throws FailedLoginException if the device rejects the credentials
+     * @throws CommandFailureException if the device responds with another error
+     * @throws ResourceNotReachableException if the device can't be reached
+     */
+    public static <T> T get(RestCommunicator communicator, RestTemplate restTemplate, URI url, HttpHeaders headers,
+                            ResponseExtractor<T> responseExtractor) throws FailedLoginException {
+        try {
+            return restTemplate.execute(url, HttpMethod.GET, request -> request.getHeaders().putAll(headers), responseExtractor);
+        } catch (ResourceAccessException e) {
+            throw new ResourceNotReachableException("Cannot reach resource at " + url, e);
+        } catch (HttpStatusCodeException e) {
+            if (e.getStatusCode() == HttpStatus.UNAUTHORIZED) {
+                FailedLoginException failedLogin = new FailedLoginException("Invalid authentication credentials for " + url);
+                failedLogin.initCause(e);
+                disconnect(communicator);
+                throw failedLogin;
+            }
+            throw new CommandFailureException(communicator.getHost(), url.toString(), e.getResponseBodyAsString(), e.getStatusCode().value(), e);
+        }
+    }
+
+    /**
+     * Builds full request url the same way {@link HttpCommunicator} does for its own requests. <br>
+     * Mirrors package-private {@code HttpCommunicator.buildRequestUrl(String)}, which is not accessible to the adapters,
+     * so any change of url building in the communicator has to be reflected here.
+     *
+     * @param communicator communicator providing protocol, host, port and base uri
+     * @param uri request uri, relative to base uri
+     * @return full request url
+     */
+    public static String buildRequestUrl(HttpCommunicator communicator, String uri) {
+        if (uri.contains("://")) {
+            return uri;
+        }
+        String host = communicator.getHost();
+        StringBuilder url = new StringBuilder(communicator.getProtocol()).append("://");
+        if (host.indexOf(':') >= 0 && !host.startsWith("[")) {
+            url.append('[').append(host).append(']');
+        } else {
+            url.append(host);
+        }
+        if (communicator.getPort() > 0) {
+            url.append(':').append(communicator.getPort());
+        }
+        appendPath(url, communicator.getBaseUri());
+        appendPath(url, uri);
+        return url.toString();
+    }
+
+    private static void appendPath(StringBuilder url, String path) {
+        if (path == null || path.isEmpty()) {
+            return;
+        }
+        boolean slashInUrl = url.charAt(url.length() - 1) == '/';
+        boolean slashInPath = path.startsWith("/");
+        if (slashInUrl && slashInPath) {
+            url.append(path, 1, path.length());
+        } else if (slashInUrl || slashInPath) {
+            url.append(path);
+        } else {
+            url.append('/').append(path);
+        }
+    }
+
+    private static void disconnect(RestCommunicator communicator) {
+        try {
+            communicator.disconnect();
+        } catch (Exception e) {
+            logger.debug("Unable to disconnect from " + communicator.getHost(), e);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2026 AVI-SPL, Inc. All Rights Reserved.
+ */
+package com.avispl.symphony.dal.communicator.sample.util;
+
+import com.avispl.symphony.dal.communicator.HttpCommunicator;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.CredentialsProvider;
+import org.apache.http.client.config.CookieSpecs;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.impl.client.BasicCookieStore;
+import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.client.LaxRedirectStrategy;
+import org.apache.http.impl.conn.SystemDefaultRoutePlanner;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.ProxySelector;
+
+/**
+ * Http client of a trust-all HTTPS communicator built with the SSL context shared by the process, see {@link SharedSslContexts}. <br>
+ * {@link HttpCommunicator} builds a new SSL context every time it connects, so every reconnect pays for a full TLS handshake.
+ * Once {@link #installIfTrustingAll(RestTemplate, HttpCommunicator) installed}, the requests of the communicator go
+ * through a client configured the same way (credentials, timeouts, connection limits, proxy, cookies and redirects of
+ * POST requests) whose connections resume the TLS sessions negotiated before. <br>
+ * Each communicator keeps its own instance, which closes the client of the previous rest template when a new one is installed,
+ * and is to be {@link #close() closed} when the communicator is destroyed. Communicators using {@link SharedConnectionPool}
+ * do not need it, the pool already shares the context.
+ *
+ * @author Symphony Dev Team<br> Created on Oct 17, 2026
+ */
+public final class ResumingSslClient {
+
+    private static final Log logger = LogFactory.getLog(ResumingSslClient.class);
+
+    private ClientHttpRequestFactory requestFactory;
+    private CloseableHttpClient client;
+
+    /**
+     * Routes the requests of given rest template through a client using the shared trust-all SSL context, if the
+     * communicator trusts all certificates and uses HTTPS. To be called by the communicator every time it obtains its
+     * rest template: the template is created again once the communicator is reconnected, and the client is only
+     * installed into each template once. As with {@link SharedConnectionPool}, installing has to happen before anything
+     * else wraps the client, e.g. {@link ContentEncodingNegotiator}.
+     *
+     * @param restTemplate rest template of the communicator
+     * @param communicator communicator providing trust configuration, timeouts and connection limits
+     * @throws Exception if the shared SSL context cannot be created
+     */
+    public synchronized void installIfTrustingAll(RestTemplate restTemplate, HttpCommunicator communicator) throws Exception {
+        if (!communicator.getTrustAllCertificates() || !"https".equalsIgnoreCase(communicator.getProtocol())) {
+            return;
+        }
+        ClientHttpRequestFactory currentFactory = restTemplate.getRequestFactory();
+        if (currentFactory == requestFactory || !(currentFactory instanceof HttpComponentsClientHttpRequestFactory)) {
+            // already installed, or request interceptors hide the underlying factory
+            return;
+        }
+        close();
+        client = createClient(communicator);
+        ((HttpComponentsClientHttpRequestFactory) currentFactory).setHttpClient(client);
+        requestFactory = currentFactory;
+    }
+
+    /**
+     * Closes the installed client and its connections.
+     */
+    public synchronized void close() {
+        if (client != null) {
+            try {
+                client.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close http client", e);
+            }
+            client = null;
+            requestFactory = null;
+        }
+    }
+
+    private static CloseableHttpClient createClient(HttpCommunicator communicator) throws Exception {
+        int timeout = communicator.getTimeout();
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(timeout)
+                .setConnectionRequestTimeout(timeout)
+                .setSocketTimeout(timeout)
+                .setCookieSpec(CookieSpecs.DEFAULT)
+                .build();
+        HttpClientBuilder builder = HttpClients.custom()
+                .setDefaultRequestConfig(requestConfig)
+                .setSSLContext(SharedSslContexts.get(true))
+                .setSSLHostnameVerifier(NoopHostnameVerifier.INSTANCE)
+                .setRoutePlanner(new SystemDefaultRoutePlanner(ProxySelector.getDefault()))
+                .setDefaultCookieStore(new BasicCookieStore());
+        if (communicator.getAuthenticationScheme() != HttpCommunicator.AuthenticationScheme.None
+                && communicator.getLogin() != null && !communicator.getLogin().isEmpty()) {
+            CredentialsProvider credentialsProvider = new BasicCredentialsProvider();
+            credentialsProvider.setCredentials(new AuthScope(communicator.getHost(), AuthScope.ANY_PORT),
+                    new UsernamePasswordCredentials(communicator.getLogin(), communicator.getPassword()));
+            builder.setDefaultCredentialsProvider(credentialsProvider);
+        }
+        if (SharedConnectionPool.followsPostRedirects(communicator)) {
+            builder.setRedirectStrategy(new LaxRedirectStrategy());
+        }
+        if (communicator.getMaxConnectionsPerRoute() > 0) {
+            builder.setMaxConnPerRoute(communicator.getMaxConnectionsPerRoute());
+        }
+        if (communicator.getMaxConnectionsTotal() > 0) {
+            builder.setMaxConnTotal(communicator.getMaxConnectionsTotal());
+        }
+        return builder.build();
+    }
+}
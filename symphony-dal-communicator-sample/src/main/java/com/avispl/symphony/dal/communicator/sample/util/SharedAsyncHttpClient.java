@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2026 AVI-SPL, Inc. All Rights Reserved.
+ */
+package com.avispl.symphony.dal.communicator.sample.util;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Non-blocking http client shared by all the communicators of the process. <br>
+ * The client runs a few I/O dispatch threads (one per CPU core) which multiplex all the connections, so the number of
+ * requests in flight is not bound by the number of threads: a poller thread submits a request and moves on, and the
+ * response completes on a dispatch thread once it's received. A client is started by the first communicator that
+ * {@link #acquire(boolean) acquires} it and is closed when the last one {@link #release(CloseableHttpAsyncClient) releases} it. <br>
+ * Communicators that trust all certificates share a separate client, since the SSL strategy is set per client.
+ *
+ * @author Symphony Dev Team<br> Created on Oct 17, 2026
+ */
+public final class SharedAsyncHttpClient {
+
+    private static final Log logger = LogFactory.getLog(SharedAsyncHttpClient.class);
+    private static final int MAX_CONNECTIONS_TOTAL = 1000;
+    private static final int MAX_CONNECTIONS_PER_ROUTE = 20;
+
+    private static final Map<Boolean, CloseableHttpAsyncClient> clients = new HashMap<>();
+    private static final Map<CloseableHttpAsyncClient, Integer> references = new HashMap<>();
+
+    private SharedAsyncHttpClient() {
+    }
+
+    /**
+     * @param trustAllCertificates whether server certificates and host names are not verified
+     * @return started client, to be released once the communicator is destroyed
+     * @throws Exception if the client cannot be created
+     */
+    public static synchronized CloseableHttpAsyncClient acquire(boolean trustAllCertificates) throws Exception {
+        CloseableHttpAsyncClient client = clients.get(trustAllCertificates);
+        if (client == null) {
+            client = createClient(trustAllCertificates);
+            client.start();
+            clients.put(trustAllCertificates, client);
+        }
+        references.merge(client, 1, Integer::sum);
+        return client;
+    }
+
+    /**
+     * @param client client previously acquired, closed if no other communicator uses it
+     */
+    public static synchronized void release(CloseableHttpAsyncClient client) {
+        Integer count = references.get(client);
+        if (count == null) {
+            return;
+        }
+        if (count > 1) {
+            references.put(client, count - 1);
+            return;
+        }
+        references.remove(client);
+        clients.values().remove(client);
+        try {
+            client.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close shared async http client", e);
+        }
+    }
+
+    private static CloseableHttpAsyncClient createClient(boolean trustAllCertificates) throws Exception {
+        HttpAsyncClientBuilder builder = HttpAsyncClientBuilder.create()
+                .setMaxConnTotal(MAX_CONNECTIONS_TOTAL)
+                .setMaxConnPerRoute(MAX_CONNECTIONS_PER_ROUTE);
+        builder.setSSLStrategy(trustAllCertificates
+                ? new SSLIOSessionStrategy(SharedSslContexts.get(true), NoopHostnameVerifier.INSTANCE)
+                : new SSLIOSessionStrategy(SharedSslContexts.get(false), SSLIOSessionStrategy.getDefaultHostnameVerifier()));
+        return builder.build();
+    }
+}
@@ -0,0 +1,347 @@
+/*
+ * Copyright (c) 2026 AVI-SPL, Inc. All Rights Reserved.
+ */
+package com.avispl.symphony.dal.communicator.sample.util;
+
+import com.avispl.symphony.dal.communicator.HttpCommunicator;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpHost;
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.CredentialsProvider;
+import org.apache.http.client.config.CookieSpecs;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.BasicCookieStore;
+import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.client.IdleConnectionEvictor;
+import org.apache.http.impl.client.LaxRedirectStrategy;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.conn.SystemDefaultRoutePlanner;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.net.ProxySelector;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Connection pool shared by all the {@link RestTemplate} based communicators of the process which opt in. <br>
+ * Every communicator otherwise keeps its own http client and connection pool, so with many communicators most polls
+ * pay for a new TCP and TLS handshake. Once {@link #installIfEnabled(boolean, RestTemplate, HttpCommunicator) installed},
+ * the requests of a communicator go through a client of its own (credentials, timeouts, proxy, cookies and redirects of
+ * POST requests stay per communicator, as configured by {@link HttpCommunicator}) backed by the shared connection manager: connections are kept alive between polls, and closed by a background evictor once
+ * idle for {@link #IDLE_TIMEOUT}. Connections are limited per route by the highest
+ * {@link HttpCommunicator#getMaxConnectionsPerRoute() max connections per route} of the communicators using the route,
+ * and by {@value #MAX_CONNECTIONS_PER_ROUTE} if none of them sets it. <br>
+ * A lease of an already open connection counts as a pool hit, opening a new connection counts as a miss,
+ * see {@link #getHits()} and {@link #getMisses()}.
+ *
+ * @author Symphony Dev Team<br> Created on Oct 17, 2026
+ */
+public final class SharedConnectionPool {
+
+    /**
+     * Time in ms a connection is kept open without being used, and kept alive if the server does not say otherwise
+     */
+    public static final long IDLE_TIMEOUT = 30000;
+
+    /**
+     * Max number of connections per route, unless a communicator using the route sets a higher one
+     */
+    public static final int MAX_CONNECTIONS_PER_ROUTE = 20;
+
+    private static final Log logger = LogFactory.getLog(SharedConnectionPool.class);
+    private static final int MAX_CONNECTIONS_TOTAL = 2000;
+    private static final long EVICTION_INTERVAL = 5000;
+
+    private static volatile SharedConnectionPool verifyingPool;
+    private static volatile SharedConnectionPool trustingPool;
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final MeteredConnectionManager meteredConnectionManager;
+    private final ConnectionKeepAliveStrategy keepAliveStrategy = (response, context) -> {
+        long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+        return keepAlive > 0 ? Math.min(keepAlive, IDLE_TIMEOUT) : IDLE_TIMEOUT;
+    };
+    private final Map<HttpRoute, Integer> routeLimits = new ConcurrentHashMap<>();
+    private final Set<ClientHttpRequestFactory> installedFactories = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+    private final AtomicLong leases = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private volatile boolean unsupportedFactoryReported;
+
+    private SharedConnectionPool(boolean trustAllCertificates) throws Exception {
+        // connections share the SSL context of the process, so reconnects resume TLS sessions
+        SSLContext sslContext = SharedSslContexts.get(trustAllCertificates);
+        SSLConnectionSocketFactory sslSocketFactory = trustAllCertificates
+                ? new SSLConnectionSocketFactory(sslContext, NoopHostnameVerifier.INSTANCE)
+                : new SSLConnectionSocketFactory(sslContext, SSLConnectionSocketFactory.getDefaultHostnameVerifier());
+        Registry<ConnectionSocketFactory> socketFactories = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", sslSocketFactory)
+                .build();
+        connectionManager = new PoolingHttpClientConnectionManager(socketFactories);
+        connectionManager.setMaxTotal(MAX_CONNECTIONS_TOTAL);
+        connectionManager.setDefaultMaxPerRoute(MAX_CONNECTIONS_PER_ROUTE);
+        meteredConnectionManager = new MeteredConnectionManager();
+        new IdleConnectionEvictor(connectionManager, EVICTION_INTERVAL, TimeUnit.MILLISECONDS, IDLE_TIMEOUT, TimeUnit.MILLISECONDS).start();
+    }
+
+    /**
+     * @param trustAllCertificates whether server certificates and host names are not verified
+     * @return pool of the process, created on the first call
+     * @throws Exception if the pool cannot be created
+     */
+    public static SharedConnectionPool getInstance(boolean trustAllCertificates) throws Exception {
+        SharedConnectionPool pool = trustAllCertificates ? trustingPool : verifyingPool;
+        if (pool == null) {
+            synchronized (SharedConnectionPool.class) {
+                pool = trustAllCertificates ? trustingPool : verifyingPool;
+                if (pool == null) {
+                    pool = new SharedConnectionPool(trustAllCertificates);
+                    if (trustAllCertificates) {
+                        trustingPool = pool;
+                    } else {
+                        verifyingPool = pool;
+                    }
+                }
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Routes the requests of given rest template through the pool, if the communicator opts in. To be called by the
+     * communicator every time it obtains its rest template: the template is created again once the communicator is
+     * reconnected, and the pool is only installed into each template once. <br>
+     * The template's own http client stays unused, it's closed by the communicator as usual. Installing replaces the
+     * client of the request factory, so it has to happen before anything else wraps the client, e.g.
+     * {@link ContentEncodingNegotiator}.
+     *
+     * @param enabled whether the communicator uses the shared connection pool
+     * @param restTemplate rest template of the communicator
+     * @param communicator communicator providing credentials, timeouts and route limit
+     * @throws Exception if the pool cannot be created
+     */
+    public static void installIfEnabled(boolean enabled, RestTemplate restTemplate, HttpCommunicator communicator) throws Exception {
+        if (enabled) {
+            getInstance(communicator.getTrustAllCertificates()).install(restTemplate, communicator);
+        }
+    }
+
+    private void install(RestTemplate restTemplate, HttpCommunicator communicator) {
+        ClientHttpRequestFactory requestFactory = restTemplate.getRequestFactory();
+        if (!installedFactories.add(requestFactory)) {
+            return;
+        }
+        if (!(requestFactory instanceof HttpComponentsClientHttpRequestFactory)) {
+            // request interceptors (e.g. request compression) hide the underlying factory
+            if (!unsupportedFactoryReported) {
+                unsupportedFactoryReported = true;
+                logger.warn("Shared connection pool cannot be used with request factory " + requestFactory.getClass().getName());
+            }
+            return;
+        }
+        ((HttpComponentsClientHttpRequestFactory) requestFactory).setHttpClient(createClient(Collections.singletonList(communicator)));
+    }
+
+    /**
+     * Creates a client of the pool serving the requests of several communicators, e.g. the controllers of an aggregator,
+     * instead of a client per communicator. Credentials are set per route of every communicator, the timeouts are the
+     * longest of theirs. The client is to be closed once the communicators are destroyed, the pool stays open.
+     *
+     * @param communicators communicators providing routes, credentials, timeouts and route limits
+     * @return client of the pool
+     */
+    public CloseableHttpClient createClient(Collection<? extends HttpCommunicator> communicators) {
+        int timeout = 0;
+        boolean followPostRedirects = false;
+        CredentialsProvider credentialsProvider = new BasicCredentialsProvider();
+        for (HttpCommunicator communicator : communicators) {
+            HttpHost target = targetOf(communicator);
+            timeout = Math.max(timeout, communicator.getTimeout());
+            followPostRedirects |= followsPostRedirects(communicator);
+            int maxConnectionsPerRoute = communicator.getMaxConnectionsPerRoute();
+            if (maxConnectionsPerRoute > 0) {
+                routeLimits.compute(new HttpRoute(target), (route, limit) -> {
+                    int maxLimit = Math.max(limit == null ? MAX_CONNECTIONS_PER_ROUTE : limit, maxConnectionsPerRoute);
+                    connectionManager.setMaxPerRoute(route, maxLimit);
+                    return maxLimit;
+                });
+            }
+            if (communicator.getAuthenticationScheme() != HttpCommunicator.AuthenticationScheme.None
+                    && communicator.getLogin() != null && !communicator.getLogin().isEmpty()) {
+                credentialsProvider.setCredentials(new AuthScope(target.getHostName(), target.getPort()),
+                        new UsernamePasswordCredentials(communicator.getLogin(), communicator.getPassword()));
+            }
+        }
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(timeout)
+                .setConnectionRequestTimeout(timeout)
+                .setSocketTimeout(timeout)
+                .setCookieSpec(CookieSpecs.DEFAULT)
+                .build();
+        HttpClientBuilder builder = HttpClients.custom()
+                .setConnectionManager(meteredConnectionManager)
+                .setConnectionManagerShared(true)
+                .setKeepAliveStrategy(keepAliveStrategy)
+                .setDefaultRequestConfig(requestConfig)
+                .setDefaultCredentialsProvider(credentialsProvider)
+                .setRoutePlanner(new SystemDefaultRoutePlanner(ProxySelector.getDefault()))
+                .setDefaultCookieStore(new BasicCookieStore());
+        if (followPostRedirects) {
+            builder.setRedirectStrategy(new LaxRedirectStrategy());
+        }
+        return builder.build();
+    }
+
+    /**
+     * {@link HttpCommunicator} follows redirects of POST requests if {@link HttpCommunicator#setFollowPostRedirects(boolean)
+     * enabled}, but has no getter of the setting, so it's read from the field.
+     *
+     * @param communicator communicator to check
+     * @return true if the communicator follows redirects of POST requests
+     */
+    static boolean followsPostRedirects(HttpCommunicator communicator) {
+        try {
+            Field field = HttpCommunicator.class.getDeclaredField("followPostRedirects");
+            field.setAccessible(true);
+            return field.getBoolean(communicator);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.debug("Cannot tell whether redirects of POST requests are followed, they are not", e);
+            return false;
+        }
+    }
+
+    /**
+     * Adds hits and misses of the pool to the statistics, if the communicator opts in.
+     *
+     * @param enabled whether the communicator uses the shared connection pool
+     * @param communicator communicator using the pool
+     * @param statistics statistics to add to
+     * @throws Exception if the pool cannot be created
+     */
+    public static void addStatisticsIfEnabled(boolean enabled, HttpCommunicator communicator, Map<String, String> statistics) throws Exception {
+        if (enabled) {
+            SharedConnectionPool connectionPool = getInstance(communicator.getTrustAllCertificates());
+            statistics.put("ConnectionPoolHits", String.valueOf(connectionPool.getHits()));
+            statistics.put("ConnectionPoolMisses", String.valueOf(connectionPool.getMisses()));
+        }
+    }
+
+    /**
+     * @param host host of the route
+     * @param port port of the route
+     * @param protocol protocol of the route
+     * @return max number of connections per given route
+     */
+    public int getMaxPerRoute(String host, int port, String protocol) {
+        return connectionManager.getMaxPerRoute(new HttpRoute(new HttpHost(host, port, protocol)));
+    }
+
+    /**
+     * @return number of requests served by a connection that was already open
+     */
+    public long getHits() {
+        return leases.get() - misses.get();
+    }
+
+    /**
+     * @return number of requests that had to open a new connection
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return number of connections leased, idle and awaited, across all the routes
+     */
+    public PoolStats getTotalStats() {
+        return connectionManager.getTotalStats();
+    }
+
+    /**
+     * @return target of the requests of given communicator, always with the port, default one of the protocol if the
+     * communicator does not set it
+     */
+    private static HttpHost targetOf(HttpCommunicator communicator) {
+        String protocol = communicator.getProtocol();
+        int port = communicator.getPort() > 0 ? communicator.getPort() : "https".equalsIgnoreCase(protocol) ? 443 : 80;
+        return new HttpHost(communicator.getHost(), port, protocol);
+    }
+
+    /**
+     * Connection manager counting leases and newly opened connections of the shared manager.
+     */
+    private final class MeteredConnectionManager implements HttpClientConnectionManager {
+
+        @Override
+        public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+            leases.incrementAndGet();
+            return connectionManager.requestConnection(route, state);
+        }
+
+        @Override
+        public void releaseConnection(HttpClientConnection connection, Object newState, long validDuration, TimeUnit timeUnit) {
+            connectionManager.releaseConnection(connection, newState, validDuration, timeUnit);
+        }
+
+        @Override
+        public void connect(HttpClientConnection connection, HttpRoute route, int connectTimeout, HttpContext context) throws IOException {
+            misses.incrementAndGet();
+            connectionManager.connect(connection, route, connectTimeout, context);
+        }
+
+        @Override
+        public void upgrade(HttpClientConnection connection, HttpRoute route, HttpContext context) throws IOException {
+            connectionManager.upgrade(connection, route, context);
+        }
+
+        @Override
+        public void routeComplete(HttpClientConnection connection, HttpRoute route, HttpContext context) throws IOException {
+            connectionManager.routeComplete(connection, route, context);
+        }
+
+        @Override
+        public void closeIdleConnections(long idleTime, TimeUnit timeUnit) {
+            connectionManager.closeIdleConnections(idleTime, timeUnit);
+        }
+
+        @Override
+        public void closeExpiredConnections() {
+            connectionManager.closeExpiredConnections();
+        }
+
+        @Override
+        public void shutdown() {
+            // the manager is shared by the whole process and is never shut down
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2026 AVI-SPL, Inc. All Rights Reserved.
+ */
+package com.avispl.symphony.dal.communicator.sample.util;
+
+import com.avispl.symphony.dal.communicator.HttpCommunicator;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Short lived cache of responses shared by all the communicators of the process. <br>
+ * Adapters of many devices often poll the same upstream resource at the same moment. Requests with the same
+ * {@link #key(HttpCommunicator, String, String) key} are collapsed into a single call: the first request loads the
+ * response, the requests arriving while it's in flight wait for its outcome, and the requests arriving within the time
+ * to live get the stored response. Failures are never stored, every request waiting for a failed call gets the failure,
+ * and the next request makes a new call. <br>
+ * Responses are shared between the adapters as they are, so they must not be modified by the callers.
+ *
+ * @author Symphony Dev Team<br> Created on Oct 17, 2026
+ */
+public final class SharedResponseCache {
+
+    private static final SharedResponseCache instance = new SharedResponseCache();
+    private static final int SWEEP_INTERVAL = 256;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong collapsed = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private SharedResponseCache() {
+    }
+
+    /**
+     * @return cache of the process
+     */
+    public static SharedResponseCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Builds cache key of a request made on behalf of the communicator. The key includes the credentials of the
+     * communicator, so a response is never shared with a communicator authenticated differently.
+     *
+     * @param communicator communicator making the request
+     * @param url full request url
+     * @param kind kind of the response, e.g. type of the response DTO
+     * @return cache key
+     * @throws Exception if the credentials cannot be digested
+     */
+    public static String key(HttpCommunicator communicator, String url, String kind) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update(String.valueOf(communicator.getLogin()).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(String.valueOf(communicator.getPassword()).getBytes(StandardCharsets.UTF_8));
+        StringBuilder identity = new StringBuilder();
+        for (byte value : digest.digest()) {
+            identity.append(String.format("%02x", value));
+        }
+        return communicator.getAuthenticationScheme() + " " + identity + " " + kind + " " + url;
+    }
+
+    /**
+     * Returns the response stored under the key, loading it if there is none.
+     *
+     * @param key request key, see {@link #key(HttpCommunicator, String, String)}
+     * @param ttl time in ms the response is stored for, counted from the moment it's received
+     * @param loader makes the request
+     * @param <T> type of the response
+     * @return response
+     * @throws Exception if the request fails
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, long ttl, Callable<T> loader) throws Exception {
+        while (true) {
+            Entry entry = entries.get(key);
+            if (entry != null && !entry.isExpired(System.currentTimeMillis())) {
+                (entry.future.isDone() ? hits : collapsed).incrementAndGet();
+                return (T) await(entry.future);
+            }
+            Entry created = new Entry();
+            boolean leader = entry == null ? entries.putIfAbsent(key, created) == null : entries.replace(key, entry, created);
+            if (!leader) {
+                // another request started loading the same response in the meantime
+                continue;
+            }
+            if (misses.incrementAndGet() % SWEEP_INTERVAL == 0) {
+                sweep();
+            }
+            try {
+                T value = loader.call();
+                created.expiresAt = System.currentTimeMillis() + ttl;
+                created.future.complete(value);
+                return value;
+            } catch (Throwable e) {
+                // errors are not stored either, and requests waiting for the response must not wait forever
+                entries.remove(key, created);
+                created.future.completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * @return number of requests served by a stored response
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return number of requests which waited for an identical request in flight
+     */
+    public long getCollapsed() {
+        return collapsed.get();
+    }
+
+    /**
+     * @return number of requests which made a call
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Removes all the stored responses.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    private void sweep() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.isExpired(now));
+    }
+
+    private static Object await(CompletableFuture<Object> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    /**
+     * Response in flight or stored.
+     */
+    private static final class Entry {
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+        private volatile long expiresAt = Long.MAX_VALUE;
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2026 AVI-SPL, Inc. All Rights Reserved.
+ */
+package com.avispl.symphony.dal.communicator.sample.util;
+
+import org.apache.http.conn.ssl.TrustAllStrategy;
+import org.apache.http.ssl.SSLContexts;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
+
+/**
+ * SSL contexts shared by all the communicators of the process, one per trust configuration. <br>
+ * TLS sessions are cached by the SSL context, so a session can only be resumed by a connection made with the same context.
+ * A communicator building its own context pays for a full handshake on every reconnect, while connections made with a
+ * shared context resume the session negotiated with the same host and port before, skipping the key exchange and the
+ * certificate verification. The contexts keep up to {@link #SESSION_CACHE_SIZE} sessions for {@link #SESSION_TIMEOUT}
+ * seconds. The default context of the JVM is left as it is. <br>
+ * Trust-all communicators use the shared context through {@link SharedConnectionPool} if they opt in, and through
+ * {@link ResumingSslClient} otherwise.
+ *
+ * @author Symphony Dev Team<br> Created on Oct 17, 2026
+ */
+public final class SharedSslContexts {
+
+    /**
+     * Max number of client sessions kept by a context
+     */
+    public static final int SESSION_CACHE_SIZE = 20000;
+
+    /**
+     * Time in seconds a client session can be resumed for
+     */
+    public static final int SESSION_TIMEOUT = 3600;
+
+    private static volatile SSLContext trustingContext;
+    private static volatile SSLContext verifyingContext;
+
+    private SharedSslContexts() {
+    }
+
+    /**
+     * @param trustAllCertificates whether server certificates are not verified
+     * @return context of the process, created on the first call. The verifying context uses the default trust store of the JVM
+     * @throws Exception if the context cannot be created
+     */
+    public static SSLContext get(boolean trustAllCertificates) throws Exception {
+        SSLContext context = trustAllCertificates ? trustingContext : verifyingContext;
+        if (context == null) {
+            synchronized (SharedSslContexts.class) {
+                context = trustAllCertificates ? trustingContext : verifyingContext;
+                if (context == null) {
+                    // the verifying context is a dedicated one, the default context of the JVM is shared with other libraries
+                    context = trustAllCertificates
+                            ? SSLContexts.custom().loadTrustMaterial(TrustAllStrategy.INSTANCE).build()
+                            : SSLContexts.createDefault();
+                    SSLSessionContext sessionContext = context.getClientSessionContext();
+                    sessionContext.setSessionCacheSize(SESSION_CACHE_SIZE);
+                    sessionContext.setSessionTimeout(SESSION_TIMEOUT);
+                    if (trustAllCertificates) {
+                        trustingContext = context;
+                    } else {
+                        verifyingContext = context;
+                    }
+                }
+            }
+        }
+        return context;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2026 AVI-SPL, Inc. All Rights Reserved.
+ */
+package com.avispl.symphony.dal.communicator.sample.util;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Event loop running all the {@link TelnetSession Telnet sessions} of the process on a single thread. <br>
+ * Sockets are non-blocking and registered with one selector, so a device which is slow to respond holds no thread:
+ * the loop reads whatever data is available on any of the sockets, and a command completes once its response is
+ * received. Work submitted by other threads is queued and run by the loop, so the state of the sessions is only ever
+ * touched by the loop thread and needs no locking. Timeouts of the sessions are checked every {@link #TICK} ms. <br>
+ * The engine is started by the first session and its thread is a daemon, it lives as long as the process.
+ *
+ * @author Symphony Dev Team<br> Created on Oct 17, 2026
+ */
+public final class TelnetEngine {
+
+    /**
+     * Max time in ms between checks of the session timeouts
+     */
+    public static final int TICK = 50;
+
+    private static final Log logger = LogFactory.getLog(TelnetEngine.class);
+    private static volatile TelnetEngine instance;
+
+    private final Selector selector;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final Set<TelnetSession> sessions = new HashSet<>();
+    private final Thread thread;
+
+    private TelnetEngine() throws IOException {
+        selector = Selector.open();
+        thread = new Thread(this::run, "telnet-engine");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * @return engine of the process, started on the first call
+     * @throws IOException if the selector cannot be opened
+     */
+    public static TelnetEngine getInstance() throws IOException {
+        TelnetEngine engine = instance;
+        if (engine == null) {
+            synchronized (TelnetEngine.class) {
+                engine = instance;
+                if (engine == null) {
+                    engine = new TelnetEngine();
+                    instance = engine;
+                }
+            }
+        }
+        return engine;
+    }
+
+    /**
+     * Runs the task on the loop thread.
+     *
+     * @param task task to run
+     */
+    void execute(Runnable task) {
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    /**
+     * @return selector of the loop, only to be used by the loop thread
+     */
+    Selector selector() {
+        return selector;
+    }
+
+    /**
+     * Starts checking timeouts of the session, called by the loop thread.
+     */
+    void add(TelnetSession session) {
+        sessions.add(session);
+    }
+
+    /**
+     * Stops checking timeouts of the session, called by the loop thread.
+     */
+    void remove(TelnetSession session) {
+        sessions.remove(session);
+    }
+
+    private void run() {
+        while (true) {
+            try {
+                selector.select(TICK);
+                Runnable task;
+                while ((task = tasks.poll()) != null) {
+                    task.run();
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    ((TelnetSession) key.attachment()).handle(key);
+                }
+                long now = System.currentTimeMillis();
+                for (TelnetSession session : sessions.toArray(new TelnetSession[0])) {
+                    session.checkTimeout(now);
+                }
+            } catch (Throwable e) {
+                // the loop must keep running for the other sessions
+                logger.error("Unexpected error in Telnet engine", e);
+            }
+        }
+    }
+}
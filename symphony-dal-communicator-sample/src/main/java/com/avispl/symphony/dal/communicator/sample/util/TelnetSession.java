@@ -0,0 +1,437 @@
+/*
+ * Copyright (c) 2026 AVI-SPL, Inc. All Rights Reserved.
+ */
+package com.avispl.symphony.dal.communicator.sample.util;
+
+import com.avispl.symphony.api.dal.error.CommandFailureException;
+import com.avispl.symphony.dal.communicator.TelnetCommunicator;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import javax.security.auth.login.FailedLoginException;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Telnet connection to a device run by the {@link TelnetEngine}, without a thread of its own. <br>
+ * The session is configured from a {@link TelnetCommunicator}: it connects on the first command, answers telnet option
+ * negotiation, logs in by answering the {@code loginPrompt} and {@code passwordPrompt} until one of
+ * {@code loginSuccessList} or {@code loginErrorList} is received, then writes the commands one at a time and completes
+ * each once its response ends with one of {@code commandSuccessList} or {@code commandErrorList}, see {@link PromptMatcher}. <br>
+ * Only the echo and suppress go ahead options are accepted from the device, every other option is refused, which leaves
+ * the connection in the default network virtual terminal mode. <br>
+ * A response ending with an error string fails its command only. A timeout, a connection closed by the device or any
+ * other connectivity failure closes the connection and fails all the commands waiting, and the next command reconnects.
+ * The address of the device is resolved once, when the session is created. Futures of the commands complete on the engine
+ * thread, so code chained to them must not block.
+ *
+ * @author Symphony Dev Team<br> Created on Oct 17, 2026
+ */
+public class TelnetSession implements Closeable {
+
+    private static final Log logger = LogFactory.getLog(TelnetSession.class);
+
+    private static final int IAC = 255;
+    private static final int DONT = 254;
+    private static final int DO = 253;
+    private static final int WONT = 252;
+    private static final int WILL = 251;
+    private static final int SB = 250;
+    private static final int SE = 240;
+    private static final int OPTION_ECHO = 1;
+    private static final int OPTION_SUPPRESS_GO_AHEAD = 3;
+
+    private enum State {DISCONNECTED, CONNECTING, LOGGING_IN, READY, CLOSED}
+
+    private enum InputState {DATA, IAC, OPTION, SUBNEGOTIATION, SUBNEGOTIATION_IAC}
+
+    private final TelnetEngine engine;
+    private final String host;
+    private final InetSocketAddress address;
+    private final int timeout;
+    private final String login;
+    private final String password;
+    private final String loginPrompt;
+    private final String passwordPrompt;
+    private final List<String> loginSuccessList;
+    private final List<String> loginErrorList;
+    private final PromptMatcher promptMatcher;
+    private final ByteBuffer readBuffer;
+
+    // state below is only touched by the engine thread
+    private State state = State.DISCONNECTED;
+    private SocketChannel channel;
+    private SelectionKey key;
+    private long deadline;
+    private final Deque<Request> requests = new ArrayDeque<>();
+    private final Deque<ByteBuffer> writes = new ArrayDeque<>();
+    private Request current;
+    private PromptMatcher.Scanner scanner;
+    private final ByteArrayOutputStream received = new ByteArrayOutputStream();
+    private boolean loginSent;
+    private boolean passwordSent;
+    private InputState inputState = InputState.DATA;
+    private int optionVerb;
+    private final boolean[] acceptedOptions = new boolean[256];
+    private final boolean[] refusedOptions = new boolean[256];
+
+    /**
+     * TelnetSession constructor, the session connects on the first command.
+     *
+     * @param communicator communicator the connection and login properties are taken from
+     * @throws IOException if the engine cannot be started
+     */
+    public TelnetSession(TelnetCommunicator communicator) throws IOException {
+        engine = TelnetEngine.getInstance();
+        host = communicator.getHost();
+        address = new InetSocketAddress(host, communicator.getPort());
+        timeout = communicator.getTimeout();
+        login = communicator.getLogin();
+        password = communicator.getPassword();
+        loginPrompt = communicator.getLoginPrompt();
+        passwordPrompt = communicator.getPasswordPrompt();
+        loginSuccessList = communicator.getLoginSuccessList() != null ? communicator.getLoginSuccessList() : Collections.emptyList();
+        loginErrorList = communicator.getLoginErrorList() != null ? communicator.getLoginErrorList() : Collections.emptyList();
+        promptMatcher = new PromptMatcher(communicator.getCommandSuccessList(), communicator.getCommandErrorList());
+        readBuffer = ByteBuffer.allocate(communicator.getBufferLength());
+    }
+
+    /**
+     * Sends the command once the commands sent before it complete.
+     *
+     * @param command command to send
+     * @param expectedResponses number of responses ending with a success or error string the command completes with,
+     * more than 1 for a batch of commands
+     * @return future of the response, completed by the engine thread
+     */
+    public CompletableFuture<String> send(String command, int expectedResponses) {
+        Request request = new Request(command, expectedResponses);
+        engine.execute(() -> enqueue(request));
+        return request.future;
+    }
+
+    /**
+     * Closes the connection, waiting commands fail.
+     */
+    @Override
+    public void close() {
+        engine.execute(() -> {
+            disconnect(new IllegalStateException("Telnet session to " + host + " is closed"), true);
+            state = State.CLOSED;
+        });
+    }
+
+    /**
+     * Handles readiness of the socket, called by the engine thread.
+     */
+    void handle(SelectionKey selectedKey) {
+        try {
+            if (!selectedKey.isValid()) {
+                return;
+            }
+            if (selectedKey.isConnectable() && channel.finishConnect()) {
+                connected();
+            }
+            if (selectedKey.isValid() && selectedKey.isWritable()) {
+                flush();
+            }
+            if (selectedKey.isValid() && selectedKey.isReadable()) {
+                read();
+            }
+        } catch (Throwable e) {
+            // errors fail the session as well, a key left selected would be handled again on every select
+            disconnect(e);
+        }
+    }
+
+    /**
+     * Fails the session if the device did not respond in time, called by the engine thread.
+     */
+    void checkTimeout(long now) {
+        if (now <= deadline) {
+            return;
+        }
+        if (state == State.CONNECTING || state == State.LOGGING_IN || current != null) {
+            String step = state == State.CONNECTING ? "connect" : state == State.LOGGING_IN ? "login" : "command " + current.command;
+            disconnect(new SocketTimeoutException("Telnet " + step + " to " + host + " timed out after " + timeout + "ms"));
+        }
+    }
+
+    private void enqueue(Request request) {
+        if (state == State.CLOSED) {
+            request.future.completeExceptionally(new IllegalStateException("Telnet session to " + host + " is closed"));
+            return;
+        }
+        requests.add(request);
+        if (state == State.DISCONNECTED) {
+            connect();
+        } else {
+            next();
+        }
+    }
+
+    private void connect() {
+        try {
+            channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            key = channel.register(engine.selector(), SelectionKey.OP_CONNECT, this);
+            engine.add(this);
+            state = State.CONNECTING;
+            deadline = System.currentTimeMillis() + timeout;
+            received.reset();
+            loginSent = false;
+            passwordSent = false;
+            inputState = InputState.DATA;
+            Arrays.fill(acceptedOptions, false);
+            Arrays.fill(refusedOptions, false);
+            if (channel.connect(address)) {
+                connected();
+            }
+        } catch (Throwable e) {
+            disconnect(e);
+        }
+    }
+
+    private void connected() {
+        state = State.LOGGING_IN;
+        deadline = System.currentTimeMillis() + timeout;
+        key.interestOps(SelectionKey.OP_READ);
+    }
+
+    private void disconnect(Throwable cause) {
+        disconnect(cause, cause instanceof IOException || cause instanceof FailedLoginException);
+    }
+
+    /**
+     * Closes the connection, waiting commands fail with the cause.
+     *
+     * @param cause reason the connection is closed
+     * @param expected true if the connection is closed in the normal course of things, e.g. the device closed it or did not
+     * respond in time, the login was rejected or the session is closed, logged without the stack trace
+     */
+    private void disconnect(Throwable cause, boolean expected) {
+        if (channel != null) {
+            if (expected) {
+                logger.debug("Closing Telnet connection to " + host + ": " + cause.getMessage());
+            } else {
+                logger.warn("Closing Telnet connection to " + host, cause);
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.debug("Failed to close Telnet connection to " + host, e);
+            }
+            channel = null;
+            key = null;
+        }
+        engine.remove(this);
+        writes.clear();
+        state = State.DISCONNECTED;
+        if (current != null) {
+            current.future.completeExceptionally(cause);
+            current = null;
+        }
+        Request request;
+        while ((request = requests.poll()) != null) {
+            request.future.completeExceptionally(cause);
+        }
+    }
+
+    private void next() {
+        if (state != State.READY || current != null || requests.isEmpty()) {
+            return;
+        }
+        current = requests.poll();
+        scanner = promptMatcher.scanner();
+        received.reset();
+        deadline = System.currentTimeMillis() + timeout;
+        write(current.command);
+    }
+
+    private void write(String text) {
+        String line = text.endsWith("\n") ? text : text + "\n";
+        write(line.replace("\r\n", "\n").replace("\n", "\r\n").getBytes());
+    }
+
+    private void write(byte[] bytes) {
+        writes.add(ByteBuffer.wrap(bytes));
+        try {
+            flush();
+        } catch (IOException e) {
+            disconnect(e);
+        }
+    }
+
+    private void flush() throws IOException {
+        while (!writes.isEmpty()) {
+            ByteBuffer buffer = writes.peek();
+            channel.write(buffer);
+            if (buffer.hasRemaining()) {
+                // socket buffer is full, the rest is written once the socket is writable again
+                key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                return;
+            }
+            writes.poll();
+        }
+        key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+    }
+
+    private void read() throws Exception {
+        // cast keeps the Buffer method when compiled by a newer JDK, ByteBuffer.clear() does not exist on Java 8
+        ((Buffer) readBuffer).clear();
+        int length = channel.read(readBuffer);
+        if (length < 0) {
+            throw new IOException("Connection was forcible closed");
+        }
+        byte[] bytes = readBuffer.array();
+        int dataLength = 0;
+        for (int i = 0; i < length; i++) {
+            int b = bytes[i] & 0xFF;
+            // data bytes are moved in place over the telnet commands already consumed
+            if (inputState == InputState.DATA && b != IAC) {
+                bytes[dataLength++] = bytes[i];
+            } else {
+                int data = negotiate(b);
+                if (data >= 0) {
+                    bytes[dataLength++] = (byte) data;
+                }
+            }
+        }
+        if (dataLength > 0) {
+            received(bytes, 0, dataLength);
+        }
+    }
+
+    /**
+     * Advances the telnet command parser by a byte.
+     *
+     * @return data byte to keep, -1 if the byte is part of a telnet command
+     */
+    private int negotiate(int b) {
+        switch (inputState) {
+            case DATA:
+                inputState = InputState.IAC;
+                return -1;
+            case IAC:
+                if (b == IAC) {
+                    // escaped 0xFF data byte
+                    inputState = InputState.DATA;
+                    return IAC;
+                }
+                if (b >= WILL && b <= DONT) {
+                    optionVerb = b;
+                    inputState = InputState.OPTION;
+                } else if (b == SB) {
+                    inputState = InputState.SUBNEGOTIATION;
+                } else {
+                    // go ahead, no operation and the other commands without option are ignored
+                    inputState = InputState.DATA;
+                }
+                return -1;
+            case OPTION:
+                answer(optionVerb, b);
+                inputState = InputState.DATA;
+                return -1;
+            case SUBNEGOTIATION:
+                if (b == IAC) {
+                    inputState = InputState.SUBNEGOTIATION_IAC;
+                }
+                return -1;
+            default:
+                inputState = b == SE ? InputState.DATA : InputState.SUBNEGOTIATION;
+                return -1;
+        }
+    }
+
+    private void answer(int verb, int option) {
+        if (verb == WILL) {
+            boolean accepted = option == OPTION_ECHO || option == OPTION_SUPPRESS_GO_AHEAD;
+            if (accepted && !acceptedOptions[option]) {
+                acceptedOptions[option] = true;
+                write(new byte[]{(byte) IAC, (byte) DO, (byte) option});
+            } else if (!accepted && !refusedOptions[option]) {
+                refusedOptions[option] = true;
+                write(new byte[]{(byte) IAC, (byte) DONT, (byte) option});
+            }
+        } else if (verb == DO && !refusedOptions[option]) {
+            refusedOptions[option] = true;
+            write(new byte[]{(byte) IAC, (byte) WONT, (byte) option});
+        }
+        // WONT and DONT need no answer, no option is enabled on this side
+    }
+
+    private void received(byte[] bytes, int offset, int length) throws Exception {
+        if (state == State.LOGGING_IN) {
+            received.write(bytes, offset, length);
+            loggingIn(received.toString());
+        } else if (current != null) {
+            received.write(bytes, offset, length);
+            scanner.feed(bytes, offset, length);
+            if (scanner.isEnd() && (current.expectedResponses <= 1 || scanner.getMatches() >= current.expectedResponses)) {
+                Request completed = current;
+                String response = received.toString();
+                current = null;
+                received.reset();
+                if (completed.expectedResponses <= 1 && scanner.isError()) {
+                    completed.future.completeExceptionally(new CommandFailureException(host, completed.command, response));
+                } else {
+                    completed.future.complete(response);
+                }
+                next();
+            }
+        }
+        // output received while no command is in progress is dropped
+    }
+
+    private void loggingIn(String response) throws Exception {
+        for (String error : loginErrorList) {
+            if (response.endsWith(error)) {
+                throw new FailedLoginException("Failed to login to " + host + " as " + login + ", response: " + response);
+            }
+        }
+        if (login != null && !loginSent && loginPrompt != null && !loginPrompt.isEmpty() && response.endsWith(loginPrompt)) {
+            loginSent = true;
+            received.reset();
+            write(login);
+            return;
+        }
+        if (password != null && !passwordSent && passwordPrompt != null && !passwordPrompt.isEmpty() && response.endsWith(passwordPrompt)) {
+            passwordSent = true;
+            received.reset();
+            write(password);
+            return;
+        }
+        for (String success : loginSuccessList) {
+            if (response.endsWith(success)) {
+                state = State.READY;
+                received.reset();
+                next();
+                return;
+            }
+        }
+    }
+
+    private static class Request {
+        private final String command;
+        private final int expectedResponses;
+        private final CompletableFuture<String> future = new CompletableFuture<>();
+
+        private Request(String command, int expectedResponses) {
+            this.command = command;
+            this.expectedResponses = expectedResponses;
+        }
+    }
+}
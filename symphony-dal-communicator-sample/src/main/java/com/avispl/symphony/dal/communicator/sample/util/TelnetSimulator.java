@@ -0,0 +1,455 @@
+/*
+ * Copyright (c) 2026 AVI-SPL, Inc. All Rights Reserved.
+ */
+package com.avispl.symphony.dal.communicator.sample.util;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Telnet device simulator serving any number of concurrent clients from scripted responses, for tests and local load
+ * testing of Telnet communicators. <br>
+ * Every line received is looked up in the table of {@link #addCommand(String, String, long) commands}, the response
+ * followed by {@code "\r\n"} and the {@link #setPrompt(String) prompt} is sent back after the latency of the command,
+ * and unknown commands are answered with the {@link #setErrorResponse(String) error response}. Commands of a client
+ * are answered in order, so commands written back to back are delayed one after another, as a device processing them
+ * sequentially would. If a {@link #setLogin(String) login} is set, clients are prompted for the login and password
+ * first. Telnet commands sent by the clients are skipped, no option is negotiated. <br>
+ * All the clients are served by a single thread over non-blocking sockets, and no process is spawned, so thousands of
+ * sessions can be simulated. Commands can be changed at any time, the rest of the configuration applies to the clients
+ * connecting after it is changed.
+ *
+ * @author Symphony Dev Team<br> Created on Oct 17, 2026
+ */
+public class TelnetSimulator implements Closeable {
+
+    private static final Log logger = LogFactory.getLog(TelnetSimulator.class);
+
+    private static final int IAC = 255;
+    private static final int SB = 250;
+    private static final int SE = 240;
+    private static final int WILL = 251;
+
+    private enum ClientState {LOGIN, PASSWORD, READY}
+
+    private enum InputState {DATA, IAC, OPTION, SUBNEGOTIATION, SUBNEGOTIATION_IAC}
+
+    private final int port;
+    private final Map<String, Command> commands = new ConcurrentHashMap<>();
+    private volatile String welcome = "Welcome!\r\n";
+    private volatile String prompt = "> ";
+    private volatile String errorResponse = "ERROR";
+    private volatile long latency;
+    private volatile String login;
+    private volatile String password;
+    private volatile String loginPrompt = "login: ";
+    private volatile String passwordPrompt = "Password: ";
+
+    private final AtomicInteger sessions = new AtomicInteger();
+    private final AtomicLong commandsServed = new AtomicLong();
+
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread thread;
+    private volatile boolean closed;
+    // replies waiting for the latency of their command, only touched by the simulator thread
+    private final PriorityQueue<Reply> replies = new PriorityQueue<>();
+    private long replySequence;
+
+    /**
+     * TelnetSimulator constructor.
+     *
+     * @param port port to listen on, 0 for any free port, see {@link #getPort()}
+     */
+    public TelnetSimulator(int port) {
+        this.port = port;
+    }
+
+    /**
+     * Adds a command answered without latency of its own, see {@link #setLatency(long)}.
+     *
+     * @param command command line, as received
+     * @param response response of the command, without the trailing prompt
+     */
+    public void addCommand(String command, String response) {
+        commands.put(command, new Command(response, -1));
+    }
+
+    /**
+     * Adds a command answered after the given latency.
+     *
+     * @param command command line, as received
+     * @param response response of the command, without the trailing prompt
+     * @param latency time in ms the command takes to complete
+     */
+    public void addCommand(String command, String response, long latency) {
+        commands.put(command, new Command(response, latency));
+    }
+
+    /**
+     * @param welcome text sent once logged in, before the first prompt
+     */
+    public void setWelcome(String welcome) {
+        this.welcome = welcome;
+    }
+
+    /**
+     * @param prompt command prompt, sent after the welcome text and after every response
+     */
+    public void setPrompt(String prompt) {
+        this.prompt = prompt;
+    }
+
+    /**
+     * @param errorResponse response of unknown commands, without the trailing prompt
+     */
+    public void setErrorResponse(String errorResponse) {
+        this.errorResponse = errorResponse;
+    }
+
+    /**
+     * @param latency time in ms the commands added without a latency of their own and the unknown commands take to complete
+     */
+    public void setLatency(long latency) {
+        this.latency = latency;
+    }
+
+    /**
+     * @param login login expected from the clients, null to let them in without login
+     */
+    public void setLogin(String login) {
+        this.login = login;
+    }
+
+    /**
+     * @param password password expected from the clients
+     */
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    /**
+     * @param loginPrompt prompt for the login
+     */
+    public void setLoginPrompt(String loginPrompt) {
+        this.loginPrompt = loginPrompt;
+    }
+
+    /**
+     * @param passwordPrompt prompt for the password
+     */
+    public void setPasswordPrompt(String passwordPrompt) {
+        this.passwordPrompt = passwordPrompt;
+    }
+
+    /**
+     * @return port the simulator listens on
+     */
+    public int getPort() {
+        return serverChannel != null ? serverChannel.socket().getLocalPort() : port;
+    }
+
+    /**
+     * @return number of clients connected
+     */
+    public int getSessions() {
+        return sessions.get();
+    }
+
+    /**
+     * @return number of commands answered since start
+     */
+    public long getCommandsServed() {
+        return commandsServed.get();
+    }
+
+    /**
+     * Starts accepting clients.
+     *
+     * @throws IOException if the port cannot be bound
+     */
+    public void start() throws IOException {
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port), 1024);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        thread = new Thread(this::run, "telnet-simulator-" + getPort());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the simulator and closes the connections of all the clients.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (selector != null) {
+            selector.wakeup();
+        }
+        if (thread != null) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void run() {
+        try {
+            while (!closed) {
+                Reply next = replies.peek();
+                long now = System.currentTimeMillis();
+                if (next == null) {
+                    selector.select();
+                } else if (next.due > now) {
+                    selector.select(next.due - now);
+                } else {
+                    selector.selectNow();
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    handle(key);
+                }
+                now = System.currentTimeMillis();
+                while (!replies.isEmpty() && replies.peek().due <= now) {
+                    Reply reply = replies.poll();
+                    reply.client.write(reply.text);
+                }
+            }
+        } catch (Throwable e) {
+            logger.error("Telnet simulator on port " + getPort() + " stopped", e);
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                closeQuietly(key);
+            }
+            try {
+                serverChannel.close();
+                selector.close();
+            } catch (IOException e) {
+                // closing anyway
+            }
+        }
+    }
+
+    private void handle(SelectionKey key) {
+        if (key.isAcceptable()) {
+            accept();
+            return;
+        }
+        try {
+            Client client = (Client) key.attachment();
+            if (key.isWritable()) {
+                client.flush();
+            }
+            if (key.isValid() && key.isReadable()) {
+                client.read();
+            }
+        } catch (IOException e) {
+            closeQuietly(key);
+        }
+    }
+
+    private void accept() {
+        try {
+            SocketChannel channel;
+            while ((channel = serverChannel.accept()) != null) {
+                channel.configureBlocking(false);
+                Client client = new Client(channel.register(selector, SelectionKey.OP_READ));
+                client.key.attach(client);
+                sessions.incrementAndGet();
+                client.write(login != null ? loginPrompt : welcome + prompt);
+            }
+        } catch (IOException e) {
+            // e.g. too many open files, the server keeps running for the clients connected
+            logger.warn("Telnet simulator on port " + getPort() + " failed to accept a client", e);
+        }
+    }
+
+    private void closeQuietly(SelectionKey key) {
+        if (key.attachment() instanceof Client) {
+            Client client = (Client) key.attachment();
+            if (!client.closed) {
+                client.closed = true;
+                sessions.decrementAndGet();
+            }
+        }
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            // closing anyway
+        }
+    }
+
+    private static class Command {
+        private final String response;
+        private final long latency;
+
+        private Command(String response, long latency) {
+            this.response = response;
+            this.latency = latency;
+        }
+    }
+
+    private static class Reply implements Comparable<Reply> {
+        private final Client client;
+        private final String text;
+        private final long due;
+        private final long sequence;
+
+        private Reply(Client client, String text, long due, long sequence) {
+            this.client = client;
+            this.text = text;
+            this.due = due;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Reply other) {
+            int result = Long.compare(due, other.due);
+            return result != 0 ? result : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    /**
+     * Connection of a client, only touched by the simulator thread.
+     */
+    private class Client {
+        private final SelectionKey key;
+        private final ByteBuffer readBuffer = ByteBuffer.allocate(4096);
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        private final Deque<ByteBuffer> writes = new ArrayDeque<>();
+        private ClientState state = login != null ? ClientState.LOGIN : ClientState.READY;
+        private InputState inputState = InputState.DATA;
+        private String enteredLogin;
+        // time the last command received completes, the next one starts after it
+        private long busyUntil;
+        private boolean closed;
+
+        private Client(SelectionKey key) {
+            this.key = key;
+        }
+
+        private void read() throws IOException {
+            // cast keeps the Buffer method when compiled by a newer JDK, ByteBuffer.clear() does not exist on Java 8
+            ((Buffer) readBuffer).clear();
+            int length = ((SocketChannel) key.channel()).read(readBuffer);
+            if (length < 0) {
+                closeQuietly(key);
+                return;
+            }
+            for (int i = 0; i < length; i++) {
+                int b = readBuffer.get(i) & 0xFF;
+                switch (inputState) {
+                    case IAC:
+                        inputState = b == SB ? InputState.SUBNEGOTIATION : b >= WILL && b < IAC ? InputState.OPTION : InputState.DATA;
+                        if (b == IAC) {
+                            line.write(b);
+                        }
+                        break;
+                    case OPTION:
+                        inputState = InputState.DATA;
+                        break;
+                    case SUBNEGOTIATION:
+                        inputState = b == IAC ? InputState.SUBNEGOTIATION_IAC : InputState.SUBNEGOTIATION;
+                        break;
+                    case SUBNEGOTIATION_IAC:
+                        inputState = b == SE ? InputState.DATA : InputState.SUBNEGOTIATION;
+                        break;
+                    default:
+                        if (b == IAC) {
+                            inputState = InputState.IAC;
+                        } else if (b == '\n') {
+                            String received = new String(line.toByteArray(), StandardCharsets.UTF_8);
+                            line.reset();
+                            process(received);
+                        } else if (b != '\r' && b != 0) {
+                            line.write(b);
+                        }
+                }
+            }
+        }
+
+        private void process(String received) {
+            switch (state) {
+                case LOGIN:
+                    enteredLogin = received;
+                    state = ClientState.PASSWORD;
+                    write(passwordPrompt);
+                    break;
+                case PASSWORD:
+                    if (login.equals(enteredLogin) && (password == null || password.equals(received))) {
+                        state = ClientState.READY;
+                        write(welcome + prompt);
+                    } else {
+                        state = ClientState.LOGIN;
+                        write("Login incorrect\r\n" + loginPrompt);
+                    }
+                    break;
+                default:
+                    Command command = commands.get(received);
+                    String text = (command != null ? command.response : errorResponse) + "\r\n" + prompt;
+                    long commandLatency = command != null && command.latency >= 0 ? command.latency : latency;
+                    long now = System.currentTimeMillis();
+                    busyUntil = Math.max(now, busyUntil) + commandLatency;
+                    commandsServed.incrementAndGet();
+                    if (busyUntil <= now) {
+                        write(text);
+                    } else {
+                        replies.add(new Reply(this, text, busyUntil, replySequence++));
+                    }
+            }
+        }
+
+        private void write(String text) {
+            if (closed) {
+                return;
+            }
+            writes.add(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)));
+            try {
+                flush();
+            } catch (IOException e) {
+                closeQuietly(key);
+            }
+        }
+
+        private void flush() throws IOException {
+            SocketChannel channel = (SocketChannel) key.channel();
+            while (!writes.isEmpty()) {
+                ByteBuffer buffer = writes.peek();
+                channel.write(buffer);
+                if (buffer.hasRemaining()) {
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+                writes.poll();
+            }
+            key.interestOps(SelectionKey.OP_READ);
+        }
+    }
+}
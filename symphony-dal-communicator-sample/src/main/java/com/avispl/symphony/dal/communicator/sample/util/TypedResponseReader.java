@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2026 AVI-SPL, Inc. All Rights Reserved.
+ */
+package com.avispl.symphony.dal.communicator.sample.util;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.web.client.ResponseExtractor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decodes json responses straight into a response DTO declared by the adapter. <br>
+ * Jackson resolves the deserializer of a type the first time the type is read, so the reader is built once per DTO
+ * type and shared by all the adapters, see {@link #forType(Class)}. Decoding into a DTO skips the generic map of boxed
+ * values, and numeric fields are converted by Jackson, so e.g. a {@code long} field accepts both small and large numbers.
+ * Fields the DTO does not declare are skipped.
+ *
+ * @param <T> type of the response DTO
+ * @author Symphony Dev Team<br> Created on Oct 17, 2026
+ */
+public final class TypedResponseReader<T> {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    private static final Map<Class<?>, TypedResponseReader<?>> readers = new ConcurrentHashMap<>();
+
+    private final Class<T> type;
+    private final ObjectReader reader;
+    private final ResponseExtractor<T> extractor;
+
+    private TypedResponseReader(Class<T> type) {
+        this.type = type;
+        this.reader = objectMapper.readerFor(type);
+        this.extractor = response -> read(response.getBody());
+    }
+
+    /**
+     * @param type type of the response DTO
+     * @param <T> type of the response DTO
+     * @return reader of the type, created on the first call and cached afterwards
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> TypedResponseReader<T> forType(Class<T> type) {
+        return (TypedResponseReader<T>) readers.computeIfAbsent(type, key -> new TypedResponseReader<>(type));
+    }
+
+    /**
+     * @return type of the response DTO
+     */
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * @param inputStream json payload
+     * @return decoded DTO
+     * @throws IOException if the payload cannot be read or decoded
+     */
+    public T read(InputStream inputStream) throws IOException {
+        return reader.readValue(inputStream);
+    }
+
+    /**
+     * @param json json payload
+     * @return decoded DTO
+     * @throws IOException if the payload cannot be decoded
+     */
+    public T read(String json) throws IOException {
+        return reader.readValue(json);
+    }
+
+    /**
+     * @return extractor decoding the response body while it is being received,
+     * to be passed to {@link org.springframework.web.client.RestTemplate#execute}
+     */
+    public ResponseExtractor<T> extractor() {
+        return extractor;
+    }
+}
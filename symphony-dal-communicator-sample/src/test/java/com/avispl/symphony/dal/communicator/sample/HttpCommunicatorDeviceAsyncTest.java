@@ -0,0 +1,156 @@
+package com.avispl.symphony.dal.communicator.sample;
+
+import com.avispl.symphony.api.dal.dto.monitor.EndpointStatistics;
+import com.avispl.symphony.api.dal.dto.monitor.Statistics;
+import com.avispl.symphony.api.dal.error.CommandFailureException;
+import com.avispl.symphony.dal.communicator.HttpCommunicator;
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import javax.security.auth.login.FailedLoginException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.containing;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+
+@Tag("test")
+public class HttpCommunicatorDeviceAsyncTest {
+    private HttpCommunicatorDevice device;
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(options().dynamicPort().dynamicHttpsPort().bindAddress("127.0.0.1"));
+
+    {
+        wireMockRule.start();
+    }
+
+    @BeforeEach
+    public void init() throws Exception {
+        device = createDevice("1234");
+        device.init();
+    }
+
+    private HttpCommunicatorDevice createDevice(String password) {
+        HttpCommunicatorDevice device = new HttpCommunicatorDevice();
+        device.setProtocol("http");
+        device.setHost("127.0.0.1");
+        device.setPort(wireMockRule.port());
+        device.setAuthenticationScheme(HttpCommunicator.AuthenticationScheme.Basic);
+        device.setLogin("Admin");
+        device.setPassword(password);
+        return device;
+    }
+
+    @AfterEach
+    public void destroy() {
+        device.destroy();
+        wireMockRule.stop();
+    }
+
+    @Test
+    public void getMultipleStatisticsTest() throws Exception {
+        EndpointStatistics statistics = (EndpointStatistics) device.getMultipleStatistics().get(0);
+        Assert.assertEquals(12.0f, statistics.getVideoChannelStats().getFrameRateRx(), 0.0f);
+    }
+
+    @Test
+    public void asyncRequestsDoNotBlockCallerTest() throws Exception {
+        // the response is delayed by 200ms, the requests are submitted by a single thread without waiting for each other
+        List<CompletableFuture<List<Statistics>>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            futures.add(device.getMultipleStatisticsAsync());
+        }
+        Assert.assertFalse(futures.get(0).isDone());
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        for (CompletableFuture<List<Statistics>> future : futures) {
+            Assert.assertEquals(12.0f, ((EndpointStatistics) future.get().get(0)).getVideoChannelStats().getFrameRateRx(), 0.0f);
+        }
+        wireMockRule.verify(50, getRequestedFor(urlEqualTo("/tobtc?currency=USD&value=1000000")));
+    }
+
+    @Test
+    public void asyncRequestFailureTest() throws Exception {
+        HttpCommunicatorDevice unauthorizedDevice = createDevice("wrong");
+        unauthorizedDevice.init();
+        try {
+            ExecutionException e = Assertions.assertThrows(ExecutionException.class, () -> unauthorizedDevice.getMultipleStatisticsAsync().get());
+            Assert.assertTrue(e.getCause() instanceof CommandFailureException);
+        } finally {
+            unauthorizedDevice.destroy();
+        }
+    }
+
+    @Test
+    public void asyncRequestRejectedCredentialsTest() throws Exception {
+        wireMockRule.stubFor(get(urlEqualTo("/tobtc?currency=USD&value=1000000")).withBasicAuth("Admin", "expired")
+                .willReturn(aResponse().withStatus(401)));
+        HttpCommunicatorDevice unauthorizedDevice = createDevice("expired");
+        unauthorizedDevice.init();
+        try {
+            ExecutionException e = Assertions.assertThrows(ExecutionException.class, () -> unauthorizedDevice.getMultipleStatisticsAsync().get());
+            Assert.assertTrue(e.getCause() instanceof FailedLoginException);
+        } finally {
+            unauthorizedDevice.destroy();
+        }
+    }
+
+    @Test
+    public void asyncRequestDigestAuthenticationTest() throws Exception {
+        // the blocking request authenticates preemptively with the realm given
+        wireMockRule.stubFor(get(urlEqualTo("/tobtc?currency=USD&value=1000000")).withHeader("Authorization", containing("Digest username=\"Admin\""))
+                .willReturn(aResponse().withBody("12")));
+        HttpCommunicatorDevice digestDevice = createDevice("1234");
+        digestDevice.setAuthenticationScheme(HttpCommunicator.AuthenticationScheme.Digest);
+        digestDevice.setRealm("device");
+        digestDevice.init();
+        try {
+            List<Statistics> statistics = digestDevice.getMultipleStatisticsAsync().get(10, TimeUnit.SECONDS);
+            Assert.assertEquals(12.0f, ((EndpointStatistics) statistics.get(0)).getVideoChannelStats().getFrameRateRx(), 0.0f);
+            wireMockRule.verify(1, getRequestedFor(urlEqualTo("/tobtc?currency=USD&value=1000000")));
+        } finally {
+            digestDevice.destroy();
+        }
+    }
+
+    @Test
+    public void asyncRequestHeadersTest() throws Exception {
+        HttpCommunicatorDevice jsonDevice = createDevice("1234");
+        jsonDevice.setContentType("application/json");
+        jsonDevice.init();
+        try {
+            jsonDevice.doGetAsync("tobtc?currency=USD&value=1000000", Collections.singletonMap("X-Request-Id", "1")).get(10, TimeUnit.SECONDS);
+            wireMockRule.verify(getRequestedFor(urlEqualTo("/tobtc?currency=USD&value=1000000"))
+                    .withHeader("Accept", equalTo("application/json"))
+                    .withHeader("X-Request-Id", equalTo("1")));
+        } finally {
+            jsonDevice.destroy();
+        }
+    }
+
+    @Test
+    public void asyncRequestAfterDestroyTest() throws Exception {
+        HttpCommunicatorDevice destroyedDevice = createDevice("1234");
+        destroyedDevice.init();
+        destroyedDevice.destroy();
+
+        ExecutionException e = Assertions.assertThrows(ExecutionException.class, () -> destroyedDevice.getMultipleStatisticsAsync().get());
+        Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+}
@@ -0,0 +1,48 @@
+package com.avispl.symphony.dal.communicator.sample;
+
+import com.avispl.symphony.api.dal.error.ResourceNotReachableException;
+import com.avispl.symphony.dal.communicator.sample.util.CircuitBreaker;
+import org.junit.Assert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.net.ServerSocket;
+
+@Tag("test")
+public class RestCommunicatorDeviceCircuitBreakerTest {
+    private RestCommunicatorDevice device;
+
+    @BeforeEach
+    public void init() throws Exception {
+        // port nothing listens on
+        int port;
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            port = serverSocket.getLocalPort();
+        }
+        device = new RestCommunicatorDevice();
+        device.setProtocol("http");
+        device.setHost("127.0.0.1");
+        device.setPort(port);
+        device.setCircuitBreakerThreshold(1);
+        device.init();
+    }
+
+    @AfterEach
+    public void destroy() {
+        device.destroy();
+    }
+
+    @Test
+    public void openBreakerFailsPollTest() throws Exception {
+        // connection errors are reported the same way as the ones of RestCommunicator requests
+        Assertions.assertThrows(ResourceNotReachableException.class, device::getMultipleStatistics);
+
+        // the breaker is open now, the poll fails fast with the state of the breaker in the message
+        ResourceNotReachableException e = Assertions.assertThrows(ResourceNotReachableException.class, device::getMultipleStatistics);
+        Assert.assertTrue(e.getCause() instanceof CircuitBreaker.OpenException);
+        Assert.assertTrue(e.getMessage().contains("circuit breaker OPEN after 1 consecutive failures, tripped 1 times"));
+    }
+}
@@ -0,0 +1,74 @@
+package com.avispl.symphony.dal.communicator.sample;
+
+import com.avispl.symphony.api.dal.dto.monitor.EndpointStatistics;
+import com.avispl.symphony.api.dal.dto.monitor.Statistics;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import org.junit.Assert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+
+@Tag("test")
+public class RestCommunicatorDeviceCompressionTest {
+    private static final String UTC_NOW = "{\"$id\":\"1\",\"currentDateTime\":\"2026-10-17T10:00Z\",\"utcOffset\":\"00:00:00\","
+            + "\"isDayLightSavingsTime\":false,\"dayOfTheWeek\":\"Saturday\",\"timeZoneName\":\"UTC\","
+            + "\"currentFileTime\":134051112000000000,\"ordinalDate\":\"2026-290\",\"serviceResponse\":null}";
+
+    private final WireMockServer server = new WireMockServer(options().dynamicPort().bindAddress("127.0.0.1"));
+    private RestCommunicatorDevice device;
+
+    @BeforeEach
+    public void init() throws Exception {
+        server.start();
+        server.stubFor(get(urlEqualTo("/api/json/utc/now")).willReturn(aResponse()
+                .withHeader("Content-Type", "application/json")
+                .withHeader("Content-Encoding", "gzip")
+                .withBody(gzip(UTC_NOW))));
+        device = new RestCommunicatorDevice();
+        device.setProtocol("http");
+        device.setHost("127.0.0.1");
+        device.setPort(server.port());
+        device.setBaseUri("api/json");
+        device.setAcceptCompressedResponses(true);
+        device.init();
+    }
+
+    @AfterEach
+    public void destroy() {
+        device.destroy();
+        server.stop();
+    }
+
+    @Test
+    public void compressedResponseIsDecodedTest() throws Exception {
+        List<Statistics> statistics = device.getMultipleStatistics();
+        Assert.assertEquals(1, statistics.size());
+        Assert.assertNotNull(((EndpointStatistics) statistics.get(0)).getVideoChannelStats().getBitRateRx());
+
+        // response is received compressed and decoded while it is read into the DTO
+        Assert.assertEquals(gzip(UTC_NOW).length, device.getReceivedBytes());
+        Assert.assertEquals(UTC_NOW.length(), device.getDecodedBytes());
+        server.verify(getRequestedFor(urlEqualTo("/api/json/utc/now")).withHeader("Accept-Encoding", equalTo("gzip, deflate")));
+    }
+
+    private static byte[] gzip(String body) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+}
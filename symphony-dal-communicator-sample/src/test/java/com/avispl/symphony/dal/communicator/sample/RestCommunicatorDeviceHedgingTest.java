@@ -0,0 +1,76 @@
+package com.avispl.symphony.dal.communicator.sample;
+
+import com.avispl.symphony.api.dal.dto.monitor.ExtendedStatistics;
+import com.avispl.symphony.api.dal.dto.monitor.Statistics;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import org.junit.Assert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+
+@Tag("test")
+public class RestCommunicatorDeviceHedgingTest {
+    private static final String UTC_NOW = "{\"$id\":\"1\",\"currentDateTime\":\"2026-10-17T10:00Z\",\"utcOffset\":\"00:00:00\","
+            + "\"isDayLightSavingsTime\":false,\"dayOfTheWeek\":\"Saturday\",\"timeZoneName\":\"UTC\","
+            + "\"currentFileTime\":134051112000000000,\"ordinalDate\":\"2026-290\",\"serviceResponse\":null}";
+
+    private final WireMockServer server = new WireMockServer(options().dynamicPort().bindAddress("127.0.0.1"));
+    private RestCommunicatorDevice device;
+
+    @BeforeEach
+    public void init() throws Exception {
+        server.start();
+        server.stubFor(get(urlEqualTo("/api/json/utc/now")).atPriority(5).willReturn(aResponse()
+                .withHeader("Content-Type", "application/json")
+                .withFixedDelay(20)
+                .withBody(UTC_NOW)));
+        device = new RestCommunicatorDevice();
+        device.setProtocol("http");
+        device.setHost("127.0.0.1");
+        device.setPort(server.port());
+        device.setBaseUri("api/json");
+        device.setTimeout(10000);
+        device.setHedgingPercentile(90);
+        device.setHedgingBudget(100);
+        device.init();
+    }
+
+    @AfterEach
+    public void destroy() {
+        device.destroy();
+        server.stop();
+    }
+
+    @Test
+    public void stalledResponseIsHedgedTest() throws Exception {
+        // learn response times of the device
+        for (int i = 0; i < 20; i++) {
+            device.getMultipleStatistics();
+        }
+        // next response stalls for 3s, the socket read of the request does not respond to interruption
+        server.stubFor(get(urlEqualTo("/api/json/utc/now")).atPriority(1)
+                .inScenario("stall").whenScenarioStateIs(Scenario.STARTED).willSetStateTo("stalled")
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withFixedDelay(3000)
+                        .withBody(UTC_NOW)));
+
+        long start = System.currentTimeMillis();
+        List<Statistics> statistics = device.getMultipleStatistics();
+        long elapsed = System.currentTimeMillis() - start;
+
+        Assert.assertTrue("Poll took " + elapsed + "ms", elapsed < 1500);
+        ExtendedStatistics hedging = (ExtendedStatistics) statistics.get(statistics.size() - 1);
+        Assert.assertEquals("1", hedging.getStatistics().get("HedgedRequests#Sent"));
+        Assert.assertEquals("1", hedging.getStatistics().get("HedgedRequests#Won"));
+    }
+}
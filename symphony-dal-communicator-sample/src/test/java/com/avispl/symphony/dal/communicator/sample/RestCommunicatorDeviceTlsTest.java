@@ -0,0 +1,63 @@
+package com.avispl.symphony.dal.communicator.sample;
+
+import com.avispl.symphony.api.dal.dto.monitor.EndpointStatistics;
+import com.avispl.symphony.dal.communicator.sample.util.SharedSslContexts;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import org.junit.Assert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSessionContext;
+import java.util.Collections;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+
+@Tag("test")
+public class RestCommunicatorDeviceTlsTest {
+    private final WireMockServer server = new WireMockServer(options().dynamicPort().dynamicHttpsPort().bindAddress("127.0.0.1"));
+    private RestCommunicatorDevice device;
+
+    @BeforeEach
+    public void init() throws Exception {
+        server.start();
+        server.stubFor(get(urlEqualTo("/api/json/utc/now")).willReturn(aResponse()
+                .withHeader("Content-Type", "application/json")
+                .withBody("{\"currentFileTime\":134051112000000000}")));
+        device = new RestCommunicatorDevice();
+        device.setProtocol("https");
+        device.setHost("127.0.0.1");
+        device.setPort(server.httpsPort());
+        device.setBaseUri("api/json");
+        device.setTrustAllCertificates(true);
+        device.init();
+    }
+
+    @AfterEach
+    public void destroy() {
+        device.destroy();
+        server.stop();
+    }
+
+    @Test
+    public void trustAllConnectionsUseSharedContextTest() throws Exception {
+        Assert.assertNotNull(((EndpointStatistics) device.getMultipleStatistics().get(0)).getVideoChannelStats().getBitRateRx());
+        // the rest template is created again once reconnected
+        device.disconnect();
+        Assert.assertNotNull(((EndpointStatistics) device.getMultipleStatistics().get(0)).getVideoChannelStats().getBitRateRx());
+
+        // sessions negotiated by the device are cached by the shared context, so they are resumed by later connections
+        SSLSessionContext sessionContext = SharedSslContexts.get(true).getClientSessionContext();
+        boolean cached = false;
+        for (byte[] id : Collections.list(sessionContext.getIds())) {
+            SSLSession session = sessionContext.getSession(id);
+            cached |= session != null && "127.0.0.1".equals(session.getPeerHost()) && session.getPeerPort() == server.httpsPort();
+        }
+        Assert.assertTrue(cached);
+    }
+}
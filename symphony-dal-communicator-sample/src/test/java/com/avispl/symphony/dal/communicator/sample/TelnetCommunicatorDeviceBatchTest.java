@@ -0,0 +1,126 @@
+package com.avispl.symphony.dal.communicator.sample;
+
+import com.avispl.symphony.api.dal.error.CommandFailureException;
+import org.junit.Assert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+@Tag("test")
+public class TelnetCommunicatorDeviceBatchTest {
+    private static final int PORT = 5336;
+
+    private ServerSocket serverSocket;
+    private final ExecutorService server = Executors.newCachedThreadPool();
+    private final List<Socket> sockets = new CopyOnWriteArrayList<>();
+    private TelnetCommunicatorDevice device;
+
+    @BeforeEach
+    public void init() throws Exception {
+        // device printing a prompt after every response
+        serverSocket = new ServerSocket(PORT);
+        server.execute(() -> {
+            try {
+                while (true) {
+                    Socket socket = serverSocket.accept();
+                    sockets.add(socket);
+                    server.execute(() -> serve(socket));
+                }
+            } catch (Exception e) {
+                // server closed
+            }
+        });
+    }
+
+    @AfterEach
+    public void destroy() throws Exception {
+        // only one device at a time, each device runs a local telnet server of its own
+        if (device != null) {
+            device.destroy();
+        }
+        serverSocket.close();
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+        server.shutdownNow();
+        // the port is only released once the accepting thread leaves accept()
+        server.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void batchResponsesAreSplitPerCommandTest() throws Exception {
+        device = createDevice(new TelnetCommunicatorDevice());
+        List<String> commands = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            commands.add("command" + i);
+        }
+        List<String> responses = device.sendBatch(commands);
+        Assert.assertEquals(20, responses.size());
+        for (int i = 0; i < 20; i++) {
+            Assert.assertEquals("echo command" + i + "\r\n> ", responses.get(i));
+        }
+    }
+
+    @Test
+    public void failedCommandOfBatchIsReportedTest() throws Exception {
+        device = createDevice(new TelnetCommunicatorDevice());
+        CommandFailureException e = Assertions.assertThrows(CommandFailureException.class,
+                () -> device.sendBatch(Arrays.asList("status", "fail", "version")));
+        Assert.assertEquals("fail", e.getRequest());
+    }
+
+    @Test
+    public void overriddenDoneReadingIsCalledTest() throws Exception {
+        List<String> responses = new ArrayList<>();
+        device = createDevice(new TelnetCommunicatorDevice() {
+            @Override
+            protected boolean doneReading(String command, String response) {
+                // error responses are not failures for this device
+                responses.add(response);
+                return response.endsWith("> ");
+            }
+        });
+        Assert.assertEquals("ERROR\r\n> ", device.send("fail"));
+        Assert.assertEquals(Collections.singletonList("ERROR\r\n> "), responses);
+    }
+
+    private static TelnetCommunicatorDevice createDevice(TelnetCommunicatorDevice device) throws Exception {
+        device.setPort(PORT);
+        device.setCommandSuccessList(Collections.singletonList("\r\n> "));
+        device.setCommandErrorList(Collections.singletonList("ERROR\r\n> "));
+        device.setLoginSuccessList(Collections.singletonList("> "));
+        device.init();
+        return device;
+    }
+
+    private static void serve(Socket socket) {
+        try (Socket connection = socket) {
+            PrintStream out = new PrintStream(connection.getOutputStream(), true);
+            BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.US_ASCII));
+            out.print("Welcome!\r\n> ");
+            String line;
+            while ((line = in.readLine()) != null) {
+                out.print(line.equals("fail") ? "ERROR\r\n> " : "echo " + line + "\r\n> ");
+            }
+        } catch (Exception e) {
+            // connection closed
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.avispl.symphony.dal.communicator.sample;
+
+import com.avispl.symphony.api.dal.error.CommandFailureException;
+import com.avispl.symphony.api.dal.error.ResourceNotReachableException;
+import com.avispl.symphony.dal.communicator.TelnetCommunicator;
+import com.avispl.symphony.dal.communicator.sample.util.CircuitBreaker;
+import com.avispl.symphony.dal.communicator.sample.util.TelnetSession;
+import org.junit.Assert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+@Tag("test")
+public class TelnetCommunicatorDeviceNioTest {
+    private static final int PORT = 5337;
+
+    private ServerSocket serverSocket;
+    private final ExecutorService server = Executors.newCachedThreadPool();
+    private final List<Socket> sockets = new CopyOnWriteArrayList<>();
+    // option negotiation replies received by the device, e.g. "WONT 24"
+    private final List<String> negotiation = new CopyOnWriteArrayList<>();
+    private final List<TelnetCommunicatorDevice> devices = new ArrayList<>();
+
+    @BeforeEach
+    public void init() throws Exception {
+        // device negotiating options and prompting for credentials, printing a prompt after every response
+        serverSocket = new ServerSocket(PORT);
+        server.execute(() -> {
+            try {
+                while (true) {
+                    Socket socket = serverSocket.accept();
+                    sockets.add(socket);
+                    server.execute(() -> serve(socket));
+                }
+            } catch (Exception e) {
+                // server closed
+            }
+        });
+    }
+
+    @AfterEach
+    public void destroy() throws Exception {
+        for (TelnetCommunicatorDevice device : devices) {
+            device.destroy();
+        }
+        serverSocket.close();
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+        server.shutdownNow();
+        // the port is only released once the accepting thread leaves accept()
+        server.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void loginAndCommandsTest() throws Exception {
+        TelnetCommunicatorDevice device = createDevice();
+        Assert.assertEquals("echo status\r\n> ", device.send("status"));
+        Assert.assertEquals("echo version\r\n> ", device.send("version"));
+
+        Assert.assertTrue(negotiation.contains("WONT 24"));
+        Assert.assertTrue(negotiation.contains("DO 1"));
+        Assert.assertEquals(1, sockets.size());
+    }
+
+    @Test
+    public void failedCommandKeepsConnectionTest() throws Exception {
+        TelnetCommunicatorDevice device = createDevice();
+        CommandFailureException e = Assertions.assertThrows(CommandFailureException.class, () -> device.send("fail"));
+        Assert.assertEquals("fail", e.getRequest());
+
+        Assert.assertEquals(Collections.singletonList("echo version\r\n> "), device.sendBatch(Collections.singletonList("version")));
+        Assert.assertEquals(1, sockets.size());
+    }
+
+    @Test
+    public void sessionsShareEngineThreadTest() throws Exception {
+        List<TelnetSession> sessions = new ArrayList<>();
+        List<CompletableFuture<String>> responses = new ArrayList<>();
+        try {
+            for (int i = 0; i < 100; i++) {
+                TelnetCommunicator communicator = new TelnetCommunicator();
+                configure(communicator);
+                TelnetSession session = new TelnetSession(communicator);
+                sessions.add(session);
+                responses.add(session.send("command" + i, 1));
+            }
+            for (int i = 0; i < 100; i++) {
+                Assert.assertEquals("echo command" + i + "\r\n> ", responses.get(i).get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            sessions.forEach(TelnetSession::close);
+        }
+        Assert.assertEquals(100, sockets.size());
+        Assert.assertEquals(1, Thread.getAllStackTraces().keySet().stream().filter(thread -> thread.getName().equals("telnet-engine")).count());
+    }
+
+    @Test
+    public void sessionReconnectsAfterTimeoutTest() throws Exception {
+        TelnetCommunicatorDevice device = new TelnetCommunicatorDevice();
+        configure(device);
+        device.setTimeout(500);
+        device.setNioTransport(true);
+        device.init();
+        devices.add(device);
+        Assertions.assertThrows(SocketTimeoutException.class, () -> device.send("hang"));
+
+        Assert.assertEquals("echo status\r\n> ", device.send("status"));
+        Assert.assertEquals(2, sockets.size());
+    }
+
+    @Test
+    public void asyncCommandsGoThroughCircuitBreakerTest() throws Exception {
+        TelnetCommunicatorDevice device = new TelnetCommunicatorDevice();
+        configure(device);
+        device.setTimeout(500);
+        device.setCircuitBreakerThreshold(1);
+        device.setNioTransport(true);
+        device.init();
+        devices.add(device);
+        ExecutionException e = Assertions.assertThrows(ExecutionException.class, () -> device.sendAsync("hang").get(10, TimeUnit.SECONDS));
+        Assert.assertTrue(e.getCause() instanceof SocketTimeoutException);
+
+        // the breaker is open now, commands fail fast and so does the poll, with the state of the breaker in its message
+        e = Assertions.assertThrows(ExecutionException.class, () -> device.sendAsync("status").get(10, TimeUnit.SECONDS));
+        Assert.assertTrue(e.getCause() instanceof CircuitBreaker.OpenException);
+        e = Assertions.assertThrows(ExecutionException.class, () -> device.getMultipleStatisticsAsync().get(10, TimeUnit.SECONDS));
+        Assert.assertTrue(e.getCause() instanceof ResourceNotReachableException);
+        Assert.assertTrue(e.getCause().getMessage().contains("circuit breaker OPEN"));
+        Assert.assertEquals(1, sockets.size());
+    }
+
+    private TelnetCommunicatorDevice createDevice() throws Exception {
+        TelnetCommunicatorDevice device = new TelnetCommunicatorDevice();
+        configure(device);
+        device.setNioTransport(true);
+        device.init();
+        devices.add(device);
+        return device;
+    }
+
+    private static void configure(TelnetCommunicator communicator) {
+        communicator.setHost("localhost");
+        communicator.setPort(PORT);
+        communicator.setLogin("admin");
+        communicator.setPassword("secret");
+        communicator.setLoginPrompt("login: ");
+        communicator.setPasswordPrompt("Password: ");
+        communicator.setCommandSuccessList(Collections.singletonList("\r\n> "));
+        communicator.setCommandErrorList(Collections.singletonList("ERROR\r\n> "));
+        communicator.setLoginSuccessList(Collections.singletonList("> "));
+    }
+
+    private void serve(Socket socket) {
+        try {
+            InputStream in = socket.getInputStream();
+            OutputStream out = socket.getOutputStream();
+            // ask for the terminal type and offer to echo
+            out.write(new byte[]{(byte) 255, (byte) 253, 24, (byte) 255, (byte) 251, 1});
+            out.write("login: ".getBytes(StandardCharsets.US_ASCII));
+            if (!"admin".equals(readLine(in))) {
+                return;
+            }
+            out.write("Password: ".getBytes(StandardCharsets.US_ASCII));
+            if (!"secret".equals(readLine(in))) {
+                return;
+            }
+            out.write("Welcome!\r\n> ".getBytes(StandardCharsets.US_ASCII));
+            String line;
+            while ((line = readLine(in)) != null) {
+                if (!line.equals("hang")) {
+                    out.write((line.equals("fail") ? "ERROR\r\n> " : "echo " + line + "\r\n> ").getBytes(StandardCharsets.US_ASCII));
+                }
+            }
+        } catch (IOException e) {
+            // connection closed
+        }
+    }
+
+    private String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == 255) {
+                int verb = in.read();
+                int option = in.read();
+                negotiation.add((verb == 251 ? "WILL " : verb == 252 ? "WONT " : verb == 253 ? "DO " : "DONT ") + option);
+            } else if (b == '\n') {
+                return line.toString("US-ASCII");
+            } else if (b != '\r') {
+                line.write(b);
+            }
+        }
+        return null;
+    }
+}
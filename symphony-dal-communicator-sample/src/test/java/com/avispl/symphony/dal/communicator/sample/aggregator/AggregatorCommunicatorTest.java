@@ -2,17 +2,33 @@ package com.avispl.symphony.dal.communicator.sample.aggregator;
 
 import com.atlassian.ta.wiremockpactgenerator.WireMockPactGenerator;
 import com.avispl.symphony.api.dal.dto.control.AdvancedControllableProperty;
+import com.avispl.symphony.api.dal.dto.control.ControllableProperty;
+import com.avispl.symphony.api.dal.dto.monitor.ExtendedStatistics;
 import com.avispl.symphony.api.dal.dto.monitor.aggregator.AggregatedDevice;
+import com.avispl.symphony.api.dal.error.CommandFailureException;
+import com.avispl.symphony.api.dal.error.ResourceNotReachableException;
 import com.avispl.symphony.dal.communicator.HttpCommunicator;
+import com.avispl.symphony.dal.communicator.sample.util.SharedConnectionPool;
 import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
 import org.junit.Assert;
 import org.junit.Rule;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.putRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
 import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
 
 @Tag("test")
@@ -31,18 +47,23 @@ public class AggregatorCommunicatorTest {
 
     @BeforeEach
     public void init() throws Exception {
-        aggregatorCommunicator = new AggregatorCommunicator();
-        aggregatorCommunicator.setTrustAllCertificates(true);
-        aggregatorCommunicator.setProtocol("http");
-        aggregatorCommunicator.setContentType("application/json");
-        aggregatorCommunicator.setPort(wireMockRule.port());
-        aggregatorCommunicator.setHost("127.0.0.1");
-        aggregatorCommunicator.setAuthenticationScheme(HttpCommunicator.AuthenticationScheme.Basic);
-        aggregatorCommunicator.setLogin("Admin");
-        aggregatorCommunicator.setPassword("1234");
+        aggregatorCommunicator = createCommunicator();
         aggregatorCommunicator.init();
     }
 
+    private AggregatorCommunicator createCommunicator() {
+        AggregatorCommunicator communicator = new AggregatorCommunicator();
+        communicator.setTrustAllCertificates(true);
+        communicator.setProtocol("http");
+        communicator.setContentType("application/json");
+        communicator.setPort(wireMockRule.port());
+        communicator.setHost("127.0.0.1");
+        communicator.setAuthenticationScheme(HttpCommunicator.AuthenticationScheme.Basic);
+        communicator.setLogin("Admin");
+        communicator.setPassword("1234");
+        return communicator;
+    }
+
     @Test
     public void authenticationIsSuccessful() throws Exception {
         aggregatorCommunicator.authenticate();
@@ -56,4 +77,278 @@ public class AggregatorCommunicatorTest {
         Assert.assertEquals("03275657", devices.get(0).getSerialNumber());
         Assert.assertEquals("Reboot", ((AdvancedControllableProperty.Button)devices.get(0).getControllableProperties().get(0).getType()).getLabel());
     }
+
+    @Test
+    public void sessionIsReusedAcrossPolls() throws Exception {
+        aggregatorCommunicator.retrieveMultipleStatistics();
+        aggregatorCommunicator.retrieveMultipleStatistics();
+        Assert.assertEquals(1, aggregatorCommunicator.getLoginCount());
+        wireMockRule.verify(1, postRequestedFor(urlEqualTo("/test/api/login")));
+    }
+
+    @Test
+    public void sessionIsRenewedWhenExpired() throws Exception {
+        aggregatorCommunicator.setSessionTimeout(0);
+        aggregatorCommunicator.retrieveMultipleStatistics();
+        aggregatorCommunicator.retrieveMultipleStatistics();
+        Assert.assertEquals(2, aggregatorCommunicator.getLoginCount());
+    }
+
+    @Test
+    public void sessionIsRenewedWhenRejected() throws Exception {
+        wireMockRule.stubFor(get(urlEqualTo("/test/api/devices")).atPriority(1)
+                .inScenario("session").whenScenarioStateIs(Scenario.STARTED).willSetStateTo("rejected")
+                .willReturn(aResponse().withStatus(401)));
+        List<AggregatedDevice> devices = aggregatorCommunicator.retrieveMultipleStatistics();
+        Assert.assertEquals("03275657", devices.get(0).getSerialNumber());
+        Assert.assertEquals(2, aggregatorCommunicator.getLoginCount());
+    }
+
+    @Test
+    public void snapshotIsRefreshedInBackground() throws Exception {
+        AggregatorCommunicator communicator = createCommunicator();
+        communicator.setSnapshotRefreshInterval(100);
+        communicator.setSnapshotMaxStaleness(60000);
+        communicator.init();
+        try {
+            List<AggregatedDevice> devices = null;
+            long deadline = System.currentTimeMillis() + 10000;
+            while (devices == null && System.currentTimeMillis() < deadline) {
+                try {
+                    devices = communicator.retrieveMultipleStatistics();
+                } catch (ResourceNotReachableException e) {
+                    // first refresh is not completed yet
+                    Thread.sleep(50);
+                }
+            }
+            Assert.assertNotNull(devices);
+            Assert.assertEquals("03275657", devices.get(0).getSerialNumber());
+            // the age of the data is reported by the snapshot, devices handed out are not modified by later refreshes
+            Map<String, String> statistics = ((ExtendedStatistics) communicator.getMultipleStatistics().get(0)).getStatistics();
+            Assert.assertTrue(Long.parseLong(statistics.get("SnapshotAge(ms)")) >= 0);
+            Assert.assertNull(devices.get(0).getTimestamp());
+        } finally {
+            communicator.destroy();
+        }
+    }
+
+    @Test
+    public void snapshotIsUnavailableUntilFirstRefresh() throws Exception {
+        wireMockRule.stubFor(get(urlEqualTo("/test/api/devices")).atPriority(1)
+                .willReturn(aResponse().withFixedDelay(1000).withBody("[]")));
+        AggregatorCommunicator communicator = createCommunicator();
+        communicator.setSnapshotRefreshInterval(100);
+        communicator.setSnapshotMaxStaleness(60000);
+        communicator.init();
+        try {
+            Assertions.assertThrows(ResourceNotReachableException.class, communicator::retrieveMultipleStatistics);
+        } finally {
+            communicator.destroy();
+        }
+    }
+
+    @Test
+    public void getDevicesByIdTest() throws Exception {
+        List<AggregatedDevice> devices = aggregatorCommunicator.retrieveMultipleStatistics(Arrays.asList("unknown", "03275657"));
+        Assert.assertEquals(1, devices.size());
+        Assert.assertEquals("03275657", devices.get(0).getDeviceId());
+    }
+
+    @Test
+    public void getDevicesByIdUsesDeviceDetailsEndpoint() throws Exception {
+        aggregatorCommunicator.setDeviceDetailsFetchLimit(5);
+        List<AggregatedDevice> devices = aggregatorCommunicator.retrieveMultipleStatistics(Arrays.asList("03275657"));
+        Assert.assertEquals(1, devices.size());
+        Assert.assertEquals("03275657", devices.get(0).getSerialNumber());
+        wireMockRule.verify(1, getRequestedFor(urlEqualTo("/test/api/devices/03275657")));
+        wireMockRule.verify(0, getRequestedFor(urlEqualTo("/test/api/devices")));
+    }
+
+    @Test
+    public void notModifiedDevicesAreReused() throws Exception {
+        List<AggregatedDevice> devices = aggregatorCommunicator.retrieveMultipleStatistics();
+        List<AggregatedDevice> notModifiedDevices = aggregatorCommunicator.retrieveMultipleStatistics();
+        Assert.assertEquals(1, aggregatorCommunicator.getNotModifiedCount());
+        Assert.assertEquals(devices.size(), notModifiedDevices.size());
+        Assert.assertSame(devices.get(0), notModifiedDevices.get(0));
+        wireMockRule.verify(1, getRequestedFor(urlEqualTo("/test/api/devices")).withHeader("If-None-Match", equalTo("\"devices-v1\"")));
+    }
+
+    @Test
+    public void notModifiedDevicesAreSelectedFromKeptIndex() throws Exception {
+        List<AggregatedDevice> devices = aggregatorCommunicator.retrieveMultipleStatistics(Arrays.asList("03275657", "unknown"));
+        List<AggregatedDevice> notModifiedDevices = aggregatorCommunicator.retrieveMultipleStatistics(Arrays.asList("unknown", "03275657"));
+        Assert.assertEquals(1, aggregatorCommunicator.getNotModifiedCount());
+        Assert.assertEquals(1, notModifiedDevices.size());
+        Assert.assertSame(devices.get(0), notModifiedDevices.get(0));
+    }
+
+    @Test
+    public void deviceIdIsEncodedInDeviceDetailsPath() throws Exception {
+        aggregatorCommunicator.setDeviceDetailsFetchLimit(5);
+        List<AggregatedDevice> devices = aggregatorCommunicator.retrieveMultipleStatistics(Arrays.asList("rack 1/03275657?x"));
+        Assert.assertTrue(devices.isEmpty());
+        wireMockRule.verify(1, getRequestedFor(urlEqualTo("/test/api/devices/rack%201%2F03275657%3Fx")));
+    }
+
+    @Test
+    public void controlFailuresAreReportedPerDevice() throws Exception {
+        List<ControllableProperty> commands = Arrays.asList(new ControllableProperty("Reboot", "", "unknown1"),
+                new ControllableProperty("Reboot", "", "unknown2"), new ControllableProperty("Reboot", "", "unknown1"));
+        try {
+            aggregatorCommunicator.controlProperties(commands);
+            Assert.fail("Reboot of unknown devices should fail");
+        } catch (CommandFailureException e) {
+            Assert.assertTrue(e.getMessage().contains("unknown1, unknown2"));
+        }
+        wireMockRule.verify(1, putRequestedFor(urlEqualTo("/test/api/Devices/unknown1/Reboot")));
+        wireMockRule.verify(1, putRequestedFor(urlEqualTo("/test/api/Devices/unknown2/Reboot")));
+    }
+
+    @Test
+    public void compressedDevicesAreDecoded() throws Exception {
+        AggregatorCommunicator communicator = createCommunicator();
+        communicator.setAcceptCompressedResponses(true);
+        communicator.init();
+        try {
+            List<AggregatedDevice> devices = communicator.retrieveMultipleStatistics();
+            Assert.assertEquals("03275657", devices.get(0).getSerialNumber());
+            Assert.assertTrue(communicator.getReceivedBytes() > 0);
+            // sample payload is too small to shrink, but it is still received compressed and decoded
+            Assert.assertNotEquals(communicator.getReceivedBytes(), communicator.getDecodedBytes());
+            wireMockRule.verify(getRequestedFor(urlEqualTo("/test/api/devices")).withHeader("Accept-Encoding", equalTo("gzip, deflate")));
+        } finally {
+            communicator.destroy();
+        }
+    }
+
+    @Test
+    public void sharedConnectionPoolReusesConnections() throws Exception {
+        SharedConnectionPool connectionPool = SharedConnectionPool.getInstance(true);
+        long hits = connectionPool.getHits();
+        long misses = connectionPool.getMisses();
+        AggregatorCommunicator first = createCommunicator();
+        first.setSharedConnectionPool(true);
+        first.init();
+        AggregatorCommunicator second = createCommunicator();
+        second.setSharedConnectionPool(true);
+        second.setAcceptCompressedResponses(true);
+        second.init();
+        try {
+            Assert.assertEquals("03275657", first.retrieveMultipleStatistics().get(0).getSerialNumber());
+            Assert.assertEquals("03275657", second.retrieveMultipleStatistics().get(0).getSerialNumber());
+            // logins and device polls of both communicators go over the connection opened by the first request
+            Assert.assertEquals(1, connectionPool.getMisses() - misses);
+            Assert.assertEquals(3, connectionPool.getHits() - hits);
+
+            Map<String, String> statistics = ((ExtendedStatistics) first.getMultipleStatistics().get(0)).getStatistics();
+            Assert.assertEquals(String.valueOf(connectionPool.getHits()), statistics.get("ConnectionPoolHits"));
+        } finally {
+            first.destroy();
+            second.destroy();
+        }
+    }
+
+    @Test
+    public void sharedConnectionPoolKeepsHighestRouteLimit() throws Exception {
+        AggregatorCommunicator first = createCommunicator();
+        first.setSharedConnectionPool(true);
+        first.setMaxConnectionsPerRoute(40);
+        first.init();
+        AggregatorCommunicator second = createCommunicator();
+        second.setSharedConnectionPool(true);
+        second.setMaxConnectionsPerRoute(30);
+        second.init();
+        try {
+            first.retrieveMultipleStatistics();
+            second.retrieveMultipleStatistics();
+            Assert.assertEquals(40, SharedConnectionPool.getInstance(true).getMaxPerRoute("127.0.0.1", wireMockRule.port(), "http"));
+        } finally {
+            first.destroy();
+            second.destroy();
+        }
+    }
+
+    @Test
+    public void getDevicesByPagesTest() throws Exception {
+        AggregatorCommunicator communicator = createCommunicator();
+        communicator.setPageSize(1);
+        communicator.init();
+        try {
+            List<AggregatedDevice> devices = communicator.retrieveMultipleStatistics();
+            Assert.assertEquals(2, devices.size());
+            Assert.assertEquals("03275657", devices.get(0).getSerialNumber());
+            Assert.assertEquals("03275658", devices.get(1).getSerialNumber());
+            wireMockRule.verify(0, getRequestedFor(urlEqualTo("/test/api/devices")));
+        } finally {
+            communicator.destroy();
+        }
+    }
+
+    @Test
+    public void getDevicesByIdFromControllersTest() throws Exception {
+        String controller = "127.0.0.1:" + wireMockRule.port();
+        AggregatorCommunicator communicator = createCommunicator();
+        communicator.setControllerHosts(controller);
+        communicator.setDeviceDetailsFetchLimit(5);
+        communicator.init();
+        try {
+            List<AggregatedDevice> devices = communicator.retrieveMultipleStatistics(Arrays.asList(controller + "/03275657"));
+            Assert.assertEquals(1, devices.size());
+            Assert.assertEquals(controller + "/03275657", devices.get(0).getDeviceId());
+            wireMockRule.verify(1, getRequestedFor(urlEqualTo("/test/api/devices/03275657")));
+            wireMockRule.verify(0, getRequestedFor(urlEqualTo("/test/api/devices")));
+        } finally {
+            communicator.destroy();
+        }
+    }
+
+    @Test
+    public void getDevicesByPagesFromControllersTest() throws Exception {
+        String controller = "127.0.0.1:" + wireMockRule.port();
+        SharedConnectionPool connectionPool = SharedConnectionPool.getInstance(true);
+        AggregatorCommunicator communicator = createCommunicator();
+        communicator.setControllerHosts(controller);
+        communicator.setPageSize(1);
+        communicator.init();
+        try {
+            long leases = connectionPool.getHits() + connectionPool.getMisses();
+            List<AggregatedDevice> devices = communicator.retrieveMultipleStatistics();
+            Assert.assertEquals(2, devices.size());
+            Assert.assertEquals(controller + "/03275657", devices.get(0).getDeviceId());
+            Assert.assertEquals(controller + "/03275658", devices.get(1).getDeviceId());
+            // controllers go through the shared connection pool even if the adapter does not opt in
+            Assert.assertTrue(connectionPool.getHits() + connectionPool.getMisses() >= leases + 2);
+            wireMockRule.verify(0, getRequestedFor(urlEqualTo("/test/api/devices")));
+        } finally {
+            communicator.destroy();
+        }
+    }
+
+    @Test
+    public void getDevicesFromMultipleControllersTest() throws Exception {
+        String controller = "127.0.0.1:" + wireMockRule.port();
+        AggregatorCommunicator communicator = createCommunicator();
+        communicator.setControllerHosts(controller + ", 127.0.0.1:1");
+        communicator.setControllerTimeout(5000);
+        communicator.init();
+        try {
+            List<AggregatedDevice> devices = communicator.retrieveMultipleStatistics();
+            Assert.assertEquals(1, devices.size());
+            Assert.assertEquals(controller + "/03275657", devices.get(0).getDeviceId());
+
+            Map<String, String> statistics = ((ExtendedStatistics) communicator.getMultipleStatistics().get(0)).getStatistics();
+            Assert.assertEquals("OK", statistics.get(controller + "#Status"));
+            Assert.assertTrue(statistics.get("127.0.0.1:1#Status").startsWith("Failed"));
+
+            try {
+                communicator.controlProperty(new ControllableProperty("Reboot", "", controller + "/03275657"));
+            } catch (CommandFailureException e) {
+                // reboot is not stubbed, only the routing to the controller matters
+            }
+            wireMockRule.verify(1, putRequestedFor(urlEqualTo("/test/api/Devices/03275657/Reboot")));
+        } finally {
+            communicator.destroy();
+        }
+    }
 }
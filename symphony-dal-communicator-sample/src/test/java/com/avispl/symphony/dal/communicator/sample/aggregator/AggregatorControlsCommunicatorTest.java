@@ -7,6 +7,7 @@ import com.avispl.symphony.dal.communicator.HttpCommunicator;
 import com.github.tomakehurst.wiremock.junit.WireMockRule;
 import org.junit.Assert;
 import org.junit.Rule;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
@@ -87,4 +88,16 @@ public class AggregatorControlsCommunicatorTest {
         Assert.assertEquals("Option1", preset.getValue());
         Assert.assertEquals("Preset", preset.getName());
     }
+
+    @Test
+    public void unsupportedPaginationModeTest() {
+        AggregatorControlsCommunicator communicator = new AggregatorControlsCommunicator();
+        communicator.setProtocol("http");
+        communicator.setPort(wireMockRule.port());
+        communicator.setHost("127.0.0.1");
+        communicator.setPageSize(10);
+        communicator.setPaginationMode("page");
+        IllegalArgumentException e = Assertions.assertThrows(IllegalArgumentException.class, communicator::init);
+        Assert.assertTrue(e.getMessage().contains("[OFFSET, CURSOR]"));
+    }
 }
@@ -0,0 +1,114 @@
+package com.avispl.symphony.dal.communicator.sample.aggregator;
+
+import com.avispl.symphony.api.dal.dto.control.AdvancedControllableProperty;
+import com.avispl.symphony.api.dal.dto.monitor.aggregator.AggregatedDevice;
+import com.avispl.symphony.dal.aggregator.parser.AggregatedDeviceProcessor;
+import com.avispl.symphony.dal.aggregator.parser.PropertiesMapping;
+import com.avispl.symphony.dal.aggregator.parser.PropertiesMappingParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import javax.script.ScriptEngineManager;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares the compiled mapping with the script evaluation of {@link AggregatedDeviceProcessor}, which needs the
+ * Nashorn script engine: skipped on JDK 15 and later, where Nashorn is no longer bundled.
+ */
+@Tag("test")
+public class CompiledDeviceMappingParityTest {
+    private static final String PAYLOAD = CompiledDeviceMappingTest.PAYLOAD;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeAll
+    public static void requireScriptEngine() {
+        Assumptions.assumeTrue(new ScriptEngineManager().getEngineByName("nashorn") != null, "Nashorn script engine is not available");
+    }
+
+    @Test
+    public void compiledMappingMatchesProcessorTest() throws Exception {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("Address", "device.Network.Address");
+        properties.put("SecondPort", "device.Ports[1]");
+        properties.put("PortCount", "device.Ports.length");
+        properties.put("Ports", "device.Ports");
+        properties.put("Ratio", "device.Ratio");
+        properties.put("Faulty", "device.Status!=0");
+        properties.put("Enabled", "device.Enabled===true");
+        properties.put("Literal", "'literal'");
+        properties.put("Number", "12.50");
+        properties.put("Unknown", "Unknown");
+        properties.put("Scripted", "device.Model.toUpperCase()");
+        Map<String, String> deviceProperties = new HashMap<>();
+        deviceProperties.put("deviceId", "device.SerialNumber");
+        deviceProperties.put("deviceOnline", "device.Status==0");
+        deviceProperties.put("deviceMake", "Test");
+        // no compiled setter, set through bean utils
+        deviceProperties.put("timestamp", "device.Status");
+        Map<String, PropertiesMapping> mapping = new HashMap<>();
+        mapping.put("TestDevice", new PropertiesMapping("Devices", "device.Model=='TestDevice'", properties,
+                new HashMap<>(), deviceProperties, new HashMap<>()));
+
+        assertSameDevices(new AggregatedDeviceProcessor(mapping).extractDevices(objectMapper.readTree(PAYLOAD)),
+                CompiledDeviceMapping.compile(mapping).extractDevices(objectMapper.readTree(PAYLOAD)));
+    }
+
+    @Test
+    public void compiledControlsMatchProcessorTest() throws Exception {
+        Map<String, PropertiesMapping> mapping = new PropertiesMappingParser().loadYML("aggregator/model-mapping-controls.yml", getClass());
+
+        assertSameDevices(new AggregatedDeviceProcessor(mapping).extractDevices(objectMapper.readTree(PAYLOAD)),
+                CompiledDeviceMapping.compile(mapping).extractDevices(objectMapper.readTree(PAYLOAD)));
+    }
+
+    @Test
+    public void genericModelIsAppliedToUnknownModelsTest() throws Exception {
+        Map<String, String> deviceProperties = new HashMap<>();
+        deviceProperties.put("deviceId", "device.SerialNumber");
+        deviceProperties.put("deviceModel", "device.Model");
+        Map<String, PropertiesMapping> mapping = new HashMap<>();
+        mapping.put("generic", new PropertiesMapping("Devices", null, new HashMap<>(), new HashMap<>(), deviceProperties, new HashMap<>()));
+        JsonNode json = objectMapper.readTree(PAYLOAD).get("Devices").get(3);
+
+        AggregatedDevice expected = new AggregatedDevice();
+        new AggregatedDeviceProcessor(mapping).applyProperties(expected, json, "OtherDevice");
+        AggregatedDevice actual = new AggregatedDevice();
+        CompiledDeviceMapping.compile(mapping).applyProperties(actual, json, "OtherDevice");
+        assertSameDevices(Collections.singletonList(expected), Collections.singletonList(actual));
+        Assert.assertEquals("OtherDevice", actual.getDeviceModel());
+    }
+
+    private static void assertSameDevices(List<AggregatedDevice> expected, List<AggregatedDevice> actual) {
+        Assert.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            AggregatedDevice expectedDevice = expected.get(i);
+            AggregatedDevice actualDevice = actual.get(i);
+            Assert.assertEquals(expectedDevice.getDeviceId(), actualDevice.getDeviceId());
+            Assert.assertEquals(expectedDevice.getDeviceName(), actualDevice.getDeviceName());
+            Assert.assertEquals(expectedDevice.getDeviceMake(), actualDevice.getDeviceMake());
+            Assert.assertEquals(expectedDevice.getDeviceModel(), actualDevice.getDeviceModel());
+            Assert.assertEquals(expectedDevice.getDeviceOnline(), actualDevice.getDeviceOnline());
+            Assert.assertEquals(expectedDevice.getSerialNumber(), actualDevice.getSerialNumber());
+            Assert.assertEquals(expectedDevice.getTimestamp(), actualDevice.getTimestamp());
+            Assert.assertEquals(expectedDevice.getProperties(), actualDevice.getProperties());
+            Assert.assertEquals(expectedDevice.getStatistics(), actualDevice.getStatistics());
+            Assert.assertEquals(expectedDevice.getControllableProperties().size(), actualDevice.getControllableProperties().size());
+            for (int j = 0; j < expectedDevice.getControllableProperties().size(); j++) {
+                AdvancedControllableProperty expectedControl = expectedDevice.getControllableProperties().get(j);
+                AdvancedControllableProperty actualControl = actualDevice.getControllableProperties().get(j);
+                Assert.assertEquals(expectedControl.getName(), actualControl.getName());
+                Assert.assertEquals(expectedControl.getValue(), actualControl.getValue());
+                Assert.assertEquals(String.valueOf(expectedControl.getType()), String.valueOf(actualControl.getType()));
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.avispl.symphony.dal.communicator.sample.aggregator;
+
+import com.avispl.symphony.api.dal.dto.control.AdvancedControllableProperty;
+import com.avispl.symphony.api.dal.dto.monitor.aggregator.AggregatedDevice;
+import com.avispl.symphony.dal.aggregator.parser.PropertiesMapping;
+import com.avispl.symphony.dal.aggregator.parser.PropertiesMappingParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+@Tag("test")
+public class CompiledDeviceMappingTest {
+    static final String PAYLOAD = "{\"Devices\":["
+            + "{\"Model\":\"TestDevice\",\"SerialNumber\":\"1\",\"Status\":0,\"Enabled\":true,\"Ratio\":1.0,\"Network\":{\"Address\":\"10.0.0.1\"},\"Ports\":[80,443]},"
+            + "{\"Model\":\"TestDevice\",\"SerialNumber\":\"2\",\"Status\":\"0\",\"Enabled\":\"true\",\"Ratio\":0.25,\"Network\":null},"
+            + "{\"Model\":\"TestDevice\",\"SerialNumber\":3,\"Status\":2,\"Ratio\":1e-7,\"Ports\":[]},"
+            + "{\"Model\":\"OtherDevice\",\"SerialNumber\":\"4\",\"Status\":0}]}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void compiledExpressionsTest() throws Exception {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("Address", "device.Network.Address");
+        properties.put("SecondPort", "device.Ports[1]");
+        properties.put("PortCount", "device.Ports.length");
+        properties.put("Ports", "device.Ports");
+        properties.put("Ratio", "device.Ratio");
+        properties.put("Faulty", "device.Status!=0");
+        properties.put("Enabled", "device.Enabled===true");
+        properties.put("Literal", "'literal'");
+        properties.put("Number", "12.50");
+        properties.put("Unknown", "Unknown");
+        Map<String, String> deviceProperties = new HashMap<>();
+        deviceProperties.put("deviceId", "device.SerialNumber");
+        deviceProperties.put("deviceOnline", "device.Status==0");
+        deviceProperties.put("deviceMake", "Test");
+        // no compiled setter, set through bean utils
+        deviceProperties.put("timestamp", "device.Status");
+        Map<String, PropertiesMapping> mapping = new HashMap<>();
+        mapping.put("TestDevice", new PropertiesMapping("Devices", "device.Model=='TestDevice'", properties,
+                new HashMap<>(), deviceProperties, new HashMap<>()));
+
+        List<AggregatedDevice> devices = CompiledDeviceMapping.compile(mapping).extractDevices(objectMapper.readTree(PAYLOAD));
+
+        Assert.assertEquals(3, devices.size());
+        AggregatedDevice first = devices.get(0);
+        Assert.assertEquals("1", first.getDeviceId());
+        Assert.assertEquals("Test", first.getDeviceMake());
+        Assert.assertTrue(first.getDeviceOnline());
+        Assert.assertEquals(Long.valueOf(0), first.getTimestamp());
+        Map<String, String> expected = new HashMap<>();
+        expected.put("Address", "10.0.0.1");
+        expected.put("SecondPort", "443");
+        expected.put("PortCount", "2");
+        expected.put("Ports", "[80,443]");
+        expected.put("Ratio", "1");
+        expected.put("Faulty", "false");
+        expected.put("Enabled", "true");
+        expected.put("Literal", "literal");
+        expected.put("Number", "12.5");
+        // reference error of the script, reported as an empty value
+        expected.put("Unknown", "");
+        Assert.assertEquals(expected, first.getProperties());
+
+        // loose equality converts the text, strict equality does not, and missing or null parents give empty values
+        AggregatedDevice second = devices.get(1);
+        Assert.assertEquals("2", second.getDeviceId());
+        Assert.assertTrue(second.getDeviceOnline());
+        Assert.assertEquals("false", second.getProperties().get("Faulty"));
+        Assert.assertEquals("false", second.getProperties().get("Enabled"));
+        Assert.assertEquals("", second.getProperties().get("Address"));
+        Assert.assertEquals("", second.getProperties().get("PortCount"));
+        Assert.assertEquals("", second.getProperties().get("Ports"));
+        Assert.assertEquals("0.25", second.getProperties().get("Ratio"));
+
+        AggregatedDevice third = devices.get(2);
+        Assert.assertEquals("3", third.getDeviceId());
+        Assert.assertFalse(third.getDeviceOnline());
+        Assert.assertEquals(Long.valueOf(2), third.getTimestamp());
+        Assert.assertEquals("true", third.getProperties().get("Faulty"));
+        Assert.assertEquals("1e-7", third.getProperties().get("Ratio"));
+        Assert.assertEquals("[]", third.getProperties().get("Ports"));
+        Assert.assertEquals("0", third.getProperties().get("PortCount"));
+        Assert.assertEquals("", third.getProperties().get("SecondPort"));
+    }
+
+    @Test
+    public void compiledControlsTest() throws Exception {
+        Map<String, PropertiesMapping> mapping = new PropertiesMappingParser().loadYML("aggregator/model-mapping-controls.yml", getClass());
+
+        List<AggregatedDevice> devices = CompiledDeviceMapping.compile(mapping).extractDevices(objectMapper.readTree(PAYLOAD));
+
+        Assert.assertEquals(3, devices.size());
+        AggregatedDevice device = devices.get(0);
+        Assert.assertEquals("1", device.getDeviceId());
+        Assert.assertEquals("TestDevice", device.getDeviceName());
+        Assert.assertEquals("Test", device.getDeviceMake());
+        Assert.assertEquals("1", device.getSerialNumber());
+        Assert.assertTrue(device.getDeviceOnline());
+        Assert.assertEquals("true", device.getProperties().get("Switch"));
+        Assert.assertEquals("1.5", device.getProperties().get("Slider"));
+        Map<String, Object> controls = new HashMap<>();
+        for (AdvancedControllableProperty control : device.getControllableProperties()) {
+            controls.put(control.getName(), control.getValue());
+        }
+        Assert.assertEquals(new HashSet<>(Arrays.asList("Button", "Switch", "Preset", "DropDown", "Slider")), controls.keySet());
+        Assert.assertEquals("Option1", String.valueOf(controls.get("Preset")));
+        Assert.assertEquals("1.5", String.valueOf(controls.get("Slider")));
+        Assert.assertEquals("true", String.valueOf(controls.get("Switch")));
+        Assert.assertFalse(devices.get(2).getDeviceOnline());
+    }
+
+    @Test
+    public void genericModelIsAppliedToUnknownModelsTest() throws Exception {
+        Map<String, String> deviceProperties = new HashMap<>();
+        deviceProperties.put("deviceId", "device.SerialNumber");
+        deviceProperties.put("deviceModel", "device.Model");
+        Map<String, PropertiesMapping> mapping = new HashMap<>();
+        mapping.put("generic", new PropertiesMapping("Devices", null, new HashMap<>(), new HashMap<>(), deviceProperties, new HashMap<>()));
+        JsonNode json = objectMapper.readTree(PAYLOAD).get("Devices").get(3);
+
+        AggregatedDevice device = new AggregatedDevice();
+        CompiledDeviceMapping.compile(mapping).applyProperties(device, json, "OtherDevice");
+        Assert.assertEquals("4", device.getDeviceId());
+        Assert.assertEquals("OtherDevice", device.getDeviceModel());
+    }
+
+    @Test
+    public void mapSingleDeviceTest() throws Exception {
+        CompiledDeviceMapping mapping = CompiledDeviceMapping.load("aggregator/model-mapping.yml", getClass());
+        JsonNode devices = objectMapper.readTree(PAYLOAD).get("Devices");
+
+        Assert.assertEquals("1", mapping.mapDevice(devices.get(0)).get(0).getDeviceId());
+        Assert.assertTrue(mapping.mapDevice(devices.get(3)).isEmpty());
+    }
+
+    @Test
+    public void compiledMappingIsSharedTest() throws Exception {
+        Assert.assertSame(CompiledDeviceMapping.load("aggregator/model-mapping.yml", getClass()),
+                CompiledDeviceMapping.load("aggregator/model-mapping.yml", getClass()));
+        Assert.assertNotSame(CompiledDeviceMapping.load("aggregator/model-mapping.yml", getClass()),
+                CompiledDeviceMapping.load("aggregator/model-mapping-controls.yml", getClass()));
+    }
+
+    @Test
+    public void mappingIsCachedPerClassLoaderTest() throws Exception {
+        // another adapter bundle, with a mapping of the same name
+        Path bundle = Files.createTempDirectory("bundle");
+        Path mappingFile = bundle.resolve("aggregator/model-mapping.yml");
+        Files.createDirectories(mappingFile.getParent());
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("aggregator/model-mapping-controls.yml")) {
+            Files.copy(in, mappingFile);
+        }
+        String classFile = getClass().getName().replace('.', '/') + ".class";
+        Path ownerFile = bundle.resolve(classFile);
+        Files.createDirectories(ownerFile.getParent());
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(classFile)) {
+            Files.copy(in, ownerFile);
+        }
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{bundle.toUri().toURL()}, null)) {
+            Class<?> owner = classLoader.loadClass(getClass().getName());
+
+            Assert.assertNotSame(CompiledDeviceMapping.load("aggregator/model-mapping.yml", getClass()),
+                    CompiledDeviceMapping.load("aggregator/model-mapping.yml", owner));
+            Assert.assertSame(CompiledDeviceMapping.load("aggregator/model-mapping.yml", owner),
+                    CompiledDeviceMapping.load("aggregator/model-mapping.yml", owner));
+        }
+    }
+}
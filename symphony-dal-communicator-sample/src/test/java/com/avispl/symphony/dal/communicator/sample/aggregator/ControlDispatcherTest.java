@@ -0,0 +1,165 @@
+package com.avispl.symphony.dal.communicator.sample.aggregator;
+
+import com.avispl.symphony.api.dal.dto.control.ControllableProperty;
+import org.junit.Assert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Tag("test")
+public class ControlDispatcherTest {
+    private ControlDispatcher dispatcher;
+
+    @AfterEach
+    public void destroy() {
+        dispatcher.stop();
+    }
+
+    @Test
+    public void duplicateCommandsAreMergedTest() throws Exception {
+        dispatcher = new ControlDispatcher(4, 4, 5000, "test-controls");
+        List<Object> values = new ArrayList<>();
+
+        List<ControlDispatcher.ControlResult> results = dispatcher.dispatch(Arrays.asList(
+                new ControllableProperty("Volume", 10, "1"),
+                new ControllableProperty("Volume", 20, "1")), command -> "controller", command -> values.add(command.getValue()));
+
+        Assert.assertEquals(1, results.size());
+        Assert.assertEquals(Arrays.asList((Object) 20), values);
+    }
+
+    @Test
+    public void failedCommandDoesNotAbortBatchTest() throws Exception {
+        dispatcher = new ControlDispatcher(4, 4, 5000, "test-controls");
+        AtomicInteger executed = new AtomicInteger();
+
+        List<ControlDispatcher.ControlResult> results = dispatcher.dispatch(createCommands(10), command -> "controller", command -> {
+            executed.incrementAndGet();
+            if (command.getDeviceId().equals("3")) {
+                throw new IllegalStateException("Device is busy");
+            }
+        });
+
+        Assert.assertEquals(10, executed.get());
+        Assert.assertEquals(10, results.size());
+        for (ControlDispatcher.ControlResult result : results) {
+            Assert.assertEquals(!result.getDeviceId().equals("3"), result.isSuccessful());
+        }
+        Assert.assertTrue(results.get(3).getError() instanceof IllegalStateException);
+    }
+
+    @Test
+    public void controllerConcurrencyIsLimitedTest() throws Exception {
+        dispatcher = new ControlDispatcher(8, 2, 5000, "test-controls");
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        List<ControlDispatcher.ControlResult> results = dispatcher.dispatch(createCommands(12), command -> "controller", command -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            inFlight.decrementAndGet();
+        });
+
+        Assert.assertEquals(12, results.stream().filter(ControlDispatcher.ControlResult::isSuccessful).count());
+        Assert.assertEquals(2, maxInFlight.get());
+    }
+
+    @Test
+    public void deadlineIsEnforcedTest() throws Exception {
+        dispatcher = new ControlDispatcher(2, 2, 200, "test-controls");
+
+        long start = System.currentTimeMillis();
+        List<ControlDispatcher.ControlResult> results = dispatcher.dispatch(createCommands(4), command -> "controller", command -> {
+            if (command.getDeviceId().equals("1")) {
+                Thread.sleep(5000);
+            }
+        });
+
+        Assert.assertTrue(System.currentTimeMillis() - start < 2000);
+        Assert.assertTrue(results.get(0).isSuccessful());
+        Assert.assertTrue(results.get(1).getError() instanceof TimeoutException);
+    }
+
+    @Test
+    public void busyControllerDoesNotBlockOthersTest() throws Exception {
+        dispatcher = new ControlDispatcher(2, 1, 5000, "test-controls");
+        List<ControllableProperty> commands = createCommands(5);
+        commands.add(new ControllableProperty("Reboot", "", "idle"));
+        AtomicLong idleExecutedAt = new AtomicLong();
+
+        long start = System.currentTimeMillis();
+        List<ControlDispatcher.ControlResult> results = dispatcher.dispatch(commands,
+                command -> command.getDeviceId().equals("idle") ? "idle" : "busy", command -> {
+            if (command.getDeviceId().equals("idle")) {
+                idleExecutedAt.set(System.currentTimeMillis());
+            } else {
+                Thread.sleep(100);
+            }
+        });
+
+        Assert.assertEquals(6, results.stream().filter(ControlDispatcher.ControlResult::isSuccessful).count());
+        // commands of the busy controller run one after another, the idle controller does not wait for them
+        Assert.assertTrue(idleExecutedAt.get() - start < 300);
+    }
+
+    @Test
+    public void singleCommandBatchesAreLimitedTest() throws Exception {
+        dispatcher = new ControlDispatcher(4, 1, 5000, "test-controls");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executed = new AtomicInteger();
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<ControlDispatcher.ControlResult>> first = callers.submit(() -> dispatcher.dispatch(createCommands(1), command -> "controller", command -> {
+                executed.incrementAndGet();
+                started.countDown();
+                release.await();
+            }));
+            Assert.assertTrue(started.await(2, TimeUnit.SECONDS));
+            Future<List<ControlDispatcher.ControlResult>> second = callers.submit(() -> dispatcher.dispatch(createCommands(1), command -> "controller",
+                    command -> executed.incrementAndGet()));
+
+            // both commands go to the same controller, the second one waits for the first one
+            Thread.sleep(200);
+            Assert.assertEquals(1, executed.get());
+            release.countDown();
+            Assert.assertTrue(first.get(2, TimeUnit.SECONDS).get(0).isSuccessful());
+            Assert.assertTrue(second.get(2, TimeUnit.SECONDS).get(0).isSuccessful());
+            Assert.assertEquals(2, executed.get());
+        } finally {
+            release.countDown();
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    public void singleCommandDeadlineIsEnforcedTest() throws Exception {
+        dispatcher = new ControlDispatcher(2, 2, 200, "test-controls");
+
+        long start = System.currentTimeMillis();
+        List<ControlDispatcher.ControlResult> results = dispatcher.dispatch(createCommands(1), command -> "controller", command -> Thread.sleep(5000));
+
+        Assert.assertTrue(System.currentTimeMillis() - start < 2000);
+        Assert.assertTrue(results.get(0).getError() instanceof TimeoutException);
+    }
+
+    private static List<ControllableProperty> createCommands(int count) {
+        List<ControllableProperty> commands = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            commands.add(new ControllableProperty("Reboot", "", String.valueOf(i)));
+        }
+        return commands;
+    }
+}
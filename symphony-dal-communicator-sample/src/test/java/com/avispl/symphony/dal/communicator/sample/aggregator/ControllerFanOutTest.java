@@ -0,0 +1,116 @@
+package com.avispl.symphony.dal.communicator.sample.aggregator;
+
+import com.avispl.symphony.api.dal.dto.monitor.aggregator.AggregatedDevice;
+import org.junit.Assert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Collections.singletonList;
+
+@Tag("test")
+public class ControllerFanOutTest {
+    private ControllerFanOut fanOut;
+
+    @AfterEach
+    public void destroy() {
+        if (fanOut != null) {
+            fanOut.stop();
+        }
+    }
+
+    @Test
+    public void controllerAddressTest() {
+        Assert.assertEquals("10.0.0.1", ControllerFanOut.hostOf("10.0.0.1"));
+        Assert.assertEquals(443, ControllerFanOut.portOf("10.0.0.1", 443));
+        Assert.assertEquals("10.0.0.1", ControllerFanOut.hostOf("10.0.0.1:8443"));
+        Assert.assertEquals(8443, ControllerFanOut.portOf("10.0.0.1:8443", 443));
+        Assert.assertEquals("fd00::1", ControllerFanOut.hostOf("[fd00::1]:8443"));
+        Assert.assertEquals(8443, ControllerFanOut.portOf("[fd00::1]:8443", 443));
+        Assert.assertEquals("fd00::1", ControllerFanOut.hostOf("[fd00::1]"));
+        Assert.assertEquals(443, ControllerFanOut.portOf("[fd00::1]", 443));
+        Assert.assertEquals("fd00::1", ControllerFanOut.hostOf("fd00::1"));
+        Assert.assertEquals(443, ControllerFanOut.portOf("fd00::1", 443));
+    }
+
+    @Test
+    public void slowControllerDegradesOnlyItsPartitionTest() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger slowPolls = new AtomicInteger();
+        AtomicInteger failingPolls = new AtomicInteger();
+        Map<String, Callable<List<AggregatedDevice>>> sources = new LinkedHashMap<>();
+        sources.put("fast", () -> singletonList(createDevice("fast/1")));
+        sources.put("slow", () -> {
+            if (slowPolls.incrementAndGet() > 1) {
+                release.await();
+            }
+            return singletonList(createDevice("slow/1"));
+        });
+        sources.put("failing", () -> {
+            if (failingPolls.incrementAndGet() > 1) {
+                throw new IllegalStateException("Controller is unreachable");
+            }
+            return singletonList(createDevice("failing/1"));
+        });
+        fanOut = new ControllerFanOut(sources, 3, 200, 0, "test-controllers");
+
+        Assert.assertEquals(3, fanOut.fetch().size());
+
+        List<AggregatedDevice> devices = fanOut.fetch();
+        Assert.assertEquals(3, devices.size());
+        Assert.assertEquals("Timed out", fanOut.getStatuses().get("slow"));
+        Assert.assertEquals("Failed: Controller is unreachable", fanOut.getStatuses().get("failing"));
+        Assert.assertEquals("OK", fanOut.getStatuses().get("fast"));
+
+        // the late poll is awaited again instead of being started once more
+        fanOut.fetch();
+        Assert.assertEquals(2, slowPolls.get());
+        release.countDown();
+        fanOut.fetch();
+        Assert.assertEquals("OK", fanOut.getStatuses().get("slow"));
+    }
+
+    @Test
+    public void staleDevicesAreDroppedTest() throws Exception {
+        AtomicInteger polls = new AtomicInteger();
+        Map<String, Callable<List<AggregatedDevice>>> sources = new LinkedHashMap<>();
+        sources.put("failing", () -> {
+            if (polls.incrementAndGet() > 1) {
+                throw new IllegalStateException("Controller is unreachable");
+            }
+            return singletonList(createDevice("failing/1"));
+        });
+        fanOut = new ControllerFanOut(sources, 1, 200, 100, "test-controllers");
+
+        Assert.assertEquals(1, fanOut.fetch().size());
+        // last known devices are reported until they get older than the max staleness
+        Assert.assertEquals(1, fanOut.fetch().size());
+        Assert.assertEquals("Failed: Controller is unreachable", fanOut.getStatuses().get("failing"));
+        Thread.sleep(150);
+        Assert.assertTrue(fanOut.fetch().isEmpty());
+        Assert.assertEquals(0, (int) fanOut.getDeviceCounts().get("failing"));
+        Assert.assertTrue(fanOut.getStatuses().get("failing").startsWith("Unreachable, last responded "));
+    }
+
+    @Test
+    public void qualifiedDeviceIdTest() {
+        fanOut = new ControllerFanOut(new LinkedHashMap<>(), 1, 0, 0, "test-controllers");
+        String deviceId = ControllerFanOut.qualify("10.0.0.1:8443", "devices/1");
+        Assert.assertEquals("10.0.0.1:8443", ControllerFanOut.controllerOf(deviceId));
+        Assert.assertEquals("devices/1", ControllerFanOut.deviceIdOf(deviceId));
+        Assert.assertNull(ControllerFanOut.controllerOf("1"));
+    }
+
+    private static AggregatedDevice createDevice(String deviceId) {
+        AggregatedDevice device = new AggregatedDevice();
+        device.setDeviceId(deviceId);
+        return device;
+    }
+}
@@ -0,0 +1,237 @@
+package com.avispl.symphony.dal.communicator.sample.aggregator;
+
+import com.avispl.symphony.api.dal.dto.monitor.aggregator.AggregatedDevice;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.Assert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Tag("test")
+public class DevicePageFetcherTest {
+    private static final int DEVICE_COUNT = 10;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+    private DevicePageFetcher fetcher;
+
+    @AfterEach
+    public void destroy() {
+        if (fetcher != null) {
+            fetcher.stop();
+        }
+    }
+
+    @Test
+    public void fetchByOffsetWithTotalTest() throws Exception {
+        fetcher = new DevicePageFetcher(DevicePageFetcher.Mode.OFFSET, 3, 2, 0, "Data.Devices", "test-pages");
+
+        List<AggregatedDevice> devices = fetcher.fetch(query -> page(query, true, null), this::map);
+
+        assertAllDevices(devices);
+        Assert.assertEquals(4, requests.size());
+    }
+
+    @Test
+    public void fetchByOffsetWithoutTotalTest() throws Exception {
+        fetcher = new DevicePageFetcher(DevicePageFetcher.Mode.OFFSET, 3, 2, 0, "Data.Devices", "test-pages");
+
+        List<AggregatedDevice> devices = fetcher.fetch(query -> page(query, false, null), this::map);
+
+        assertAllDevices(devices);
+    }
+
+    @Test
+    public void failedPageIsRetriedTest() throws Exception {
+        fetcher = new DevicePageFetcher(DevicePageFetcher.Mode.OFFSET, 3, 2, 1, "Data.Devices", "test-pages");
+
+        List<AggregatedDevice> devices = fetcher.fetch(query -> page(query, true, "offset=6&limit=3"), this::map);
+
+        assertAllDevices(devices);
+        Assert.assertEquals(2, requests.get("offset=6&limit=3").get());
+        Assert.assertEquals(1, requests.get("offset=3&limit=3").get());
+    }
+
+    @Test
+    public void failedPageFailsFetchAfterRetriesTest() {
+        fetcher = new DevicePageFetcher(DevicePageFetcher.Mode.OFFSET, 3, 2, 0, "Data.Devices", "test-pages");
+
+        Assertions.assertThrows(IllegalStateException.class, () -> fetcher.fetch(query -> page(query, true, "offset=6&limit=3"), this::map));
+    }
+
+    @Test
+    public void fetchByCursorTest() throws Exception {
+        fetcher = new DevicePageFetcher(DevicePageFetcher.Mode.CURSOR, 4, 2, 0, "Data.Devices", "test-pages");
+        fetcher.setNextCursorNode("Next");
+
+        List<AggregatedDevice> devices = fetcher.fetch(query -> {
+            int offset = query.startsWith("cursor=") ? Integer.parseInt(query.substring(7, query.indexOf('&'))) : 0;
+            ObjectNode page = createPage(offset, 4);
+            if (offset + 4 < DEVICE_COUNT) {
+                page.put("Next", String.valueOf(offset + 4));
+            }
+            return page;
+        }, this::map);
+
+        assertAllDevices(devices);
+    }
+
+    @Test
+    public void customParameterAndFieldNamesTest() throws Exception {
+        fetcher = new DevicePageFetcher(DevicePageFetcher.Mode.OFFSET, 3, 2, 0, "Data.Devices", "test-pages");
+        fetcher.setOffsetParameter("$skip");
+        fetcher.setLimitParameter("$top");
+        fetcher.setTotalNode("Count");
+
+        List<AggregatedDevice> devices = fetcher.fetch(query -> {
+            requests.computeIfAbsent(query, key -> new AtomicInteger()).incrementAndGet();
+            int offset = Integer.parseInt(query.substring(query.indexOf('=') + 1, query.indexOf('&')));
+            return createPage(offset, 3).put("Count", DEVICE_COUNT);
+        }, this::map);
+
+        assertAllDevices(devices);
+        Assert.assertEquals(4, requests.size());
+        Assert.assertTrue(requests.containsKey("%24skip=9&%24top=3"));
+    }
+
+    @Test
+    public void customCursorNamesTest() throws Exception {
+        fetcher = new DevicePageFetcher(DevicePageFetcher.Mode.CURSOR, 4, 2, 0, "Data.Devices", "test-pages");
+        fetcher.setCursorParameter("after");
+        fetcher.setLimitParameter("first");
+        fetcher.setNextCursorNode("EndCursor");
+
+        List<AggregatedDevice> devices = fetcher.fetch(query -> {
+            requests.computeIfAbsent(query, key -> new AtomicInteger()).incrementAndGet();
+            int offset = query.startsWith("after=") ? Integer.parseInt(query.substring(6, query.indexOf('&'))) : 0;
+            ObjectNode page = createPage(offset, 4);
+            if (offset + 4 < DEVICE_COUNT) {
+                page.put("EndCursor", String.valueOf(offset + 4));
+            }
+            return page;
+        }, this::map);
+
+        assertAllDevices(devices);
+        Assert.assertTrue(requests.containsKey("first=4"));
+        Assert.assertTrue(requests.containsKey("after=8&first=4"));
+    }
+
+    @Test
+    public void emptyParameterNameTest() {
+        fetcher = new DevicePageFetcher(DevicePageFetcher.Mode.OFFSET, 3, 2, 0, "Data.Devices", "test-pages");
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> fetcher.setLimitParameter(" "));
+    }
+
+    @Test
+    public void controllerIgnoringOffsetTest() throws Exception {
+        fetcher = new DevicePageFetcher(DevicePageFetcher.Mode.OFFSET, 3, 2, 0, "Data.Devices", "test-pages");
+
+        // every request returns the first page
+        List<AggregatedDevice> devices = fetcher.fetch(query -> {
+            requests.computeIfAbsent(query, key -> new AtomicInteger()).incrementAndGet();
+            return createPage(0, 3);
+        }, this::map);
+
+        Assert.assertEquals(3, devices.size());
+        Assert.assertEquals(3, requests.size());
+    }
+
+    @Test
+    public void endlessPagesAreCappedTest() throws Exception {
+        fetcher = new DevicePageFetcher(DevicePageFetcher.Mode.OFFSET, 3, 2, 0, "Data.Devices", "test-pages");
+        fetcher.setMaxDevices(30);
+
+        // every page is full, with devices never seen before
+        List<AggregatedDevice> devices = fetcher.fetch(query -> {
+            requests.computeIfAbsent(query, key -> new AtomicInteger()).incrementAndGet();
+            ObjectNode page = objectMapper.createObjectNode();
+            ArrayNode pageDevices = page.putObject("Data").putArray("Devices");
+            for (int i = 0; i < 3; i++) {
+                pageDevices.addObject().put("Id", query + "-" + i);
+            }
+            return page;
+        }, this::map);
+
+        Assert.assertEquals(30, devices.size());
+        Assert.assertEquals(10, requests.size());
+    }
+
+    @Test
+    public void repeatedCursorStopsFetchTest() throws Exception {
+        fetcher = new DevicePageFetcher(DevicePageFetcher.Mode.CURSOR, 1, 2, 0, "Data.Devices", "test-pages");
+        fetcher.setNextCursorNode("Next");
+        AtomicInteger pageCount = new AtomicInteger();
+
+        // cursors alternate between "a" and "b"
+        List<AggregatedDevice> devices = fetcher.fetch(query -> {
+            int page = pageCount.getAndIncrement();
+            ObjectNode payload = createPage(page, 1);
+            payload.put("Next", page % 2 == 0 ? "a" : "b");
+            return payload;
+        }, this::map);
+
+        Assert.assertEquals(3, devices.size());
+        Assert.assertEquals(3, pageCount.get());
+    }
+
+    @Test
+    public void invalidModeTest() {
+        Assert.assertEquals(DevicePageFetcher.Mode.CURSOR, DevicePageFetcher.Mode.parse("cursor"));
+        IllegalArgumentException e = Assertions.assertThrows(IllegalArgumentException.class, () -> DevicePageFetcher.Mode.parse("PAGE"));
+        Assert.assertTrue(e.getMessage().contains("OFFSET"));
+    }
+
+    /**
+     * Creates page for given query, failing once for the query to fail.
+     */
+    private JsonNode page(String query, boolean withTotal, String failingQuery) {
+        int attempt = requests.computeIfAbsent(query, key -> new AtomicInteger()).incrementAndGet();
+        if (query.equals(failingQuery) && attempt == 1) {
+            throw new IllegalStateException("Page is not available");
+        }
+        int offset = Integer.parseInt(query.substring(query.indexOf('=') + 1, query.indexOf('&')));
+        int limit = Integer.parseInt(query.substring(query.lastIndexOf('=') + 1));
+        ObjectNode page = createPage(offset, limit);
+        if (withTotal) {
+            page.put("Total", DEVICE_COUNT);
+        }
+        return page;
+    }
+
+    private ObjectNode createPage(int offset, int limit) {
+        ObjectNode page = objectMapper.createObjectNode();
+        ArrayNode devices = page.putObject("Data").putArray("Devices");
+        for (int id = offset; id < Math.min(offset + limit, DEVICE_COUNT); id++) {
+            devices.addObject().put("Id", String.valueOf(id));
+        }
+        return page;
+    }
+
+    private List<AggregatedDevice> map(JsonNode page) {
+        List<AggregatedDevice> devices = new ArrayList<>();
+        for (JsonNode device : page.get("Data").get("Devices")) {
+            AggregatedDevice aggregatedDevice = new AggregatedDevice();
+            aggregatedDevice.setDeviceId(device.get("Id").asText());
+            devices.add(aggregatedDevice);
+        }
+        return devices;
+    }
+
+    private static void assertAllDevices(List<AggregatedDevice> devices) {
+        Assert.assertEquals(DEVICE_COUNT, devices.size());
+        for (int id = 0; id < DEVICE_COUNT; id++) {
+            Assert.assertEquals(String.valueOf(id), devices.get(id).getDeviceId());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.avispl.symphony.dal.communicator.sample.aggregator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+@Tag("test")
+public class DeviceStreamReaderTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void readNestedDevicesTest() throws Exception {
+        String payload = "{\"Total\":2,\"Meta\":{\"Devices\":[{\"Id\":0}]},\"Data\":{\"Page\":1,\"Devices\":[{\"Id\":1,\"Ports\":[1,2]},{\"Id\":2}]}}";
+        List<JsonNode> devices = new ArrayList<>();
+
+        int count = new DeviceStreamReader(objectMapper, "Data.Devices").read(toStream(payload), devices::add);
+
+        Assert.assertEquals(2, count);
+        Assert.assertEquals(1, devices.get(0).get("Id").asInt());
+        Assert.assertEquals(2, devices.get(0).get("Ports").size());
+        Assert.assertEquals(2, devices.get(1).get("Id").asInt());
+    }
+
+    @Test
+    public void readMissingDevicesTest() throws Exception {
+        List<JsonNode> devices = new ArrayList<>();
+
+        int count = new DeviceStreamReader(objectMapper, "Devices").read(toStream("{\"Error\":\"None\"}"), devices::add);
+
+        Assert.assertEquals(0, count);
+        Assert.assertTrue(devices.isEmpty());
+    }
+
+    @Test
+    public void wrapDeviceTest() {
+        JsonNode device = objectMapper.createObjectNode().put("Id", 1);
+
+        JsonNode payload = new DeviceStreamReader(objectMapper, "Data.Devices").wrap(device);
+
+        Assert.assertEquals(1, payload.get("Data").get("Devices").get(0).get("Id").asInt());
+    }
+
+    private static ByteArrayInputStream toStream(String payload) {
+        return new ByteArrayInputStream(payload.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,90 @@
+package com.avispl.symphony.dal.communicator.sample.controls;
+
+import com.avispl.symphony.api.dal.dto.control.ControllableProperty;
+import org.junit.Assert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+@Tag("test")
+public class ControlPipelineTest {
+    private final List<String> sent = new CopyOnWriteArrayList<>();
+    private ControlPipeline pipeline;
+
+    @AfterEach
+    public void destroy() {
+        pipeline.stop();
+    }
+
+    @Test
+    public void sliderBurstIsCoalescedTest() throws Exception {
+        pipeline = new ControlPipeline(100, Arrays.asList("Slider", "Numeric"), this::send, "test-controls");
+
+        for (int i = 1; i <= 10; i++) {
+            pipeline.submit(new ControllableProperty("Slider", 1 + i / 10f, "1"));
+        }
+        Thread.sleep(300);
+
+        Assert.assertEquals(Arrays.asList("Slider=2.0"), sent);
+        Assert.assertEquals(9, pipeline.getCoalescedCount());
+    }
+
+    @Test
+    public void discreteControlsKeepOrderTest() throws Exception {
+        pipeline = new ControlPipeline(10000, Arrays.asList("Slider", "Numeric"), this::send, "test-controls");
+
+        pipeline.submit(new ControllableProperty("Slider", 1.2f, "1"));
+        pipeline.submit(new ControllableProperty("Switch", true, "1"));
+        pipeline.submit(new ControllableProperty("Button", "", "1"));
+        pipeline.submit(new ControllableProperty("Switch", false, "1"));
+
+        Assert.assertEquals(Arrays.asList("Slider=1.2", "Switch=true", "Button=", "Switch=false"), sent);
+        Assert.assertEquals(0, pipeline.getCoalescedCount());
+    }
+
+    @Test
+    public void windowClosedByDiscreteControlTest() throws Exception {
+        pipeline = new ControlPipeline(300, Arrays.asList("Slider", "Numeric"), this::send, "test-controls");
+
+        pipeline.submit(new ControllableProperty("Slider", 1.2f, "1"));
+        pipeline.submit(new ControllableProperty("Button", "", "1"));
+        Thread.sleep(150);
+        // opens a new window, which is not closed by the scheduled close of the first one
+        pipeline.submit(new ControllableProperty("Slider", 1.5f, "1"));
+        Thread.sleep(250);
+        Assert.assertEquals(Arrays.asList("Slider=1.2", "Button="), sent);
+
+        Thread.sleep(300);
+        Assert.assertEquals(Arrays.asList("Slider=1.2", "Button=", "Slider=1.5"), sent);
+    }
+
+    @Test
+    public void pendingValuesAreSentOnStopTest() throws Exception {
+        pipeline = new ControlPipeline(10000, Arrays.asList("Slider", "Numeric"), this::send, "test-controls");
+
+        pipeline.submit(new ControllableProperty("Slider", 1.2f, "1"));
+        pipeline.submit(new ControllableProperty("Numeric", 5, "2"));
+        pipeline.stop();
+
+        Assert.assertEquals(2, sent.size());
+        Assert.assertTrue(sent.containsAll(Arrays.asList("Slider=1.2", "Numeric=5")));
+    }
+
+    @Test
+    public void discreteControlFailureIsReportedTest() {
+        pipeline = new ControlPipeline(100, Arrays.asList("Slider", "Numeric"), controllableProperty -> {
+            throw new IllegalStateException("Device is busy");
+        }, "test-controls");
+
+        Assertions.assertThrows(IllegalStateException.class, () -> pipeline.submit(new ControllableProperty("Button", "", "1")));
+    }
+
+    private void send(ControllableProperty controllableProperty) {
+        sent.add(controllableProperty.getProperty() + "=" + controllableProperty.getValue());
+    }
+}
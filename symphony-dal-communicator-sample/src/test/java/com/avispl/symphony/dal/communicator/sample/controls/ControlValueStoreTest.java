@@ -0,0 +1,62 @@
+package com.avispl.symphony.dal.communicator.sample.controls;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Tag("test")
+public class ControlValueStoreTest {
+
+    @Test
+    public void concurrentUpdatesAreNotLostTest() throws Exception {
+        ControlValueStore store = new ControlValueStore();
+        List<Thread> writers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            String property = "Control" + i;
+            writers.add(new Thread(() -> {
+                for (int value = 1; value <= 1000; value++) {
+                    store.put(property, value);
+                }
+            }));
+        }
+        writers.forEach(Thread::start);
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        Assert.assertEquals(8000, store.getVersion());
+        ControlValueStore.Snapshot snapshot = store.snapshot();
+        Assert.assertEquals(8, snapshot.getValues().size());
+        for (ControlValueStore.ControlValue value : snapshot.getValues().values()) {
+            Assert.assertEquals(1000, value.getValue());
+        }
+    }
+
+    @Test
+    public void snapshotIsNotAffectedByLaterUpdatesTest() {
+        ControlValueStore store = new ControlValueStore();
+        store.put("Slider", 1.5f);
+        ControlValueStore.Snapshot snapshot = store.snapshot();
+
+        store.put("Slider", 1.8f);
+
+        Assert.assertEquals(1, snapshot.getVersion());
+        Assert.assertEquals(1.5f, snapshot.get("Slider").getValue());
+        Assert.assertEquals(2, store.get("Slider").getVersion());
+    }
+
+    @Test
+    public void statusViewIsReadOnlyTest() {
+        ControlValueStore store = new ControlValueStore();
+        Map<String, String> status = store.asStatusMap();
+        store.put("Switch", true);
+
+        Assert.assertEquals("true", status.get("Switch"));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> status.put("Switch", "false"));
+    }
+}
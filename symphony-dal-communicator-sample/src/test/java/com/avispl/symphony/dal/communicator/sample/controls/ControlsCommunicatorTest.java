@@ -1,6 +1,7 @@
 package com.avispl.symphony.dal.communicator.sample.controls;
 
 import com.atlassian.ta.wiremockpactgenerator.WireMockPactGenerator;
+import com.avispl.symphony.api.dal.dto.control.AdvancedControllableProperty;
 import com.avispl.symphony.api.dal.dto.control.ControllableProperty;
 import com.avispl.symphony.api.dal.dto.monitor.ExtendedStatistics;
 import com.avispl.symphony.api.dal.dto.monitor.Statistics;
@@ -43,6 +44,30 @@ public class ControlsCommunicatorTest {
         Assert.assertFalse(extendedStatistics.getStatistics().isEmpty());
     }
 
+    @Test
+    public void unchangedStatisticsAreReusedTest() throws Exception {
+        ExtendedStatistics statistics = (ExtendedStatistics) controlsCommunicator.getMultipleStatistics().get(0);
+        Assert.assertSame(statistics, controlsCommunicator.getMultipleStatistics().get(0));
+
+        ControllableProperty sliderControl = new ControllableProperty();
+        sliderControl.setProperty("Slider");
+        sliderControl.setValue(1.8f);
+        controlsCommunicator.controlProperty(sliderControl);
+
+        ExtendedStatistics changedStatistics = (ExtendedStatistics) controlsCommunicator.getMultipleStatistics().get(0);
+        Assert.assertNotSame(statistics, changedStatistics);
+        Assert.assertEquals("1.8", changedStatistics.getStatistics().get("Slider"));
+        Assert.assertEquals("10", changedStatistics.getStatistics().get("Numeric"));
+        for (int i = 0; i < statistics.getControllableProperties().size(); i++) {
+            AdvancedControllableProperty control = changedStatistics.getControllableProperties().get(i);
+            if (control.getName().equals("Slider")) {
+                Assert.assertEquals(1.8f, control.getValue());
+            } else {
+                Assert.assertSame(statistics.getControllableProperties().get(i), control);
+            }
+        }
+    }
+
     @Test
     public void triggerButtonActionTest() throws Exception {
         ControllableProperty buttonControl = new ControllableProperty();
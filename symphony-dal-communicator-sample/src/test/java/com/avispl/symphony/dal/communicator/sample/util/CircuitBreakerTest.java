@@ -0,0 +1,116 @@
+package com.avispl.symphony.dal.communicator.sample.util;
+
+import com.avispl.symphony.api.dal.dto.monitor.ExtendedStatistics;
+import com.avispl.symphony.api.dal.dto.monitor.Statistics;
+import com.avispl.symphony.api.dal.error.CommandFailureException;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.jcraft.jsch.JSchException;
+import org.junit.Assert;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Tag("test")
+public class CircuitBreakerTest {
+    private final AtomicBoolean reachable = new AtomicBoolean();
+    private final AtomicInteger probes = new AtomicInteger();
+    private final AtomicInteger calls = new AtomicInteger();
+    private CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    public void init() {
+        circuitBreaker = new CircuitBreaker(() -> "device", () -> {
+            probes.incrementAndGet();
+            if (!reachable.get()) {
+                throw new ConnectException("Connection refused");
+            }
+        });
+        circuitBreaker.setFailureThreshold(2);
+        circuitBreaker.setInitialBackoff(100);
+        circuitBreaker.setMaxBackoff(1000);
+    }
+
+    private String poll() throws Exception {
+        return circuitBreaker.call(() -> {
+            calls.incrementAndGet();
+            if (!reachable.get()) {
+                throw new IOException("Connect timed out");
+            }
+            return "OK";
+        });
+    }
+
+    @Test
+    public void breakerOpensAfterConsecutiveFailuresTest() throws Exception {
+        Assertions.assertThrows(IOException.class, this::poll);
+        Assert.assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        Assertions.assertThrows(IOException.class, this::poll);
+        Assert.assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        // polls fail fast without calling the device
+        Assertions.assertThrows(CircuitBreaker.OpenException.class, this::poll);
+        Assert.assertEquals(2, calls.get());
+        Assert.assertEquals(1, circuitBreaker.getTrips());
+
+        List<Statistics> statistics = new ArrayList<>();
+        circuitBreaker.addStatistics(statistics);
+        Assert.assertEquals("OPEN", ((ExtendedStatistics) statistics.get(0)).getStatistics().get("CircuitBreaker#State"));
+    }
+
+    @Test
+    public void probeClosesBreakerOnceDeviceRespondsTest() throws Exception {
+        Assertions.assertThrows(IOException.class, this::poll);
+        Assertions.assertThrows(IOException.class, this::poll);
+
+        // failed probe reopens the breaker without calling the device
+        Thread.sleep(120);
+        Assertions.assertThrows(ConnectException.class, this::poll);
+        Assert.assertEquals(1, probes.get());
+        Assert.assertEquals(2, calls.get());
+        Assert.assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        reachable.set(true);
+        Thread.sleep(220);
+        Assert.assertEquals("OK", poll());
+        Assert.assertEquals(2, probes.get());
+        Assert.assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        Assert.assertEquals(0, circuitBreaker.getConsecutiveFailures());
+    }
+
+    @Test
+    public void rejectedCommandsDoNotOpenBreakerTest() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertThrows(CommandFailureException.class, () -> circuitBreaker.call(() -> {
+                throw new CommandFailureException("device", "hostname", "ERROR");
+            }));
+        }
+        Assert.assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        List<Statistics> statistics = new ArrayList<>();
+        circuitBreaker.addStatistics(statistics);
+        Assert.assertTrue(statistics.isEmpty());
+    }
+
+    @Test
+    public void onlyConnectivityFailuresCountTest() {
+        Assert.assertTrue(CircuitBreaker.isConnectivityFailure(new ConnectException("Connection refused")));
+        Assert.assertTrue(CircuitBreaker.isConnectivityFailure(new ResourceAccessException("I/O error", new SocketTimeoutException())));
+        Assert.assertTrue(CircuitBreaker.isConnectivityFailure(new RuntimeException(new JSchException("timeout: socket is not established"))));
+        Assert.assertTrue(CircuitBreaker.isConnectivityFailure(new Exception("Connection was forcible closed")));
+
+        Assert.assertFalse(CircuitBreaker.isConnectivityFailure(new JSchException("Auth fail")));
+        Assert.assertFalse(CircuitBreaker.isConnectivityFailure(new JsonParseException(null, "Unexpected character")));
+        Assert.assertFalse(CircuitBreaker.isConnectivityFailure(new NumberFormatException("For input string: \"N/A\"")));
+        Assert.assertFalse(CircuitBreaker.isConnectivityFailure(new IllegalStateException("Unexpected response")));
+    }
+}
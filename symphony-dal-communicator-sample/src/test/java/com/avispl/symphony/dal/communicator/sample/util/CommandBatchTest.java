@@ -0,0 +1,58 @@
+package com.avispl.symphony.dal.communicator.sample.util;
+
+import com.avispl.symphony.api.dal.error.CommandFailureException;
+import org.junit.Assert;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+@Tag("test")
+public class CommandBatchTest {
+    private final CommandBatch batch = new CommandBatch(Arrays.asList("status", "version", "uptime"),
+            Collections.singletonList("\r\n> "), Collections.singletonList("\r\nERROR\r\n> "));
+
+    @Test
+    public void batchIsCompleteOnceAllResponsesAreReadTest() {
+        Assert.assertFalse(batch.isComplete("status\r\nOK\r\n> version\r\n1.0\r\n> "));
+        Assert.assertFalse(batch.isComplete("status\r\nOK\r\n> version\r\n1.0\r\n> uptime\r\n12"));
+        Assert.assertTrue(batch.isComplete("status\r\nOK\r\n> version\r\n1.0\r\n> uptime\r\n12\r\n> "));
+    }
+
+    @Test
+    public void outputReadInChunksIsScannedIncrementallyTest() {
+        String response = "status\r\nOK\r\n> version\r\nERROR\r\n> uptime\r\n12\r\n> ";
+        // a terminator split across reads, and an error string whose start matches a success string, are still found
+        for (int length = 1; length < response.length(); length++) {
+            Assert.assertFalse(batch.isComplete(response.substring(0, length)));
+        }
+        Assert.assertTrue(batch.isComplete(response));
+        CommandFailureException e = Assertions.assertThrows(CommandFailureException.class, () -> batch.split("device", response));
+        Assert.assertEquals("version", e.getRequest());
+    }
+
+    @Test
+    public void outputIsSplitPerCommandTest() {
+        List<String> responses = batch.split("device", "status\r\nOK\r\n> version\r\n1.0\r\n> uptime\r\n12\r\n> ");
+        Assert.assertEquals(Arrays.asList("status\r\nOK\r\n> ", "version\r\n1.0\r\n> ", "uptime\r\n12\r\n> "), responses);
+    }
+
+    @Test
+    public void failedCommandIsReportedTest() {
+        String response = "status\r\nOK\r\n> version\r\nERROR\r\n> uptime\r\n12\r\n> ";
+        Assert.assertTrue(batch.isComplete(response));
+        CommandFailureException e = Assertions.assertThrows(CommandFailureException.class, () -> batch.split("device", response));
+        Assert.assertEquals("version", e.getRequest());
+        Assert.assertEquals("version\r\nERROR\r\n> ", e.getResponse());
+    }
+
+    @Test
+    public void emptyTerminatorsAreNotSupportedTest() {
+        Assert.assertTrue(CommandBatch.isSupported(Collections.singletonList("> "), Collections.singletonList("ERROR")));
+        Assert.assertFalse(CommandBatch.isSupported(Collections.singletonList(""), Collections.singletonList("ERROR")));
+        Assert.assertFalse(CommandBatch.isSupported(Collections.singletonList("> "), Collections.singletonList("")));
+    }
+}
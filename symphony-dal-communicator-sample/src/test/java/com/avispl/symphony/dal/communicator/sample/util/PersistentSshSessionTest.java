@@ -0,0 +1,89 @@
+package com.avispl.symphony.dal.communicator.sample.util;
+
+import com.avispl.symphony.api.dal.error.CommandFailureException;
+import org.junit.Assert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.avispl.symphony.dal.communicator.sample.util.CommunicatorUtils.startSshServer;
+import static org.apache.sshd.common.util.io.IoUtils.closeQuietly;
+
+@Tag("test")
+public class PersistentSshSessionTest {
+    private static final int PORT = 5335;
+
+    private Closeable ssh;
+    private PersistentSshSession session;
+
+    @BeforeEach
+    public void init() {
+        ssh = startSshServer(PORT);
+        session = new PersistentSshSession("localhost", PORT, "test", "test", 10000, Collections.singletonMap("StrictHostKeyChecking", "no"));
+    }
+
+    @AfterEach
+    public void destroy() {
+        session.close();
+        closeQuietly(ssh);
+    }
+
+    @Test
+    public void concurrentCommandsShareSessionTest() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> responses = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                String command = "echo command" + i;
+                responses.add(executor.submit(() -> session.exec(command)));
+            }
+            for (int i = 0; i < 8; i++) {
+                Assert.assertEquals("command" + i + "\n", responses.get(i).get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(1, session.getSessionsOpened());
+        Assert.assertEquals(8, session.getChannelsOpened());
+    }
+
+    @Test
+    public void sessionReconnectsAfterDeviceRestartTest() throws Exception {
+        Assert.assertEquals("before\n", session.exec("echo before"));
+        closeQuietly(ssh);
+        ssh = startSshServer(PORT);
+
+        Assert.assertEquals("after\n", session.exec("echo after"));
+        Assert.assertEquals(2, session.getSessionsOpened());
+    }
+
+    @Test
+    public void failedCommandReportsExitStatusTest() throws Exception {
+        CommandFailureException e = Assertions.assertThrows(CommandFailureException.class, () -> session.exec("false"));
+        Assert.assertEquals(1, e.getStatusCode());
+        Assert.assertTrue(session.isConnected());
+    }
+
+    @Test
+    public void batchIsStoppedOnFirstFailureTest() throws Exception {
+        Assert.assertEquals(Arrays.asList("first\n", "second\n"), session.execAll(Arrays.asList("echo first", "echo second")));
+
+        long start = System.currentTimeMillis();
+        Assertions.assertThrows(CommandFailureException.class, () -> session.execAll(Arrays.asList("sleep 5", "false")));
+        // the failure is reported without waiting for the commands before it, which are stopped
+        Assert.assertTrue(System.currentTimeMillis() - start < 3000);
+        Assert.assertEquals("after\n", session.exec("echo after"));
+    }
+}
@@ -0,0 +1,60 @@
+package com.avispl.symphony.dal.communicator.sample.util;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+@Tag("test")
+public class PromptMatcherTest {
+    private final PromptMatcher promptMatcher = new PromptMatcher(Arrays.asList("\r\nuser> ", "\r\nadmin# "),
+            Collections.singletonList("\r\nERROR\r\nuser> "));
+
+    private static void feed(PromptMatcher.Scanner scanner, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+        scanner.feed(bytes, 0, bytes.length);
+    }
+
+    @Test
+    public void promptSplitAcrossReadsIsDetectedTest() {
+        PromptMatcher.Scanner scanner = promptMatcher.scanner();
+        feed(scanner, "uptime\r\n12 days\r\nus");
+        Assert.assertFalse(scanner.isEnd());
+        feed(scanner, "er> ");
+        Assert.assertTrue(scanner.isEnd());
+        Assert.assertFalse(scanner.isError());
+    }
+
+    @Test
+    public void promptInsideOutputDoesNotEndResponseTest() {
+        PromptMatcher.Scanner scanner = promptMatcher.scanner();
+        feed(scanner, "history\r\nadmin# reboot\r\n");
+        Assert.assertFalse(scanner.isEnd());
+        Assert.assertEquals(1, scanner.getMatches());
+        feed(scanner, "\r\nadmin# ");
+        Assert.assertTrue(scanner.isEnd());
+        Assert.assertEquals(2, scanner.getMatches());
+    }
+
+    @Test
+    public void errorTakesPrecedenceOverPromptTest() {
+        PromptMatcher.Scanner scanner = promptMatcher.scanner();
+        feed(scanner, "reboot\r\nERROR\r\nuser> ");
+        Assert.assertTrue(scanner.isEnd());
+        Assert.assertTrue(scanner.isError());
+        Assert.assertEquals(1, scanner.getMatches());
+    }
+
+    @Test
+    public void emptySuccessStringMatchesEverywhereTest() {
+        PromptMatcher.Scanner scanner = new PromptMatcher(Collections.singletonList(""), Collections.singletonList("ERROR")).scanner();
+        feed(scanner, "localhost");
+        Assert.assertTrue(scanner.isEnd());
+        Assert.assertFalse(scanner.isError());
+        feed(scanner, "\r\nERROR");
+        Assert.assertTrue(scanner.isError());
+    }
+}
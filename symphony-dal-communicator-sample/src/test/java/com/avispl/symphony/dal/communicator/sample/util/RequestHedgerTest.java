@@ -0,0 +1,97 @@
+package com.avispl.symphony.dal.communicator.sample.util;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Tag("test")
+public class RequestHedgerTest {
+    private final AtomicInteger calls = new AtomicInteger();
+    private RequestHedger requestHedger;
+
+    @BeforeEach
+    public void init() throws Exception {
+        requestHedger = new RequestHedger();
+        requestHedger.setPercentile(90);
+        requestHedger.setBudget(100);
+        // learn response times of a device responding in about 20ms
+        for (int i = 0; i < RequestHedger.MIN_SAMPLES; i++) {
+            requestHedger.call(() -> {
+                Thread.sleep(20);
+                return "OK";
+            });
+        }
+        Assert.assertTrue(requestHedger.getDelay() >= 20);
+    }
+
+    @Test
+    public void stalledRequestIgnoringInterruptsIsHedgedTest() throws Exception {
+        long start = System.currentTimeMillis();
+        String response = requestHedger.call(() -> {
+            if (calls.incrementAndGet() == 1) {
+                // first request stalls without responding to interruption, as a blocking socket read does
+                long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(2000);
+                while (System.nanoTime() < end) {
+                    Thread.yield();
+                }
+            } else {
+                Thread.sleep(20);
+            }
+            return "Response " + calls.get();
+        });
+        Assert.assertEquals("Response 2", response);
+        Assert.assertTrue(System.currentTimeMillis() - start < 1000);
+        Assert.assertEquals(1, requestHedger.getHedges());
+        Assert.assertEquals(1, requestHedger.getHedgeWins());
+        Assert.assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    @Test
+    public void budgetCapsHedgesTest() throws Exception {
+        requestHedger.setBudget(0);
+        // saved up hedges are spent first
+        for (int i = 0; i < 10; i++) {
+            requestHedger.call(() -> {
+                Thread.sleep(100);
+                return "OK";
+            });
+        }
+        long hedges = requestHedger.getHedges();
+        Assert.assertTrue(hedges > 0 && hedges < 10);
+    }
+
+    @Test
+    public void failureIsReportedOnceAllRequestsFailTest() {
+        Assertions.assertThrows(IOException.class, () -> requestHedger.call(() -> {
+            Thread.sleep(100);
+            throw new IOException("Connection reset " + calls.incrementAndGet());
+        }));
+        Assert.assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void requestIsMadeOnCallingThreadUntilHedgingStartsTest() throws Exception {
+        RequestHedger newHedger = new RequestHedger();
+        newHedger.setPercentile(90);
+        Thread caller = Thread.currentThread();
+        Assert.assertTrue(newHedger.call(() -> Thread.currentThread() == caller));
+        Assert.assertFalse(requestHedger.call(() -> Thread.currentThread() == caller));
+    }
+
+    @Test
+    public void failedRequestIsNotHedgedTest() throws Exception {
+        Assertions.assertThrows(IOException.class, () -> requestHedger.call(() -> {
+            throw new IOException("Connection refused " + calls.incrementAndGet());
+        }));
+        // the hedge would be due by now, if the failed request was still hedged
+        Thread.sleep(requestHedger.getDelay() * 2);
+        Assert.assertEquals(1, calls.get());
+        Assert.assertEquals(0, requestHedger.getHedges());
+    }
+}
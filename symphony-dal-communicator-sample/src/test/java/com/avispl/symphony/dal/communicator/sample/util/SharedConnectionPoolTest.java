@@ -0,0 +1,97 @@
+package com.avispl.symphony.dal.communicator.sample.util;
+
+import com.avispl.symphony.dal.communicator.sample.RestCommunicatorDevice;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+import org.junit.Assert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+
+@Tag("test")
+public class SharedConnectionPoolTest {
+
+    private final WireMockServer server = new WireMockServer(options().dynamicPort().bindAddress("127.0.0.1"));
+    private final ProxySelector defaultProxySelector = ProxySelector.getDefault();
+
+    @BeforeEach
+    public void init() {
+        server.start();
+        server.stubFor(get(urlEqualTo("/status")).willReturn(aResponse().withBody("OK")));
+        server.stubFor(post(urlEqualTo("/login")).willReturn(aResponse().withStatus(302).withHeader("Location", "/status")));
+    }
+
+    @AfterEach
+    public void destroy() {
+        ProxySelector.setDefault(defaultProxySelector);
+        server.stop();
+    }
+
+    @Test
+    public void requestsGoThroughSystemProxyTest() throws Exception {
+        ProxySelector.setDefault(new ProxySelector() {
+            @Override
+            public List<Proxy> select(URI uri) {
+                return Collections.singletonList(new Proxy(Proxy.Type.HTTP, new InetSocketAddress("127.0.0.1", server.port())));
+            }
+
+            @Override
+            public void connectFailed(URI uri, SocketAddress address, IOException e) {
+            }
+        });
+        // the device host does not resolve, only the proxy can reach it
+        try (CloseableHttpClient client = SharedConnectionPool.getInstance(false).createClient(Collections.singletonList(createDevice("device.invalid")))) {
+            HttpResponse response = client.execute(new HttpGet("http://device.invalid:8080/status"));
+            Assert.assertEquals(200, response.getStatusLine().getStatusCode());
+            Assert.assertEquals("OK", EntityUtils.toString(response.getEntity()));
+        }
+        server.verify(1, getRequestedFor(urlEqualTo("/status")));
+    }
+
+    @Test
+    public void postRedirectsAreFollowedIfEnabledTest() throws Exception {
+        RestCommunicatorDevice device = createDevice("127.0.0.1");
+        String url = "http://127.0.0.1:" + server.port() + "/login";
+        try (CloseableHttpClient client = SharedConnectionPool.getInstance(false).createClient(Collections.singletonList(device))) {
+            HttpResponse response = client.execute(new HttpPost(url));
+            EntityUtils.consume(response.getEntity());
+            Assert.assertEquals(302, response.getStatusLine().getStatusCode());
+        }
+        device.setFollowPostRedirects(true);
+        try (CloseableHttpClient client = SharedConnectionPool.getInstance(false).createClient(Collections.singletonList(device))) {
+            HttpResponse response = client.execute(new HttpPost(url));
+            Assert.assertEquals(200, response.getStatusLine().getStatusCode());
+            Assert.assertEquals("OK", EntityUtils.toString(response.getEntity()));
+        }
+    }
+
+    private RestCommunicatorDevice createDevice(String host) {
+        RestCommunicatorDevice device = new RestCommunicatorDevice();
+        device.setProtocol("http");
+        device.setHost(host);
+        device.setPort(server.port());
+        device.setTimeout(5000);
+        return device;
+    }
+}
@@ -0,0 +1,95 @@
+package com.avispl.symphony.dal.communicator.sample.util;
+
+import com.avispl.symphony.dal.communicator.sample.RestCommunicatorDevice;
+import org.junit.Assert;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Tag("test")
+public class SharedResponseCacheTest {
+    private final SharedResponseCache cache = SharedResponseCache.getInstance();
+
+    @BeforeEach
+    public void init() {
+        cache.clear();
+    }
+
+    @Test
+    public void concurrentRequestsShareSingleCallTest() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        long collapsed = cache.getCollapsed();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> responses = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                responses.add(executor.submit(() -> cache.get("shared", 60000, () -> {
+                    calls.incrementAndGet();
+                    release.await(5, TimeUnit.SECONDS);
+                    return "response";
+                })));
+            }
+            while (cache.getCollapsed() - collapsed < 7) {
+                Thread.sleep(10);
+            }
+            release.countDown();
+            for (Future<String> response : responses) {
+                Assert.assertEquals("response", response.get(5, TimeUnit.SECONDS));
+            }
+            Assert.assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void responseExpiresAfterTtlTest() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        long hits = cache.getHits();
+        Assert.assertEquals(1, (int) cache.get("expiring", 100, calls::incrementAndGet));
+        Assert.assertEquals(1, (int) cache.get("expiring", 100, calls::incrementAndGet));
+        Assert.assertEquals(1, cache.getHits() - hits);
+        Thread.sleep(150);
+        Assert.assertEquals(2, (int) cache.get("expiring", 100, calls::incrementAndGet));
+    }
+
+    @Test
+    public void failureIsNotStoredTest() throws Exception {
+        Assertions.assertThrows(IOException.class, () -> cache.get("failing", 60000, () -> {
+            throw new IOException("Connection refused");
+        }));
+        Assert.assertEquals("response", cache.get("failing", 60000, () -> "response"));
+    }
+
+    @Test
+    public void errorIsNotStoredTest() throws Exception {
+        Assertions.assertThrows(StackOverflowError.class, () -> cache.get("erroneous", 60000, () -> {
+            throw new StackOverflowError();
+        }));
+        Assert.assertEquals("response", cache.get("erroneous", 60000, () -> "response"));
+    }
+
+    @Test
+    public void keyDependsOnCredentialsTest() throws Exception {
+        RestCommunicatorDevice device = new RestCommunicatorDevice();
+        device.setLogin("admin");
+        device.setPassword("1234");
+        String key = SharedResponseCache.key(device, "https://127.0.0.1/utc/now", "UtcNow");
+        Assert.assertEquals(key, SharedResponseCache.key(device, "https://127.0.0.1/utc/now", "UtcNow"));
+        Assert.assertFalse(key.contains("1234"));
+        device.setPassword("4321");
+        Assert.assertNotEquals(key, SharedResponseCache.key(device, "https://127.0.0.1/utc/now", "UtcNow"));
+    }
+}
@@ -0,0 +1,30 @@
+package com.avispl.symphony.dal.communicator.sample.util;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import javax.net.ssl.SSLContext;
+
+@Tag("test")
+public class SharedSslContextsTest {
+
+    @Test
+    public void contextsAreSharedPerTrustConfigurationTest() throws Exception {
+        SSLContext trustingContext = SharedSslContexts.get(true);
+        Assert.assertSame(trustingContext, SharedSslContexts.get(true));
+        Assert.assertNotSame(trustingContext, SharedSslContexts.get(false));
+        Assert.assertSame(SharedSslContexts.get(false), SharedSslContexts.get(false));
+        // the default context of the JVM is left to other libraries
+        Assert.assertNotSame(SSLContext.getDefault(), SharedSslContexts.get(false));
+    }
+
+    @Test
+    public void sessionCachingIsConfiguredTest() throws Exception {
+        for (boolean trustAllCertificates : new boolean[]{true, false}) {
+            SSLContext context = SharedSslContexts.get(trustAllCertificates);
+            Assert.assertEquals(SharedSslContexts.SESSION_CACHE_SIZE, context.getClientSessionContext().getSessionCacheSize());
+            Assert.assertEquals(SharedSslContexts.SESSION_TIMEOUT, context.getClientSessionContext().getSessionTimeout());
+        }
+    }
+}
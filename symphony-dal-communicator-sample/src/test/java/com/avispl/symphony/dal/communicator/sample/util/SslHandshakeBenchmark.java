@@ -0,0 +1,100 @@
+package com.avispl.symphony.dal.communicator.sample.util;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import org.apache.http.conn.ssl.TrustAllStrategy;
+import org.apache.http.ssl.SSLContexts;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+
+/**
+ * Compares TLS handshakes of 1,000 trust-all HTTPS devices polled in a loop, with an SSL context built for every
+ * connection, as a communicator rebuilding its http client on reconnect does, and with the context shared by
+ * {@link SharedSslContexts}. <br>
+ * Every device gets its own loopback address (127.0.x.y), so sessions are resumed per device as they would be with real
+ * hosts. Every poll opens a new connection and makes a single request. <br>
+ * Not a unit test, run its main method on the test classpath, optionally with the TLS protocol to use as an argument
+ * ({@code TLSv1.2} by default, TLS 1.3 sessions are only resumed if the server issues session tickets);
+ * reports full and resumed handshakes, wall time and CPU time of the process, which includes the server side of the handshakes.
+ *
+ * @author Symphony Dev Team<br> Created on Oct 17, 2026
+ */
+public class SslHandshakeBenchmark {
+    private static final int DEVICES = 1000;
+    private static final int POLLS = 3;
+
+    private static String protocol;
+
+    @FunctionalInterface
+    private interface ContextSource {
+        SSLContext get() throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        protocol = args.length > 0 ? args[0] : "TLSv1.2";
+        WireMockServer server = new WireMockServer(options().dynamicPort().dynamicHttpsPort().bindAddress("0.0.0.0"));
+        server.start();
+        try {
+            int port = server.httpsPort();
+            // warm up both paths on a few devices, with addresses not used by the measured runs
+            run("warmup", port, "127.1.", 50, () -> SSLContexts.custom().loadTrustMaterial(TrustAllStrategy.INSTANCE).build());
+            run("warmup", port, "127.1.", 50, () -> SharedSslContexts.get(true));
+
+            run("Context per connection", port, "127.0.", DEVICES, () -> SSLContexts.custom().loadTrustMaterial(TrustAllStrategy.INSTANCE).build());
+            run("SharedSslContexts", port, "127.0.", DEVICES, () -> SharedSslContexts.get(true));
+        } finally {
+            server.stop();
+        }
+    }
+
+    private static void run(String name, int port, String network, int devices, ContextSource contextSource) throws Exception {
+        com.sun.management.OperatingSystemMXBean osBean = (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        Map<String, byte[]> sessions = new HashMap<>();
+        int fullHandshakes = 0;
+        int resumedHandshakes = 0;
+        long cpuBefore = osBean.getProcessCpuTime();
+        long start = System.nanoTime();
+        for (int poll = 0; poll < POLLS; poll++) {
+            for (int device = 0; device < devices; device++) {
+                String host = network + (device / 250) + "." + (device % 250 + 1);
+                byte[] sessionId = poll(contextSource.get(), host, port);
+                if (Arrays.equals(sessionId, sessions.put(host, sessionId))) {
+                    resumedHandshakes++;
+                } else {
+                    fullHandshakes++;
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        long cpu = osBean.getProcessCpuTime() - cpuBefore;
+        if (!name.equals("warmup")) {
+            System.out.printf("%-24s full handshakes %5d, resumed %5d, %6d ms wall, %6d ms CPU%n",
+                    name, fullHandshakes, resumedHandshakes, elapsed / 1_000_000, cpu / 1_000_000);
+        }
+    }
+
+    private static byte[] poll(SSLContext context, String host, int port) throws Exception {
+        try (SSLSocket socket = (SSLSocket) context.getSocketFactory().createSocket(host, port)) {
+            socket.setEnabledProtocols(new String[]{protocol});
+            socket.startHandshake();
+            OutputStream outputStream = socket.getOutputStream();
+            outputStream.write(("GET /__admin/health HTTP/1.1\r\nHost: " + host + "\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            outputStream.flush();
+            InputStream inputStream = socket.getInputStream();
+            byte[] buffer = new byte[4096];
+            while (inputStream.read(buffer) != -1) {
+                // drain the response
+            }
+            return socket.getSession().getId();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.avispl.symphony.dal.communicator.sample.util;
+
+import com.avispl.symphony.api.dal.error.CommandFailureException;
+import com.avispl.symphony.dal.communicator.TelnetCommunicator;
+import org.junit.Assert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import javax.security.auth.login.FailedLoginException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.avispl.symphony.dal.communicator.sample.util.CommunicatorUtils.startTelnetSimulator;
+
+@Tag("test")
+public class TelnetSimulatorTest {
+    private TelnetSimulator simulator;
+    private final List<TelnetSession> sessions = new ArrayList<>();
+
+    @BeforeEach
+    public void init() {
+        simulator = startTelnetSimulator(0, Collections.singletonMap("status", "OK"));
+    }
+
+    @AfterEach
+    public void destroy() {
+        sessions.forEach(TelnetSession::close);
+        simulator.close();
+    }
+
+    @Test
+    public void concurrentSessionsTest() throws Exception {
+        simulator.setLogin("admin");
+        simulator.setPassword("secret");
+        simulator.setLatency(100);
+        List<CompletableFuture<String>> responses = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            responses.add(createSession("admin", "secret").send("status", 1));
+        }
+        for (CompletableFuture<String> response : responses) {
+            Assert.assertEquals("OK\r\n> ", response.get(10, TimeUnit.SECONDS));
+        }
+        Assert.assertEquals(500, simulator.getSessions());
+        Assert.assertEquals(500, simulator.getCommandsServed());
+    }
+
+    @Test
+    public void commandsAreAnsweredInOrderAfterLatencyTest() throws Exception {
+        simulator.addCommand("slow", "done", 200);
+        TelnetSession session = createSession(null, null);
+        long start = System.currentTimeMillis();
+        Assert.assertEquals("done\r\n> OK\r\n> ", session.send("slow\nstatus", 2).get(10, TimeUnit.SECONDS));
+        Assert.assertTrue(System.currentTimeMillis() - start >= 200);
+    }
+
+    @Test
+    public void unknownCommandFailsTest() throws Exception {
+        TelnetSession session = createSession(null, null);
+        ExecutionException e = Assertions.assertThrows(ExecutionException.class, () -> session.send("reboot", 1).get(10, TimeUnit.SECONDS));
+        Assert.assertTrue(e.getCause() instanceof CommandFailureException);
+        Assert.assertEquals("OK\r\n> ", session.send("status", 1).get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void wrongPasswordFailsLoginTest() throws Exception {
+        simulator.setLogin("admin");
+        simulator.setPassword("secret");
+        TelnetSession session = createSession("admin", "wrong");
+        ExecutionException e = Assertions.assertThrows(ExecutionException.class, () -> session.send("status", 1).get(10, TimeUnit.SECONDS));
+        Assert.assertTrue(e.getCause() instanceof FailedLoginException);
+    }
+
+    private TelnetSession createSession(String login, String password) throws Exception {
+        TelnetCommunicator communicator = new TelnetCommunicator();
+        communicator.setHost("localhost");
+        communicator.setPort(simulator.getPort());
+        communicator.setLogin(login);
+        communicator.setPassword(password);
+        communicator.setLoginPrompt("login: ");
+        communicator.setPasswordPrompt("Password: ");
+        communicator.setLoginSuccessList(Collections.singletonList("> "));
+        communicator.setLoginErrorList(Collections.singletonList("Login incorrect\r\nlogin: "));
+        communicator.setCommandSuccessList(Collections.singletonList("\r\n> "));
+        communicator.setCommandErrorList(Collections.singletonList("ERROR\r\n> "));
+        TelnetSession session = new TelnetSession(communicator);
+        sessions.add(session);
+        return session;
+    }
+}
@@ -0,0 +1,106 @@
+package com.avispl.symphony.dal.communicator.sample.util;
+
+import com.avispl.symphony.dal.communicator.TelnetCommunicator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.avispl.symphony.dal.communicator.sample.util.CommunicatorUtils.startTelnetSimulator;
+
+/**
+ * Compares polling 1,000 Telnet devices answering after 50 ms, with blocking {@link TelnetCommunicator communicators}
+ * sharing a pool of 50 threads, and with {@link TelnetSession sessions} run by the {@link TelnetEngine}. <br>
+ * Devices are simulated by a {@link TelnetSimulator} with login, every device is polled 5 times. <br>
+ * Not a unit test, run its main method on the test classpath; reports commands per second and threads of the process.
+ *
+ * @author Symphony Dev Team<br> Created on Oct 17, 2026
+ */
+public class TelnetThroughputBenchmark {
+    private static final int DEVICES = 1000;
+    private static final int POLLS = 5;
+    private static final int THREADS = 50;
+
+    public static void main(String[] args) throws Exception {
+        TelnetSimulator simulator = startTelnetSimulator(0, Collections.singletonMap("status", "OK"));
+        simulator.setLogin("admin");
+        simulator.setPassword("secret");
+        simulator.setLatency(50);
+        try {
+            runBlocking(simulator.getPort());
+            runSessions(simulator.getPort());
+        } finally {
+            simulator.close();
+        }
+    }
+
+    private static void runBlocking(int port) throws Exception {
+        List<TelnetCommunicator> communicators = new ArrayList<>();
+        for (int i = 0; i < DEVICES; i++) {
+            TelnetCommunicator communicator = new TelnetCommunicator();
+            configure(communicator, port);
+            communicator.init();
+            communicators.add(communicator);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            long start = System.nanoTime();
+            for (int poll = 0; poll < POLLS; poll++) {
+                List<Future<String>> responses = new ArrayList<>();
+                for (TelnetCommunicator communicator : communicators) {
+                    responses.add(executor.submit(() -> communicator.send("status")));
+                }
+                for (Future<String> response : responses) {
+                    response.get();
+                }
+            }
+            report("TelnetCommunicator, " + THREADS + " threads", start);
+        } finally {
+            executor.shutdownNow();
+            communicators.forEach(TelnetCommunicator::destroy);
+        }
+    }
+
+    private static void runSessions(int port) throws Exception {
+        List<TelnetSession> sessions = new ArrayList<>();
+        for (int i = 0; i < DEVICES; i++) {
+            TelnetCommunicator communicator = new TelnetCommunicator();
+            configure(communicator, port);
+            sessions.add(new TelnetSession(communicator));
+        }
+        try {
+            long start = System.nanoTime();
+            for (int poll = 0; poll < POLLS; poll++) {
+                List<CompletableFuture<String>> responses = new ArrayList<>();
+                for (TelnetSession session : sessions) {
+                    responses.add(session.send("status", 1));
+                }
+                CompletableFuture.allOf(responses.toArray(new CompletableFuture[0])).get();
+            }
+            report("TelnetSession", start);
+        } finally {
+            sessions.forEach(TelnetSession::close);
+        }
+    }
+
+    private static void configure(TelnetCommunicator communicator, int port) {
+        communicator.setHost("localhost");
+        communicator.setPort(port);
+        communicator.setLogin("admin");
+        communicator.setPassword("secret");
+        communicator.setLoginPrompt("login: ");
+        communicator.setPasswordPrompt("Password: ");
+        communicator.setLoginSuccessList(Collections.singletonList("> "));
+        communicator.setCommandSuccessList(Collections.singletonList("\r\n> "));
+        communicator.setCommandErrorList(Collections.singletonList("ERROR\r\n> "));
+    }
+
+    private static void report(String name, long start) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-35s %8.1f commands/s, %4d threads%n", name, DEVICES * POLLS / seconds, Thread.activeCount());
+    }
+}
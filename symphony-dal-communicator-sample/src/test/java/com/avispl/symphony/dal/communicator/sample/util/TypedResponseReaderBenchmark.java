@@ -0,0 +1,61 @@
+package com.avispl.symphony.dal.communicator.sample.util;
+
+import com.avispl.symphony.dal.communicator.sample.RestCommunicatorDevice;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Compares decoding of the utc/now response into a generic map, as {@link RestCommunicatorDevice} used to do,
+ * with decoding into a DTO by {@link TypedResponseReader}. <br>
+ * Not a unit test, run its main method on the test classpath; reports time and allocated bytes per decode.
+ *
+ * @author Symphony Dev Team<br> Created on Oct 17, 2026
+ */
+public class TypedResponseReaderBenchmark {
+    private static final byte[] PAYLOAD = ("{\"$id\":\"1\",\"currentDateTime\":\"2026-10-17T12:00Z\",\"utcOffset\":\"00:00:00\","
+            + "\"isDayLightSavingsTime\":false,\"dayOfTheWeek\":\"Saturday\",\"timeZoneName\":\"UTC\","
+            + "\"currentFileTime\":134051472000000000,\"ordinalDate\":\"2026-290\",\"serviceResponse\":null}").getBytes(StandardCharsets.UTF_8);
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 1_000_000;
+
+    private static long sink;
+
+    @FunctionalInterface
+    private interface Decoder {
+        long decode() throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        TypedResponseReader<RestCommunicatorDevice.UtcNow> reader = TypedResponseReader.forType(RestCommunicatorDevice.UtcNow.class);
+
+        Decoder mapDecoder = () -> ((Long) objectMapper.readValue(new ByteArrayInputStream(PAYLOAD), Map.class).get("currentFileTime"));
+        Decoder typedDecoder = () -> reader.read(new ByteArrayInputStream(PAYLOAD)).getCurrentFileTime();
+
+        for (int round = 0; round < 3; round++) {
+            run("Map", mapDecoder);
+            run("TypedResponseReader", typedDecoder);
+        }
+        System.out.println(sink == 0 ? "" : "done");
+    }
+
+    private static void run(String name, Decoder decoder) throws Exception {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < WARMUP; i++) {
+            sink += decoder.decode();
+        }
+        long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += decoder.decode();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        System.out.printf("%-20s %8.1f ns/op %8d B/op%n", name, (double) elapsed / ITERATIONS, allocated / ITERATIONS);
+    }
+}
@@ -0,0 +1,25 @@
+package com.avispl.symphony.dal.communicator.sample.util;
+
+import com.avispl.symphony.dal.communicator.sample.RestCommunicatorDevice;
+import org.junit.Assert;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag("test")
+public class TypedResponseReaderTest {
+
+    @Test
+    public void decodeTypedResponseTest() throws Exception {
+        TypedResponseReader<RestCommunicatorDevice.UtcNow> reader = TypedResponseReader.forType(RestCommunicatorDevice.UtcNow.class);
+
+        Assert.assertEquals(134051472000000000L, reader.read("{\"currentFileTime\":134051472000000000,\"dayOfTheWeek\":\"Saturday\"}").getCurrentFileTime());
+        // small numbers are decoded as Integer into a generic map, the DTO field accepts them as well
+        Assert.assertEquals(42L, reader.read("{\"currentFileTime\":42}").getCurrentFileTime());
+    }
+
+    @Test
+    public void readerIsCachedTest() {
+        Assert.assertSame(TypedResponseReader.forType(RestCommunicatorDevice.UtcNow.class),
+                TypedResponseReader.forType(RestCommunicatorDevice.UtcNow.class));
+    }
+}